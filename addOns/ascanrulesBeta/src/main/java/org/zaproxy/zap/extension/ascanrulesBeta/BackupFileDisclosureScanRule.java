@@ -19,6 +19,7 @@
  */
 package org.zaproxy.zap.extension.ascanrulesBeta;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
@@ -36,6 +37,8 @@ import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.NotFoundFingerprintCache;
+import org.zaproxy.addon.commonlib.http.NotFoundFingerprintCache.Fingerprint;
 import org.zaproxy.zap.model.Vulnerabilities;
 import org.zaproxy.zap.model.Vulnerability;
 
@@ -415,14 +418,11 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin {
     private void findBackupFile(HttpMessage originalMessage) throws Exception {
 
         try {
-            boolean gives404s = true;
-            boolean parentgives404s = true;
-            byte[] nonexistparentmsgdata = null;
-
             URI originalURI = originalMessage.getRequestHeader().getURI();
 
             // request a file in the same directory to see how it handles "File not found". Using a
-            // 404? Something else?
+            // 404? Something else? The response is shared with the other scan rules and nodes of
+            // the directory.
             String temppath = originalURI.getPath();
             if (temppath == null) temppath = "";
             int slashposition = temppath.lastIndexOf("/");
@@ -432,45 +432,34 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin {
                         "The message has a path with a malformed path component");
             }
             String filename = originalMessage.getRequestHeader().getURI().getName();
+            NotFoundFingerprintCache notFoundCache =
+                    NotFoundFingerprintCache.getInstance(getParent());
 
             String randomfilename =
                     RandomStringUtils.random(
                             filename.length(), "abcdefghijklmnopqrstuvwxyz0123456789");
             String randomfilepath = temppath.substring(0, slashposition) + "/" + randomfilename;
-
-            log.debug("Trying non-existent file: {}", randomfilepath);
-            HttpMessage nonexistfilemsg =
-                    new HttpMessage(
-                            new URI(
-                                    originalURI.getScheme(),
-                                    originalURI.getAuthority(),
-                                    randomfilepath,
-                                    null,
-                                    null));
-            setMessageCookies(nonexistfilemsg, originalMessage);
-            sendAndReceive(nonexistfilemsg, false);
-            byte[] nonexistfilemsgdata = nonexistfilemsg.getResponseBody().getBytes();
+            Fingerprint nonexistfile =
+                    notFoundCache.getFileFingerprint(
+                            originalURI,
+                            () -> {
+                                log.debug("Trying non-existent file: {}", randomfilepath);
+                                return sendNonExistent(originalMessage, randomfilepath);
+                            });
             // does the server give a 404 for a non-existent file?
-            if (nonexistfilemsg.getResponseHeader().getStatusCode() != HttpStatusCode.NOT_FOUND) {
-                gives404s = false;
-                log.debug(
-                        "The server does not return a 404 status for a non-existent path: {}",
-                        nonexistfilemsg.getRequestHeader().getURI());
-            } else {
-                gives404s = true;
-                log.debug(
-                        "The server gives a 404 status for a non-existent path: {}",
-                        nonexistfilemsg.getRequestHeader().getURI());
-            }
+            log.debug(
+                    "The server gives a {} status for a non-existent path in: {}",
+                    nonexistfile.getStatusCode(),
+                    originalURI);
 
             // now request a different (and non-existent) parent directory,
             // to see whether a non-existent parent folder causes a 404
             String[] pathbreak = temppath.split("/");
-            HttpMessage nonexistparentmsg = null;
+            Fingerprint nonexistparent = null;
             if (pathbreak.length
                     > 2) { // the file has a parent folder that is not the root folder (ie, there is
                 // a parent folder to mess with)
-                String[] temppathbreak = pathbreak;
+                String[] temppathbreak = pathbreak.clone();
                 String parentfoldername = pathbreak[pathbreak.length - 2];
                 // If the parent folder name is really short a collision is likely
                 // Default to a reasonable length, which may have the inverse effect but we'll
@@ -485,31 +474,20 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin {
                 temppathbreak[pathbreak.length - 2] = randomparentfoldername;
                 String randomparentpath = StringUtils.join(temppathbreak, "/");
 
-                log.debug("Trying non-existent parent path: {}", randomparentpath);
-                nonexistparentmsg =
-                        new HttpMessage(
-                                new URI(
-                                        originalURI.getScheme(),
-                                        originalURI.getAuthority(),
-                                        randomparentpath,
-                                        null,
-                                        null));
-                setMessageCookies(nonexistparentmsg, originalMessage);
-                sendAndReceive(nonexistparentmsg, false);
-                nonexistparentmsgdata = nonexistparentmsg.getResponseBody().getBytes();
+                nonexistparent =
+                        notFoundCache.getDirectoryFingerprint(
+                                originalURI,
+                                () -> {
+                                    log.debug(
+                                            "Trying non-existent parent path: {}",
+                                            randomparentpath);
+                                    return sendNonExistent(originalMessage, randomparentpath);
+                                });
                 // does the server give a 404 for a non-existent parent folder?
-                if (nonexistparentmsg.getResponseHeader().getStatusCode()
-                        != HttpStatusCode.NOT_FOUND) {
-                    parentgives404s = false;
-                    log.debug(
-                            "The server does not return a 404 status for a non-existent parent path: {}",
-                            nonexistparentmsg.getRequestHeader().getURI());
-                } else {
-                    parentgives404s = true;
-                    log.debug(
-                            "The server gives a 404 status for a non-existent parent path: {}",
-                            nonexistparentmsg.getRequestHeader().getURI());
-                }
+                log.debug(
+                        "The server gives a {} status for a non-existent parent path of: {}",
+                        nonexistparent.getStatusCode(),
+                        originalURI);
             }
 
             String actualfilename = originalURI.getName();
@@ -703,18 +681,11 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin {
                     continue;
                 }
                 byte[] disclosedData = requestmsg.getResponseBody().getBytes();
-                int requestStatusCode = requestmsg.getResponseHeader().getStatusCode();
 
                 // just to complicate things.. I have a test case which for the random file, does
-                // NOT give a 404 (so gives404s == false)
-                // but for a "Copy of" file, actually gives a 404 (for some unknown reason). We need
-                // to handle this case.
-                if (!isEmptyResponse(disclosedData)
-                        && ((gives404s && requestStatusCode != HttpStatusCode.NOT_FOUND)
-                                || ((!gives404s)
-                                        && nonexistfilemsg.getResponseHeader().getStatusCode()
-                                                != requestStatusCode
-                                        && (!Arrays.equals(disclosedData, nonexistfilemsgdata))))) {
+                // NOT give a 404 but for a "Copy of" file, actually gives a 404 (for some unknown
+                // reason). The fingerprint handles this case.
+                if (!isEmptyResponse(disclosedData) && !nonexistfile.matches(requestmsg)) {
                     newAlert()
                             .setConfidence(Alert.CONFIDENCE_MEDIUM)
                             .setAttack(candidateBackupFileURI.toString())
@@ -752,16 +723,9 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin {
                     continue;
                 }
                 byte[] disclosedData = requestmsg.getResponseBody().getBytes();
-                int requestStatusCode = requestmsg.getResponseHeader().getStatusCode();
                 // If the response is empty it's probably not really a backup
 
-                if (!isEmptyResponse(disclosedData)
-                        && ((parentgives404s && requestStatusCode != HttpStatusCode.NOT_FOUND)
-                                || ((!parentgives404s)
-                                        && nonexistparentmsg.getResponseHeader().getStatusCode()
-                                                != requestStatusCode
-                                        && (!Arrays.equals(
-                                                disclosedData, nonexistparentmsgdata))))) {
+                if (!isEmptyResponse(disclosedData) && !nonexistparent.matches(requestmsg)) {
                     newAlert()
                             .setConfidence(Alert.CONFIDENCE_MEDIUM)
                             .setName(
@@ -795,6 +759,22 @@ public class BackupFileDisclosureScanRule extends AbstractAppPlugin {
         }
     }
 
+    private HttpMessage sendNonExistent(HttpMessage originalMessage, String path)
+            throws IOException {
+        URI originalURI = originalMessage.getRequestHeader().getURI();
+        HttpMessage msg =
+                new HttpMessage(
+                        new URI(
+                                originalURI.getScheme(),
+                                originalURI.getAuthority(),
+                                path,
+                                null,
+                                null));
+        setMessageCookies(msg, originalMessage);
+        sendAndReceive(msg, false);
+        return msg;
+    }
+
     private static void setMessageCookies(HttpMessage newMsg, HttpMessage originalMsg) {
         try {
             newMsg.setCookieParams(originalMsg.getCookieParams());
@@ -20,97 +20,222 @@
 package org.zaproxy.zap.extension.ascanrulesBeta;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import org.apache.commons.collections.map.LRUMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.core.scanner.HostProcess;
 
 /**
- * GitEntryCache caches Git Index Entries
+ * GitEntryCache caches Git Index Entries, for the duration of a scan.
+ *
+ * <p>The cache can be safely accessed by several threads, the Git index files are not locked while
+ * accessing others. The least recently used Git index files and entries are evicted first.
  *
  * @author 70pointer@gmail.com
  */
 public class GitIndexEntryCache {
 
-    private static GitIndexEntryCache instance;
+    /** The default maximum number of Git index files cached. */
+    public static final int DEFAULT_MAX_INDEXES = 20;
 
-    @SuppressWarnings("unchecked")
-    private Map<URI, Map<URI, String>> gitIndexMap =
-            Collections.synchronizedMap(new LRUMap(20)); // max: 20 Git index files (LRU)
+    /** The default maximum number of entries cached per Git index file. */
+    public static final int DEFAULT_MAX_INDEX_ENTRIES = 1000;
+
+    private static final Map<HostProcess, GitIndexEntryCache> INSTANCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static GitIndexEntryCache instance;
 
     private static Logger log = LogManager.getLogger(GitIndexEntryCache.class);
 
-    private GitIndexEntryCache() {
+    private final int maxIndexes;
+    private final int maxIndexEntries;
+    private final AtomicLong accessCounter;
+    private final Map<URI, IndexEntries> gitIndexMap;
+
+    /**
+     * Constructs a {@code GitIndexEntryCache} with the given limits.
+     *
+     * @param maxIndexes the maximum number of Git index files cached.
+     * @param maxIndexEntries the maximum number of entries cached per Git index file.
+     * @throws IllegalArgumentException if any of the limits is not positive.
+     */
+    public GitIndexEntryCache(int maxIndexes, int maxIndexEntries) {
+        if (maxIndexes <= 0 || maxIndexEntries <= 0) {
+            throw new IllegalArgumentException("The limits must be greater than zero.");
+        }
         log.debug("Initialising the Git Index Entry Cache");
+        this.maxIndexes = maxIndexes;
+        this.maxIndexEntries = maxIndexEntries;
+        this.accessCounter = new AtomicLong();
+        this.gitIndexMap = new ConcurrentHashMap<>();
     }
 
-    public static synchronized GitIndexEntryCache getSingleton() {
-        if (instance == null) createSingleton();
-        return instance;
+    /**
+     * Gets the cache of the given host process, that is, of the scan of a host.
+     *
+     * @param hostprocess the host process.
+     * @return the cache, never {@code null}.
+     */
+    public static GitIndexEntryCache getInstance(HostProcess hostprocess) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(
+                    hostprocess,
+                    hp -> new GitIndexEntryCache(DEFAULT_MAX_INDEXES, DEFAULT_MAX_INDEX_ENTRIES));
+        }
     }
 
-    private static synchronized void createSingleton() {
+    /**
+     * Gets the cache shared by all scans.
+     *
+     * @return the cache, never {@code null}.
+     * @deprecated (41) Use {@link #getInstance(HostProcess)} instead, which is not shared between
+     *     scans.
+     */
+    @Deprecated
+    public static synchronized GitIndexEntryCache getSingleton() {
         if (instance == null) {
-            instance = new GitIndexEntryCache();
+            instance = new GitIndexEntryCache(DEFAULT_MAX_INDEXES, DEFAULT_MAX_INDEX_ENTRIES);
         }
+        return instance;
     }
 
     /**
      * is a Git index cached for the given Git index URI?
      *
-     * @param uri
-     * @return
+     * @param gitIndexUri the URI of the Git index file.
+     * @return {@code true} if the Git index is cached, {@code false} otherwise.
      */
-    public synchronized boolean isIndexCached(URI gitIndexUri) {
+    public boolean isIndexCached(URI gitIndexUri) {
         return gitIndexMap.containsKey(gitIndexUri);
     }
 
     /**
      * is a Git index entry cached for the given Git index URI, and Git Index entry URI?
      *
-     * @param uri
-     * @return
+     * @param gitIndexUri the URI of the Git index file.
+     * @param gitIndexEntryUri the URI of the Git index entry.
+     * @return {@code true} if the Git index entry is cached, {@code false} otherwise.
      */
-    public synchronized boolean isIndexEntryCached(URI gitIndexUri, URI gitIndexEntryUri) {
-        if (!gitIndexMap.containsKey(gitIndexUri)) {
-            return false;
-        }
-        return gitIndexMap.get(gitIndexUri).containsKey(gitIndexEntryUri);
+    public boolean isIndexEntryCached(URI gitIndexUri, URI gitIndexEntryUri) {
+        return getIndexEntry(gitIndexUri, gitIndexEntryUri) != null;
     }
 
     /**
      * puts the Git Index and Git Index Entry in a map
      *
-     * @param gitIndexUri
-     * @param gitIndexEntryUri
+     * @param gitIndexUri the URI of the Git index file.
+     * @param gitIndexEntryUri the URI of the Git index entry.
+     * @param gitSHA1 the SHA1 of the Git index entry.
      */
-    @SuppressWarnings("unchecked")
-    public synchronized void putIndexEntry(URI gitIndexUri, URI gitIndexEntryUri, String gitSHA1) {
-        Map<URI, String> indexEntryMap;
-        if (gitIndexMap.containsKey(gitIndexUri)) {
-            indexEntryMap = gitIndexMap.get(gitIndexUri);
-        } else {
-            indexEntryMap =
-                    Collections.synchronizedMap(
-                            new LRUMap(1000)); // max: 1000 Git index entries (LRU)
+    public void putIndexEntry(URI gitIndexUri, URI gitIndexEntryUri, String gitSHA1) {
+        IndexEntries indexEntries = getIndexEntries(gitIndexUri);
+        if (indexEntries == null) {
+            IndexEntries newIndexEntries = new IndexEntries(accessCounter.incrementAndGet());
+            indexEntries = gitIndexMap.putIfAbsent(gitIndexUri, newIndexEntries);
+            if (indexEntries == null) {
+                indexEntries = newIndexEntries;
+                evictIfNeeded();
+            }
         }
-        indexEntryMap.put(gitIndexEntryUri, gitSHA1);
-        gitIndexMap.put(gitIndexUri, indexEntryMap);
+        indexEntries.put(gitIndexEntryUri, gitSHA1);
+    }
+
+    /**
+     * puts all the entries of a Git Index in a map, at once.
+     *
+     * @param gitIndexUri the URI of the Git index file.
+     * @param gitIndexEntries the URIs of the Git index entries and their SHA1s.
+     */
+    public void putIndex(URI gitIndexUri, Map<URI, String> gitIndexEntries) {
+        IndexEntries indexEntries = new IndexEntries(accessCounter.incrementAndGet());
+        gitIndexEntries.forEach(indexEntries::put);
+        gitIndexMap.put(gitIndexUri, indexEntries);
+        evictIfNeeded();
     }
 
     /**
      * gets the SHA1 for a Git Index and Git Index Entry
      *
-     * @param gitIndexUri
-     * @param gitIndexEntryUri
-     * @return
+     * @param gitIndexUri the URI of the Git index file.
+     * @param gitIndexEntryUri the URI of the Git index entry.
+     * @return the SHA1, or {@code null} if not cached.
      */
-    public synchronized String getIndexEntry(URI gitIndexUri, URI gitIndexEntryUri) {
-        if (gitIndexMap.containsKey(gitIndexUri)) {
-            return gitIndexMap.get(gitIndexUri).get(gitIndexEntryUri);
-        } else {
+    public String getIndexEntry(URI gitIndexUri, URI gitIndexEntryUri) {
+        IndexEntries indexEntries = getIndexEntries(gitIndexUri);
+        if (indexEntries == null) {
             return null;
         }
+        return indexEntries.entries.get(gitIndexEntryUri);
+    }
+
+    private IndexEntries getIndexEntries(URI gitIndexUri) {
+        IndexEntries indexEntries = gitIndexMap.get(gitIndexUri);
+        if (indexEntries != null) {
+            indexEntries.lastAccess = accessCounter.incrementAndGet();
+        }
+        return indexEntries;
+    }
+
+    private void evictIfNeeded() {
+        while (gitIndexMap.size() > maxIndexes) {
+            Map.Entry<URI, IndexEntries> oldest = null;
+            for (Map.Entry<URI, IndexEntries> candidate : gitIndexMap.entrySet()) {
+                if (oldest == null
+                        || candidate.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            gitIndexMap.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private class IndexEntries {
+
+        private volatile long lastAccess;
+        private final Map<URI, String> entries;
+
+        IndexEntries(long lastAccess) {
+            this.lastAccess = lastAccess;
+            this.entries = Collections.synchronizedMap(new LruMap<>(maxIndexEntries));
+        }
+
+        void put(URI gitIndexEntryUri, String gitSHA1) {
+            if (gitSHA1 == null) {
+                return;
+            }
+            entries.put(gitIndexEntryUri, gitSHA1);
+        }
+    }
+
+    /**
+     * A map that evicts the least recently accessed entry when the maximum size is exceeded.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     */
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
     }
 }
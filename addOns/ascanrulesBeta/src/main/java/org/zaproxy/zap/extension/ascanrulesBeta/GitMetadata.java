@@ -62,6 +62,9 @@ public class GitMetadata {
     /** used to send messages, and notify Zap that new messages have been sent */
     private HostProcess parent = null;
 
+    /** the cache of the messages, lazily obtained if not provided. */
+    private MessageCache messageCache;
+
     /**
      * store off the URIs that were requested to get the source code disclosure for instance:
      * http://www.example.com/.git/index - the list of files in the repo
@@ -91,8 +94,22 @@ public class GitMetadata {
     }
 
     public GitMetadata(HostProcess hostprocess, int inflateBufferSize) {
+        this(hostprocess, inflateBufferSize, null);
+    }
+
+    /**
+     * Constructs a {@code GitMetadata} with the given host process, inflate buffer size and message
+     * cache.
+     *
+     * @param hostprocess the host process used to send the messages.
+     * @param inflateBufferSize the size of the buffer used to inflate the data.
+     * @param messageCache the cache of the messages, {@code null} to use the default cache of the
+     *     host process.
+     */
+    public GitMetadata(HostProcess hostprocess, int inflateBufferSize, MessageCache messageCache) {
         this.parent = hostprocess;
         this.inflateBufferSize = inflateBufferSize;
+        this.messageCache = messageCache;
     }
 
     /**
@@ -141,8 +158,10 @@ public class GitMetadata {
         }
         // TODO: split out the Git MetaData from the SourceCodeDisclosure class (not as a nested
         // class)
-        MessageCache messagecache = MessageCache.getSingleton(parent);
-        HttpMessage msg = messagecache.getMessage(uri, basemsg, false);
+        if (messageCache == null) {
+            messageCache = MessageCache.getInstance(parent);
+        }
+        HttpMessage msg = messageCache.getMessage(uri, basemsg, false);
 
         if (msg.getResponseHeader().getStatusCode() != HttpStatusCode.OK) {
             throw new FileNotFoundException(uri.toString());
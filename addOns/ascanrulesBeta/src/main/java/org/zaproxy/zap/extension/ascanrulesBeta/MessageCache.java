@@ -19,9 +19,15 @@
  */
 package org.zaproxy.zap.extension.ascanrulesBeta;
 
+import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.Map;
-import org.apache.commons.collections.map.LRUMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,60 +36,156 @@ import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 
 /**
- * MessageCache caches HTTP messages.
+ * MessageCache caches HTTP messages, for the duration of a scan.
+ *
+ * <p>The messages are fetched at most once per URI at any given time: the threads requesting a URI
+ * that is already being fetched wait for that fetch to complete, while different URIs are fetched
+ * in parallel. Failed fetches are not cached.
  *
  * @author 70pointer@gmail.com
  */
 public class MessageCache {
 
-    private static MessageCache instance;
-    private HostProcess parent = null;
+    /** The default maximum number of messages cached. */
+    public static final int DEFAULT_MAX_SIZE = 100;
+
+    /** The default time, in milliseconds, that a message is kept in the cache. */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
 
-    @SuppressWarnings("unchecked")
-    private Map<URI, HttpMessage> messagecache =
-            Collections.synchronizedMap(new LRUMap(100)); // a map of 100 objects, synchronized
+    private static final Map<HostProcess, MessageCache> INSTANCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     private static Logger log = LogManager.getLogger(MessageCache.class);
 
-    private MessageCache(HostProcess hostprocess) {
+    // Weakly referenced, the instances are kept in a map weakly keyed by the host process.
+    private final WeakReference<HostProcess> parent;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<URI, CacheEntry> messagecache;
+
+    /**
+     * Constructs a {@code MessageCache} with the given host process, maximum size and time to
+     * live.
+     *
+     * @param hostprocess the host process used to send the messages and notify of new ones.
+     * @param maxSize the maximum number of messages cached.
+     * @param ttl the time that a message is kept in the cache.
+     * @param ttlUnit the unit of the time to live.
+     * @throws IllegalArgumentException if the maximum size or the time to live are not positive.
+     */
+    public MessageCache(HostProcess hostprocess, int maxSize, long ttl, TimeUnit ttlUnit) {
+        this(hostprocess, maxSize, ttlUnit.toNanos(ttl), System::nanoTime);
+    }
+
+    MessageCache(HostProcess hostprocess, int maxSize, long ttlNanos, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be greater than zero.");
+        }
+        if (ttlNanos <= 0) {
+            throw new IllegalArgumentException("The time to live must be greater than zero.");
+        }
         log.debug("Initialising");
-        parent = hostprocess;
+        this.parent = new WeakReference<>(hostprocess);
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.messagecache = new ConcurrentHashMap<>();
     }
 
-    public static synchronized MessageCache getSingleton(HostProcess hostprocess) {
-        if (instance == null) createSingleton(hostprocess);
-        return instance;
+    /**
+     * Gets the cache of the given host process, that is, of the scan of a host.
+     *
+     * @param hostprocess the host process.
+     * @return the cache, never {@code null}.
+     */
+    public static MessageCache getInstance(HostProcess hostprocess) {
+        return getInstance(hostprocess, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
-    private static synchronized void createSingleton(HostProcess hostprocess) {
-        if (instance == null) {
-            instance = new MessageCache(hostprocess);
+    /**
+     * Gets the cache of the given host process, that is, of the scan of a host, creating it with
+     * the given maximum size and time to live if it does not yet exist.
+     *
+     * @param hostprocess the host process.
+     * @param maxSize the maximum number of messages cached.
+     * @param ttl the time that a message is kept in the cache.
+     * @param ttlUnit the unit of the time to live.
+     * @return the cache, never {@code null}.
+     * @throws IllegalArgumentException if the maximum size or the time to live are not positive.
+     */
+    public static MessageCache getInstance(
+            HostProcess hostprocess, int maxSize, long ttl, TimeUnit ttlUnit) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(
+                    hostprocess, hp -> new MessageCache(hp, maxSize, ttl, ttlUnit));
         }
     }
 
+    static int getInstancesCount() {
+        return INSTANCES.size();
+    }
+
+    /**
+     * Gets the cache of the given host process.
+     *
+     * @param hostprocess the host process.
+     * @return the cache, never {@code null}.
+     * @deprecated (41) Use {@link #getInstance(HostProcess)} instead, the cache is no longer shared
+     *     between scans.
+     */
+    @Deprecated
+    public static MessageCache getSingleton(HostProcess hostprocess) {
+        return getInstance(hostprocess);
+    }
+
     /**
      * is a message cached for the given URI?
      *
-     * @param uri
-     * @return
+     * @param uri the URI of the message.
+     * @return {@code true} if the message was fetched and has not yet expired, {@code false}
+     *     otherwise.
      */
-    public synchronized boolean isMessageCached(URI uri) {
-        return messagecache.containsKey(uri);
+    public boolean isMessageCached(URI uri) {
+        CacheEntry entry = messagecache.get(uri);
+        return entry != null && entry.isFetched() && !entry.isExpired(clock.getAsLong());
     }
 
     /**
      * gets a HttpMessage for the requested URI, using basemsg as the base message. If the message
-     * is available in the cache, return it. If not, retrieve it.
+     * is available in the cache, return it. If it is being fetched by another thread, wait for it.
+     * If not, retrieve it.
      *
      * @param uri the URI for which a httpMessage is being requested
      * @param basemsg the base message which will be used to construct new messages
+     * @param followRedirects whether or not redirects should be followed.
      * @return a HttpMessage for the requested URI, using basemsg as the base message
-     * @throws Exception
+     * @throws Exception if an error occurred while fetching the message.
      */
-    public synchronized HttpMessage getMessage(
-            URI uri, HttpMessage basemsg, boolean followRedirects) throws Exception {
-        if (!isMessageCached(uri)) {
-            log.debug("URI '{}' is not in the message cache. Retrieving it.", uri);
+    public HttpMessage getMessage(URI uri, HttpMessage basemsg, boolean followRedirects)
+            throws Exception {
+        CacheEntry entry = messagecache.get(uri);
+        if (entry != null && entry.isExpired(clock.getAsLong())) {
+            messagecache.remove(uri, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            CacheEntry newEntry = new CacheEntry();
+            entry = messagecache.putIfAbsent(uri, newEntry);
+            if (entry == null) {
+                log.debug("URI '{}' is not in the message cache. Retrieving it.", uri);
+                evictIfNeeded();
+                return fetch(uri, basemsg, followRedirects, newEntry);
+            }
+        }
+        log.debug("URI '{}' is cached in the message cache.", uri);
+        return await(entry.future);
+    }
+
+    private HttpMessage fetch(
+            URI uri, HttpMessage basemsg, boolean followRedirects, CacheEntry entry)
+            throws Exception {
+        try {
             // request the file, then add the file to the cache
             // use the cookies from an original request, in case authorisation is required
             HttpMessage requestmsg = new HttpMessage(uri);
@@ -95,15 +197,88 @@ public class MessageCache {
             requestmsg.getRequestHeader().setHeader(HttpHeader.IF_MODIFIED_SINCE, null);
             requestmsg.getRequestHeader().setHeader(HttpHeader.IF_NONE_MATCH, null);
             requestmsg.getRequestHeader().setContentLength(requestmsg.getRequestBody().length());
-            parent.getHttpSender().sendAndReceive(requestmsg, followRedirects);
-            parent.notifyNewMessage(requestmsg);
-            // put the message in the cache
-            messagecache.put(uri, requestmsg);
+            HostProcess hostProcess = parent.get();
+            if (hostProcess == null) {
+                throw new IllegalStateException("The scan of the cache no longer exists.");
+            }
+            hostProcess.getHttpSender().sendAndReceive(requestmsg, followRedirects);
+            hostProcess.notifyNewMessage(requestmsg);
+
+            entry.fetched(clock.getAsLong(), requestmsg);
             log.debug("Put URI '{}' in the message cache.", uri);
-        } else {
-            log.debug("URI '{}' is cached in the message cache.", uri);
+            return requestmsg;
+        } catch (Exception | Error e) {
+            // Do not cache the failure, let the next caller try again.
+            messagecache.remove(uri, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static HttpMessage await(CompletableFuture<HttpMessage> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (messagecache.size() <= maxSize) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        messagecache.values().removeIf(entry -> entry.isExpired(now));
+
+        while (messagecache.size() > maxSize) {
+            Map.Entry<URI, CacheEntry> oldest = null;
+            for (Map.Entry<URI, CacheEntry> candidate : messagecache.entrySet()) {
+                if (candidate.getValue().isFetched()
+                        && (oldest == null
+                                || candidate.getValue().fetchTime
+                                        < oldest.getValue().fetchTime)) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                // Only messages being fetched, those are removed if the fetch fails.
+                return;
+            }
+            messagecache.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private class CacheEntry {
+
+        private final CompletableFuture<HttpMessage> future;
+        private volatile long fetchTime;
+
+        CacheEntry() {
+            future = new CompletableFuture<>();
+        }
+
+        void fetched(long time, HttpMessage message) {
+            fetchTime = time;
+            future.complete(message);
+        }
+
+        boolean isFetched() {
+            return future.isDone() && !future.isCompletedExceptionally();
+        }
+
+        boolean isExpired(long now) {
+            return isFetched() && now - fetchTime >= ttlNanos;
         }
-        // and return the cached message.
-        return messagecache.get(uri);
     }
 }
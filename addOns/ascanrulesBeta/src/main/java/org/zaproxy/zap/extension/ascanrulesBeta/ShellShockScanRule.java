@@ -31,6 +31,7 @@ import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.core.scanner.Plugin;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 
 /**
@@ -146,6 +147,7 @@ public class ShellShockScanRule extends AbstractAppParamPlugin {
                     // Could be that the server is overloaded, try a safe request
                     HttpMessage safeMsg = getNewMsg();
                     sendAndReceive(safeMsg, false); // do not follow redirects
+                    ResponseTimeModel.getInstance(getParent()).record(safeMsg);
                     if (safeMsg.getTimeElapsedMillis() > sleep * 1000
                             && (safeMsg.getTimeElapsedMillis() - attackElapsedTime)
                                     < sleep * 1000) {
@@ -21,11 +21,12 @@ package org.zaproxy.zap.extension.ascanrulesBeta;
 
 import java.io.FileNotFoundException;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
+import org.apache.commons.configuration.ConversionException;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -74,6 +75,18 @@ public class SourceCodeDisclosureGitScanRule extends AbstractAppPlugin {
                     CommonAlertTag.OWASP_2021_A05_SEC_MISCONFIG,
                     CommonAlertTag.OWASP_2017_A06_SEC_MISCONFIG);
 
+    /** The name of the rule to obtain the maximum number of Git messages cached per scan. */
+    static final String RULE_MESSAGE_CACHE_MAX_SIZE = "rules.gitmetadata.messagecache.maxsize";
+
+    /** The name of the rule to obtain the time, in seconds, that a Git message is cached. */
+    static final String RULE_MESSAGE_CACHE_TTL = "rules.gitmetadata.messagecache.ttl";
+
+    private static final int DEFAULT_MESSAGE_CACHE_TTL =
+            (int) TimeUnit.MILLISECONDS.toSeconds(MessageCache.DEFAULT_TTL_MILLIS);
+
+    private int messageCacheMaxSize = MessageCache.DEFAULT_MAX_SIZE;
+    private int messageCacheTtl = DEFAULT_MESSAGE_CACHE_TTL;
+
     @Override
     public int getId() {
         return 41;
@@ -114,6 +127,30 @@ public class SourceCodeDisclosureGitScanRule extends AbstractAppPlugin {
         return "Failed to load vulnerability reference from file";
     }
 
+    @Override
+    public void init() {
+        messageCacheMaxSize =
+                getPositiveConfig(RULE_MESSAGE_CACHE_MAX_SIZE, MessageCache.DEFAULT_MAX_SIZE);
+        messageCacheTtl = getPositiveConfig(RULE_MESSAGE_CACHE_TTL, DEFAULT_MESSAGE_CACHE_TTL);
+        log.debug(
+                "Message cache set to {} messages for {} seconds",
+                messageCacheMaxSize,
+                messageCacheTtl);
+    }
+
+    private int getPositiveConfig(String key, int defaultValue) {
+        try {
+            int value = this.getConfig().getInt(key, defaultValue);
+            if (value > 0) {
+                return value;
+            }
+        } catch (ConversionException e) {
+            // Logged below.
+        }
+        log.debug("Invalid value for '{}': {}", key, this.getConfig().getString(key));
+        return defaultValue;
+    }
+
     private String getEvidence(String filename, String gitURIs) {
         return Constant.messages.getString(
                 "ascanbeta.sourcecodedisclosure.gitbased.evidence", filename, gitURIs);
@@ -240,8 +277,17 @@ public class SourceCodeDisclosureGitScanRule extends AbstractAppPlugin {
 
             URI originalURIWithoutQuery =
                     new URI(originalURI.getScheme(), originalURI.getAuthority(), path, null, null);
-            GitMetadata git = new GitMetadata(this.getParent(), 4096);
-            GitIndexEntryCache gitindexentrycache = GitIndexEntryCache.getSingleton();
+            GitMetadata git =
+                    new GitMetadata(
+                            this.getParent(),
+                            4096,
+                            MessageCache.getInstance(
+                                    this.getParent(),
+                                    messageCacheMaxSize,
+                                    messageCacheTtl,
+                                    TimeUnit.SECONDS));
+            GitIndexEntryCache gitindexentrycache =
+                    GitIndexEntryCache.getInstance(this.getParent());
 
             // look for the .git/index file in the directory and parent directories of the file for
             // which we are attempting to get the source code.
@@ -283,11 +329,9 @@ public class SourceCodeDisclosureGitScanRule extends AbstractAppPlugin {
                         if (gitFiles != null) {
                             log.debug("We found a Git index file at '{}'", gitindexpath);
 
-                            Set<Entry<String, String>> entrySet = gitFiles.entrySet();
-                            Iterator<Entry<String, String>> entryIterator = entrySet.iterator();
-                            while (entryIterator.hasNext()) {
-                                Entry<String, String> gitIndexEntry = entryIterator.next();
-
+                            // keep the order of the index, the last entries are the ones cached
+                            Map<URI, String> gitIndexEntries = new LinkedHashMap<>();
+                            for (Entry<String, String> gitIndexEntry : gitFiles.entrySet()) {
                                 // the URIs from the Git index file do not have a query or fragment
                                 // component, so no need to strip those off here
                                 URI gitIndexEntryUri =
@@ -297,17 +341,15 @@ public class SourceCodeDisclosureGitScanRule extends AbstractAppPlugin {
                                                 modifiedpath + gitIndexEntry.getKey(),
                                                 null,
                                                 null);
-                                String gitSHA1Temp = gitIndexEntry.getValue();
-
-                                // cache the entry..
-                                log.debug(
-                                        "Caching Git Index file {}, Index Entry {}, SHA1 {}",
-                                        gitindexuri,
-                                        gitIndexEntryUri,
-                                        gitSHA1Temp);
-                                gitindexentrycache.putIndexEntry(
-                                        gitindexuri, gitIndexEntryUri, gitSHA1Temp);
+                                gitIndexEntries.put(gitIndexEntryUri, gitIndexEntry.getValue());
                             }
+                            // cache all the entries at once, for the other threads to see them
+                            // all or none.
+                            log.debug(
+                                    "Caching Git Index file {}, with {} entries",
+                                    gitindexuri,
+                                    gitIndexEntries.size());
+                            gitindexentrycache.putIndex(gitindexuri, gitIndexEntries);
                         }
                     }
                     // at this point, we know the Git index file is cached, one way or another.
@@ -32,6 +32,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
@@ -270,28 +272,40 @@ public class SqlInjectionHypersonicScanRule extends AbstractAppParamPlugin {
     public void scan(HttpMessage originalMessage, String paramName, String paramValue) {
         try {
             // Timing Baseline check: we need to get the time that it took the original query, to
-            // know if the time based check is working correctly..
+            // know if the time based check is working correctly.. unless already known from the
+            // other requests of the scan.
+            ResponseTimeModel timeModel = ResponseTimeModel.getInstance(getParent());
             HttpMessage msgTimeBaseline = getNewMsg();
-            try {
-                sendAndReceive(msgTimeBaseline, false); // do not follow redirects
-            } catch (java.net.SocketTimeoutException e) {
-                // to be expected occasionally, if the base query was one that contains some
-                // parameters exploiting time based SQL injection?
-                log.debug(
-                        "The Base Time Check timed out on [{}] URL [{}]",
-                        msgTimeBaseline.getRequestHeader().getMethod(),
-                        msgTimeBaseline.getRequestHeader().getURI());
-            } catch (SocketException ex) {
-                log.debug(
-                        "Caught {} {} when accessing: {} for Base Time Check",
-                        ex.getClass().getName(),
-                        ex.getMessage(),
-                        msgTimeBaseline.getRequestHeader().getURI());
-                return; // No need to keep going
+            Baseline timeBaseline = timeModel.getBaseline(msgTimeBaseline);
+            long originalTimeUsed;
+            if (timeBaseline != null) {
+                originalTimeUsed = timeBaseline.getMean();
+            } else {
+                try {
+                    sendAndReceive(msgTimeBaseline, false); // do not follow redirects
+                } catch (java.net.SocketTimeoutException e) {
+                    // to be expected occasionally, if the base query was one that contains some
+                    // parameters exploiting time based SQL injection?
+                    log.debug(
+                            "The Base Time Check timed out on [{}] URL [{}]",
+                            msgTimeBaseline.getRequestHeader().getMethod(),
+                            msgTimeBaseline.getRequestHeader().getURI());
+                } catch (SocketException ex) {
+                    log.debug(
+                            "Caught {} {} when accessing: {} for Base Time Check",
+                            ex.getClass().getName(),
+                            ex.getMessage(),
+                            msgTimeBaseline.getRequestHeader().getURI());
+                    return; // No need to keep going
+                }
+                originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
+                timeModel.record(msgTimeBaseline);
             }
-            long originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
             // end of timing baseline check
 
+            // the smallest delay that is significant for the response times of the endpoint
+            int delayInMs = (int) ResponseTimeModel.calibrateDelay(timeBaseline, sleepInMs, 1000);
+
             int countUnionBasedRequests = 0;
             int countTimeBasedRequests = 0;
 
@@ -312,7 +326,7 @@ public class SqlInjectionHypersonicScanRule extends AbstractAppParamPlugin {
                 String newTimeBasedInjectionValue =
                         SQL_HYPERSONIC_TIME_REPLACEMENTS[timeBasedSQLindex]
                                 .replace(ORIG_VALUE_TOKEN, paramValue)
-                                .replace(SLEEP_TOKEN, Integer.toString(sleepInMs));
+                                .replace(SLEEP_TOKEN, Integer.toString(delayInMs));
 
                 setParameter(msgAttack, paramName, newTimeBasedInjectionValue);
 
@@ -346,7 +360,7 @@ public class SqlInjectionHypersonicScanRule extends AbstractAppParamPlugin {
                         modifiedTimeUsed,
                         originalTimeUsed);
 
-                if (modifiedTimeUsed >= (originalTimeUsed + sleepInMs)) {
+                if (modifiedTimeUsed >= (originalTimeUsed + delayInMs)) {
                     // takes more than 15 (by default) extra seconds => likely time based SQL
                     // injection.
 
@@ -355,11 +369,12 @@ public class SqlInjectionHypersonicScanRule extends AbstractAppParamPlugin {
                     HttpMessage msgc = getNewMsg();
                     try {
                         sendAndReceive(msgc, false); // do not follow redirects
+                        timeModel.record(msgc);
                     } catch (Exception e) {
                         // Ignore all exceptions
                     }
                     long checkTimeUsed = msgc.getTimeElapsedMillis();
-                    if (checkTimeUsed >= (originalTimeUsed + this.sleepInMs - 200)) {
+                    if (checkTimeUsed >= (originalTimeUsed + delayInMs - 200)) {
                         // Looks like the server is overloaded, very unlikely this is a real issue
                         continue;
                     }
@@ -32,6 +32,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
@@ -167,33 +169,54 @@ public class SqlInjectionMsSqlScanRule extends AbstractAppParamPlugin {
     public void scan(HttpMessage originalMessage, String paramName, String paramValue) {
         try {
             // Timing Baseline check: we need to get the time that it took the original query, to
-            // know if the time based check is working correctly..
+            // know if the time based check is working correctly.. unless already known from the
+            // other requests of the scan.
+            ResponseTimeModel timeModel = ResponseTimeModel.getInstance(getParent());
             HttpMessage msgTimeBaseline = getNewMsg();
-            long originalTimeUsed = getRoundTripTime(msgTimeBaseline);
-            // if the time was very slow (because JSP was being compiled on first call, for
-            // instance)
-            // then the rest of the time based logic will fail.  Lets double-check for that scenario
-            // by requesting the url again.
-            // If it comes back in a more reasonable time, we will use that time instead as our
-            // baseline.  If it come out in a slow fashion again,
-            // we will abort the check on this URL, since we will only spend lots of time trying
-            // request, when we will (very likely) not get positive results.
-            int sleepTimeInMilliSeconds = sleepInSeconds * 1000;
-            if (originalTimeUsed > sleepTimeInMilliSeconds) {
-                long originalTimeUsed2 = getRoundTripTime(msgTimeBaseline);
-                if (originalTimeUsed2 > sleepTimeInMilliSeconds) {
-                    // no better the second time around.  we need to bale out.
+            Baseline timeBaseline = timeModel.getBaseline(msgTimeBaseline);
+            long originalTimeUsed;
+            if (timeBaseline != null) {
+                originalTimeUsed = timeBaseline.getMean();
+                if (originalTimeUsed > sleepInSeconds * 1000) {
+                    // as with the base time checks, too slow to be usable.
                     log.debug(
-                            "Both base time checks 1 and 2 for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
+                            "The known response times for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
                             msgTimeBaseline.getRequestHeader().getMethod(),
                             msgTimeBaseline.getRequestHeader().getURI());
                     return;
                 }
-                // the second time came in within the limits. use the later timing details as the
-                // base time for the checks.
-                originalTimeUsed = originalTimeUsed2;
+            } else {
+                originalTimeUsed = getRoundTripTime(msgTimeBaseline);
+                // if the time was very slow (because JSP was being compiled on first call, for
+                // instance) then the rest of the time based logic will fail.  Lets double-check for
+                // that scenario by requesting the url again.
+                // If it comes back in a more reasonable time, we will use that time instead as our
+                // baseline.  If it come out in a slow fashion again, we will abort the check on
+                // this URL, since we will only spend lots of time trying request, when we will
+                // (very likely) not get positive results.
+                int sleepTimeInMilliSeconds = sleepInSeconds * 1000;
+                if (originalTimeUsed > sleepTimeInMilliSeconds) {
+                    long originalTimeUsed2 = getRoundTripTime(msgTimeBaseline);
+                    if (originalTimeUsed2 > sleepTimeInMilliSeconds) {
+                        // no better the second time around.  we need to bale out.
+                        log.debug(
+                                "Both base time checks 1 and 2 for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
+                                msgTimeBaseline.getRequestHeader().getMethod(),
+                                msgTimeBaseline.getRequestHeader().getURI());
+                        return;
+                    }
+                    // the second time came in within the limits. use the later timing details as
+                    // the base time for the checks.
+                    originalTimeUsed = originalTimeUsed2;
+                }
+                timeModel.record(msgTimeBaseline);
             }
 
+            // the smallest delay that is significant for the response times of the endpoint
+            long delayMillis =
+                    ResponseTimeModel.calibrateDelay(timeBaseline, sleepInSeconds * 1000L, 1000);
+            int delay = (int) (delayMillis / 1000);
+
             log.debug(
                     "Scanning URL [{}] [{}], field [{}] with value [{}] for MsSQL Injection",
                     getBaseMsg().getRequestHeader().getMethod(),
@@ -202,7 +225,7 @@ public class SqlInjectionMsSqlScanRule extends AbstractAppParamPlugin {
                     paramValue);
 
             // Check for time based SQL Injection, using MsSQL specific syntax
-            String sleepToken = getSleepToken(sleepInSeconds);
+            String sleepToken = getSleepToken(delay);
             for (int timeBasedSQLindex = 0;
                     timeBasedSQLindex < SQL_MSSQL_TIME_REPLACEMENTS.length
                             && doTimeBased
@@ -226,7 +249,7 @@ public class SqlInjectionMsSqlScanRule extends AbstractAppParamPlugin {
                 // add some small leeway on the time, since adding a 5 (by default) second delay in
                 // the SQL query will not cause the request
                 // to take a full 15 (by default) seconds longer to run than the original..
-                if (modifiedTimeUsed >= (originalTimeUsed + sleepInSeconds * 1000 - 200)) {
+                if (modifiedTimeUsed >= (originalTimeUsed + delay * 1000 - 200)) {
                     // takes more than 5(by default) extra seconds => likely time based SQL
                     // injection.
 
@@ -234,11 +257,12 @@ public class SqlInjectionMsSqlScanRule extends AbstractAppParamPlugin {
                     HttpMessage msgc = getNewMsg();
                     try {
                         sendAndReceive(msgc, false); // do not follow redirects
+                        timeModel.record(msgc);
                     } catch (Exception e) {
                         // Ignore all exceptions
                     }
                     long checkTimeUsed = msgc.getTimeElapsedMillis();
-                    if (checkTimeUsed >= (originalTimeUsed + (this.sleepInSeconds * 1000) - 200)) {
+                    if (checkTimeUsed >= (originalTimeUsed + (delay * 1000) - 200)) {
                         // Looks like the server is overloaded, very unlikely this is a real issue
                         continue;
                     }
@@ -32,6 +32,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
@@ -272,42 +274,30 @@ public class SqlInjectionMySqlScanRule extends AbstractAppParamPlugin {
 
         try {
             // Timing Baseline check: we need to get the time that it took the original query, to
-            // know if the time based check is working correctly..
+            // know if the time based check is working correctly.. unless already known from the
+            // other requests of the scan.
+            ResponseTimeModel timeModel = ResponseTimeModel.getInstance(getParent());
             HttpMessage msgTimeBaseline = getNewMsg();
-            try {
-                sendAndReceive(msgTimeBaseline, false); // do not follow redirects
-            } catch (java.net.SocketTimeoutException e) {
-                // to be expected occasionally, if the base query was one that contains some
-                // parameters exploiting time based SQL injection?
-                log.debug(
-                        "The Base Time Check timed out on [{}] URL [{}]",
-                        msgTimeBaseline.getRequestHeader().getMethod(),
-                        msgTimeBaseline.getRequestHeader().getURI());
-            } catch (SocketException ex) {
-                log.debug(
-                        "Caught {} {} when accessing: {}",
-                        ex.getClass().getName(),
-                        ex.getMessage(),
-                        msgTimeBaseline.getRequestHeader().getURI());
-                return; // No need to keep going
-            }
-            long originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
-            // if the time was very slow (because JSP was being compiled on first call, for
-            // instance)
-            // then the rest of the time based logic will fail.  Lets double-check for that scenario
-            // by requesting the url again.
-            // If it comes back in a more reasonable time, we will use that time instead as our
-            // baseline.  If it come out in a slow fashion again,
-            // we will abort the check on this URL, since we will only spend lots of time trying
-            // request, when we will (very likely) not get positive results.
-            if (originalTimeUsed > sleep * 1000) {
+            Baseline timeBaseline = timeModel.getBaseline(msgTimeBaseline);
+            long originalTimeUsed;
+            if (timeBaseline != null) {
+                originalTimeUsed = timeBaseline.getMean();
+                if (originalTimeUsed > sleep * 1000) {
+                    // as with the base time checks, too slow to be usable.
+                    log.debug(
+                            "The known response times for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
+                            msgTimeBaseline.getRequestHeader().getMethod(),
+                            msgTimeBaseline.getRequestHeader().getURI());
+                    return;
+                }
+            } else {
                 try {
                     sendAndReceive(msgTimeBaseline, false); // do not follow redirects
                 } catch (java.net.SocketTimeoutException e) {
                     // to be expected occasionally, if the base query was one that contains some
                     // parameters exploiting time based SQL injection?
                     log.debug(
-                            "Base Time Check 2 timed out on [{}] URL [{}]",
+                            "The Base Time Check timed out on [{}] URL [{}]",
                             msgTimeBaseline.getRequestHeader().getMethod(),
                             msgTimeBaseline.getRequestHeader().getURI());
                 } catch (SocketException ex) {
@@ -318,22 +308,55 @@ public class SqlInjectionMySqlScanRule extends AbstractAppParamPlugin {
                             msgTimeBaseline.getRequestHeader().getURI());
                     return; // No need to keep going
                 }
-                long originalTimeUsed2 = msgTimeBaseline.getTimeElapsedMillis();
-                if (originalTimeUsed2 > sleep * 1000) {
-                    // no better the second time around.  we need to bale out.
-                    log.debug(
-                            "Both base time checks 1 and 2 for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
-                            msgTimeBaseline.getRequestHeader().getMethod(),
-                            msgTimeBaseline.getRequestHeader().getURI());
-                    return;
-                } else {
-                    // phew.  the second time came in within the limits. use the later timing
-                    // details as the base time for the checks.
-                    originalTimeUsed = originalTimeUsed2;
+                originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
+                // if the time was very slow (because JSP was being compiled on first call, for
+                // instance) then the rest of the time based logic will fail.  Lets double-check for
+                // that scenario by requesting the url again.
+                // If it comes back in a more reasonable time, we will use that time instead as our
+                // baseline.  If it come out in a slow fashion again, we will abort the check on
+                // this URL, since we will only spend lots of time trying request, when we will
+                // (very likely) not get positive results.
+                if (originalTimeUsed > sleep * 1000) {
+                    try {
+                        sendAndReceive(msgTimeBaseline, false); // do not follow redirects
+                    } catch (java.net.SocketTimeoutException e) {
+                        // to be expected occasionally, if the base query was one that contains
+                        // some parameters exploiting time based SQL injection?
+                        log.debug(
+                                "Base Time Check 2 timed out on [{}] URL [{}]",
+                                msgTimeBaseline.getRequestHeader().getMethod(),
+                                msgTimeBaseline.getRequestHeader().getURI());
+                    } catch (SocketException ex) {
+                        log.debug(
+                                "Caught {} {} when accessing: {}",
+                                ex.getClass().getName(),
+                                ex.getMessage(),
+                                msgTimeBaseline.getRequestHeader().getURI());
+                        return; // No need to keep going
+                    }
+                    long originalTimeUsed2 = msgTimeBaseline.getTimeElapsedMillis();
+                    if (originalTimeUsed2 > sleep * 1000) {
+                        // no better the second time around.  we need to bale out.
+                        log.debug(
+                                "Both base time checks 1 and 2 for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
+                                msgTimeBaseline.getRequestHeader().getMethod(),
+                                msgTimeBaseline.getRequestHeader().getURI());
+                        return;
+                    } else {
+                        // phew.  the second time came in within the limits. use the later
+                        // timing details as the base time for the checks.
+                        originalTimeUsed = originalTimeUsed2;
+                    }
                 }
+                timeModel.record(msgTimeBaseline);
             }
             // end of timing baseline check
 
+            // the smallest delay that is significant for the response times of the endpoint
+            long delayMillis =
+                    ResponseTimeModel.calibrateDelay(timeBaseline, sleep * 1000L, 1000);
+            int delay = (int) (delayMillis / 1000);
+
             int countTimeBasedRequests = 0;
 
             log.debug(
@@ -353,7 +376,7 @@ public class SqlInjectionMySqlScanRule extends AbstractAppParamPlugin {
                 String newTimeBasedInjectionValue =
                         SQL_MYSQL_TIME_REPLACEMENTS[timeBasedSQLindex]
                                 .replace(ORIG_VALUE_TOKEN, originalParamValue)
-                                .replace(SLEEP_TOKEN, Integer.toString(sleep));
+                                .replace(SLEEP_TOKEN, Integer.toString(delay));
                 setParameter(msg3, paramName, newTimeBasedInjectionValue);
 
                 // send it.
@@ -389,7 +412,7 @@ public class SqlInjectionMySqlScanRule extends AbstractAppParamPlugin {
                 // add some small leeway on the time, since adding a 5 (by default) second delay in
                 // the SQL query will not cause the request
                 // to take a full 5 (by default) seconds longer to run than the original..
-                if (modifiedTimeUsed >= (originalTimeUsed + (sleep * 1000) - 200)) {
+                if (modifiedTimeUsed >= (originalTimeUsed + (delay * 1000) - 200)) {
                     // takes more than 5 (by default) extra seconds => likely time based SQL
                     // injection.
 
@@ -397,11 +420,12 @@ public class SqlInjectionMySqlScanRule extends AbstractAppParamPlugin {
                     HttpMessage msgc = getNewMsg();
                     try {
                         sendAndReceive(msgc, false); // do not follow redirects
+                        timeModel.record(msgc);
                     } catch (Exception e) {
                         // Ignore all exceptions
                     }
                     long checkTimeUsed = msgc.getTimeElapsedMillis();
-                    if (checkTimeUsed >= (originalTimeUsed + (sleep * 1000) - 200)) {
+                    if (checkTimeUsed >= (originalTimeUsed + (delay * 1000) - 200)) {
                         // Looks like the server is overloaded, very unlikely this is a real issue
                         continue;
                     }
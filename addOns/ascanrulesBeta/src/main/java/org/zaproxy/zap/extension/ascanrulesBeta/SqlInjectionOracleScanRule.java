@@ -30,6 +30,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
 
@@ -224,19 +226,28 @@ public class SqlInjectionOracleScanRule extends AbstractAppParamPlugin {
 
         try {
             // Timing Baseline check: we need to get the time that it took the original query, to
-            // know if the time based check is working correctly..
+            // know if the time based check is working correctly.. unless already known from the
+            // other requests of the scan.
+            ResponseTimeModel timeModel = ResponseTimeModel.getInstance(getParent());
             HttpMessage msgTimeBaseline = getNewMsg();
-            try {
-                sendAndReceive(msgTimeBaseline, false); // do not follow redirects
-            } catch (java.net.SocketTimeoutException e) {
-                // to be expected occasionally, if the base query was one that contains some
-                // parameters exploiting time based SQL injection?
-                log.debug(
-                        "The Base Time Check timed out on [{}] URL [{}]",
-                        msgTimeBaseline.getRequestHeader().getMethod(),
-                        msgTimeBaseline.getRequestHeader().getURI());
+            Baseline timeBaseline = timeModel.getBaseline(msgTimeBaseline);
+            long originalTimeUsed;
+            if (timeBaseline != null) {
+                originalTimeUsed = timeBaseline.getMean();
+            } else {
+                try {
+                    sendAndReceive(msgTimeBaseline, false); // do not follow redirects
+                } catch (java.net.SocketTimeoutException e) {
+                    // to be expected occasionally, if the base query was one that contains some
+                    // parameters exploiting time based SQL injection?
+                    log.debug(
+                            "The Base Time Check timed out on [{}] URL [{}]",
+                            msgTimeBaseline.getRequestHeader().getMethod(),
+                            msgTimeBaseline.getRequestHeader().getURI());
+                }
+                originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
+                timeModel.record(msgTimeBaseline);
             }
-            long originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
             // end of timing baseline check
 
             int countUnionBasedRequests = 0;
@@ -290,6 +301,7 @@ public class SqlInjectionOracleScanRule extends AbstractAppParamPlugin {
                     HttpMessage msgc = getNewMsg();
                     try {
                         sendAndReceive(msgc, false); // do not follow redirects
+                        timeModel.record(msgc);
                     } catch (Exception e) {
                         // Ignore all exceptions
                     }
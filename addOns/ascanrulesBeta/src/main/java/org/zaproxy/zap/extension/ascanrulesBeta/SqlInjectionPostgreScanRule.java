@@ -32,6 +32,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
@@ -259,28 +261,42 @@ public class SqlInjectionPostgreScanRule extends AbstractAppParamPlugin {
     public void scan(HttpMessage originalMessage, String paramName, String paramValue) {
         try {
             // Timing Baseline check: we need to get the time that it took the original query, to
-            // know if the time based check is working correctly..
+            // know if the time based check is working correctly.. unless already known from the
+            // other requests of the scan.
+            ResponseTimeModel timeModel = ResponseTimeModel.getInstance(getParent());
             HttpMessage msgTimeBaseline = getNewMsg();
-            try {
-                sendAndReceive(msgTimeBaseline, false); // do not follow redirects
-            } catch (java.net.SocketTimeoutException e) {
-                // to be expected occasionally, if the base query was one that contains some
-                // parameters exploiting time based SQL injection?
-                log.debug(
-                        "The Base Time Check timed out on [{}] URL [{}]",
-                        msgTimeBaseline.getRequestHeader().getMethod(),
-                        msgTimeBaseline.getRequestHeader().getURI().toString());
-            } catch (SocketException ex) {
-                log.debug(
-                        "Caught {} {} when accessing: {}",
-                        ex.getClass().getName(),
-                        ex.getMessage(),
-                        msgTimeBaseline.getRequestHeader().getURI().toString());
-                return; // No need to keep going
+            Baseline timeBaseline = timeModel.getBaseline(msgTimeBaseline);
+            long originalTimeUsed;
+            if (timeBaseline != null) {
+                originalTimeUsed = timeBaseline.getMean();
+            } else {
+                try {
+                    sendAndReceive(msgTimeBaseline, false); // do not follow redirects
+                } catch (java.net.SocketTimeoutException e) {
+                    // to be expected occasionally, if the base query was one that contains some
+                    // parameters exploiting time based SQL injection?
+                    log.debug(
+                            "The Base Time Check timed out on [{}] URL [{}]",
+                            msgTimeBaseline.getRequestHeader().getMethod(),
+                            msgTimeBaseline.getRequestHeader().getURI().toString());
+                } catch (SocketException ex) {
+                    log.debug(
+                            "Caught {} {} when accessing: {}",
+                            ex.getClass().getName(),
+                            ex.getMessage(),
+                            msgTimeBaseline.getRequestHeader().getURI().toString());
+                    return; // No need to keep going
+                }
+                originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
+                timeModel.record(msgTimeBaseline);
             }
-            long originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
             // end of timing baseline check
 
+            // the smallest delay that is significant for the response times of the endpoint
+            long delayMillis =
+                    ResponseTimeModel.calibrateDelay(timeBaseline, sleepInSeconds * 1000L, 1000);
+            int delay = (int) (delayMillis / 1000);
+
             int countTimeBasedRequests = 0;
 
             log.debug(
@@ -300,7 +316,7 @@ public class SqlInjectionPostgreScanRule extends AbstractAppParamPlugin {
                 String newTimeBasedInjectionValue =
                         SQL_POSTGRES_TIME_REPLACEMENTS[timeBasedSQLindex]
                                 .replace(ORIG_VALUE_TOKEN, paramValue)
-                                .replace(SLEEP_TOKEN, Integer.toString(sleepInSeconds));
+                                .replace(SLEEP_TOKEN, Integer.toString(delay));
 
                 setParameter(msgAttack, paramName, newTimeBasedInjectionValue);
 
@@ -334,7 +350,7 @@ public class SqlInjectionPostgreScanRule extends AbstractAppParamPlugin {
                         modifiedTimeUsed,
                         originalTimeUsed);
 
-                if (modifiedTimeUsed >= (originalTimeUsed + (sleepInSeconds * 1000))) {
+                if (modifiedTimeUsed >= (originalTimeUsed + (delay * 1000))) {
                     // takes more than 15 (by default) extra seconds => likely time based SQL
                     // injection
 
@@ -342,11 +358,12 @@ public class SqlInjectionPostgreScanRule extends AbstractAppParamPlugin {
                     HttpMessage msgc = getNewMsg();
                     try {
                         sendAndReceive(msgc, false); // do not follow redirects
+                        timeModel.record(msgc);
                     } catch (Exception e) {
                         // Ignore all exceptions
                     }
                     long checkTimeUsed = msgc.getTimeElapsedMillis();
-                    if (checkTimeUsed >= (originalTimeUsed + (this.sleepInSeconds * 1000) - 200)) {
+                    if (checkTimeUsed >= (originalTimeUsed + (delay * 1000) - 200)) {
                         // Looks like the server is overloaded, very unlikely this is a real issue
                         continue;
                     }
@@ -34,6 +34,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
 
@@ -313,51 +315,67 @@ public class SqlInjectionSqLiteScanRule extends AbstractAppParamPlugin {
 
             // Do time based SQL injection checks..
             // Timing Baseline check: we need to get the time that it took the original query, to
-            // know if the time based check is working correctly..
+            // know if the time based check is working correctly.. unless already known from the
+            // other requests of the scan.
+            ResponseTimeModel timeModel = ResponseTimeModel.getInstance(getParent());
             HttpMessage msgTimeBaseline = getNewMsg();
-            try {
-                sendAndReceive(msgTimeBaseline);
-            } catch (java.net.SocketTimeoutException e) {
-                // to be expected occasionally, if the base query was one that contains some
-                // parameters exploiting time based SQL injection?
-                log.debug(
-                        "The Base Time Check timed out on [{}] URL [{}]",
-                        msgTimeBaseline.getRequestHeader().getMethod(),
-                        msgTimeBaseline.getRequestHeader().getURI());
-            }
-            long originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
-            // if the time was very slow (because JSP was being compiled on first call, for
-            // instance)
-            // then the rest of the time based logic will fail.  Lets double-check for that scenario
-            // by requesting the url again.
-            // If it comes back in a more reasonable time, we will use that time instead as our
-            // baseline.  If it come out in a slow fashion again,
-            // we will abort the check on this URL, since we will only spend lots of time trying
-            // request, when we will (very likely) not get positive results.
-            if (originalTimeUsed > expectedDelayInMs) {
+            Baseline timeBaseline = timeModel.getBaseline(msgTimeBaseline);
+            long originalTimeUsed;
+            if (timeBaseline != null) {
+                originalTimeUsed = timeBaseline.getMean();
+                if (originalTimeUsed > expectedDelayInMs) {
+                    // as with the base time checks, too slow to be usable.
+                    log.debug(
+                            "The known response times for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
+                            msgTimeBaseline.getRequestHeader().getMethod(),
+                            msgTimeBaseline.getRequestHeader().getURI());
+                    return;
+                }
+            } else {
                 try {
                     sendAndReceive(msgTimeBaseline);
                 } catch (java.net.SocketTimeoutException e) {
                     // to be expected occasionally, if the base query was one that contains some
                     // parameters exploiting time based SQL injection?
                     log.debug(
-                            "Base Time Check 2 timed out on [{}] URL [{}]",
+                            "The Base Time Check timed out on [{}] URL [{}]",
                             msgTimeBaseline.getRequestHeader().getMethod(),
                             msgTimeBaseline.getRequestHeader().getURI());
                 }
-                long originalTimeUsed2 = msgTimeBaseline.getTimeElapsedMillis();
-                if (originalTimeUsed2 > expectedDelayInMs) {
-                    // no better the second time around.  we need to bale out.
-                    log.debug(
-                            "Both base time checks 1 and 2 for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
-                            msgTimeBaseline.getRequestHeader().getMethod(),
-                            msgTimeBaseline.getRequestHeader().getURI());
-                    return;
-                } else {
-                    // phew.  the second time came in within the limits. use the later timing
-                    // details as the base time for the checks.
-                    originalTimeUsed = originalTimeUsed2;
+                originalTimeUsed = msgTimeBaseline.getTimeElapsedMillis();
+                // if the time was very slow (because JSP was being compiled on first call, for
+                // instance) then the rest of the time based logic will fail.  Lets double-check for
+                // that scenario by requesting the url again.
+                // If it comes back in a more reasonable time, we will use that time instead as our
+                // baseline.  If it come out in a slow fashion again, we will abort the check on
+                // this URL, since we will only spend lots of time trying request, when we will
+                // (very likely) not get positive results.
+                if (originalTimeUsed > expectedDelayInMs) {
+                    try {
+                        sendAndReceive(msgTimeBaseline);
+                    } catch (java.net.SocketTimeoutException e) {
+                        // to be expected occasionally, if the base query was one that contains
+                        // some parameters exploiting time based SQL injection?
+                        log.debug(
+                                "Base Time Check 2 timed out on [{}] URL [{}]",
+                                msgTimeBaseline.getRequestHeader().getMethod(),
+                                msgTimeBaseline.getRequestHeader().getURI());
+                    }
+                    long originalTimeUsed2 = msgTimeBaseline.getTimeElapsedMillis();
+                    if (originalTimeUsed2 > expectedDelayInMs) {
+                        // no better the second time around.  we need to bale out.
+                        log.debug(
+                                "Both base time checks 1 and 2 for [{}] URL [{}] are way too slow to be usable for the purposes of checking for time based SQL Injection checking.  We are aborting the check on this particular url.",
+                                msgTimeBaseline.getRequestHeader().getMethod(),
+                                msgTimeBaseline.getRequestHeader().getURI());
+                        return;
+                    } else {
+                        // phew.  the second time came in within the limits. use the later
+                        // timing details as the base time for the checks.
+                        originalTimeUsed = originalTimeUsed2;
+                    }
                 }
+                timeModel.record(msgTimeBaseline);
             }
             // end of timing baseline check
 
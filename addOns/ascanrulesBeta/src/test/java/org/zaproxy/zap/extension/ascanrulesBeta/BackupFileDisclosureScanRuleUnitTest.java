@@ -36,6 +36,7 @@ import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.NotFoundFingerprintCache;
 import org.zaproxy.zap.testutils.NanoServerHandler;
 import org.zaproxy.zap.utils.ZapXmlConfiguration;
 
@@ -288,6 +289,33 @@ class BackupFileDisclosureScanRuleUnitTest extends ActiveScannerTest<BackupFileD
         assertThat(alertsRaised, hasSize(1));
     }
 
+    @Test
+    void shouldRequestNonExistentFileAndFolderOncePerDirectory() throws Exception {
+        // Given
+        String test = "/";
+        nano.addHandler(
+                new NanoServerHandler(test) {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        return newFixedLengthResponse(
+                                Response.Status.NOT_FOUND, NanoHTTPD.MIME_HTML, "Not Found");
+                    }
+                });
+        HttpMessage message = getHttpMessage("/dir/index.html");
+        HttpMessage otherMessage = getHttpMessage("/dir/other.html");
+        NotFoundFingerprintCache notFoundCache = NotFoundFingerprintCache.getInstance(parent);
+        // When
+        rule.init(message, parent);
+        rule.scan();
+        rule.init(otherMessage, parent);
+        rule.scan();
+        // Then
+        assertThat(alertsRaised, hasSize(0));
+        assertThat(notFoundCache.getRequestsSent(), is(equalTo(2L)));
+        assertThat(notFoundCache.getRequestsSaved(), is(equalTo(2L)));
+    }
+
     @Test
     void shouldReturnExpectedMappings() {
         // Given / When
@@ -0,0 +1,156 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.ascanrulesBeta;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.Test;
+import org.parosproxy.paros.core.scanner.HostProcess;
+
+/** Unit test for {@link GitIndexEntryCache}. */
+class GitIndexEntryCacheUnitTest {
+
+    private static final URI INDEX_A = createUri("http://example.com/.git/index");
+    private static final URI INDEX_B = createUri("http://example.com/dir/.git/index");
+    private static final URI INDEX_C = createUri("http://example.com/other/.git/index");
+    private static final URI ENTRY_1 = createUri("http://example.com/file1.php");
+    private static final URI ENTRY_2 = createUri("http://example.com/file2.php");
+    private static final URI ENTRY_3 = createUri("http://example.com/file3.php");
+
+    @Test
+    void shouldPutAndGetIndexEntries() {
+        // Given
+        GitIndexEntryCache cache = new GitIndexEntryCache(10, 10);
+        Map<URI, String> entries = new HashMap<>();
+        entries.put(ENTRY_1, "sha1");
+        // When
+        cache.putIndex(INDEX_A, entries);
+        cache.putIndexEntry(INDEX_A, ENTRY_2, "sha2");
+        // Then
+        assertThat(cache.isIndexCached(INDEX_A), is(equalTo(true)));
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_1), is(equalTo(true)));
+        assertThat(cache.getIndexEntry(INDEX_A, ENTRY_1), is(equalTo("sha1")));
+        assertThat(cache.getIndexEntry(INDEX_A, ENTRY_2), is(equalTo("sha2")));
+        assertThat(cache.isIndexCached(INDEX_B), is(equalTo(false)));
+        assertThat(cache.getIndexEntry(INDEX_B, ENTRY_1), is(nullValue()));
+    }
+
+    @Test
+    void shouldEvictOldestIndexWhenFull() {
+        // Given
+        GitIndexEntryCache cache = new GitIndexEntryCache(1, 10);
+        cache.putIndexEntry(INDEX_A, ENTRY_1, "sha1");
+        // When
+        cache.putIndexEntry(INDEX_B, ENTRY_1, "sha1");
+        // Then
+        assertThat(cache.isIndexCached(INDEX_A), is(equalTo(false)));
+        assertThat(cache.isIndexCached(INDEX_B), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedIndexWhenFull() {
+        // Given
+        GitIndexEntryCache cache = new GitIndexEntryCache(2, 10);
+        cache.putIndexEntry(INDEX_A, ENTRY_1, "sha1");
+        cache.putIndexEntry(INDEX_B, ENTRY_1, "sha1");
+        cache.getIndexEntry(INDEX_A, ENTRY_1);
+        // When
+        cache.putIndexEntry(INDEX_C, ENTRY_1, "sha1");
+        // Then
+        assertThat(cache.isIndexCached(INDEX_A), is(equalTo(true)));
+        assertThat(cache.isIndexCached(INDEX_B), is(equalTo(false)));
+        assertThat(cache.isIndexCached(INDEX_C), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldLimitEntriesPerIndexKeepingTheLastOnes() {
+        // Given
+        GitIndexEntryCache cache = new GitIndexEntryCache(10, 1);
+        cache.putIndexEntry(INDEX_A, ENTRY_1, "sha1");
+        // When
+        cache.putIndexEntry(INDEX_A, ENTRY_2, "sha2");
+        // Then
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_1), is(equalTo(false)));
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_2), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldLimitEntriesOfIndexKeepingTheLastOnes() {
+        // Given
+        GitIndexEntryCache cache = new GitIndexEntryCache(10, 2);
+        Map<URI, String> entries = new LinkedHashMap<>();
+        entries.put(ENTRY_1, "sha1");
+        entries.put(ENTRY_2, "sha2");
+        entries.put(ENTRY_3, "sha3");
+        // When
+        cache.putIndex(INDEX_A, entries);
+        // Then
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_1), is(equalTo(false)));
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_2), is(equalTo(true)));
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_3), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        // Given
+        GitIndexEntryCache cache = new GitIndexEntryCache(10, 2);
+        cache.putIndexEntry(INDEX_A, ENTRY_1, "sha1");
+        cache.putIndexEntry(INDEX_A, ENTRY_2, "sha2");
+        cache.getIndexEntry(INDEX_A, ENTRY_1);
+        // When
+        cache.putIndexEntry(INDEX_A, ENTRY_3, "sha3");
+        // Then
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_1), is(equalTo(true)));
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_2), is(equalTo(false)));
+        assertThat(cache.isIndexEntryCached(INDEX_A, ENTRY_3), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldHaveOneInstancePerHostProcess() {
+        // Given
+        HostProcess parent = mock(HostProcess.class);
+        HostProcess otherParent = mock(HostProcess.class);
+        // When
+        GitIndexEntryCache cache = GitIndexEntryCache.getInstance(parent);
+        GitIndexEntryCache sameCache = GitIndexEntryCache.getInstance(parent);
+        GitIndexEntryCache otherCache = GitIndexEntryCache.getInstance(otherParent);
+        // Then
+        assertThat(sameCache, is(sameInstance(cache)));
+        assertThat(otherCache, is(not(sameInstance(cache))));
+    }
+
+    private static URI createUri(String uri) {
+        try {
+            return new URI(uri, true);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
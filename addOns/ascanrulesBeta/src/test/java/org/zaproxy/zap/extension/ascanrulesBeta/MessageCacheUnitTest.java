@@ -0,0 +1,270 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.ascanrulesBeta;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.testutils.TestUtils;
+
+/** Unit test for {@link MessageCache}. */
+class MessageCacheUnitTest extends TestUtils {
+
+    private static final URI URI_A = createUri("http://example.com/.git/index");
+    private static final URI URI_B = createUri("http://example.com/dir/.git/index");
+
+    private HostProcess parent;
+    private HttpSender httpSender;
+    private HttpMessage baseMsg;
+    private AtomicLong clock;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        parent = mock(HostProcess.class);
+        httpSender = mock(HttpSender.class);
+        given(parent.getHttpSender()).willReturn(httpSender);
+        baseMsg = new HttpMessage();
+        clock = new AtomicLong();
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldFetchAndCacheMessage() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, 100);
+        // When
+        HttpMessage msg1 = cache.getMessage(URI_A, baseMsg, false);
+        HttpMessage msg2 = cache.getMessage(URI_A, baseMsg, false);
+        // Then
+        assertThat(msg2, is(sameInstance(msg1)));
+        assertThat(cache.isMessageCached(URI_A), is(equalTo(true)));
+        verify(httpSender).sendAndReceive(msg1, false);
+        verify(parent).notifyNewMessage(msg1);
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldFetchSameUriOnlyOnceWhenRequestedConcurrently() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, 100);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        willAnswer(
+                        invocation -> {
+                            sending.countDown();
+                            release.await();
+                            return null;
+                        })
+                .given(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        // When
+        Future<HttpMessage> first = executor.submit(() -> cache.getMessage(URI_A, baseMsg, false));
+        sending.await();
+        Future<HttpMessage> second = executor.submit(() -> cache.getMessage(URI_A, baseMsg, false));
+        release.countDown();
+        // Then
+        assertThat(second.get(), is(sameInstance(first.get())));
+        verify(httpSender, times(1)).sendAndReceive(any(HttpMessage.class), anyBoolean());
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldFetchDifferentUrisInParallel() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, 100);
+        CountDownLatch bothSending = new CountDownLatch(2);
+        willAnswer(
+                        invocation -> {
+                            bothSending.countDown();
+                            if (!bothSending.await(5, TimeUnit.SECONDS)) {
+                                throw new IOException("Not sent in parallel.");
+                            }
+                            return null;
+                        })
+                .given(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        // When
+        Future<HttpMessage> a = executor.submit(() -> cache.getMessage(URI_A, baseMsg, false));
+        Future<HttpMessage> b = executor.submit(() -> cache.getMessage(URI_B, baseMsg, false));
+        // Then
+        assertThat(a.get().getRequestHeader().getURI(), is(equalTo(URI_A)));
+        assertThat(b.get().getRequestHeader().getURI(), is(equalTo(URI_B)));
+    }
+
+    @Test
+    void shouldNotCacheFailedFetch() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, 100);
+        willThrow(IOException.class)
+                .willAnswer(invocation -> null)
+                .given(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        // When
+        assertThrows(IOException.class, () -> cache.getMessage(URI_A, baseMsg, false));
+        boolean cachedAfterFailure = cache.isMessageCached(URI_A);
+        HttpMessage msg = cache.getMessage(URI_A, baseMsg, false);
+        // Then
+        assertThat(cachedAfterFailure, is(equalTo(false)));
+        assertThat(msg, is(not(equalTo(null))));
+        assertThat(cache.isMessageCached(URI_A), is(equalTo(true)));
+        verify(httpSender, times(2)).sendAndReceive(any(HttpMessage.class), anyBoolean());
+    }
+
+    @Test
+    void shouldFetchAgainExpiredMessage() throws Exception {
+        // Given
+        MessageCache cache = createCache(10, 100);
+        HttpMessage msg1 = cache.getMessage(URI_A, baseMsg, false);
+        clock.addAndGet(100);
+        // When
+        boolean cached = cache.isMessageCached(URI_A);
+        HttpMessage msg2 = cache.getMessage(URI_A, baseMsg, false);
+        // Then
+        assertThat(cached, is(equalTo(false)));
+        assertThat(msg2, is(not(sameInstance(msg1))));
+        verify(httpSender, times(2)).sendAndReceive(any(HttpMessage.class), anyBoolean());
+    }
+
+    @Test
+    void shouldEvictOldestMessageWhenFull() throws Exception {
+        // Given
+        MessageCache cache = createCache(1, 100);
+        cache.getMessage(URI_A, baseMsg, false);
+        clock.incrementAndGet();
+        // When
+        cache.getMessage(URI_B, baseMsg, false);
+        // Then
+        assertThat(cache.isMessageCached(URI_A), is(equalTo(false)));
+        assertThat(cache.isMessageCached(URI_B), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldHaveOneInstancePerHostProcess() {
+        // Given
+        HostProcess otherParent = mock(HostProcess.class);
+        // When
+        MessageCache cache = MessageCache.getInstance(parent);
+        MessageCache sameCache = MessageCache.getInstance(parent);
+        MessageCache otherCache = MessageCache.getInstance(otherParent);
+        // Then
+        assertThat(sameCache, is(sameInstance(cache)));
+        assertThat(otherCache, is(not(sameInstance(cache))));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldRemoveInstanceWhenHostProcessNoLongerUsed() throws Exception {
+        // Given
+        int instancesCount = MessageCache.getInstancesCount();
+        HostProcess hostProcess = mock(HostProcess.class);
+        WeakReference<MessageCache> cache =
+                new WeakReference<>(MessageCache.getInstance(hostProcess));
+        WeakReference<HostProcess> hostProcessRef = new WeakReference<>(hostProcess);
+        // When
+        hostProcess = null;
+        while (hostProcessRef.get() != null
+                || cache.get() != null
+                || MessageCache.getInstancesCount() > instancesCount) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        // Then
+        assertThat(MessageCache.getInstancesCount(), is(lessThanOrEqualTo(instancesCount)));
+    }
+
+    @Test
+    void shouldCreateInstanceWithGivenSizeAndTtl() throws Exception {
+        // Given
+        MessageCache cache = MessageCache.getInstance(parent, 1, 1, TimeUnit.MINUTES);
+        cache.getMessage(URI_A, baseMsg, false);
+        // When
+        cache.getMessage(URI_B, baseMsg, false);
+        // Then
+        assertThat(cache.isMessageCached(URI_A), is(equalTo(false)));
+        assertThat(cache.isMessageCached(URI_B), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldKeepExistingInstanceRegardlessOfSizeAndTtl() {
+        // Given
+        MessageCache cache = MessageCache.getInstance(parent);
+        // When
+        MessageCache sameCache = MessageCache.getInstance(parent, 1, 1, TimeUnit.MINUTES);
+        // Then
+        assertThat(sameCache, is(sameInstance(cache)));
+    }
+
+    @Test
+    void shouldNotAllowNonPositiveSizeOrTtl() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new MessageCache(parent, 0, 1, TimeUnit.SECONDS));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new MessageCache(parent, 1, 0, TimeUnit.SECONDS));
+    }
+
+    private MessageCache createCache(int maxSize, long ttlNanos) {
+        return new MessageCache(parent, maxSize, ttlNanos, clock::get);
+    }
+
+    private static URI createUri(String uri) {
+        try {
+            return new URI(uri, true);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
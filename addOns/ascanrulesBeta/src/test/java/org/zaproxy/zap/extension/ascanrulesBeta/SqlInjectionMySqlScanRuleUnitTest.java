@@ -27,10 +27,12 @@ import static org.hamcrest.Matchers.is;
 import fi.iki.elonen.NanoHTTPD.IHTTPSession;
 import fi.iki.elonen.NanoHTTPD.Response;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
 import org.zaproxy.zap.testutils.NanoServerHandler;
@@ -101,6 +103,93 @@ class SqlInjectionMySqlScanRuleUnitTest extends ActiveScannerTest<SqlInjectionMy
         assertThat(alertsRaised.get(0).getConfidence(), equalTo(Alert.CONFIDENCE_MEDIUM));
     }
 
+    @Test
+    void shouldUseKnownResponseTimesInsteadOfBaselineAndCalibrateSleep() throws Exception {
+        // Given
+        String test = "/shouldUseKnownResponseTimes/";
+        AtomicInteger nonAttackRequests = new AtomicInteger();
+        this.nano.addHandler(
+                new NanoServerHandler(test) {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        String name = getFirstParamValue(session, "name");
+                        if (name != null && name.contains(" sleep(")) {
+                            try {
+                                Thread.sleep(3100);
+                            } catch (InterruptedException e) {
+                                // Ignore
+                            }
+                        } else {
+                            nonAttackRequests.incrementAndGet();
+                        }
+                        return newFixedLengthResponse("<html><body></body></html>");
+                    }
+                });
+        HttpMessage msg = this.getHttpMessage(test + "?name=test");
+        recordSamples(ResponseTimeModel.getInstance(parent), msg, 10);
+        this.rule.init(msg, this.parent);
+        this.rule.setSleepInSeconds(5);
+        // When
+        this.rule.scan();
+        // Then
+        assertThat(alertsRaised.size(), equalTo(1));
+        assertThat(alertsRaised.get(0).getAttack(), equalTo("test' / sleep(3) / '"));
+        // Just the double check, no baseline.
+        assertThat(nonAttackRequests.get(), equalTo(1));
+    }
+
+    @Test
+    void shouldNotRecordResponseTimesOfInjectedRequests() throws Exception {
+        // Given
+        String test = "/shouldNotRecordResponseTimesOfInjectedRequests/";
+        this.nano.addHandler(
+                new NanoServerHandler(test) {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        return newFixedLengthResponse("<html><body></body></html>");
+                    }
+                });
+        HttpMessage msg = this.getHttpMessage(test + "?name=test");
+        ResponseTimeModel timeModel = ResponseTimeModel.getInstance(parent);
+        recordSamples(timeModel, msg, 10);
+        this.rule.init(msg, this.parent);
+        this.rule.setSleepInSeconds(5);
+        // When
+        this.rule.scan();
+        // Then
+        assertThat(alertsRaised.size(), equalTo(0));
+        assertThat(
+                timeModel.getBaseline(msg).getSamples(),
+                is(equalTo(ResponseTimeModel.MIN_SAMPLES)));
+    }
+
+    @Test
+    void shouldNotScanIfKnownResponseTimesAreSlowerThanSleep() throws Exception {
+        // Given
+        String test = "/shouldNotScanIfKnownResponseTimesAreSlowerThanSleep/";
+        AtomicInteger requests = new AtomicInteger();
+        this.nano.addHandler(
+                new NanoServerHandler(test) {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        requests.incrementAndGet();
+                        return newFixedLengthResponse("<html><body></body></html>");
+                    }
+                });
+        HttpMessage msg = this.getHttpMessage(test + "?name=test");
+        recordSamples(ResponseTimeModel.getInstance(parent), msg, 6000);
+        this.rule.init(msg, this.parent);
+        this.rule.setSleepInSeconds(5);
+        // When
+        this.rule.scan();
+        // Then
+        assertThat(alertsRaised.size(), equalTo(0));
+        assertThat(requests.get(), equalTo(0));
+    }
+
     @Test
     void shouldNotAlertIfAllTimesGetLonger() throws Exception {
         String test = "/shouldNotReportGeneralTimingIssue/";
@@ -160,4 +249,14 @@ class SqlInjectionMySqlScanRuleUnitTest extends ActiveScannerTest<SqlInjectionMy
                 tags.get(CommonAlertTag.WSTG_V42_INPV_05_SQLI.getTag()),
                 is(equalTo(CommonAlertTag.WSTG_V42_INPV_05_SQLI.getValue())));
     }
+
+    private static void recordSamples(ResponseTimeModel timeModel, HttpMessage msg, int time)
+            throws Exception {
+        for (int i = 0; i < ResponseTimeModel.MIN_SAMPLES; i++) {
+            HttpMessage sample = msg.cloneRequest();
+            sample.setResponseHeader("HTTP/1.1 200 OK\r\n");
+            sample.setTimeElapsedMillis(time);
+            timeModel.record(sample);
+        }
+    }
 }
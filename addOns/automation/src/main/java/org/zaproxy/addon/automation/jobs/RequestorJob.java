@@ -49,6 +49,9 @@ public class RequestorJob extends AutomationJob {
     public static final String JOB_NAME = "requestor";
     private static final String REQUESTS = "requests";
 
+    // The number of messages added to the History and Sites tree at once
+    private static final int PERSIST_BATCH_SIZE = 100;
+
     private Parameters parameters = new Parameters();
     private Data data;
 
@@ -130,7 +133,20 @@ public class RequestorJob extends AutomationJob {
 
     @Override
     public void runJob(AutomationEnvironment env, AutomationProgress progress) {
+        List<HistoryReference> pendingRefs = new ArrayList<>(PERSIST_BATCH_SIZE);
+        List<HttpMessage> pendingMsgs = new ArrayList<>(PERSIST_BATCH_SIZE);
+        try {
+            sendRequests(env, progress, pendingRefs, pendingMsgs);
+        } finally {
+            persistToHistoryAndSitesTree(pendingRefs, pendingMsgs);
+        }
+    }
 
+    private void sendRequests(
+            AutomationEnvironment env,
+            AutomationProgress progress,
+            List<HistoryReference> pendingRefs,
+            List<HttpMessage> pendingMsgs) {
         for (Request req : this.getData().getRequests()) {
             HttpMessage msg = new HttpMessage();
             String method = req.getMethod();
@@ -183,7 +199,14 @@ public class RequestorJob extends AutomationJob {
                                 "automation.error.requestor.badnetwork", this.getName(), name, e));
                 return;
             }
-            persistToHistoryAndSitesTree(msg);
+            HistoryReference historyRef = createHistoryReference(msg);
+            if (historyRef != null) {
+                pendingRefs.add(historyRef);
+                pendingMsgs.add(msg);
+                if (pendingRefs.size() >= PERSIST_BATCH_SIZE) {
+                    persistToHistoryAndSitesTree(pendingRefs, pendingMsgs);
+                }
+            }
             if (req.getResponseCode() != null) {
                 int receivedCode = msg.getResponseHeader().getStatusCode();
                 if (receivedCode != req.getResponseCode()) {
@@ -205,28 +228,40 @@ public class RequestorJob extends AutomationJob {
                 + "        method:                       # A non-empty request method\n";
     }
 
-    private void persistToHistoryAndSitesTree(HttpMessage msg) {
-        HistoryReference historyRef;
-        ExtensionHistory extHistory =
-                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
+    private static HistoryReference createHistoryReference(HttpMessage msg) {
         try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(), HistoryReference.TYPE_ZAP_USER, msg);
+            return new HistoryReference(
+                    Model.getSingleton().getSession(), HistoryReference.TYPE_ZAP_USER, msg);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static void persistToHistoryAndSitesTree(
+            List<HistoryReference> historyRefs, List<HttpMessage> msgs) {
+        if (historyRefs.isEmpty()) {
             return;
         }
 
+        ExtensionHistory extHistory =
+                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
         try {
             ThreadUtils.invokeAndWait(
                     () -> {
-                        extHistory.addHistory(historyRef);
-                        Model.getSingleton().getSession().getSiteTree().addPath(historyRef, msg);
+                        for (int i = 0; i < historyRefs.size(); i++) {
+                            extHistory.addHistory(historyRefs.get(i));
+                            Model.getSingleton()
+                                    .getSession()
+                                    .getSiteTree()
+                                    .addPath(historyRefs.get(i), msgs.get(i));
+                        }
                     });
         } catch (Exception e) {
-            LOG.error("Could not add message to sites tree.", e);
+            LOG.error("Could not add messages to sites tree.", e);
         }
+        historyRefs.clear();
+        msgs.clear();
     }
 
     @Override
@@ -0,0 +1,149 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Finds which of a set of literals occur in a text, in a single pass over the text
+ * (Aho-Corasick).
+ *
+ * <p>The literals are compared ignoring the case. The class is thread-safe, once constructed it
+ * can be used concurrently.
+ *
+ * @since 1.9.0
+ * @see MultiPatternMatcher
+ */
+public class LiteralMatcher {
+
+    private static final char LONG_S = '\u017F';
+    private static final char DOTLESS_I = '\u0131';
+
+    private final Node root;
+
+    /**
+     * Constructs a {@code LiteralMatcher} for the given literals.
+     *
+     * <p>Empty literals are ignored.
+     *
+     * @param literals the literals.
+     * @throws NullPointerException if the given collection is, or contains, {@code null}.
+     */
+    public LiteralMatcher(Collection<String> literals) {
+        root = new Node();
+        for (String literal : literals) {
+            if (literal.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.children.computeIfAbsent(normalise(literal.charAt(i)), c -> new Node());
+            }
+            if (node.literals == null) {
+                node.literals = new HashSet<>(1);
+            }
+            node.literals.add(literal);
+        }
+        buildFailureLinks();
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+
+                Node failure = node.failure;
+                while (failure != null && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                child.failure = failure == null ? root : failure.children.get(c);
+                child.output =
+                        child.failure.literals != null ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static char normalise(char c) {
+        char lower = Character.toLowerCase(c);
+        switch (lower) {
+            case LONG_S:
+                // Case folds to 's'.
+                return 's';
+            case DOTLESS_I:
+                // Case folds to 'i'.
+                return 'i';
+            default:
+                return lower;
+        }
+    }
+
+    /**
+     * Finds the literals that occur in the given text.
+     *
+     * @param text the text to search.
+     * @return the literals found, as given when constructed, never {@code null}.
+     * @throws NullPointerException if the given text is {@code null}.
+     */
+    public Set<String> findAll(CharSequence text) {
+        Set<String> found = new HashSet<>();
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalise(text.charAt(i));
+            Node next = node.children.get(c);
+            while (next == null && node != root) {
+                node = node.failure;
+                next = node.children.get(c);
+            }
+            node = next == null ? root : next;
+
+            if (node.literals != null) {
+                found.addAll(node.literals);
+            }
+            for (Node output = node.output; output != null; output = output.output) {
+                found.addAll(output.literals);
+            }
+        }
+        return found;
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+        private Node failure;
+        /** The nearest node, through the failure links, that ends a literal. */
+        private Node output;
+        private Set<String> literals;
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import net.htmlparser.jericho.Element;
+import net.htmlparser.jericho.HTMLElementName;
+import net.htmlparser.jericho.OutputDocument;
+import net.htmlparser.jericho.Source;
+import net.htmlparser.jericho.StartTag;
+import net.htmlparser.jericho.StartTagType;
+import net.htmlparser.jericho.Tag;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpResponseHeader;
+import org.zaproxy.zap.utils.Stats;
+
+/**
+ * The analysis of the response of a message, shared by the scan rules (and other components) that
+ * analyse the same message, for example, while passive scanning it.
+ *
+ * <p>The values (e.g. the decoded body, the parsed HTML) are obtained on demand, and only once per
+ * message. The context is kept per thread, the context of a message is released when the thread
+ * analyses another message or when explicitly {@link #release() released}, which allows to share
+ * it between all the rules that scan the message, as the passive scanner scans each message with
+ * all the rules in the same thread. The context is softly referenced, the JVM might also release
+ * it if memory is needed, the values are then obtained again.
+ *
+ * <p>The values are obtained from the message when first requested, so the message should not be
+ * changed while being analysed. A context is not usable for a message once its response changes,
+ * in which case a new context is created.
+ *
+ * <p>Add-ons can memoise their own values, for example, a document parsed with a specific parser,
+ * through {@link #get(Key, Function)}.
+ *
+ * <p>The number of values reused and created is kept in the statistics with the prefix {@value
+ * #STATS_PREFIX}, followed by the name of the value and {@code .hit} or {@code .miss}. The numbers
+ * are counted per context and added to the statistics when the context is released by the thread.
+ *
+ * <p><strong>Note:</strong> The contexts are not thread-safe, they should be used just by the
+ * thread that obtained them.
+ *
+ * @since 1.9.0
+ */
+public final class MessageAnalysisContext {
+
+    /** The prefix of the statistics of the values reused and created. */
+    public static final String STATS_PREFIX = "stats.commonlib.analysis.";
+
+    /** The key of the response body, as a string. */
+    public static final Key<String> RESPONSE_BODY = new Key<>("body");
+
+    /** The key of the response body, in lower case. */
+    public static final Key<String> RESPONSE_BODY_LOWER_CASE = new Key<>("body.lowercase");
+
+    /** The key of the offsets of the lines of the response body. */
+    public static final Key<int[]> RESPONSE_BODY_LINE_OFFSETS = new Key<>("body.lineoffsets");
+
+    /** The key of the response body, with the styles removed. */
+    public static final Key<String> RESPONSE_BODY_WITHOUT_STYLES = new Key<>("body.nostyles");
+
+    /** The key of the response body, parsed. */
+    public static final Key<Source> RESPONSE_SOURCE = new Key<>("source");
+
+    /** The key of the comments of the response body. */
+    public static final Key<List<String>> RESPONSE_COMMENTS = new Key<>("comments");
+
+    /** The key of the script elements of the response body. */
+    public static final Key<List<String>> RESPONSE_SCRIPTS = new Key<>("scripts");
+
+    private static final ThreadLocal<Current> CURRENT = new ThreadLocal<>();
+
+    private final HttpMessage message;
+    private final HttpResponseHeader responseHeader;
+    private final byte[] responseBody;
+    private final Map<Key<?>, Object> values;
+    private final KeyCounts counts;
+    private int hits;
+    private int misses;
+
+    private MessageAnalysisContext(HttpMessage message) {
+        this.message = message;
+        this.responseHeader = message.getResponseHeader();
+        this.responseBody = message.getResponseBody().getBytes();
+        this.values = new HashMap<>();
+        this.counts = new KeyCounts();
+    }
+
+    /**
+     * Gets the context of the given message, creating one if needed.
+     *
+     * <p>The context previously obtained by the current thread, for another message, is released.
+     *
+     * @param message the message.
+     * @return the context of the message, never {@code null}.
+     * @throws NullPointerException if the given message is {@code null}.
+     */
+    public static MessageAnalysisContext get(HttpMessage message) {
+        Objects.requireNonNull(message);
+        Current current = CURRENT.get();
+        MessageAnalysisContext context = current != null ? current.context.get() : null;
+        if (context == null || !context.isFor(message)) {
+            if (current != null) {
+                current.counts.report();
+            }
+            context = new MessageAnalysisContext(message);
+            CURRENT.set(new Current(context));
+        }
+        return context;
+    }
+
+    /**
+     * Gets the context of the given message, using the given source as the parsed response.
+     *
+     * <p>Allows to reuse the source parsed by the passive scanner. The given source replaces the
+     * one previously parsed, if any, the values obtained from that source are kept, as both have
+     * the same contents.
+     *
+     * @param message the message.
+     * @param source the source of the response body, might be {@code null}.
+     * @return the context of the message, never {@code null}.
+     * @throws NullPointerException if the given message is {@code null}.
+     * @see #get(HttpMessage)
+     */
+    public static MessageAnalysisContext get(HttpMessage message, Source source) {
+        MessageAnalysisContext context = get(message);
+        if (source != null) {
+            context.values.put(RESPONSE_SOURCE, source);
+        }
+        return context;
+    }
+
+    /**
+     * Releases the context obtained by the current thread, if any, adding the number of values
+     * reused and created to the statistics.
+     */
+    public static void release() {
+        Current current = CURRENT.get();
+        if (current != null) {
+            current.counts.report();
+            CURRENT.remove();
+        }
+    }
+
+    private boolean isFor(HttpMessage message) {
+        return this.message == message
+                && responseHeader == message.getResponseHeader()
+                && responseBody == message.getResponseBody().getBytes();
+    }
+
+    /**
+     * Gets the message of this context.
+     *
+     * @return the message.
+     */
+    public HttpMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the value with the given key, obtaining it with the given function if not yet
+     * obtained.
+     *
+     * @param <T> the type of the value.
+     * @param key the key of the value.
+     * @param loader the function to obtain the value, called at most once per message.
+     * @return the value.
+     * @throws NullPointerException if the key or the function are {@code null}.
+     */
+    public <T> T get(Key<T> key, Function<MessageAnalysisContext, T> loader) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(loader);
+
+        @SuppressWarnings("unchecked")
+        T value = (T) values.get(key);
+        if (value != null) {
+            hits++;
+            counts.hit(key);
+            return value;
+        }
+
+        misses++;
+        counts.miss(key);
+        value = loader.apply(this);
+        values.put(key, value);
+        return value;
+    }
+
+    /**
+     * Gets the response body, as a string.
+     *
+     * @return the response body.
+     */
+    public String getResponseBody() {
+        return get(RESPONSE_BODY, ctx -> message.getResponseBody().toString());
+    }
+
+    /**
+     * Gets the response body, in lower case.
+     *
+     * @return the response body in lower case.
+     */
+    public String getResponseBodyLowerCase() {
+        return get(
+                RESPONSE_BODY_LOWER_CASE, ctx -> ctx.getResponseBody().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the offsets of the lines of the response body, the lines are separated by {@code \n}.
+     *
+     * <p>The offset of the first line is always {@code 0}, even if the body is empty. The array
+     * should not be modified.
+     *
+     * @return the offsets, where each line starts.
+     * @see #getResponseBodyLine(int)
+     */
+    public int[] getResponseBodyLineOffsets() {
+        return get(RESPONSE_BODY_LINE_OFFSETS, ctx -> createLineOffsets(ctx.getResponseBody()));
+    }
+
+    private static int[] createLineOffsets(String body) {
+        int count = 1;
+        for (int i = 0; i < body.length(); i++) {
+            if (body.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        int[] offsets = new int[count];
+        int line = 1;
+        for (int i = 0; i < body.length() && line < count; i++) {
+            if (body.charAt(i) == '\n') {
+                offsets[line++] = i + 1;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the line of the response body with the given index, without the line separator.
+     *
+     * @param index the index of the line.
+     * @return the line.
+     * @throws IndexOutOfBoundsException if the index is not valid.
+     * @see #getResponseBodyLineOffsets()
+     */
+    public String getResponseBodyLine(int index) {
+        int[] offsets = getResponseBodyLineOffsets();
+        String body = getResponseBody();
+        int end = index + 1 < offsets.length ? offsets[index + 1] - 1 : body.length();
+        return body.substring(offsets[index], end);
+    }
+
+    /**
+     * Gets the response body parsed.
+     *
+     * @return the source of the response body.
+     */
+    public Source getResponseSource() {
+        return get(RESPONSE_SOURCE, ctx -> new Source(ctx.getResponseBody()));
+    }
+
+    /**
+     * Gets the response body with the style elements and attributes removed.
+     *
+     * @return the response body without styles.
+     */
+    public String getResponseBodyWithoutStyles() {
+        return get(RESPONSE_BODY_WITHOUT_STYLES, ctx -> removeStyles(ctx.getResponseSource()));
+    }
+
+    private static String removeStyles(Source source) {
+        OutputDocument outputDocument = new OutputDocument(source);
+        outputDocument.remove(source.getAllElements(HTMLElementName.STYLE));
+        for (StartTag startTag : source.getAllStartTags("style", null)) {
+            outputDocument.remove(startTag.getAttributes().get("style"));
+        }
+        return outputDocument.toString();
+    }
+
+    /**
+     * Gets the comments of the response body, including the comment delimiters.
+     *
+     * @return the comments, never {@code null}.
+     */
+    public List<String> getResponseComments() {
+        return get(
+                RESPONSE_COMMENTS,
+                ctx -> {
+                    List<Tag> tags = ctx.getResponseSource().getAllTags(StartTagType.COMMENT);
+                    List<String> comments = new ArrayList<>(tags.size());
+                    tags.forEach(tag -> comments.add(tag.toString()));
+                    return Collections.unmodifiableList(comments);
+                });
+    }
+
+    /**
+     * Gets the script elements of the response body, including the tags.
+     *
+     * @return the script elements, never {@code null}.
+     */
+    public List<String> getResponseScripts() {
+        return get(
+                RESPONSE_SCRIPTS,
+                ctx -> {
+                    List<Element> elements =
+                            ctx.getResponseSource().getAllElements(HTMLElementName.SCRIPT);
+                    List<String> scripts = new ArrayList<>(elements.size());
+                    elements.forEach(element -> scripts.add(element.toString()));
+                    return Collections.unmodifiableList(scripts);
+                });
+    }
+
+    /**
+     * Gets the number of values reused, in this context.
+     *
+     * @return the number of values reused.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of values created, in this context.
+     *
+     * @return the number of values created.
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /** The context of the current thread, with the counts kept even if the context is not. */
+    private static class Current {
+
+        private final SoftReference<MessageAnalysisContext> context;
+        private final KeyCounts counts;
+
+        Current(MessageAnalysisContext context) {
+            this.context = new SoftReference<>(context);
+            this.counts = context.counts;
+        }
+    }
+
+    /** The number of values reused and created, per key, not yet added to the statistics. */
+    private static class KeyCounts {
+
+        private final Map<Key<?>, int[]> counts = new HashMap<>();
+
+        void hit(Key<?> key) {
+            get(key)[0]++;
+        }
+
+        void miss(Key<?> key) {
+            get(key)[1]++;
+        }
+
+        private int[] get(Key<?> key) {
+            return counts.computeIfAbsent(key, k -> new int[2]);
+        }
+
+        void report() {
+            counts.forEach(
+                    (key, count) -> {
+                        if (count[0] != 0) {
+                            Stats.incCounter(key.hitStatsKey, count[0]);
+                        }
+                        if (count[1] != 0) {
+                            Stats.incCounter(key.missStatsKey, count[1]);
+                        }
+                    });
+            counts.clear();
+        }
+    }
+
+    /**
+     * The key of a value of the context.
+     *
+     * <p>The keys are compared by identity, each value should have its own constant key.
+     *
+     * @param <T> the type of the value.
+     */
+    public static final class Key<T> {
+
+        private final String name;
+        private final String hitStatsKey;
+        private final String missStatsKey;
+
+        /**
+         * Constructs a {@code Key} with the given name.
+         *
+         * @param name the name of the key, used in the statistics.
+         * @throws NullPointerException if the given name is {@code null}.
+         */
+        public Key(String name) {
+            this.name = Objects.requireNonNull(name);
+            this.hitStatsKey = STATS_PREFIX + name + ".hit";
+            this.missStatsKey = STATS_PREFIX + name + ".miss";
+        }
+
+        /**
+         * Gets the name of the key.
+         *
+         * @return the name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
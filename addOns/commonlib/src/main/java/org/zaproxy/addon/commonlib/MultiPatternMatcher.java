@@ -0,0 +1,328 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches a set of patterns against a text, screening the patterns in a single pass over the
+ * text.
+ *
+ * <p>The literals required by the patterns (see {@link RegexLiterals}) are searched all at once,
+ * with a {@link LiteralMatcher}, and only the patterns whose literal is present in the text (or
+ * that do not require any) are matched. The patterns are matched in the order they were added.
+ *
+ * <p>The class is thread-safe, once built it can be used concurrently.
+ *
+ * @param <T> the type of the keys associated with the patterns.
+ * @since 1.9.0
+ */
+public class MultiPatternMatcher<T> {
+
+    private static final Pattern LEADING_INLINE_FLAGS = Pattern.compile("^\\(\\?([a-zA-Z]+)\\)");
+
+    private final List<Entry<T>> entries;
+    private final LiteralMatcher literalMatcher;
+    private final Map<String, List<Integer>> entriesByLiteral;
+    private final BitSet unscreenedEntries;
+
+    private MultiPatternMatcher(List<Entry<T>> entries) {
+        this.entries = entries;
+        this.entriesByLiteral = new HashMap<>();
+        this.unscreenedEntries = new BitSet(entries.size());
+
+        for (int i = 0; i < entries.size(); i++) {
+            String literal = entries.get(i).getLiteral();
+            if (literal.isEmpty()) {
+                unscreenedEntries.set(i);
+            } else {
+                entriesByLiteral.computeIfAbsent(literal, k -> new ArrayList<>(1)).add(i);
+            }
+        }
+        this.literalMatcher = new LiteralMatcher(entriesByLiteral.keySet());
+    }
+
+    /**
+     * Creates a builder of {@code MultiPatternMatcher}.
+     *
+     * @param <T> the type of the keys associated with the patterns.
+     * @return a new builder.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Gets the number of patterns.
+     *
+     * @return the number of patterns.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the keys of the patterns that might match the given text, that is, the ones whose
+     * required literal is present in the text or that do not require any.
+     *
+     * @param text the text.
+     * @return the keys, in the order the patterns were added, never {@code null}.
+     * @throws NullPointerException if the given text is {@code null}.
+     */
+    public List<T> findCandidates(CharSequence text) {
+        BitSet candidates = getCandidates(text);
+        List<T> keys = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            keys.add(entries.get(i).getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the first pattern, in the order added, that matches the given text.
+     *
+     * @param text the text.
+     * @return the match, or {@code null} if no pattern matches.
+     * @throws NullPointerException if the given text is {@code null}.
+     */
+    public Match<T> findFirst(CharSequence text) {
+        BitSet candidates = getCandidates(text);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Match<T> match = entries.get(i).find(text);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds all the patterns that match the given text.
+     *
+     * <p>The matcher of each match is positioned at the first match of the pattern, further
+     * matches of the same pattern can be found by calling {@link Matcher#find()}.
+     *
+     * @param text the text.
+     * @return the matches, in the order the patterns were added, never {@code null}.
+     * @throws NullPointerException if the given text is {@code null}.
+     */
+    public List<Match<T>> findAll(CharSequence text) {
+        BitSet candidates = getCandidates(text);
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Match<T>> matches = new ArrayList<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Match<T> match = entries.get(i).find(text);
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    private BitSet getCandidates(CharSequence text) {
+        Objects.requireNonNull(text);
+        BitSet candidates = (BitSet) unscreenedEntries.clone();
+        if (!entriesByLiteral.isEmpty()) {
+            Set<String> literals = literalMatcher.findAll(text);
+            for (String literal : literals) {
+                for (Integer index : entriesByLiteral.get(literal)) {
+                    candidates.set(index);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Gets the literal, required by the given pattern, to screen the texts.
+     *
+     * @param pattern the pattern.
+     * @return the literal, or an empty string if none.
+     */
+    static String getLiteral(Pattern pattern) {
+        int flags = pattern.flags();
+        String literal;
+        if ((flags & Pattern.LITERAL) != 0) {
+            literal = pattern.pattern();
+        } else if ((flags & Pattern.COMMENTS) != 0) {
+            return "";
+        } else {
+            String regex = pattern.pattern();
+            Matcher matcher = LEADING_INLINE_FLAGS.matcher(regex);
+            if (matcher.find()) {
+                if (matcher.group(1).indexOf('x') != -1) {
+                    return "";
+                }
+                // The literals are always compared ignoring the case.
+                regex = regex.substring(matcher.end());
+            }
+            literal = RegexLiterals.getRequiredLiteral(regex);
+        }
+
+        for (int i = 0; i < literal.length(); i++) {
+            if (literal.charAt(i) > 127) {
+                // Case insensitive matching of non-ASCII chars is not equivalent, do not screen.
+                return "";
+            }
+        }
+        return literal;
+    }
+
+    /**
+     * A builder of {@link MultiPatternMatcher}.
+     *
+     * @param <T> the type of the keys associated with the patterns.
+     */
+    public static class Builder<T> {
+
+        private final List<Entry<T>> entries;
+
+        private Builder() {
+            entries = new ArrayList<>();
+        }
+
+        /**
+         * Adds the given pattern.
+         *
+         * @param key the key associated with the pattern, returned when the pattern matches.
+         * @param pattern the pattern.
+         * @return this builder, for chaining.
+         * @throws NullPointerException if the given pattern is {@code null}.
+         */
+        public Builder<T> addPattern(T key, Pattern pattern) {
+            entries.add(new Entry<>(key, Objects.requireNonNull(pattern)));
+            return this;
+        }
+
+        /**
+         * Adds the given literal, matched as is (that is, case sensitive).
+         *
+         * @param key the key associated with the literal, returned when the literal is found.
+         * @param literal the literal.
+         * @return this builder, for chaining.
+         * @throws NullPointerException if the given literal is {@code null}.
+         */
+        public Builder<T> addLiteral(T key, String literal) {
+            return addPattern(key, Pattern.compile(literal, Pattern.LITERAL));
+        }
+
+        /**
+         * Builds the {@code MultiPatternMatcher} with the patterns added.
+         *
+         * @return the new {@code MultiPatternMatcher}.
+         */
+        public MultiPatternMatcher<T> build() {
+            return new MultiPatternMatcher<>(new ArrayList<>(entries));
+        }
+    }
+
+    /**
+     * A match of a pattern.
+     *
+     * @param <T> the type of the key associated with the pattern.
+     */
+    public static class Match<T> {
+
+        private final T key;
+        private final Matcher matcher;
+
+        private Match(T key, Matcher matcher) {
+            this.key = key;
+            this.matcher = matcher;
+        }
+
+        /**
+         * Gets the key associated with the pattern.
+         *
+         * @return the key.
+         */
+        public T getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the pattern that matched.
+         *
+         * @return the pattern.
+         */
+        public Pattern getPattern() {
+            return matcher.pattern();
+        }
+
+        /**
+         * Gets the matcher, positioned at the (first) match.
+         *
+         * @return the matcher.
+         */
+        public Matcher getMatcher() {
+            return matcher;
+        }
+
+        /**
+         * Gets the text matched.
+         *
+         * @return the text matched.
+         * @see Matcher#group()
+         */
+        public String group() {
+            return matcher.group();
+        }
+    }
+
+    private static class Entry<T> {
+
+        private final T key;
+        private final Pattern pattern;
+        private final String literal;
+
+        Entry(T key, Pattern pattern) {
+            this.key = key;
+            this.pattern = pattern;
+            this.literal = MultiPatternMatcher.getLiteral(pattern);
+        }
+
+        T getKey() {
+            return key;
+        }
+
+        String getLiteral() {
+            return literal;
+        }
+
+        Match<T> find(CharSequence text) {
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find()) {
+                return new Match<>(key, matcher);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+/**
+ * Utility class to analyse regular expressions.
+ *
+ * @since 1.9.0
+ */
+public final class RegexLiterals {
+
+    private RegexLiterals() {
+        // Utility class.
+    }
+
+    /**
+     * Gets the longest literal that any match of the given regular expression must contain.
+     *
+     * <p>Allows to cheaply screen the contents before running the regular expression, if the
+     * literal is not present the regular expression does not match. Only the literals outside of
+     * groups and character classes are considered, and none if the regular expression has
+     * alternatives at the top level or enables, inline, case insensitive matching or comments (e.g.
+     * {@code (?i)}). If the regular expression is compiled as case insensitive the literal should be
+     * compared ignoring the case.
+     *
+     * @param regex the regular expression.
+     * @return the literal, or an empty string if none.
+     * @throws NullPointerException if the given regular expression is {@code null}.
+     */
+    public static String getRequiredLiteral(String regex) {
+        String longest = "";
+        StringBuilder current = new StringBuilder();
+        int length = regex.length();
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+            switch (c) {
+                case '\\':
+                    if (i + 1 >= length) {
+                        return "";
+                    }
+                    char escaped = regex.charAt(++i);
+                    if (escaped == 'Q') {
+                        int end = regex.indexOf("\\E", i);
+                        if (end == -1) {
+                            end = length;
+                        }
+                        current.append(regex, i + 1, end);
+                        i = end + 1;
+                    } else if (Character.isLetterOrDigit(escaped)) {
+                        // Not a literal (e.g. \d, \x41, \0101, \cA, \p{Lu}, \1), discard the
+                        // whole escape sequence.
+                        longest = longest(longest, current);
+                        i = skipEscape(regex, i);
+                    } else {
+                        current.append(escaped);
+                    }
+                    break;
+                case '|':
+                    return "";
+                case '(':
+                    if (enablesCaseInsensitiveOrComments(regex, i)) {
+                        return "";
+                    }
+                    longest = longest(longest, current);
+                    i = skipGroup(regex, i);
+                    if (i == -1) {
+                        return "";
+                    }
+                    break;
+                case '[':
+                    longest = longest(longest, current);
+                    i = skipClass(regex, i);
+                    if (i == -1) {
+                        return "";
+                    }
+                    break;
+                case '?':
+                case '*':
+                case '{':
+                    // The previous char is optional (or the quantifier applies to a group).
+                    if (current.length() > 0) {
+                        current.setLength(current.length() - 1);
+                    }
+                    longest = longest(longest, current);
+                    if (c == '{') {
+                        i = regex.indexOf('}', i);
+                        if (i == -1) {
+                            return "";
+                        }
+                    }
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                case ')':
+                    longest = longest(longest, current);
+                    break;
+                default:
+                    current.append(c);
+            }
+        }
+        return longest(longest, current);
+    }
+
+    private static String longest(String longest, StringBuilder current) {
+        String candidate = current.toString();
+        current.setLength(0);
+        return candidate.length() > longest.length() ? candidate : longest;
+    }
+
+    /**
+     * Skips the escape sequence whose escaped character is at the given index.
+     *
+     * @param regex the regular expression.
+     * @param start the index of the escaped character.
+     * @return the index of the last character of the escape sequence.
+     */
+    private static int skipEscape(String regex, int start) {
+        int last = regex.length() - 1;
+        char escaped = regex.charAt(start);
+        switch (escaped) {
+            case 'x':
+                if (start < last && regex.charAt(start + 1) == '{') {
+                    return skipTo(regex, start, '}');
+                }
+                return Math.min(start + 2, last);
+            case 'u':
+                return Math.min(start + 4, last);
+            case 'c':
+                return Math.min(start + 1, last);
+            case '0':
+                int maxDigits = start < last && regex.charAt(start + 1) <= '3' ? 3 : 2;
+                int end = start;
+                while (end < last && end - start < maxDigits && isOctal(regex.charAt(end + 1))) {
+                    end++;
+                }
+                return end;
+            case 'p':
+            case 'P':
+            case 'N':
+                if (start < last && regex.charAt(start + 1) == '{') {
+                    return skipTo(regex, start, '}');
+                }
+                return escaped == 'N' ? start : Math.min(start + 1, last);
+            case 'k':
+                if (start < last && regex.charAt(start + 1) == '<') {
+                    return skipTo(regex, start, '>');
+                }
+                return start;
+            default:
+                if (Character.isDigit(escaped)) {
+                    // Back reference, the following digits might be part of the group number.
+                    int i = start;
+                    while (i < last && Character.isDigit(regex.charAt(i + 1))) {
+                        i++;
+                    }
+                    return i;
+                }
+                return start;
+        }
+    }
+
+    private static int skipTo(String regex, int start, char c) {
+        int end = regex.indexOf(c, start);
+        return end == -1 ? regex.length() - 1 : end;
+    }
+
+    private static boolean isOctal(char c) {
+        return c >= '0' && c <= '7';
+    }
+
+    private static boolean enablesCaseInsensitiveOrComments(String regex, int start) {
+        if (start + 1 >= regex.length() || regex.charAt(start + 1) != '?') {
+            return false;
+        }
+        for (int i = start + 2; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == 'i' || c == 'x') {
+                return true;
+            }
+            if (c == '-' || c == ':' || c == ')' || !Character.isLetter(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static int skipGroup(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i == -1) {
+                    return -1;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            // A literal ']' at the start of the class.
+            i++;
+        }
+        for (; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i == -1) {
+                    return -1;
+                }
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -82,6 +82,10 @@ public class ComparableResponse {
     private String valueSent;
     private Map<String, Integer> allPaths;
     private int numPaths;
+    // Derived from the body, computed once as the response is usually compared several times.
+    private int[] relevantKeywordsCounts;
+    private int lineCount = -1;
+    private int wordCount = -1;
 
     // Use variables instead of constants to be able to tune it depending on the differences on
     // normal request replay.
@@ -244,10 +248,8 @@ public class ComparableResponse {
                     || keyword.equalsIgnoreCase(response2.getValueSent())) {
                 continue;
             }
-            nRelevantKeywordsR1 +=
-                    StringUtils.countMatches(response1.body.toLowerCase(), keyword.toLowerCase());
-            nRelevantKeywordsR2 +=
-                    StringUtils.countMatches(response2.body.toLowerCase(), keyword.toLowerCase());
+            nRelevantKeywordsR1 += response1.getRelevantKeywordCount(keyword);
+            nRelevantKeywordsR2 += response2.getRelevantKeywordCount(keyword);
         }
 
         if (nRelevantKeywordsR1 > nRelevantKeywordsR2) {
@@ -260,6 +262,35 @@ public class ComparableResponse {
         return 1f;
     }
 
+    private int getRelevantKeywordCount(String keyword) {
+        int[] counts = relevantKeywordsCounts;
+        if (counts == null) {
+            String lowerCaseBody = body.toLowerCase();
+            counts = new int[RELEVANT_KEYWORDS.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] =
+                        StringUtils.countMatches(
+                                lowerCaseBody, RELEVANT_KEYWORDS.get(i).toLowerCase());
+            }
+            relevantKeywordsCounts = counts;
+        }
+        return counts[RELEVANT_KEYWORDS.indexOf(keyword)];
+    }
+
+    private int getWordCount() {
+        if (wordCount == -1) {
+            wordCount = WORD_SPLIT_PATTERN.split(body).length;
+        }
+        return wordCount;
+    }
+
+    private int getLineCount() {
+        if (lineCount == -1) {
+            lineCount = CRLF_SPLIT_PATTERN.split(body).length;
+        }
+        return lineCount;
+    }
+
     /**
      * Return a heuristic evaluation the number of reflections in the 2 responses. 0 means very
      * different and 1 very similar.
@@ -318,8 +349,8 @@ public class ComparableResponse {
      */
     public static float wordCountHeuristic(
             ComparableResponse response1, ComparableResponse response2) {
-        float nWords1 = WORD_SPLIT_PATTERN.split(response1.body).length;
-        float nWords2 = WORD_SPLIT_PATTERN.split(response2.body).length;
+        float nWords1 = response1.getWordCount();
+        float nWords2 = response2.getWordCount();
 
         if (nWords1 > nWords2) {
             return nWords2 / nWords1;
@@ -339,8 +370,8 @@ public class ComparableResponse {
      */
     public static float lineCountHeuristic(
             ComparableResponse response1, ComparableResponse response2) {
-        float nLinesR1 = CRLF_SPLIT_PATTERN.split(response1.body).length;
-        float nLinesR2 = CRLF_SPLIT_PATTERN.split(response2.body).length;
+        float nLinesR1 = response1.getLineCount();
+        float nLinesR2 = response2.getLineCount();
 
         if (nLinesR1 > nLinesR2) {
             return nLinesR2 / nLinesR1;
@@ -0,0 +1,259 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.httpclient.URI;
+import org.apache.commons.httpclient.URIException;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.utils.Stats;
+
+/**
+ * A cache of the responses of the directories of a scan to requests for non-existent resources,
+ * that is, of how they handle "not found" (e.g. a 404 status or a soft 404).
+ *
+ * <p>The scan rules that probe for files request the not found response of a directory to this
+ * cache instead of requesting it themselves, the response is requested just once per directory,
+ * for all the scan rules and nodes of the directory (concurrent requests for the same directory
+ * wait for the same response). Failed requests are not cached.
+ *
+ * <p>The number of requests sent and saved is kept in the statistics {@value #STATS_SENT} and
+ * {@value #STATS_SAVED}.
+ *
+ * @since 1.9.0
+ */
+public final class NotFoundFingerprintCache {
+
+    /** The statistic with the number of not found requests sent. */
+    public static final String STATS_SENT = "stats.commonlib.notfound.sent";
+
+    /** The statistic with the number of not found requests saved, by using a cached response. */
+    public static final String STATS_SAVED = "stats.commonlib.notfound.saved";
+
+    private static final Map<HostProcess, NotFoundFingerprintCache> INSTANCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, CompletableFuture<Fingerprint>> fingerprints;
+    private final LongAdder requestsSent;
+    private final LongAdder requestsSaved;
+
+    NotFoundFingerprintCache() {
+        fingerprints = new ConcurrentHashMap<>();
+        requestsSent = new LongAdder();
+        requestsSaved = new LongAdder();
+    }
+
+    /**
+     * Gets the cache of the given host process, that is, of the scan of a host.
+     *
+     * @param hostProcess the host process.
+     * @return the cache, never {@code null}.
+     */
+    public static NotFoundFingerprintCache getInstance(HostProcess hostProcess) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(hostProcess, hp -> new NotFoundFingerprintCache());
+        }
+    }
+
+    /**
+     * Gets the fingerprint of the responses to non-existent files in the directory of the given
+     * URI.
+     *
+     * @param uri the URI of a resource in the directory.
+     * @param probe the probe to send the request for a non-existent file, if not yet cached.
+     * @return the fingerprint, never {@code null}.
+     * @throws IOException if an error occurred while sending the request.
+     */
+    public Fingerprint getFileFingerprint(URI uri, Probe probe) throws IOException {
+        return getFingerprint("file:" + getDirectory(uri, 1), probe);
+    }
+
+    /**
+     * Gets the fingerprint of the responses to resources in non-existent directories, in the parent
+     * directory of the directory of the given URI.
+     *
+     * @param uri the URI of a resource in the directory.
+     * @param probe the probe to send the request for a resource in a non-existent directory, if not
+     *     yet cached.
+     * @return the fingerprint, never {@code null}.
+     * @throws IOException if an error occurred while sending the request.
+     */
+    public Fingerprint getDirectoryFingerprint(URI uri, Probe probe) throws IOException {
+        return getFingerprint("dir:" + getDirectory(uri, 2), probe);
+    }
+
+    /**
+     * Gets the number of not found requests sent.
+     *
+     * @return the number of requests sent.
+     */
+    public long getRequestsSent() {
+        return requestsSent.sum();
+    }
+
+    /**
+     * Gets the number of not found requests saved, by using a cached response.
+     *
+     * @return the number of requests saved.
+     */
+    public long getRequestsSaved() {
+        return requestsSaved.sum();
+    }
+
+    private Fingerprint getFingerprint(String key, Probe probe) throws IOException {
+        CompletableFuture<Fingerprint> newFuture = new CompletableFuture<>();
+        CompletableFuture<Fingerprint> future = fingerprints.putIfAbsent(key, newFuture);
+        if (future != null) {
+            requestsSaved.increment();
+            Stats.incCounter(STATS_SAVED);
+            return await(future);
+        }
+
+        try {
+            requestsSent.increment();
+            Stats.incCounter(STATS_SENT);
+            HttpMessage msg = probe.send();
+            Fingerprint fingerprint =
+                    new Fingerprint(
+                            msg.getResponseHeader().getStatusCode(),
+                            msg.getResponseBody().getBytes());
+            newFuture.complete(fingerprint);
+            return fingerprint;
+        } catch (IOException | RuntimeException e) {
+            fingerprints.remove(key, newFuture);
+            newFuture.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Fingerprint await(CompletableFuture<Fingerprint> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the not found response.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Gets the directory of the given URI, going up the given number of levels.
+     *
+     * @param uri the URI.
+     * @param levels the number of levels, {@code 1} for the directory of the resource.
+     * @return the scheme, authority, and path of the directory.
+     * @throws URIException if an error occurred while obtaining the components of the URI.
+     */
+    static String getDirectory(URI uri, int levels) throws URIException {
+        String path = uri.getPath();
+        if (path == null) {
+            path = "";
+        }
+        int end = path.length();
+        for (int i = 0; i < levels && end > 0; i++) {
+            end = path.lastIndexOf('/', end - 1);
+            if (end < 0) {
+                end = 0;
+            }
+        }
+        return uri.getScheme() + "://" + uri.getAuthority() + path.substring(0, end) + "/";
+    }
+
+    /** The probe of the not found response, that is, the sender of a request for it. */
+    @FunctionalInterface
+    public interface Probe {
+
+        /**
+         * Sends the request for a non-existent resource.
+         *
+         * @return the message sent, with the response.
+         * @throws IOException if an error occurred while sending the request.
+         */
+        HttpMessage send() throws IOException;
+    }
+
+    /** The fingerprint of a not found response. */
+    public static final class Fingerprint {
+
+        private final int statusCode;
+        private final byte[] body;
+
+        Fingerprint(int statusCode, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        /**
+         * Gets the status code of the not found response.
+         *
+         * @return the status code.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Tells whether or not the not found response has a 404 status code.
+         *
+         * @return {@code true} if the status code is 404, {@code false} otherwise (e.g. a soft
+         *     404).
+         */
+        public boolean isNotFoundStatus() {
+            return statusCode == HttpStatusCode.NOT_FOUND;
+        }
+
+        /**
+         * Tells whether or not the given message looks like a not found response.
+         *
+         * <p>If the directory responds with 404 status code, it's checked the status code of the
+         * message, otherwise it's checked both the status code and the body.
+         *
+         * @param msg the message to check.
+         * @return {@code true} if the response looks like a not found response, {@code false}
+         *     otherwise.
+         */
+        public boolean matches(HttpMessage msg) {
+            int msgStatusCode = msg.getResponseHeader().getStatusCode();
+            if (isNotFoundStatus()) {
+                return msgStatusCode == HttpStatusCode.NOT_FOUND;
+            }
+            return msgStatusCode == statusCode
+                    || Arrays.equals(msg.getResponseBody().getBytes(), body);
+        }
+    }
+}
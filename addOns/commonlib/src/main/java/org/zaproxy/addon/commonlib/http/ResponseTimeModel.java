@@ -0,0 +1,288 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.httpclient.URI;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.utils.Stats;
+
+/**
+ * A model of the response times of the endpoints of a scan, shared by the time based scan rules.
+ *
+ * <p>The scan rules {@link #record(HttpMessage) record} the messages that are not expected to be
+ * delayed (e.g. baseline requests, double checks) and consult the {@link #getBaseline(HttpMessage)
+ * baseline} of the endpoint, a rolling mean and standard deviation of the latest response times,
+ * instead of sending their own baseline requests. The baseline also allows to calibrate the delay
+ * injected to the smallest delay that is statistically significant, see {@link
+ * #calibrateDelay(Baseline, long, long)}.
+ *
+ * <p>The endpoints are identified by the method and the URI without query, a baseline is available
+ * once the endpoint has at least {@value #MIN_SAMPLES} samples. The number of baselines reused is
+ * kept in the statistic {@value #STATS_BASELINE_REUSED}.
+ *
+ * @since 1.9.0
+ */
+public final class ResponseTimeModel {
+
+    /** The minimum number of samples for a baseline to be available. */
+    public static final int MIN_SAMPLES = 5;
+
+    /** The number of latest samples kept per endpoint. */
+    public static final int WINDOW_SIZE = 20;
+
+    /**
+     * The coefficient of the standard deviation, above the mean, that a response time has to
+     * exceed to be considered significant.
+     */
+    public static final int STDEV_COEFF = 7;
+
+    /**
+     * The minimum delay, in milliseconds, to inject when calibrated, to not be affected by the
+     * variations of response times not yet seen.
+     */
+    public static final long MIN_CALIBRATED_DELAY = 3000;
+
+    /** The statistic with the number of baselines reused. */
+    public static final String STATS_BASELINE_REUSED = "stats.commonlib.responsetime.reused";
+
+    private static final int MAX_ENDPOINTS = 10000;
+
+    private static final Map<HostProcess, ResponseTimeModel> INSTANCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, Samples> endpoints;
+
+    ResponseTimeModel() {
+        endpoints = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the model of the given host process, that is, of the scan of a host.
+     *
+     * @param hostProcess the host process.
+     * @return the model, never {@code null}.
+     */
+    public static ResponseTimeModel getInstance(HostProcess hostProcess) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(hostProcess, hp -> new ResponseTimeModel());
+        }
+    }
+
+    /**
+     * Records the response time of the given message, in its endpoint.
+     *
+     * <p>Only messages not expected to be delayed by the scan should be recorded.
+     *
+     * @param msg the message sent.
+     */
+    public void record(HttpMessage msg) {
+        if (msg.getResponseHeader().isEmpty()) {
+            return;
+        }
+        String key = createKey(msg);
+        Samples samples = endpoints.get(key);
+        if (samples == null) {
+            if (endpoints.size() >= MAX_ENDPOINTS) {
+                return;
+            }
+            samples = endpoints.computeIfAbsent(key, k -> new Samples());
+        }
+        samples.add(msg.getTimeElapsedMillis());
+    }
+
+    /**
+     * Gets the baseline of the endpoint of the given message.
+     *
+     * @param msg the message, just the request is used.
+     * @return the baseline, or {@code null} if the endpoint does not have enough samples.
+     */
+    public Baseline getBaseline(HttpMessage msg) {
+        return getBaseline(msg, MIN_SAMPLES);
+    }
+
+    /**
+     * Gets the baseline of the endpoint of the given message, if it has at least the given number
+     * of samples.
+     *
+     * <p>The statistic {@value #STATS_BASELINE_REUSED} is incremented only if the baseline is
+     * returned.
+     *
+     * @param msg the message, just the request is used.
+     * @param minSamples the minimum number of samples, at least {@value #MIN_SAMPLES} are always
+     *     required.
+     * @return the baseline, or {@code null} if the endpoint does not have enough samples.
+     */
+    public Baseline getBaseline(HttpMessage msg, int minSamples) {
+        Samples samples = endpoints.get(createKey(msg));
+        if (samples == null) {
+            return null;
+        }
+        Baseline baseline = samples.getBaseline();
+        if (baseline == null || baseline.getSamples() < minSamples) {
+            return null;
+        }
+        Stats.incCounter(STATS_BASELINE_REUSED);
+        return baseline;
+    }
+
+    /**
+     * Calibrates the delay to inject, to the smallest delay that is statistically significant for
+     * the given baseline.
+     *
+     * <p>The calibrated delay is never lower than {@value #MIN_CALIBRATED_DELAY} milliseconds,
+     * unless the maximum delay is lower.
+     *
+     * @param baseline the baseline, might be {@code null}.
+     * @param maxDelay the maximum delay, in milliseconds, usually the one configured by the user.
+     * @param granularity the granularity of the delay, in milliseconds, for example, {@code 1000}
+     *     if the delay is injected in seconds.
+     * @return the calibrated delay, in milliseconds, or the maximum delay if the baseline is {@code
+     *     null}.
+     */
+    public static long calibrateDelay(Baseline baseline, long maxDelay, long granularity) {
+        if (baseline == null) {
+            return maxDelay;
+        }
+        long delay =
+                Math.max(
+                        baseline.getSignificantDelay(),
+                        Math.max(MIN_CALIBRATED_DELAY, granularity));
+        long remainder = delay % granularity;
+        if (remainder != 0) {
+            delay += granularity - remainder;
+        }
+        return Math.min(delay, maxDelay);
+    }
+
+    private static String createKey(HttpMessage msg) {
+        URI uri = msg.getRequestHeader().getURI();
+        StringBuilder strBuilder = new StringBuilder(100);
+        strBuilder.append(msg.getRequestHeader().getMethod()).append(' ');
+        strBuilder.append(uri.getScheme()).append("://");
+        strBuilder.append(uri.getEscapedAuthority());
+        String path = uri.getEscapedPath();
+        if (path != null) {
+            strBuilder.append(path);
+        }
+        return strBuilder.toString();
+    }
+
+    /** The baseline of the response times of an endpoint. */
+    public static final class Baseline {
+
+        private final int samples;
+        private final long mean;
+        private final long standardDeviation;
+
+        Baseline(int samples, long mean, long standardDeviation) {
+            this.samples = samples;
+            this.mean = mean;
+            this.standardDeviation = standardDeviation;
+        }
+
+        /**
+         * Gets the number of samples of the baseline.
+         *
+         * @return the number of samples.
+         */
+        public int getSamples() {
+            return samples;
+        }
+
+        /**
+         * Gets the mean response time, in milliseconds.
+         *
+         * @return the mean response time.
+         */
+        public long getMean() {
+            return mean;
+        }
+
+        /**
+         * Gets the standard deviation of the response times, in milliseconds.
+         *
+         * @return the standard deviation.
+         */
+        public long getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        /**
+         * Gets the smallest delay, in milliseconds, that is statistically significant.
+         *
+         * @return the significant delay.
+         */
+        public long getSignificantDelay() {
+            return STDEV_COEFF * standardDeviation;
+        }
+
+        /**
+         * Tells whether or not the given response time is significantly longer than the mean.
+         *
+         * @param responseTime the response time, in milliseconds.
+         * @return {@code true} if the response time is significant, {@code false} otherwise.
+         */
+        public boolean isSignificant(long responseTime) {
+            return responseTime > mean + getSignificantDelay();
+        }
+    }
+
+    private static class Samples {
+
+        private final long[] values;
+        private int next;
+        private int count;
+
+        Samples() {
+            values = new long[WINDOW_SIZE];
+        }
+
+        synchronized void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            if (count < values.length) {
+                count++;
+            }
+        }
+
+        synchronized Baseline getBaseline() {
+            if (count < MIN_SAMPLES) {
+                return null;
+            }
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+            double mean = sum / count;
+            double squares = 0;
+            for (int i = 0; i < count; i++) {
+                double diff = values[i] - mean;
+                squares += diff * diff;
+            }
+            double stdev = Math.sqrt(squares / (count - 1));
+            return new Baseline(count, Math.round(mean), (long) Math.ceil(stdev));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link LiteralMatcher}. */
+class LiteralMatcherUnitTest {
+
+    @Test
+    void shouldFindNothingInEmptyText() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher(Arrays.asList("abc", "def"));
+        // When
+        Set<String> found = matcher.findAll("");
+        // Then
+        assertThat(found, is(empty()));
+    }
+
+    @Test
+    void shouldFindLiteralsIgnoringCase() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher(Arrays.asList("jquery", "wordpress", "drupal"));
+        // When
+        Set<String> found = matcher.findAll("<script src='jQuery.js'></script> WordPress");
+        // Then
+        assertThat(found, containsInAnyOrder("jquery", "wordpress"));
+    }
+
+    @Test
+    void shouldFindOverlappingAndNestedLiterals() {
+        // Given
+        LiteralMatcher matcher =
+                new LiteralMatcher(Arrays.asList("he", "she", "his", "hers", "ushers"));
+        // When
+        Set<String> found = matcher.findAll("ushers");
+        // Then
+        assertThat(found, containsInAnyOrder("he", "she", "hers", "ushers"));
+    }
+
+    @Test
+    void shouldFindLiteralsAfterPartialMatches() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher(Arrays.asList("abcd", "bcx"));
+        // When
+        Set<String> found = matcher.findAll("abcx abcabcd");
+        // Then
+        assertThat(found, containsInAnyOrder("abcd", "bcx"));
+    }
+
+    @Test
+    void shouldReturnLiteralsAsGiven() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher(Arrays.asList("jQuery", "TODO"));
+        // When
+        Set<String> found = matcher.findAll("jquery todo");
+        // Then
+        assertThat(found, containsInAnyOrder("jQuery", "TODO"));
+    }
+
+    @Test
+    void shouldIgnoreEmptyLiterals() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher(Arrays.asList("", "abc"));
+        // When
+        Set<String> found = matcher.findAll("xyz");
+        // Then
+        assertThat(found, is(empty()));
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import net.htmlparser.jericho.Source;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.stats.InMemoryStats;
+import org.zaproxy.zap.testutils.TestUtils;
+import org.zaproxy.zap.utils.Stats;
+
+/** Unit test for {@link MessageAnalysisContext}. */
+class MessageAnalysisContextUnitTest extends TestUtils {
+
+    private HttpMessage msg;
+
+    @BeforeEach
+    void setUp() {
+        msg = new HttpMessage();
+        msg.setResponseBody(
+                "<html><head><!-- A comment --><script>var a = 1;</script></head>\n"
+                        + "<body style=\"color: red\"><style>p {}</style><p>Text</p></body></html>");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        MessageAnalysisContext.release();
+    }
+
+    @Test
+    void shouldFailToGetContextOfNullMessage() {
+        // Given
+        HttpMessage msg = null;
+        // When / Then
+        assertThrows(NullPointerException.class, () -> MessageAnalysisContext.get(msg));
+    }
+
+    @Test
+    void shouldGetSameContextForSameMessage() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        MessageAnalysisContext otherContext = MessageAnalysisContext.get(msg);
+        // Then
+        assertThat(otherContext, is(sameInstance(context)));
+        assertThat(context.getMessage(), is(sameInstance(msg)));
+    }
+
+    @Test
+    void shouldGetNewContextForOtherMessage() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        MessageAnalysisContext otherContext = MessageAnalysisContext.get(new HttpMessage());
+        // Then
+        assertThat(otherContext, is(not(sameInstance(context))));
+    }
+
+    @Test
+    void shouldGetNewContextIfResponseBodyChanged() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        context.getResponseBody();
+        msg.setResponseBody("Other body");
+        // When
+        MessageAnalysisContext otherContext = MessageAnalysisContext.get(msg);
+        // Then
+        assertThat(otherContext, is(not(sameInstance(context))));
+        assertThat(otherContext.getResponseBody(), is(equalTo("Other body")));
+    }
+
+    @Test
+    void shouldGetNewContextAfterRelease() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        MessageAnalysisContext.release();
+        // Then
+        assertThat(MessageAnalysisContext.get(msg), is(not(sameInstance(context))));
+    }
+
+    @Test
+    void shouldLoadValueOnlyOnce() {
+        // Given
+        MessageAnalysisContext.Key<String> key = new MessageAnalysisContext.Key<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        String value1 = context.get(key, ctx -> "value" + loads.incrementAndGet());
+        String value2 =
+                MessageAnalysisContext.get(msg).get(key, ctx -> "value" + loads.incrementAndGet());
+        // Then
+        assertThat(value1, is(equalTo("value1")));
+        assertThat(value2, is(sameInstance(value1)));
+        assertThat(loads.get(), is(equalTo(1)));
+        assertThat(context.getMisses(), is(equalTo(1)));
+        assertThat(context.getHits(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldUseGivenSource() {
+        // Given
+        Source source = new Source(msg.getResponseBody().toString());
+        // When
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg, source);
+        // Then
+        assertThat(context.getResponseSource(), is(sameInstance(source)));
+    }
+
+    @Test
+    void shouldUseGivenSourceEvenIfAlreadyParsed() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        Source parsedSource = context.getResponseSource();
+        Source source = new Source(msg.getResponseBody().toString());
+        // When
+        MessageAnalysisContext otherContext = MessageAnalysisContext.get(msg, source);
+        // Then
+        assertThat(otherContext, is(sameInstance(context)));
+        assertThat(context.getResponseSource(), is(sameInstance(source)));
+        assertThat(context.getResponseSource(), is(not(sameInstance(parsedSource))));
+    }
+
+    @Test
+    void shouldAddCountsToStatsOnlyWhenReleased() {
+        // Given
+        InMemoryStats stats = new InMemoryStats();
+        Stats.addListener(stats);
+        try {
+            MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+            context.getResponseBody();
+            context.getResponseBody();
+            context.getResponseBody();
+            // When
+            Long hitsBeforeRelease =
+                    stats.getStat(MessageAnalysisContext.STATS_PREFIX + "body.hit");
+            MessageAnalysisContext.release();
+            // Then
+            assertThat(hitsBeforeRelease, is(nullValue()));
+            assertThat(
+                    stats.getStat(MessageAnalysisContext.STATS_PREFIX + "body.hit"),
+                    is(equalTo(2L)));
+            assertThat(
+                    stats.getStat(MessageAnalysisContext.STATS_PREFIX + "body.miss"),
+                    is(equalTo(1L)));
+        } finally {
+            Stats.removeListener(stats);
+        }
+    }
+
+    @Test
+    void shouldAddCountsToStatsWhenAnalysingOtherMessage() {
+        // Given
+        InMemoryStats stats = new InMemoryStats();
+        Stats.addListener(stats);
+        try {
+            MessageAnalysisContext.get(msg).getResponseBody();
+            // When
+            MessageAnalysisContext.get(new HttpMessage());
+            // Then
+            assertThat(
+                    stats.getStat(MessageAnalysisContext.STATS_PREFIX + "body.miss"),
+                    is(equalTo(1L)));
+        } finally {
+            Stats.removeListener(stats);
+        }
+    }
+
+    @Test
+    void shouldGetResponseBodyLowerCase() {
+        // Given
+        msg.setResponseBody("ABC def");
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        String body = context.getResponseBodyLowerCase();
+        // Then
+        assertThat(body, is(equalTo("abc def")));
+    }
+
+    @Test
+    void shouldGetResponseBodyLines() {
+        // Given
+        msg.setResponseBody("line 1\nline 2\n\nline 4");
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        int[] offsets = context.getResponseBodyLineOffsets();
+        // Then
+        assertThat(offsets, is(equalTo(new int[] {0, 7, 14, 15})));
+        assertThat(context.getResponseBodyLine(0), is(equalTo("line 1")));
+        assertThat(context.getResponseBodyLine(2), is(equalTo("")));
+        assertThat(context.getResponseBodyLine(3), is(equalTo("line 4")));
+    }
+
+    @Test
+    void shouldGetOneLineForEmptyResponseBody() {
+        // Given
+        msg.setResponseBody("");
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        int[] offsets = context.getResponseBodyLineOffsets();
+        // Then
+        assertThat(offsets, is(equalTo(new int[] {0})));
+        assertThat(context.getResponseBodyLine(0), is(equalTo("")));
+    }
+
+    @Test
+    void shouldGetResponseCommentsAndScripts() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When / Then
+        assertThat(context.getResponseComments(), contains("<!-- A comment -->"));
+        assertThat(context.getResponseScripts(), contains("<script>var a = 1;</script>"));
+    }
+
+    @Test
+    void shouldGetResponseBodyWithoutStyles() {
+        // Given
+        MessageAnalysisContext context = MessageAnalysisContext.get(msg);
+        // When
+        String body = context.getResponseBodyWithoutStyles();
+        // Then
+        assertThat(body, not(containsString("color: red")));
+        assertThat(body, not(containsString("p {}")));
+        assertThat(body, containsString("<p>Text</p>"));
+    }
+}
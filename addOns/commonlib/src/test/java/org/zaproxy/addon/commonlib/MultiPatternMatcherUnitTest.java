@@ -0,0 +1,188 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/** Unit test for {@link MultiPatternMatcher}. */
+class MultiPatternMatcherUnitTest {
+
+    @Test
+    void shouldFailToMatchNullText() {
+        // Given
+        MultiPatternMatcher<String> matcher =
+                MultiPatternMatcher.<String>builder().addLiteral("a", "abc").build();
+        // When / Then
+        assertThrows(NullPointerException.class, () -> matcher.findFirst(null));
+    }
+
+    @Test
+    void shouldNotFindAnythingWithoutPatterns() {
+        // Given
+        MultiPatternMatcher<String> matcher = MultiPatternMatcher.<String>builder().build();
+        // When
+        List<MultiPatternMatcher.Match<String>> matches = matcher.findAll("text");
+        // Then
+        assertThat(matcher.size(), is(equalTo(0)));
+        assertThat(matches, is(empty()));
+    }
+
+    @Test
+    void shouldFindCandidatesInOrderAdded() {
+        // Given
+        MultiPatternMatcher<String> matcher =
+                MultiPatternMatcher.<String>builder()
+                        .addPattern("a", Pattern.compile("xyz\\d+"))
+                        .addPattern("b", Pattern.compile("\\d{3}"))
+                        .addPattern("c", Pattern.compile("abc\\s+def"))
+                        .addPattern("d", Pattern.compile("ghi"))
+                        .build();
+        // When
+        List<String> candidates = matcher.findCandidates("GHI xyz abc");
+        // Then
+        assertThat(candidates, contains("a", "b", "c", "d"));
+    }
+
+    @Test
+    void shouldNotHaveCandidatesWithoutRequiredLiterals() {
+        // Given
+        MultiPatternMatcher<String> matcher =
+                MultiPatternMatcher.<String>builder()
+                        .addPattern("a", Pattern.compile("xyz\\d+"))
+                        .addPattern("b", Pattern.compile("abc\\s+def"))
+                        .build();
+        // When
+        List<String> candidates = matcher.findCandidates("nothing to see here");
+        // Then
+        assertThat(candidates, is(empty()));
+    }
+
+    @Test
+    void shouldFindFirstPatternInOrderAdded() {
+        // Given
+        MultiPatternMatcher<String> matcher =
+                MultiPatternMatcher.<String>builder()
+                        .addPattern("a", Pattern.compile("TODO\\s+\\w+"))
+                        .addPattern("b", Pattern.compile("FIXME"))
+                        .addPattern("c", Pattern.compile("todo", Pattern.CASE_INSENSITIVE))
+                        .build();
+        // When
+        MultiPatternMatcher.Match<String> match = matcher.findFirst("// fixme and todo later");
+        // Then
+        assertThat(match.getKey(), is(equalTo("c")));
+        assertThat(match.group(), is(equalTo("todo")));
+    }
+
+    @Test
+    void shouldConfirmCandidatesWithPatterns() {
+        // Given
+        MultiPatternMatcher<String> matcher =
+                MultiPatternMatcher.<String>builder()
+                        .addLiteral("a", "Unknown table")
+                        .addPattern("b", Pattern.compile("ORA-\\d{4,5}"))
+                        .build();
+        // When
+        MultiPatternMatcher.Match<String> match = matcher.findFirst("unknown table ORA-123");
+        // Then
+        assertThat(match, is(nullValue()));
+    }
+
+    @Test
+    void shouldFindAllMatchingPatterns() {
+        // Given
+        MultiPatternMatcher<String> matcher =
+                MultiPatternMatcher.<String>builder()
+                        .addPattern("lm", Pattern.compile("\\$LM\\$[a-f0-9]{4}"))
+                        .addPattern("nt", Pattern.compile("\\$NT\\$[a-f0-9]{4}"))
+                        .addPattern("hex", Pattern.compile("\\b[0-9a-f]{6}\\b"))
+                        .build();
+        // When
+        List<MultiPatternMatcher.Match<String>> matches =
+                matcher.findAll("$LM$abcd $LM$0123 ab12cd");
+        // Then
+        assertThat(matches.size(), is(equalTo(2)));
+        assertThat(matches.get(0).getKey(), is(equalTo("lm")));
+        assertThat(matches.get(0).group(), is(equalTo("$LM$abcd")));
+        assertThat(matches.get(0).getMatcher().find(), is(equalTo(true)));
+        assertThat(matches.get(0).group(), is(equalTo("$LM$0123")));
+        assertThat(matches.get(1).getKey(), is(equalTo("hex")));
+        assertThat(matches.get(1).group(), is(equalTo("ab12cd")));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "(?i)ORA-\\d{4}, ora-",
+        "Microsoft\\sJET, microsoft",
+        "\\bTODO\\b, todo",
+        "(?x)a b c, ''",
+        "abc|def, ''"
+    })
+    void shouldUseRequiredLiteralOfPattern(String regex, String literal) {
+        // Given
+        Pattern pattern = Pattern.compile(regex);
+        // When
+        String patternLiteral = MultiPatternMatcher.getLiteral(pattern);
+        // Then
+        assertThat(patternLiteral.toLowerCase(Locale.ROOT), is(equalTo(literal)));
+    }
+
+    @Test
+    void shouldUseWholeLiteralPattern() {
+        // Given
+        Pattern pattern = Pattern.compile("a.b|c", Pattern.LITERAL);
+        // When
+        String patternLiteral = MultiPatternMatcher.getLiteral(pattern);
+        // Then
+        assertThat(patternLiteral, is(equalTo("a.b|c")));
+    }
+
+    @Test
+    void shouldNotUseLiteralOfCommentsPattern() {
+        // Given
+        Pattern pattern = Pattern.compile("a b c", Pattern.COMMENTS);
+        // When
+        String patternLiteral = MultiPatternMatcher.getLiteral(pattern);
+        // Then
+        assertThat(patternLiteral, is(equalTo("")));
+    }
+
+    @Test
+    void shouldNotUseNonAsciiLiterals() {
+        // Given
+        Pattern pattern = Pattern.compile("straße");
+        // When
+        String patternLiteral = MultiPatternMatcher.getLiteral(pattern);
+        // Then
+        assertThat(patternLiteral, is(equalTo("")));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Unit test for {@link RegexLiterals}. */
+class RegexLiteralsUnitTest {
+
+    @Test
+    void shouldFailToGetLiteralOfNullRegex() {
+        // Given
+        String regex = null;
+        // When / Then
+        assertThrows(NullPointerException.class, () -> RegexLiterals.getRequiredLiteral(regex));
+    }
+
+    static Stream<Arguments> regexesAndLiterals() {
+        return Stream.of(
+                Arguments.of("jquery", "jquery"),
+                Arguments.of("/\\*!? Bootstrap v([0-9][0-9a-z._\\-]+?)\\s", " Bootstrap v"),
+                Arguments.of("ab(cd)efgh", "efgh"),
+                Arguments.of("abcd[efghij]kl", "abcd"),
+                Arguments.of("abcde?fg", "abcd"),
+                Arguments.of("abc*defg", "defg"),
+                Arguments.of("ab{2}cdef", "cdef"),
+                Arguments.of("abc+de", "abc"),
+                Arguments.of("abc.de", "abc"),
+                Arguments.of("^abcd$", "abcd"),
+                Arguments.of("abc\\d+xyzw", "xyzw"),
+                Arguments.of("a\\.b\\.c", "a.b.c"),
+                Arguments.of("ab\\Q.*(x\\Ecd", "ab.*(xcd"),
+                Arguments.of("x(?:abc|def)yz", "yz"),
+                Arguments.of("ab[^\\]x]cde", "cde"),
+                Arguments.of("ab\\x41cdefghi", "cdefghi"),
+                Arguments.of("ab\\x{1F600}cdefghi", "cdefghi"),
+                Arguments.of("ab\\u0041cdefghi", "cdefghi"),
+                Arguments.of("ab\\0101cdefghi", "cdefghi"),
+                Arguments.of("ab\\0777cdefghi", "7cdefghi"),
+                Arguments.of("ab\\07cdefghi", "cdefghi"),
+                Arguments.of("ab\\cAcdefghi", "cdefghi"),
+                Arguments.of("ab\\pLcdefghi", "cdefghi"),
+                Arguments.of("ab\\p{Lu}cdefghi", "cdefghi"),
+                Arguments.of("ab\\N{LATIN SMALL LETTER A}cdefghi", "cdefghi"),
+                Arguments.of("(?<name>ab)\\k<name>cdefghi", "cdefghi"),
+                Arguments.of("(ab)\\12cdefghi", "cdefghi"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("regexesAndLiterals")
+    void shouldGetRequiredLiteral(String regex, String expectedLiteral) {
+        // Given / When
+        String literal = RegexLiterals.getRequiredLiteral(regex);
+        // Then
+        assertThat(literal, is(equalTo(expectedLiteral)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "",
+                "abc|def",
+                "(?i)abcdef",
+                "(?si)abcdef",
+                "(abc)",
+                "[abc]",
+                ".*",
+                "abc\\",
+                "abc(def",
+                "abc[def",
+                "ab{2"
+            })
+    void shouldNotGetLiteralIfNoneRequired(String regex) {
+        // Given / When
+        String literal = RegexLiterals.getRequiredLiteral(regex);
+        // Then
+        assertThat(literal, is(equalTo("")));
+    }
+
+    @Test
+    void shouldGetLiteralIfInlineFlagsNotCaseInsensitive() {
+        // Given
+        String regex = "(?s)abcdef";
+        // When
+        String literal = RegexLiterals.getRequiredLiteral(regex);
+        // Then
+        assertThat(literal, is(equalTo("abcdef")));
+    }
+}
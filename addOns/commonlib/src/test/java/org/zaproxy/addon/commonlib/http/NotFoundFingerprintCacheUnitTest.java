@@ -0,0 +1,169 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.http.NotFoundFingerprintCache.Fingerprint;
+import org.zaproxy.addon.commonlib.http.NotFoundFingerprintCache.Probe;
+import org.zaproxy.zap.testutils.TestUtils;
+
+/** Unit test for {@link NotFoundFingerprintCache}. */
+class NotFoundFingerprintCacheUnitTest extends TestUtils {
+
+    private NotFoundFingerprintCache cache;
+    private AtomicInteger probesSent;
+
+    @BeforeEach
+    void setUp() {
+        cache = new NotFoundFingerprintCache();
+        probesSent = new AtomicInteger();
+    }
+
+    @Test
+    void shouldProbeFileNotFoundOncePerDirectory() throws Exception {
+        // Given
+        Probe probe = createProbe(404, "Not Found");
+        // When
+        Fingerprint fp1 = cache.getFileFingerprint(uri("http://example.com/dir/a.html"), probe);
+        Fingerprint fp2 = cache.getFileFingerprint(uri("http://example.com/dir/b.php"), probe);
+        Fingerprint fp3 = cache.getFileFingerprint(uri("http://example.com/other/a.html"), probe);
+        // Then
+        assertThat(fp2, is(sameInstance(fp1)));
+        assertThat(fp3, is(not(sameInstance(fp1))));
+        assertThat(probesSent.get(), is(equalTo(2)));
+        assertThat(cache.getRequestsSent(), is(equalTo(2L)));
+        assertThat(cache.getRequestsSaved(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldKeepFileAndDirectoryFingerprintsApart() throws Exception {
+        // Given
+        Probe probe = createProbe(404, "Not Found");
+        // When
+        cache.getFileFingerprint(uri("http://example.com/a.html"), probe);
+        cache.getDirectoryFingerprint(uri("http://example.com/dir/a.html"), probe);
+        cache.getDirectoryFingerprint(uri("http://example.com/other/a.html"), probe);
+        // Then
+        assertThat(probesSent.get(), is(equalTo(2)));
+        assertThat(cache.getRequestsSaved(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldNotCacheFailedProbe() throws Exception {
+        // Given
+        URI uri = uri("http://example.com/dir/a.html");
+        Probe failingProbe =
+                () -> {
+                    throw new IOException();
+                };
+        // When
+        assertThrows(IOException.class, () -> cache.getFileFingerprint(uri, failingProbe));
+        cache.getFileFingerprint(uri, createProbe(404, ""));
+        // Then
+        assertThat(probesSent.get(), is(equalTo(1)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "http://example.com, 1, http://example.com/",
+        "http://example.com/, 1, http://example.com/",
+        "http://example.com/a.html, 1, http://example.com/",
+        "http://example.com/dir/, 1, http://example.com/dir/",
+        "http://example.com:8080/dir/a.html?x=y, 1, http://example.com:8080/dir/",
+        "http://example.com/dir/a.html, 2, http://example.com/",
+        "http://example.com/a/b/c.html, 2, http://example.com/a/",
+        "http://example.com/a.html, 2, http://example.com/"
+    })
+    void shouldGetDirectory(String uri, int levels, String directory) throws Exception {
+        // Given / When
+        String result = NotFoundFingerprintCache.getDirectory(uri(uri), levels);
+        // Then
+        assertThat(result, is(equalTo(directory)));
+    }
+
+    @Test
+    void shouldMatchNotFoundStatus() throws Exception {
+        // Given
+        Fingerprint fp = new Fingerprint(404, "Not Found".getBytes());
+        // When / Then
+        assertThat(fp.isNotFoundStatus(), is(equalTo(true)));
+        assertThat(fp.matches(createMessage(404, "Other")), is(equalTo(true)));
+        assertThat(fp.matches(createMessage(200, "Not Found")), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldMatchSoftNotFoundStatusOrBody() throws Exception {
+        // Given
+        Fingerprint fp = new Fingerprint(200, "Page not found".getBytes());
+        // When / Then
+        assertThat(fp.isNotFoundStatus(), is(equalTo(false)));
+        assertThat(fp.matches(createMessage(200, "Content")), is(equalTo(true)));
+        assertThat(fp.matches(createMessage(302, "Page not found")), is(equalTo(true)));
+        assertThat(fp.matches(createMessage(403, "Forbidden")), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldHaveOneInstancePerHostProcess() {
+        // Given
+        HostProcess parent = mock(HostProcess.class);
+        HostProcess otherParent = mock(HostProcess.class);
+        // When
+        NotFoundFingerprintCache instance = NotFoundFingerprintCache.getInstance(parent);
+        NotFoundFingerprintCache sameInstance = NotFoundFingerprintCache.getInstance(parent);
+        NotFoundFingerprintCache otherInstance = NotFoundFingerprintCache.getInstance(otherParent);
+        // Then
+        assertThat(sameInstance, is(sameInstance(instance)));
+        assertThat(otherInstance, is(not(sameInstance(instance))));
+    }
+
+    private Probe createProbe(int statusCode, String body) {
+        return () -> {
+            probesSent.incrementAndGet();
+            return createMessage(statusCode, body);
+        };
+    }
+
+    private static HttpMessage createMessage(int statusCode, String body) throws IOException {
+        HttpMessage msg = new HttpMessage();
+        msg.setResponseHeader("HTTP/1.1 " + statusCode + " Reason\r\n");
+        msg.setResponseBody(body);
+        return msg;
+    }
+
+    private static URI uri(String uri) throws IOException {
+        return new URI(uri, true);
+    }
+}
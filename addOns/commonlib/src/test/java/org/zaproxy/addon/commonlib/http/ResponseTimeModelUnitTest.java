@@ -0,0 +1,217 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.commonlib.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
+import org.zaproxy.zap.extension.stats.InMemoryStats;
+import org.zaproxy.zap.testutils.TestUtils;
+import org.zaproxy.zap.utils.Stats;
+
+/** Unit test for {@link ResponseTimeModel}. */
+class ResponseTimeModelUnitTest extends TestUtils {
+
+    private ResponseTimeModel model;
+
+    @BeforeEach
+    void setUp() {
+        model = new ResponseTimeModel();
+    }
+
+    @Test
+    void shouldNotHaveBaselineWithoutEnoughSamples() throws Exception {
+        // Given
+        for (int i = 0; i < ResponseTimeModel.MIN_SAMPLES - 1; i++) {
+            model.record(createMessage("GET", "http://example.com/path", 100));
+        }
+        // When
+        Baseline baseline = model.getBaseline(createMessage("GET", "http://example.com/path", 0));
+        // Then
+        assertThat(baseline, is(nullValue()));
+    }
+
+    @Test
+    void shouldComputeBaselineOfEndpoint() throws Exception {
+        // Given
+        long[] times = {100, 110, 90, 105, 95};
+        for (long time : times) {
+            model.record(createMessage("GET", "http://example.com/path?a=" + time, time));
+        }
+        // When
+        Baseline baseline = model.getBaseline(createMessage("GET", "http://example.com/path", 0));
+        // Then
+        assertThat(baseline, is(notNullValue()));
+        assertThat(baseline.getSamples(), is(equalTo(5)));
+        assertThat(baseline.getMean(), is(equalTo(100L)));
+        assertThat(baseline.getStandardDeviation(), is(equalTo(8L)));
+        assertThat(baseline.getSignificantDelay(), is(equalTo(56L)));
+        assertThat(baseline.isSignificant(157), is(equalTo(true)));
+        assertThat(baseline.isSignificant(156), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldNotHaveBaselineWithoutGivenMinimumSamples() throws Exception {
+        // Given
+        for (int i = 0; i < ResponseTimeModel.MIN_SAMPLES; i++) {
+            model.record(createMessage("GET", "http://example.com/path", 100));
+        }
+        HttpMessage msg = createMessage("GET", "http://example.com/path", 0);
+        // When
+        Baseline baseline = model.getBaseline(msg, ResponseTimeModel.MIN_SAMPLES + 1);
+        Baseline baselineMinSamples = model.getBaseline(msg, ResponseTimeModel.MIN_SAMPLES);
+        // Then
+        assertThat(baseline, is(nullValue()));
+        assertThat(baselineMinSamples, is(notNullValue()));
+    }
+
+    @Test
+    void shouldCountBaselinesReusedOnlyWhenReturned() throws Exception {
+        // Given
+        InMemoryStats stats = new InMemoryStats();
+        Stats.addListener(stats);
+        try {
+            for (int i = 0; i < ResponseTimeModel.MIN_SAMPLES; i++) {
+                model.record(createMessage("GET", "http://example.com/path", 100));
+            }
+            HttpMessage msg = createMessage("GET", "http://example.com/path", 0);
+            // When
+            model.getBaseline(msg, ResponseTimeModel.MIN_SAMPLES + 1);
+            model.getBaseline(createMessage("GET", "http://example.com/other", 0));
+            model.getBaseline(msg);
+            // Then
+            assertThat(stats.getStat(ResponseTimeModel.STATS_BASELINE_REUSED), is(equalTo(1L)));
+        } finally {
+            Stats.removeListener(stats);
+        }
+    }
+
+    @Test
+    void shouldKeepEndpointsApart() throws Exception {
+        // Given
+        for (int i = 0; i < ResponseTimeModel.MIN_SAMPLES; i++) {
+            model.record(createMessage("GET", "http://example.com/path", 100));
+        }
+        // When
+        Baseline otherMethod =
+                model.getBaseline(createMessage("POST", "http://example.com/path", 0));
+        Baseline otherPath = model.getBaseline(createMessage("GET", "http://example.com/other", 0));
+        Baseline otherHost = model.getBaseline(createMessage("GET", "http://example.org/path", 0));
+        // Then
+        assertThat(otherMethod, is(nullValue()));
+        assertThat(otherPath, is(nullValue()));
+        assertThat(otherHost, is(nullValue()));
+    }
+
+    @Test
+    void shouldKeepJustLatestSamples() throws Exception {
+        // Given
+        for (int i = 0; i < ResponseTimeModel.WINDOW_SIZE; i++) {
+            model.record(createMessage("GET", "http://example.com/path", 5000));
+        }
+        // When
+        for (int i = 0; i < ResponseTimeModel.WINDOW_SIZE; i++) {
+            model.record(createMessage("GET", "http://example.com/path", 100));
+        }
+        // Then
+        Baseline baseline = model.getBaseline(createMessage("GET", "http://example.com/path", 0));
+        assertThat(baseline.getSamples(), is(equalTo(ResponseTimeModel.WINDOW_SIZE)));
+        assertThat(baseline.getMean(), is(equalTo(100L)));
+    }
+
+    @Test
+    void shouldNotRecordMessagesWithoutResponse() throws Exception {
+        // Given
+        HttpMessage msg = new HttpMessage(new URI("http://example.com/path", true));
+        // When
+        for (int i = 0; i < ResponseTimeModel.MIN_SAMPLES; i++) {
+            model.record(msg);
+        }
+        // Then
+        assertThat(model.getBaseline(msg), is(nullValue()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 15000, 1000, 3000",
+        "10, 15000, 1000, 3000",
+        "150, 15000, 1000, 3000",
+        "500, 15000, 1000, 4000",
+        "510, 15000, 1000, 4000",
+        "1000, 15000, 1000, 7000",
+        "5000, 15000, 1000, 15000",
+        "10, 300, 1000, 300",
+        "10, 15000, 1, 3000",
+        "10, 15000, 5000, 5000"
+    })
+    void shouldCalibrateDelay(long stdev, long maxDelay, long granularity, long expectedDelay) {
+        // Given
+        Baseline baseline = new Baseline(ResponseTimeModel.MIN_SAMPLES, 100, stdev);
+        // When
+        long delay = ResponseTimeModel.calibrateDelay(baseline, maxDelay, granularity);
+        // Then
+        assertThat(delay, is(equalTo(expectedDelay)));
+    }
+
+    @Test
+    void shouldUseMaxDelayIfNoBaseline() {
+        // Given / When
+        long delay = ResponseTimeModel.calibrateDelay(null, 15000, 1000);
+        // Then
+        assertThat(delay, is(equalTo(15000L)));
+    }
+
+    @Test
+    void shouldHaveOneInstancePerHostProcess() {
+        // Given
+        HostProcess parent = mock(HostProcess.class);
+        HostProcess otherParent = mock(HostProcess.class);
+        // When
+        ResponseTimeModel instance = ResponseTimeModel.getInstance(parent);
+        ResponseTimeModel sameInstance = ResponseTimeModel.getInstance(parent);
+        ResponseTimeModel otherInstance = ResponseTimeModel.getInstance(otherParent);
+        // Then
+        assertThat(sameInstance, is(sameInstance(instance)));
+        assertThat(otherInstance, is(not(sameInstance(instance))));
+    }
+
+    private static HttpMessage createMessage(String method, String uri, long time)
+            throws Exception {
+        HttpMessage msg = new HttpMessage(new URI(uri, true));
+        msg.getRequestHeader().setMethod(method);
+        msg.setResponseHeader("HTTP/1.1 200 OK\r\n");
+        msg.setTimeElapsedMillis((int) time);
+        return msg;
+    }
+}
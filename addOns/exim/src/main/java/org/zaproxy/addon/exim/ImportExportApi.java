@@ -20,6 +20,8 @@
 package org.zaproxy.addon.exim;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 import net.sf.json.JSONObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,6 +34,8 @@ import org.zaproxy.zap.extension.api.ApiException.Type;
 import org.zaproxy.zap.extension.api.ApiImplementor;
 import org.zaproxy.zap.extension.api.ApiResponse;
 import org.zaproxy.zap.extension.api.ApiResponseElement;
+import org.zaproxy.zap.extension.api.ApiResponseSet;
+import org.zaproxy.zap.extension.api.ApiView;
 import org.zaproxy.zap.utils.ApiUtils;
 
 /** The API for importing data from a file. */
@@ -40,18 +44,28 @@ public class ImportExportApi extends ApiImplementor {
     private static final Logger LOG = LogManager.getLogger(ImportExportApi.class);
     private static final String PREFIX = "exim";
     private static final String PARAM_FILE_PATH = "filePath";
+    private static final String PARAM_THREADS = "threads";
+    private static final String PARAM_THREADS_PER_HOST = "threadsPerHost";
     private static final String ACTION_IMPORT_HAR = "importHar";
     private static final String ACTION_IMPORT_URLS = "importUrls";
     private static final String ACTION_IMPORT_ZAP_LOGS = "importZapLogs";
     private static final String ACTION_IMPORT_MODSEC2_LOGS = "importModsec2Logs";
+    private static final String VIEW_IMPORT_URLS_PROGRESS = "importUrlsProgress";
+
+    private volatile UrlsImporter.Counters urlsCounters;
 
     public ImportExportApi() {
         super();
         this.addApiAction(new ApiAction(ACTION_IMPORT_HAR, new String[] {PARAM_FILE_PATH}));
-        this.addApiAction(new ApiAction(ACTION_IMPORT_URLS, new String[] {PARAM_FILE_PATH}));
+        this.addApiAction(
+                new ApiAction(
+                        ACTION_IMPORT_URLS,
+                        new String[] {PARAM_FILE_PATH},
+                        new String[] {PARAM_THREADS, PARAM_THREADS_PER_HOST}));
         this.addApiAction(new ApiAction(ACTION_IMPORT_ZAP_LOGS, new String[] {PARAM_FILE_PATH}));
         this.addApiAction(
                 new ApiAction(ACTION_IMPORT_MODSEC2_LOGS, new String[] {PARAM_FILE_PATH}));
+        this.addApiView(new ApiView(VIEW_IMPORT_URLS_PROGRESS));
     }
 
     @Override
@@ -71,7 +85,18 @@ public class ImportExportApi extends ApiImplementor {
                 return handleFileImportResponse(harImporter.isSuccess(), file);
             case ACTION_IMPORT_URLS:
                 file = new File(ApiUtils.getNonEmptyStringParam(params, PARAM_FILE_PATH));
-                UrlsImporter importer = new UrlsImporter(file);
+                UrlsImporter.Counters counters = new UrlsImporter.Counters();
+                urlsCounters = counters;
+                UrlsImporter importer =
+                        new UrlsImporter(
+                                file,
+                                null,
+                                getParam(params, PARAM_THREADS, UrlsImporter.DEFAULT_THREADS),
+                                getParam(
+                                        params,
+                                        PARAM_THREADS_PER_HOST,
+                                        UrlsImporter.DEFAULT_THREADS_PER_HOST),
+                                counters);
                 return handleFileImportResponse(importer.isSuccess(), file);
             case ACTION_IMPORT_ZAP_LOGS:
                 file = new File(ApiUtils.getNonEmptyStringParam(params, PARAM_FILE_PATH));
@@ -87,6 +112,21 @@ public class ImportExportApi extends ApiImplementor {
         }
     }
 
+    @Override
+    public ApiResponse handleApiView(String name, JSONObject params) throws ApiException {
+        switch (name) {
+            case VIEW_IMPORT_URLS_PROGRESS:
+                Map<String, Object> progress = new HashMap<>();
+                UrlsImporter.Counters counters = urlsCounters;
+                progress.put("urls", counters != null ? counters.getUrls() : 0);
+                progress.put("imported", counters != null ? counters.getImported() : 0);
+                progress.put("errors", counters != null ? counters.getErrors() : 0);
+                return new ApiResponseSet<>(name, progress);
+            default:
+                throw new ApiException(Type.BAD_VIEW);
+        }
+    }
+
     private ApiResponseElement handleFileImportResponse(boolean success, File file)
             throws ApiException {
         if (success) {
@@ -102,6 +102,12 @@ public class ImportJob extends AutomationJob {
             if (file.exists() && file.canRead()) {
                 if (type.equalsIgnoreCase(TypeOption.HAR.name())) {
                     HarImporter harImporter = new HarImporter(file);
+                    progress.info(
+                            Constant.messages.getString(
+                                    "exim.automation.import.har.summary",
+                                    this.getName(),
+                                    harImporter.getMessagesImported(),
+                                    harImporter.getMessagesFailed()));
                     if (!harImporter.isSuccess()) {
                         progress.error(
                                 Constant.messages.getString(
@@ -120,7 +126,25 @@ public class ImportJob extends AutomationJob {
                                         TypeOption.MODSEC2));
                     }
                 } else if (type.equalsIgnoreCase(TypeOption.URL.name())) {
-                    UrlsImporter urlsImporter = new UrlsImporter(file);
+                    UrlsImporter urlsImporter =
+                            new UrlsImporter(
+                                    file,
+                                    null,
+                                    valueOrDefault(
+                                            getParameters().getThreads(),
+                                            UrlsImporter.DEFAULT_THREADS),
+                                    valueOrDefault(
+                                            getParameters().getThreadsPerHost(),
+                                            UrlsImporter.DEFAULT_THREADS_PER_HOST),
+                                    null);
+                    UrlsImporter.Counters counters = urlsImporter.getCounters();
+                    progress.info(
+                            Constant.messages.getString(
+                                    "exim.automation.import.urls.summary",
+                                    this.getName(),
+                                    counters.getImported(),
+                                    counters.getUrls(),
+                                    counters.getErrors()));
                     if (!urlsImporter.isSuccess()) {
                         progress.error(
                                 Constant.messages.getString(
@@ -150,6 +174,10 @@ public class ImportJob extends AutomationJob {
         }
     }
 
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
     @Override
     public String getTemplateDataMin() {
         return getResourceAsString(this.getType() + "-min.yaml");
@@ -236,6 +264,8 @@ public class ImportJob extends AutomationJob {
     public static class Parameters extends AutomationData {
         private String type;
         private String fileName;
+        private Integer threads;
+        private Integer threadsPerHost;
 
         public String getType() {
             return type;
@@ -252,6 +282,22 @@ public class ImportJob extends AutomationJob {
         public void setFileName(String fileName) {
             this.fileName = fileName;
         }
+
+        public Integer getThreads() {
+            return threads;
+        }
+
+        public void setThreads(Integer threads) {
+            this.threads = threads;
+        }
+
+        public Integer getThreadsPerHost() {
+            return threadsPerHost;
+        }
+
+        public void setThreadsPerHost(Integer threadsPerHost) {
+            this.threadsPerHost = threadsPerHost;
+        }
     }
 
     public enum TypeOption {
@@ -25,6 +25,7 @@ import java.util.Locale;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JFileChooser;
 import org.parosproxy.paros.view.View;
+import org.zaproxy.addon.exim.urls.UrlsImporter;
 import org.zaproxy.zap.utils.DisplayUtils;
 import org.zaproxy.zap.view.StandardFieldsDialog;
 
@@ -36,13 +37,16 @@ public class ImportJobDialog extends StandardFieldsDialog {
     private static final String NAME_PARAM = "exim.automation.import.dialog.name";
     private static final String TYPE_PARAM = "exim.automation.import.dialog.type";
     private static final String FILE_NAME_PARAM = "exim.automation.import.dialog.filename";
+    private static final String THREADS_PARAM = "exim.automation.import.dialog.threads";
+    private static final String THREADS_PER_HOST_PARAM =
+            "exim.automation.import.dialog.threadsperhost";
 
     private ImportJob job;
 
     private DefaultComboBoxModel<ImportJob.TypeOption> typeOptionModel;
 
     public ImportJobDialog(ImportJob job) {
-        super(View.getSingleton().getMainFrame(), TITLE, DisplayUtils.getScaledDimension(500, 200));
+        super(View.getSingleton().getMainFrame(), TITLE, DisplayUtils.getScaledDimension(500, 250));
         this.job = job;
 
         this.addTextField(NAME_PARAM, this.job.getData().getName());
@@ -66,15 +70,33 @@ public class ImportJobDialog extends StandardFieldsDialog {
             f = new File(fileName);
         }
         this.addFileSelectField(FILE_NAME_PARAM, f, JFileChooser.FILES_AND_DIRECTORIES, null);
+        this.addNumberField(
+                THREADS_PARAM,
+                1,
+                Integer.MAX_VALUE,
+                getValue(this.job.getParameters().getThreads(), UrlsImporter.DEFAULT_THREADS));
+        this.addNumberField(
+                THREADS_PER_HOST_PARAM,
+                1,
+                Integer.MAX_VALUE,
+                getValue(
+                        this.job.getParameters().getThreadsPerHost(),
+                        UrlsImporter.DEFAULT_THREADS_PER_HOST));
         this.addPadding();
     }
 
+    private static int getValue(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
     @Override
     public void save() {
         this.job.getData().setName(this.getStringValue(NAME_PARAM));
         ImportJob.TypeOption typeOption = (ImportJob.TypeOption) typeOptionModel.getSelectedItem();
         this.job.getParameters().setType(typeOption.name().toLowerCase(Locale.ROOT));
         this.job.getParameters().setFileName(this.getStringValue(FILE_NAME_PARAM));
+        this.job.getParameters().setThreads(this.getIntValue(THREADS_PARAM));
+        this.job.getParameters().setThreadsPerHost(this.getIntValue(THREADS_PER_HOST_PARAM));
         this.job.resetAndSetChanged();
     }
 
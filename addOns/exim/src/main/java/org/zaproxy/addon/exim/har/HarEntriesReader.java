@@ -0,0 +1,164 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.har;
+
+import edu.umass.cs.benchlab.har.HarEntry;
+import edu.umass.cs.benchlab.har.HarWarning;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+/**
+ * A reader of the entries of a HAR file, that reads (and converts) one entry at a time.
+ *
+ * <p>Unlike the {@code HarFileReader}, the HAR file is not read into memory, just the entry being
+ * read.
+ */
+final class HarEntriesReader implements Closeable {
+
+    private static final Logger LOG = LogManager.getLogger(HarEntriesReader.class);
+
+    private final JsonParser jp;
+    private final List<HarWarning> warnings;
+    private boolean hasEntries;
+
+    /**
+     * Constructs a {@code HarEntriesReader} for the given file, positioned at the first entry.
+     *
+     * @param file the HAR file.
+     * @throws IOException if an error occurred while reading the file or if it's not a HAR file.
+     */
+    HarEntriesReader(File file) throws IOException {
+        jp = new JsonFactory().createJsonParser(file);
+        warnings = new ArrayList<>();
+        try {
+            hasEntries = moveToEntries();
+        } catch (IOException e) {
+            jp.close();
+            throw e;
+        }
+    }
+
+    private boolean moveToEntries() throws IOException {
+        if (jp.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("HAR must start with an object", jp.getCurrentLocation());
+        }
+        if (!moveToField("log", JsonToken.START_OBJECT)) {
+            throw new JsonParseException("Missing [log] element", jp.getCurrentLocation());
+        }
+        return moveToField("entries", JsonToken.START_ARRAY);
+    }
+
+    private boolean moveToField(String name, JsonToken expectedToken) throws IOException {
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if (name.equals(fieldName)) {
+                if (token != expectedToken) {
+                    throw new JsonParseException(
+                            "Unexpected type of [" + name + "] element",
+                            jp.getCurrentLocation());
+                }
+                return true;
+            }
+            jp.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next entry.
+     *
+     * @return the entry, or {@code null} if there are no more entries.
+     * @throws IOException if an error occurred while reading the entry.
+     */
+    HarEntry next() throws IOException {
+        if (!nextEntry()) {
+            return null;
+        }
+
+        warnings.clear();
+        HarEntry entry = new HarEntry(jp, warnings);
+        if (!warnings.isEmpty()) {
+            LOG.debug("Warnings while reading the HAR entry: {}", warnings);
+        }
+        return entry;
+    }
+
+    /**
+     * Skips the next entry, without converting it.
+     *
+     * @return {@code true} if an entry was skipped, {@code false} if there are no more entries.
+     * @throws IOException if an error occurred while reading the entry.
+     */
+    boolean skip() throws IOException {
+        if (!nextEntry()) {
+            return false;
+        }
+        jp.skipChildren();
+        return true;
+    }
+
+    private boolean nextEntry() throws IOException {
+        if (!hasEntries) {
+            return false;
+        }
+
+        JsonToken token = jp.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            hasEntries = false;
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Entries must be objects", jp.getCurrentLocation());
+        }
+        return true;
+    }
+
+    /**
+     * Counts the entries of the given HAR file, without converting them.
+     *
+     * @param file the HAR file.
+     * @return the number of entries.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    static int countEntries(File file) throws IOException {
+        try (HarEntriesReader reader = new HarEntriesReader(file)) {
+            int count = 0;
+            while (reader.skip()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        jp.close();
+    }
+}
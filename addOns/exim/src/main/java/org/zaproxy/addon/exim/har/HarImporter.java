@@ -25,7 +25,6 @@ import edu.umass.cs.benchlab.har.HarEntry;
 import edu.umass.cs.benchlab.har.HarHeader;
 import edu.umass.cs.benchlab.har.HarLog;
 import edu.umass.cs.benchlab.har.HarResponse;
-import edu.umass.cs.benchlab.har.tools.HarFileReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -54,8 +53,14 @@ public class HarImporter {
     private static final String STATS_HAR_FILE_ERROR = "import.har.file.errors";
     private static final String STATS_HAR_FILE_MSG = "import.har.file.message";
     private static final String STATS_HAR_FILE_MSG_ERROR = "import.har.file.message.errors";
+
+    // The number of messages added to the History and Sites tree at once
+    private static final int BATCH_SIZE = 100;
+
     private ProgressPaneListener progressListener;
     private boolean success;
+    private int messagesImported;
+    private int messagesFailed;
     private static ExtensionHistory extHistory;
 
     public HarImporter(File file) {
@@ -132,36 +137,60 @@ public class HarImporter {
     }
 
     public void processMessages(File file) throws IOException {
-        List<HttpMessage> messages =
-                HarImporter.getHttpMessages(new HarFileReader().readHarFile(file));
-        int count = 1;
-        for (HttpMessage msg : messages) {
-            persistMessage(msg);
-            updateProgress(count, msg.getRequestHeader().getURI().toString());
-            count++;
+        List<HistoryReference> historyRefs = new ArrayList<>(BATCH_SIZE);
+        List<HttpMessage> messages = new ArrayList<>(BATCH_SIZE);
+        try (HarEntriesReader reader = new HarEntriesReader(file)) {
+            int count = 1;
+            HarEntry entry;
+            while ((entry = reader.next()) != null) {
+                HttpMessage msg = getHttpMessage(entry);
+                HistoryReference historyRef = persistMessage(msg);
+                if (historyRef != null) {
+                    historyRefs.add(historyRef);
+                    messages.add(msg);
+                    if (historyRefs.size() >= BATCH_SIZE) {
+                        addMessages(historyRefs, messages);
+                    }
+                }
+                updateProgress(count, msg.getRequestHeader().getURI().toString());
+                count++;
+            }
+        } finally {
+            addMessages(historyRefs, messages);
         }
         completed();
     }
 
-    private static void persistMessage(HttpMessage message) {
-        HistoryReference historyRef;
-
+    private HistoryReference persistMessage(HttpMessage message) {
         try {
-            historyRef =
+            HistoryReference historyRef =
                     new HistoryReference(
                             Model.getSingleton().getSession(),
                             HistoryReference.TYPE_ZAP_USER,
                             message);
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_HAR_FILE_MSG);
+            messagesImported++;
+            return historyRef;
         } catch (Exception e) {
             LOG.warn(e.getMessage());
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_HAR_FILE_MSG_ERROR);
-            return;
+            messagesFailed++;
+            return null;
         }
+    }
 
-        if (getExtensionHistory() != null) {
-            ThreadUtils.invokeAndWaitHandled(() -> addMessage(historyRef, message));
+    private static void addMessages(
+            List<HistoryReference> historyRefs, List<HttpMessage> messages) {
+        if (!historyRefs.isEmpty() && getExtensionHistory() != null) {
+            ThreadUtils.invokeAndWaitHandled(
+                    () -> {
+                        for (int i = 0; i < historyRefs.size(); i++) {
+                            addMessage(historyRefs.get(i), messages.get(i));
+                        }
+                    });
         }
+        historyRefs.clear();
+        messages.clear();
     }
 
     private static ExtensionHistory getExtensionHistory() {
@@ -183,6 +212,38 @@ public class HarImporter {
         return success;
     }
 
+    /**
+     * Gets the number of messages imported.
+     *
+     * @return the number of messages imported.
+     * @since 0.2.0
+     */
+    public int getMessagesImported() {
+        return messagesImported;
+    }
+
+    /**
+     * Gets the number of messages that could not be imported.
+     *
+     * @return the number of messages not imported.
+     * @since 0.2.0
+     */
+    public int getMessagesFailed() {
+        return messagesFailed;
+    }
+
+    /**
+     * Counts the entries of the given HAR file, reading one entry at a time.
+     *
+     * @param file the HAR file.
+     * @return the number of entries.
+     * @throws IOException if an error occurred while reading the file.
+     * @since 0.2.0
+     */
+    public static int countEntries(File file) throws IOException {
+        return HarEntriesReader.countEntries(file);
+    }
+
     private void updateProgress(int count, String line) {
         if (progressListener != null) {
             progressListener.setTasksDone(count);
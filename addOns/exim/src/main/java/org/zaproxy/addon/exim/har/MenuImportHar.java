@@ -19,7 +19,6 @@
  */
 package org.zaproxy.addon.exim.har;
 
-import edu.umass.cs.benchlab.har.tools.HarFileReader;
 import java.io.File;
 import java.io.IOException;
 import javax.swing.JFileChooser;
@@ -65,12 +64,7 @@ public class MenuImportHar extends ZapMenuItem {
                                                 new ProgressPane(file.getAbsolutePath());
                                         int tasks = 0;
                                         try {
-                                            tasks =
-                                                    new HarFileReader()
-                                                            .readHarFile(file)
-                                                            .getEntries()
-                                                            .getEntries()
-                                                            .size();
+                                            tasks = HarImporter.countEntries(file);
                                         } catch (IOException e) {
                                             LOG.warn(
                                                     "Couldn't count entries in: {}",
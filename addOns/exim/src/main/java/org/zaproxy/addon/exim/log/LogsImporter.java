@@ -19,18 +19,15 @@
  */
 package org.zaproxy.addon.exim.log;
 
-import java.io.BufferedReader;
+import java.awt.EventQueue;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jwall.web.audit.AuditEvent;
@@ -42,7 +39,6 @@ import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.model.Session;
-import org.parosproxy.paros.model.SiteMap;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
@@ -52,6 +48,7 @@ import org.zaproxy.addon.exim.ExtensionExim;
 import org.zaproxy.zap.network.HttpRequestBody;
 import org.zaproxy.zap.network.HttpResponseBody;
 import org.zaproxy.zap.utils.Stats;
+import org.zaproxy.zap.utils.ThreadUtils;
 
 public class LogsImporter {
 
@@ -65,6 +62,11 @@ public class LogsImporter {
     private static final String STATS_MODSEC2_FILE_MSG = "import.modsec2.file.message";
     private static final String STATS_MODSEC2_FILE_MSG_ERROR = "import.modsec2.file.message.errors";
 
+    // The number of messages added to the History and Sites tree at once
+    private static final int BATCH_SIZE = 100;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
     private ProgressPaneListener progressListener;
     private boolean success;
 
@@ -94,23 +96,78 @@ public class LogsImporter {
         success = processInput(file, type);
     }
 
-    private void readModSecLogsFromFile(File file) {
+    /**
+     * Constructs a {@code LogsImporter} that imports the given files, in parallel.
+     *
+     * @param files the files to import.
+     * @param type the type of the files.
+     * @param threads the number of threads, that is, the maximum number of files imported at the
+     *     same time.
+     * @param listener the progress listener, might be {@code null}.
+     * @since 0.2.0
+     */
+    public LogsImporter(
+            List<File> files, LogType type, int threads, ProgressPaneListener listener) {
+        this.progressListener = listener;
+        success = processInputs(files, type, threads);
+    }
+
+    private boolean processInputs(List<File> files, LogType type, int threads) {
+        if (files.size() == 1) {
+            return processInput(files.get(0), type);
+        }
+
+        if (EventQueue.isDispatchThread()) {
+            // The batches are added to the History and Sites tree in the EDT, which would be
+            // blocked waiting for the files, import them one at a time instead.
+            boolean allImported = true;
+            for (File file : files) {
+                allImported &= processFile(file, type);
+            }
+            completed();
+            return allImported;
+        }
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.max(1, Math.min(threads, files.size())),
+                        LogsImporter::createThread);
         try {
-            processModSecLogs(new ModSecurity2AuditReader(file));
+            List<Future<Boolean>> results = new ArrayList<>(files.size());
+            for (File file : files) {
+                results.add(executor.submit(() -> processFile(file, type)));
+            }
+
+            boolean allImported = true;
+            for (Future<Boolean> result : results) {
+                allImported &= result.get();
+            }
+            completed();
+            return allImported;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
-            LOG.warn(
-                    Constant.messages.getString(
-                            ExtensionExim.EXIM_OUTPUT_ERROR, file.getAbsoluteFile()));
-            ExtensionExim.updateOutput(ExtensionExim.EXIM_OUTPUT_ERROR, file.getAbsolutePath());
+            LOG.warn(e.getMessage(), e);
+            return false;
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private void processModSecLogs(ModSecurity2AuditReader reader) throws IOException {
+    private static Thread createThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "ZAP-LogsImporter-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
 
-        while (reader.bytesRead() < reader.bytesAvailable()) {
-            try {
-                AuditEvent a = reader.readNext();
-                if (a != null) {
+    private void processModSecLogs(File file) throws IOException {
+        ModSecurity2AuditReader reader = new ModSecurity2AuditReader(file);
+        MessagesBatch batch = new MessagesBatch(LogType.MOD_SECURITY_2);
+        try {
+            AuditEvent a;
+            while ((a = readNext(reader)) != null) {
+                try {
                     // Mod Security logs don't provide http response bodies to load in.
                     HttpMessage httpMessage =
                             new HttpMessage(
@@ -119,25 +176,34 @@ public class LogsImporter {
                                     new HttpResponseHeader(a.getResponseHeader()),
                                     new HttpResponseBody());
                     httpMessage.setResponseFromTargetHost(true);
-                    createHistoryReferenceAndAddToTree(httpMessage, LogType.MOD_SECURITY_2);
+                    batch.add(httpMessage);
                     updateProgress(httpMessage.getRequestHeader().getURI().toString());
+                } catch (HttpMalformedHeaderException e) {
+                    LOG.warn(e.getMessage());
+                    Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_MSG_ERROR);
                 }
-                break;
-            } catch (Exception e) {
-                LOG.warn(e.getMessage());
             }
+        } finally {
+            batch.flush();
+            reader.close();
         }
-
-        reader.close();
     }
 
-    private static void addToTree(HistoryReference historyRef) {
-        SiteMap currentTree = Model.getSingleton().getSession().getSiteTree();
-        ExtensionHistory extHistory =
-                Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
-
-        currentTree.addPath(historyRef);
-        extHistory.addHistory(historyRef);
+    private static AuditEvent readNext(ModSecurity2AuditReader reader) throws IOException {
+        while (reader.bytesRead() < reader.bytesAvailable()) {
+            try {
+                AuditEvent event = reader.readNext();
+                if (event != null) {
+                    return event;
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                LOG.warn(e.getMessage());
+                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_MSG_ERROR);
+            }
+        }
+        return null;
     }
 
     /**
@@ -149,15 +215,21 @@ public class LogsImporter {
      * @param logChoice type of logfile being imported
      */
     public boolean processInput(File newFile, LogType logChoice) {
+        boolean imported = processFile(newFile, logChoice);
+        if (imported) {
+            completed();
+        }
+        return imported;
+    }
+
+    private boolean processFile(File newFile, LogType logChoice) {
         if (logChoice == LogType.ZAP) {
-            List<String> parsedText = readFile(newFile);
             try {
                 Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_ZAP_FILE);
                 ExtensionExim.updateOutput("exim.output.start", newFile.toPath().toString());
-                processZapLogs(parsedText);
+                processZapLogs(newFile);
                 ExtensionExim.updateOutput("exim.output.end", newFile.toPath().toString());
-                completed();
-            } catch (HttpMalformedHeaderException e) {
+            } catch (IOException e) {
                 LOG.warn(e.getMessage());
                 Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_ZAP_FILE_ERROR);
                 ExtensionExim.updateOutput(
@@ -168,11 +240,12 @@ public class LogsImporter {
             try {
                 ExtensionExim.updateOutput("exim.output.start", newFile.toPath().toString());
                 Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE);
-                readModSecLogsFromFile(newFile);
+                processModSecLogs(newFile);
                 ExtensionExim.updateOutput("exim.output.end", newFile.toPath().toString());
-                completed();
             } catch (Exception e) {
-                LOG.warn(e.getMessage());
+                LOG.warn(
+                        Constant.messages.getString(
+                                ExtensionExim.EXIM_OUTPUT_ERROR, newFile.getAbsoluteFile()));
                 Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_ERROR);
                 ExtensionExim.updateOutput(
                         ExtensionExim.EXIM_OUTPUT_ERROR, newFile.getAbsolutePath());
@@ -182,112 +255,19 @@ public class LogsImporter {
         return true;
     }
 
-    private static List<String> readFile(File file) {
-        List<String> parsed = new ArrayList<>();
-        Charset charset = StandardCharsets.US_ASCII;
-        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), charset)) {
-            Scanner sc = new Scanner(reader);
-            sc.useDelimiter(Pattern.compile("====\\s[0-9]*\\s=========="));
-            while (sc.hasNext()) {
-                parsed.add(sc.next());
-            }
-            sc.close();
-            return parsed;
-        } catch (IOException e) {
-            LOG.warn(e.getMessage());
-        }
-        return Collections.emptyList();
-    }
-
-    private void processZapLogs(List<String> parsedRequestAndResponse)
-            throws HttpMalformedHeaderException {
-        // http://www.w3.org/Protocols/rfc2616/rfc2616-sec5.html
-        Pattern requestP =
-                Pattern.compile("^OPTIONS|^GET|^HEAD|^POST|^PUT|^DELETE|^TRACE|^CONNECT");
-
-        // http://www.w3.org/Protocols/rfc2616/rfc2616-sec6.html
-        // Not sure whether to use the allchars-then-allwhitespacechars or just the DOTALL to get
-        // the httprequestbody?
-        Pattern responseP =
-                Pattern.compile(
-                        "(\\S*\\s*)?(HTTP/[0-9].[0-9]\\s[0-9]{3}.*)",
-                        Pattern.DOTALL | Pattern.MULTILINE);
-        // Pattern responseP = Pattern.compile("(.*)?(HTTP/[0-9].[0-9]\\s[0-9]{3}.*)",
-        // Pattern.DOTALL | Pattern.MULTILINE);
-
-        // Add capture group as we want to just match the html, not the rest of the payload
-        Pattern responseBodyP =
-                Pattern.compile("\\S*?(<html>.*</html>)", Pattern.DOTALL | Pattern.MULTILINE);
-
-        HttpRequestHeader tempRequestHeader = null;
-        HttpRequestBody tempRequestBody = new HttpRequestBody();
-        HttpResponseHeader tempResponseHeader = null;
-        HttpResponseBody tempResponseBody = new HttpResponseBody();
-
-        for (String block : parsedRequestAndResponse) {
-            // HTTP request and response header pairs have a 2 line break between them as per RFC
-            // 2616
-            // http://tools.ietf.org/html/rfc2616
-            String[] httpComponents = block.split("\r\n\r\n");
-            for (String component : httpComponents) {
-                // Remove leading and trailing whitespace
-                component = component.trim();
-
-                Matcher requestM = requestP.matcher(component);
-                if (requestM.find()) {
-                    tempRequestHeader = new HttpRequestHeader(component);
-                }
-
-                // Strange way of splitting it up but usually if the httpRequestBody is present,
-                // i.e. on a Post request there's a token in the body usually
-                // So I'm using the group matching in the regex to split that up. We'll need either
-                // a blank HttpRequestBody or the actual one further down the line.
-                Matcher responseM = responseP.matcher(component);
-                if (responseM.find()) {
-                    if (!responseM.group(1).trim().isEmpty())
-                        tempRequestBody = new HttpRequestBody(responseM.group(1).trim());
-
-                    tempResponseHeader = new HttpResponseHeader(responseM.group(2).trim());
-                }
-                Matcher responseBodyM = responseBodyP.matcher(component);
-                if (responseBodyM.find()) {
-                    tempResponseBody = new HttpResponseBody(responseBodyM.group(1));
-                }
-            }
-
-            if (tempRequestHeader != null && tempResponseHeader != null) {
-                HttpMessage httpMessage =
-                        new HttpMessage(
-                                tempRequestHeader,
-                                tempRequestBody,
-                                tempResponseHeader,
-                                tempResponseBody);
-                httpMessage.setResponseFromTargetHost(true);
-                createHistoryReferenceAndAddToTree(httpMessage, LogType.ZAP);
+    private void processZapLogs(File file) throws IOException {
+        MessagesBatch batch = new MessagesBatch(LogType.ZAP);
+        try (ZapLogsReader reader = new ZapLogsReader(file)) {
+            HttpMessage httpMessage;
+            while ((httpMessage = reader.next()) != null) {
+                batch.add(httpMessage);
                 updateProgress(httpMessage.getRequestHeader().getURI().toString());
             }
-        }
-    }
-
-    private static void createHistoryReferenceAndAddToTree(HttpMessage message, LogType logType) {
-        Session currentSession = Model.getSingleton().getSession();
-
-        try {
-            HistoryReference historyRef =
-                    new HistoryReference(currentSession, HistoryReference.TYPE_ZAP_USER, message);
-            addToTree(historyRef);
-            if (LogType.ZAP.equals(logType)) {
-                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_ZAP_FILE_MSG);
-            } else {
-                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_MSG);
-            }
-        } catch (DatabaseException | HttpMalformedHeaderException | NullPointerException e) {
-            LOG.warn(e.getMessage());
-            if (LogType.ZAP.equals(logType)) {
+            for (int i = 0; i < reader.getMalformedMessages(); i++) {
                 Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_ZAP_FILE_MSG_ERROR);
-            } else {
-                Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_MSG_ERROR);
             }
+        } finally {
+            batch.flush();
         }
     }
 
@@ -295,16 +275,87 @@ public class LogsImporter {
         return success;
     }
 
-    private void updateProgress(String line) {
+    private synchronized void updateProgress(String line) {
         if (progressListener != null) {
             progressListener.setCurrentTask(
                     Constant.messages.getString("exim.progress.currentimport", line));
         }
     }
 
-    private void completed() {
+    private synchronized void completed() {
         if (progressListener != null) {
             progressListener.completed();
         }
     }
+
+    /**
+     * The messages persisted but not yet added to the History and Sites tree, added in batches.
+     */
+    private static class MessagesBatch {
+
+        private final LogType logType;
+        private final List<HistoryReference> historyRefs;
+        private final List<HttpMessage> messages;
+
+        MessagesBatch(LogType logType) {
+            this.logType = logType;
+            this.historyRefs = new ArrayList<>(BATCH_SIZE);
+            this.messages = new ArrayList<>(BATCH_SIZE);
+        }
+
+        void add(HttpMessage message) {
+            Session currentSession = Model.getSingleton().getSession();
+            try {
+                historyRefs.add(
+                        new HistoryReference(
+                                currentSession, HistoryReference.TYPE_ZAP_USER, message));
+                messages.add(message);
+                if (LogType.ZAP.equals(logType)) {
+                    Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_ZAP_FILE_MSG);
+                } else {
+                    Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_MSG);
+                }
+            } catch (DatabaseException | HttpMalformedHeaderException | NullPointerException e) {
+                LOG.warn(e.getMessage());
+                if (LogType.ZAP.equals(logType)) {
+                    Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_ZAP_FILE_MSG_ERROR);
+                } else {
+                    Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_MODSEC2_FILE_MSG_ERROR);
+                }
+                return;
+            }
+
+            if (historyRefs.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (historyRefs.isEmpty()) {
+                return;
+            }
+
+            List<HistoryReference> refs = new ArrayList<>(historyRefs);
+            List<HttpMessage> msgs = new ArrayList<>(messages);
+            historyRefs.clear();
+            messages.clear();
+
+            ExtensionHistory extHistory =
+                    Control.getSingleton()
+                            .getExtensionLoader()
+                            .getExtension(ExtensionHistory.class);
+            ThreadUtils.invokeAndWaitHandled(
+                    () -> {
+                        for (int i = 0; i < refs.size(); i++) {
+                            Model.getSingleton()
+                                    .getSession()
+                                    .getSiteTree()
+                                    .addPath(refs.get(i), msgs.get(i));
+                            if (extHistory != null) {
+                                extHistory.addHistory(refs.get(i));
+                            }
+                        }
+                    });
+        }
+    }
 }
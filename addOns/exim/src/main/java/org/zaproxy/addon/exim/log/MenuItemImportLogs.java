@@ -20,6 +20,9 @@
 package org.zaproxy.addon.exim.log;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -37,6 +40,10 @@ public class MenuItemImportLogs extends ZapMenuItem {
 
     private static final long serialVersionUID = 9060471082881605934L;
 
+    private static final String THREAD_PREFIX = "ZAP-Exim-Import-Logs-";
+
+    private int threadId = 1;
+
     public MenuItemImportLogs() {
         super("exim.importLogFiles.import.menu.label");
 
@@ -46,6 +53,7 @@ public class MenuItemImportLogs extends ZapMenuItem {
                     JFrame main = view.getMainFrame();
                     JFileChooser fc = new ReadableFileChooser();
                     fc.setAcceptAllFileFilterUsed(false);
+                    fc.setMultiSelectionEnabled(true);
                     FileFilter txtFilter =
                             new FileNameExtensionFilter(
                                     Constant.messages.getString(
@@ -81,14 +89,29 @@ public class MenuItemImportLogs extends ZapMenuItem {
                     if (logChoice != null) {
                         int openChoice = fc.showOpenDialog(main);
                         if (openChoice == JFileChooser.APPROVE_OPTION) {
-                            File newFile = fc.getSelectedFile();
+                            List<File> files = Arrays.asList(fc.getSelectedFiles());
+                            if (files.isEmpty()) {
+                                files = Arrays.asList(fc.getSelectedFile());
+                            }
                             ProgressPane currentImportPane =
-                                    new ProgressPane(newFile.getAbsolutePath(), true);
+                                    new ProgressPane(
+                                            files.stream()
+                                                    .map(File::getAbsolutePath)
+                                                    .collect(Collectors.joining(", ")),
+                                            true);
                             ExtensionExim.getProgressPanel().addProgressPane(currentImportPane);
-                            new LogsImporter(
-                                    newFile,
-                                    logChoice,
-                                    new ProgressPaneListener(currentImportPane));
+                            List<File> selectedFiles = files;
+                            new Thread(
+                                            () ->
+                                                    new LogsImporter(
+                                                            selectedFiles,
+                                                            logChoice,
+                                                            Runtime.getRuntime()
+                                                                    .availableProcessors(),
+                                                            new ProgressPaneListener(
+                                                                    currentImportPane)),
+                                            THREAD_PREFIX + threadId++)
+                                    .start();
                         }
                     }
                 });
@@ -0,0 +1,293 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpRequestHeader;
+import org.parosproxy.paros.network.HttpResponseHeader;
+import org.zaproxy.zap.network.HttpRequestBody;
+import org.zaproxy.zap.network.HttpResponseBody;
+
+/**
+ * A reader of the messages exported by ZAP, that reads one message at a time.
+ *
+ * <p>The messages are separated by a line {@code ==== <id> ==========}, each with the request
+ * header and body followed by the response header and body. The file is read line by line (with
+ * the line terminators) with a state machine, the contents are read as ISO-8859-1 to preserve the
+ * bytes of the bodies.
+ */
+final class ZapLogsReader implements Closeable {
+
+    private static final Logger LOG = LogManager.getLogger(ZapLogsReader.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SEPARATOR_START = "==== ";
+    private static final String SEPARATOR_END = " ==========";
+
+    private enum State {
+        REQUEST_HEADER,
+        REQUEST_BODY,
+        RESPONSE_HEADER,
+        RESPONSE_BODY
+    }
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private String pendingLine;
+    private int malformedMessages;
+
+    /**
+     * Constructs a {@code ZapLogsReader} for the given file.
+     *
+     * @param file the file with the messages.
+     * @throws IOException if an error occurred while opening the file.
+     */
+    ZapLogsReader(File file) throws IOException {
+        reader =
+                new InputStreamReader(
+                        Files.newInputStream(file.toPath()), StandardCharsets.ISO_8859_1);
+        buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * <p>The messages that are malformed or without response are skipped.
+     *
+     * @return the message, or {@code null} if there are no more messages.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    HttpMessage next() throws IOException {
+        String line;
+        while ((line = skipToRecord()) != null) {
+            HttpMessage msg = readRecord(line);
+            if (msg != null) {
+                return msg;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of messages skipped because they were malformed.
+     *
+     * @return the number of malformed messages.
+     */
+    int getMalformedMessages() {
+        return malformedMessages;
+    }
+
+    private String skipToRecord() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (!isSeparator(line) && !isEmptyLine(line)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private HttpMessage readRecord(String firstLine) throws IOException {
+        State state = State.REQUEST_HEADER;
+        StringBuilder requestHeader = new StringBuilder(firstLine);
+        StringBuilder requestBody = new StringBuilder();
+        StringBuilder responseHeader = new StringBuilder();
+        StringBuilder responseBody = new StringBuilder();
+        HttpRequestHeader reqHeader = null;
+        int contentLength = -1;
+
+        String line;
+        while ((line = readLine()) != null && !isSeparator(line)) {
+            switch (state) {
+                case REQUEST_HEADER:
+                    requestHeader.append(line);
+                    if (isEmptyLine(line)) {
+                        reqHeader = createRequestHeader(requestHeader);
+                        if (reqHeader == null) {
+                            skipRecord();
+                            return null;
+                        }
+                        contentLength = reqHeader.getContentLength();
+                        state = State.REQUEST_BODY;
+                    }
+                    break;
+                case REQUEST_BODY:
+                    // The length is checked to not mistake a request body line for a status line
+                    if (isStatusLine(line) && requestBody.length() >= contentLength) {
+                        responseHeader.append(line);
+                        state = State.RESPONSE_HEADER;
+                    } else {
+                        requestBody.append(line);
+                    }
+                    break;
+                case RESPONSE_HEADER:
+                    responseHeader.append(line);
+                    if (isEmptyLine(line)) {
+                        state = State.RESPONSE_BODY;
+                    }
+                    break;
+                case RESPONSE_BODY:
+                default:
+                    responseBody.append(line);
+            }
+        }
+        pendingLine = line;
+
+        if (state == State.REQUEST_HEADER || state == State.REQUEST_BODY) {
+            // No response
+            return null;
+        }
+
+        try {
+            HttpMessage msg =
+                    new HttpMessage(
+                            reqHeader,
+                            new HttpRequestBody(removeLineTerminator(requestBody)),
+                            new HttpResponseHeader(responseHeader.toString()),
+                            new HttpResponseBody(removeLineTerminator(responseBody)));
+            msg.setResponseFromTargetHost(true);
+            return msg;
+        } catch (HttpMalformedHeaderException e) {
+            LOG.debug("Malformed response header: {}", e.getMessage());
+            malformedMessages++;
+            return null;
+        }
+    }
+
+    private HttpRequestHeader createRequestHeader(CharSequence header) {
+        try {
+            return new HttpRequestHeader(header.toString());
+        } catch (HttpMalformedHeaderException e) {
+            LOG.debug("Malformed request header: {}", e.getMessage());
+            malformedMessages++;
+            return null;
+        }
+    }
+
+    private void skipRecord() throws IOException {
+        String line;
+        while ((line = readLine()) != null && !isSeparator(line)) {
+            // Skip the rest of the message.
+        }
+        pendingLine = line;
+    }
+
+    private static String removeLineTerminator(StringBuilder strBuilder) {
+        int length = strBuilder.length();
+        if (length > 0 && strBuilder.charAt(length - 1) == '\n') {
+            length--;
+            if (length > 0 && strBuilder.charAt(length - 1) == '\r') {
+                length--;
+            }
+        }
+        return strBuilder.substring(0, length);
+    }
+
+    static boolean isSeparator(String line) {
+        if (!line.startsWith(SEPARATOR_START)) {
+            return false;
+        }
+        int i = SEPARATOR_START.length();
+        while (i < line.length() && Character.isDigit(line.charAt(i))) {
+            i++;
+        }
+        return line.startsWith(SEPARATOR_END, i);
+    }
+
+    static boolean isStatusLine(String line) {
+        // HTTP/d.d ddd
+        return line.length() >= 12
+                && line.startsWith("HTTP/")
+                && Character.isDigit(line.charAt(5))
+                && Character.isDigit(line.charAt(7))
+                && Character.isWhitespace(line.charAt(8))
+                && Character.isDigit(line.charAt(9))
+                && Character.isDigit(line.charAt(10))
+                && Character.isDigit(line.charAt(11))
+                && (line.length() == 12 || Character.isWhitespace(line.charAt(12)));
+    }
+
+    private static boolean isEmptyLine(String line) {
+        return "\r\n".equals(line) || "\n".equals(line);
+    }
+
+    /**
+     * Reads a line, with its terminator.
+     *
+     * @return the line, or {@code null} if the end of the file was reached.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    private String readLine() throws IOException {
+        if (pendingLine != null) {
+            String line = pendingLine;
+            pendingLine = null;
+            return line;
+        }
+
+        StringBuilder line = null;
+        while (true) {
+            if (position >= limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return line != null ? line.toString() : null;
+                }
+            }
+
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            boolean endOfLine = position < limit;
+            if (endOfLine) {
+                position++;
+                if (line == null) {
+                    return new String(buffer, start, position - start);
+                }
+            }
+
+            if (line == null) {
+                line = new StringBuilder(position - start + 80);
+            }
+            line.append(buffer, start, position - start);
+            if (endOfLine) {
+                return line.toString();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
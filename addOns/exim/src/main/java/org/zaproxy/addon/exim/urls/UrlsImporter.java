@@ -23,6 +23,16 @@ import java.awt.EventQueue;
 import java.io.BufferedReader;
 import java.io.File;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.httpclient.URI;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,22 +49,70 @@ import org.zaproxy.addon.commonlib.ui.ProgressPaneListener;
 import org.zaproxy.addon.exim.ExtensionExim;
 import org.zaproxy.zap.utils.Stats;
 
+/**
+ * Imports a file of URLs, one per line, by sending a GET request to each URL.
+ *
+ * <p>The URLs are sent by a bounded number of threads, optionally limited per host, using a single
+ * sender. The messages are added to the History and Sites tree in batches.
+ */
 public class UrlsImporter {
 
+    /** The default number of threads used to send the requests. */
+    public static final int DEFAULT_THREADS = 1;
+
+    /** The default number of threads used to send the requests to the same host. */
+    public static final int DEFAULT_THREADS_PER_HOST = 2;
+
     private static final Logger LOG = LogManager.getLogger(UrlsImporter.class);
     private static final String STATS_URL_FILE = "import.url.file";
     private static final String STATS_URL_FILE_ERROR = "import.url.file.errors";
     private static final String STATS_URL_FILE_URL = "import.url.file.url";
     private static final String STATS_URL_FILE_URL_ERROR = "import.url.file.url.errors";
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
     private ProgressPaneListener progressListener;
     private boolean success;
 
+    private final int threads;
+    private final int threadsPerHost;
+    private final Counters counters;
+    private HttpSender sender;
+    private Map<String, Semaphore> hostSlots;
+    private List<ImportedMessage> pendingMessages;
+    private StringBuilder pendingOutput;
+
     public UrlsImporter(File file) {
         this(file, null);
     }
 
     public UrlsImporter(File file, ProgressPaneListener listener) {
+        this(file, listener, DEFAULT_THREADS, DEFAULT_THREADS_PER_HOST, null);
+    }
+
+    /**
+     * Constructs an {@code UrlsImporter} that imports the given file, with the given number of
+     * threads.
+     *
+     * @param file the file to import.
+     * @param listener the progress listener, might be {@code null}.
+     * @param threads the number of threads used to send the requests.
+     * @param threadsPerHost the number of threads used to send the requests to the same host.
+     * @param counters where to keep the counters of the import, might be {@code null}.
+     * @since 0.2.0
+     */
+    public UrlsImporter(
+            File file,
+            ProgressPaneListener listener,
+            int threads,
+            int threadsPerHost,
+            Counters counters) {
         this.progressListener = listener;
+        this.threads = Math.max(1, threads);
+        this.threadsPerHost = Math.max(1, threadsPerHost);
+        this.counters = counters != null ? counters : new Counters();
         importUrlFile(file);
     }
 
@@ -63,6 +121,20 @@ public class UrlsImporter {
             success = false;
             return;
         }
+
+        sender =
+                new HttpSender(
+                        Model.getSingleton().getOptionsParam().getConnectionParam(),
+                        true,
+                        HttpSender.MANUAL_REQUEST_INITIATOR);
+        hostSlots = new ConcurrentHashMap<>();
+        pendingMessages = new ArrayList<>(BATCH_SIZE);
+        pendingOutput = new StringBuilder();
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(threads, UrlsImporter::createThread);
+        // Bound the URLs read ahead of the ones being sent
+        Semaphore inFlight = new Semaphore(threads * 2);
         try (BufferedReader in = Files.newBufferedReader(file.toPath())) {
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_URL_FILE);
             ExtensionExim.updateOutput("exim.output.start", file.toPath().toString());
@@ -72,12 +144,30 @@ public class UrlsImporter {
             while ((line = in.readLine()) != null) {
                 if (!line.startsWith("#") && line.trim().length() > 0) {
                     updateProgress(count, line);
-                    processLine(line);
+                    counters.urls.incrementAndGet();
+                    inFlight.acquire();
+                    String url = line;
+                    executor.execute(
+                            () -> {
+                                try {
+                                    processLine(url);
+                                } finally {
+                                    inFlight.release();
+                                }
+                            });
                     count++;
                 }
             }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            flush();
             ExtensionExim.updateOutput("exim.output.end", file.toPath().toString());
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            executor.shutdownNow();
+            flush();
             LOG.warn(
                     Constant.messages.getString(
                             ExtensionExim.EXIM_OUTPUT_ERROR, file.getAbsoluteFile()));
@@ -90,60 +180,119 @@ public class UrlsImporter {
         success = true;
     }
 
+    private static Thread createThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "ZAP-UrlsImporter-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
     private void processLine(String line) {
-        HttpSender sender =
-                new HttpSender(
-                        Model.getSingleton().getOptionsParam().getConnectionParam(),
-                        true,
-                        HttpSender.MANUAL_REQUEST_INITIATOR);
         StringBuilder outputLine = new StringBuilder();
+        ImportedMessage importedMessage = null;
         try {
             outputLine.append(HttpRequestHeader.GET).append('\t').append(line).append('\t');
             HttpMessage msg = new HttpMessage(new URI(line, false));
-            sender.sendAndReceive(msg, true);
-            persistMessage(msg);
+            sendAndReceive(msg);
+            importedMessage = persistMessage(msg);
 
             outputLine.append(msg.getResponseHeader().getStatusCode());
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_URL_FILE_URL);
+            counters.imported.incrementAndGet();
 
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             outputLine.append(e.getMessage());
             Stats.incCounter(ExtensionExim.STATS_PREFIX + STATS_URL_FILE_URL_ERROR);
+            counters.errors.incrementAndGet();
         }
         outputLine.append('\n');
-        if (View.isInitialised()) {
-            EventQueue.invokeLater(
-                    () -> {
-                        View.getSingleton().getOutputPanel().append(outputLine.toString());
-                        outputLine.delete(0, outputLine.length());
-                    });
-        }
+        addPending(importedMessage, outputLine);
     }
 
-    private static void persistMessage(HttpMessage message) {
-        HistoryReference historyRef;
+    private void sendAndReceive(HttpMessage msg) throws Exception {
+        URI uri = msg.getRequestHeader().getURI();
+        String host = uri.getHost();
+        Semaphore slots =
+                hostSlots.computeIfAbsent(
+                        host != null ? host.toLowerCase(Locale.ROOT) : "",
+                        k -> new Semaphore(threadsPerHost));
+        slots.acquire();
+        try {
+            sender.sendAndReceive(msg, true);
+        } finally {
+            slots.release();
+        }
+    }
 
+    private static ImportedMessage persistMessage(HttpMessage message) {
         try {
-            historyRef =
+            return new ImportedMessage(
                     new HistoryReference(
                             Model.getSingleton().getSession(),
                             HistoryReference.TYPE_ZAP_USER,
-                            message);
+                            message),
+                    message);
         } catch (Exception e) {
             LOG.warn(e.getMessage());
-            return;
+            return null;
+        }
+    }
+
+    private void addPending(ImportedMessage importedMessage, CharSequence output) {
+        List<ImportedMessage> messages = null;
+        String outputLines = null;
+        synchronized (pendingMessages) {
+            if (importedMessage != null) {
+                pendingMessages.add(importedMessage);
+            }
+            pendingOutput.append(output);
+            if (pendingMessages.size() >= BATCH_SIZE) {
+                messages = new ArrayList<>(pendingMessages);
+                pendingMessages.clear();
+                outputLines = pendingOutput.toString();
+                pendingOutput.setLength(0);
+            }
+        }
+        if (messages != null) {
+            addToUi(messages, outputLines);
+        }
+    }
+
+    private void flush() {
+        List<ImportedMessage> messages;
+        String outputLines;
+        synchronized (pendingMessages) {
+            messages = new ArrayList<>(pendingMessages);
+            pendingMessages.clear();
+            outputLines = pendingOutput.toString();
+            pendingOutput.setLength(0);
+        }
+        addToUi(messages, outputLines);
+    }
+
+    private static void addToUi(List<ImportedMessage> messages, String outputLines) {
+        if (View.isInitialised() && !outputLines.isEmpty()) {
+            EventQueue.invokeLater(
+                    () -> View.getSingleton().getOutputPanel().append(outputLines));
         }
 
+        if (messages.isEmpty()) {
+            return;
+        }
         ExtensionHistory extHistory =
                 Control.getSingleton().getExtensionLoader().getExtension(ExtensionHistory.class);
         if (extHistory != null) {
             EventQueue.invokeLater(
                     () -> {
-                        extHistory.addHistory(historyRef);
-                        Model.getSingleton()
-                                .getSession()
-                                .getSiteTree()
-                                .addPath(historyRef, message);
+                        for (ImportedMessage message : messages) {
+                            extHistory.addHistory(message.historyRef);
+                            Model.getSingleton()
+                                    .getSession()
+                                    .getSiteTree()
+                                    .addPath(message.historyRef, message.msg);
+                        }
                     });
         }
     }
@@ -152,6 +301,16 @@ public class UrlsImporter {
         return success;
     }
 
+    /**
+     * Gets the counters of the import.
+     *
+     * @return the counters, never {@code null}.
+     * @since 0.2.0
+     */
+    public Counters getCounters() {
+        return counters;
+    }
+
     private void updateProgress(int count, String line) {
         if (progressListener != null) {
             progressListener.setTasksDone(count);
@@ -165,4 +324,54 @@ public class UrlsImporter {
             progressListener.completed();
         }
     }
+
+    private static class ImportedMessage {
+
+        private final HistoryReference historyRef;
+        private final HttpMessage msg;
+
+        ImportedMessage(HistoryReference historyRef, HttpMessage msg) {
+            this.historyRef = historyRef;
+            this.msg = msg;
+        }
+    }
+
+    /**
+     * The counters of an import of URLs, updated while the import is in progress.
+     *
+     * @since 0.2.0
+     */
+    public static final class Counters {
+
+        private final AtomicInteger urls = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        /**
+         * Gets the number of URLs read from the file.
+         *
+         * @return the number of URLs.
+         */
+        public int getUrls() {
+            return urls.get();
+        }
+
+        /**
+         * Gets the number of URLs successfully requested.
+         *
+         * @return the number of URLs imported.
+         */
+        public int getImported() {
+            return imported.get();
+        }
+
+        /**
+         * Gets the number of URLs that could not be requested.
+         *
+         * @return the number of errors.
+         */
+        public int getErrors() {
+            return errors.get();
+        }
+    }
 }
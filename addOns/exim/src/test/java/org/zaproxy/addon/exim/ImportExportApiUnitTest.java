@@ -0,0 +1,228 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim;
+
+import static fi.iki.elonen.NanoHTTPD.newFixedLengthResponse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import fi.iki.elonen.NanoHTTPD.IHTTPSession;
+import fi.iki.elonen.NanoHTTPD.Response;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.db.RecordHistory;
+import org.parosproxy.paros.db.TableHistory;
+import org.parosproxy.paros.extension.ExtensionLoader;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.model.OptionsParam;
+import org.parosproxy.paros.model.Session;
+import org.parosproxy.paros.model.SiteMap;
+import org.parosproxy.paros.network.ConnectionParam;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.api.ApiException;
+import org.zaproxy.zap.extension.api.ApiResponse;
+import org.zaproxy.zap.extension.api.ApiResponseElement;
+import org.zaproxy.zap.testutils.NanoServerHandler;
+import org.zaproxy.zap.testutils.TestUtils;
+import org.zaproxy.zap.utils.I18N;
+
+/** Unit test for {@link ImportExportApi}. */
+class ImportExportApiUnitTest extends TestUtils {
+
+    @TempDir Path dir;
+
+    private ImportExportApi api;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        setUpZap();
+        Constant.messages = new I18N(Locale.ENGLISH);
+        startServer();
+        nano.addHandler(
+                new NanoServerHandler("/") {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        consumeBody(session);
+                        return newFixedLengthResponse(Response.Status.OK, "text/plain", "OK");
+                    }
+                });
+
+        Model model = mock(Model.class, withSettings().lenient());
+        OptionsParam optionsParam = mock(OptionsParam.class, withSettings().lenient());
+        given(optionsParam.getConnectionParam()).willReturn(new ConnectionParam());
+        given(model.getOptionsParam()).willReturn(optionsParam);
+        Session session = mock(Session.class, withSettings().lenient());
+        given(model.getSession()).willReturn(session);
+        given(session.getSiteTree()).willReturn(mock(SiteMap.class, withSettings().lenient()));
+        Model.setSingletonForTesting(model);
+        Control.initSingletonForTesting(
+                model, mock(ExtensionLoader.class, withSettings().lenient()));
+
+        AtomicInteger historyIds = new AtomicInteger();
+        TableHistory tableHistory = mock(TableHistory.class, withSettings().lenient());
+        given(tableHistory.write(anyLong(), anyInt(), any(HttpMessage.class)))
+                .willAnswer(
+                        invocation -> {
+                            RecordHistory record =
+                                    mock(RecordHistory.class, withSettings().lenient());
+                            given(record.getHistoryId()).willReturn(historyIds.incrementAndGet());
+                            given(record.getHttpMessage()).willReturn(invocation.getArgument(2));
+                            return record;
+                        });
+        HistoryReference.setTableHistory(tableHistory);
+
+        api = new ImportExportApi();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stopServer();
+        HistoryReference.setTableHistory(null);
+    }
+
+    @Test
+    void shouldHavePrefix() {
+        // Given / When
+        String prefix = api.getPrefix();
+        // Then
+        assertThat(prefix, is(equalTo("exim")));
+    }
+
+    @Test
+    void shouldThrowBadActionIfActionUnknown() {
+        // Given
+        String name = "_NotKnownAction_";
+        // When
+        ApiException exception =
+                assertThrows(
+                        ApiException.class, () -> api.handleApiAction(name, new JSONObject()));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_ACTION)));
+    }
+
+    @Test
+    void shouldThrowBadViewIfViewUnknown() {
+        // Given
+        String name = "_NotKnownView_";
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiView(name, new JSONObject()));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_VIEW)));
+    }
+
+    @Test
+    void shouldThrowMissingParameterIfImportUrlsWithoutFilePath() {
+        // Given
+        JSONObject params = new JSONObject();
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiAction("importUrls", params));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.MISSING_PARAMETER)));
+    }
+
+    @Test
+    void shouldThrowBadExternalDataIfImportUrlsFileDoesNotExist() {
+        // Given
+        JSONObject params = new JSONObject();
+        params.put("filePath", dir.resolve("missing.txt").toString());
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiAction("importUrls", params));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_EXTERNAL_DATA)));
+    }
+
+    @Test
+    void shouldImportUrlsWithThreads() throws Exception {
+        // Given
+        JSONObject params = new JSONObject();
+        params.put("filePath", createUrlsFile().toString());
+        params.put("threads", "2");
+        params.put("threadsPerHost", "1");
+        // When
+        ApiResponse response = api.handleApiAction("importUrls", params);
+        // Then
+        assertThat(response, is(equalTo(ApiResponseElement.OK)));
+    }
+
+    @Test
+    void shouldGetNoImportUrlsProgressIfNoImport() throws Exception {
+        // Given
+        JSONObject params = new JSONObject();
+        // When
+        ApiResponse response = api.handleApiView("importUrlsProgress", params);
+        // Then
+        String json = response.toJSON().toString();
+        assertThat(json, containsString("\"urls\":0"));
+        assertThat(json, containsString("\"imported\":0"));
+        assertThat(json, containsString("\"errors\":0"));
+    }
+
+    @Test
+    void shouldGetImportUrlsProgressOfLastImport() throws Exception {
+        // Given
+        JSONObject params = new JSONObject();
+        params.put("filePath", createUrlsFile().toString());
+        params.put("threads", "2");
+        api.handleApiAction("importUrls", params);
+        // When
+        ApiResponse response = api.handleApiView("importUrlsProgress", new JSONObject());
+        // Then
+        String json = response.toJSON().toString();
+        assertThat(json, containsString("\"urls\":3"));
+        assertThat(json, containsString("\"imported\":2"));
+        assertThat(json, containsString("\"errors\":1"));
+    }
+
+    private Path createUrlsFile() throws Exception {
+        String url = "http://localhost:" + nano.getListeningPort() + "/";
+        String unreachableUrl = "http://localhost:" + getRandomPort() + "/";
+        Path file = dir.resolve("urls.txt");
+        Files.write(
+                file,
+                Arrays.asList(url + "a", unreachableUrl, url + "b"),
+                StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.har;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.umass.cs.benchlab.har.HarEntries;
+import edu.umass.cs.benchlab.har.HarEntry;
+import edu.umass.cs.benchlab.har.HarLog;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.utils.HarUtils;
+
+/** Unit test for {@link HarEntriesReader}. */
+class HarEntriesReaderUnitTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void shouldReadEntriesOneAtATime() throws Exception {
+        // Given
+        HttpMessage msg1 = createMessage("/path1", "Body 1");
+        HttpMessage msg2 = createMessage("/path2", "Body 2");
+        File file = createHarFile(msg1, msg2);
+        // When
+        try (HarEntriesReader reader = new HarEntriesReader(file)) {
+            HarEntry entry1 = reader.next();
+            HarEntry entry2 = reader.next();
+            HarEntry entry3 = reader.next();
+            // Then
+            assertThat(entry1.getRequest().getUrl(), is(equalTo("http://example.com/path1")));
+            assertThat(entry2.getRequest().getUrl(), is(equalTo("http://example.com/path2")));
+            assertThat(entry2.getResponse().getContent().getText(), is(equalTo("Body 2")));
+            assertThat(entry3, is(nullValue()));
+        }
+    }
+
+    @Test
+    void shouldCountEntries() throws Exception {
+        // Given
+        File file =
+                createHarFile(
+                        createMessage("/path1", "Body 1"),
+                        createMessage("/path2", "Body 2"),
+                        createMessage("/path3", "Body 3"));
+        // When
+        int count = HarEntriesReader.countEntries(file);
+        // Then
+        assertThat(count, is(equalTo(3)));
+    }
+
+    @Test
+    void shouldReadNoEntriesIfNotPresent() throws Exception {
+        // Given
+        File file = createFile("{\"log\": {\"version\": \"1.2\", \"pages\": [{\"id\": \"a\"}]}}");
+        // When
+        try (HarEntriesReader reader = new HarEntriesReader(file)) {
+            HarEntry entry = reader.next();
+            // Then
+            assertThat(entry, is(nullValue()));
+        }
+    }
+
+    @Test
+    void shouldSkipOtherElementsBeforeEntries() throws Exception {
+        // Given
+        File file =
+                createFile(
+                        "{\"other\": {\"log\": 1}, \"log\": {\"pages\": [{\"entries\": []}], "
+                                + "\"entries\": [{}, {}]}}");
+        // When
+        int count = HarEntriesReader.countEntries(file);
+        // Then
+        assertThat(count, is(equalTo(2)));
+    }
+
+    @Test
+    void shouldFailIfNotHar() throws Exception {
+        // Given
+        File file = createFile("[]");
+        // When / Then
+        assertThrows(IOException.class, () -> new HarEntriesReader(file));
+    }
+
+    private File createHarFile(HttpMessage... messages) throws Exception {
+        HarLog harLog = HarUtils.createZapHarLog();
+        HarEntries harEntries = new HarEntries();
+        for (HttpMessage message : messages) {
+            harEntries.addEntry(HarUtils.createHarEntry(message));
+        }
+        harLog.setEntries(harEntries);
+        Path file = dir.resolve("test.har");
+        Files.write(file, HarUtils.harLogToByteArray(harLog));
+        return file.toFile();
+    }
+
+    private File createFile(String contents) throws Exception {
+        Path file = dir.resolve("test.har");
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private static HttpMessage createMessage(String path, String body) throws Exception {
+        return new HttpMessage(
+                "GET " + path + " HTTP/1.1\r\nHost: example.com\r\n\r\n",
+                new byte[0],
+                "HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\n\r\n",
+                body.getBytes(StandardCharsets.US_ASCII));
+    }
+}
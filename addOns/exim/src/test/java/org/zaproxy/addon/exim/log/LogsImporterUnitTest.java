@@ -0,0 +1,173 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.log;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.awt.EventQueue;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.db.RecordHistory;
+import org.parosproxy.paros.db.TableHistory;
+import org.parosproxy.paros.extension.ExtensionLoader;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.model.Session;
+import org.parosproxy.paros.model.SiteMap;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link LogsImporter}. */
+class LogsImporterUnitTest {
+
+    private static final int MESSAGES_PER_FILE = 150;
+
+    @TempDir Path dir;
+
+    private SiteMap siteTree;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Model model = mock(Model.class, withSettings().lenient());
+        Session session = mock(Session.class, withSettings().lenient());
+        siteTree = mock(SiteMap.class, withSettings().lenient());
+        given(model.getSession()).willReturn(session);
+        given(session.getSiteTree()).willReturn(siteTree);
+        Model.setSingletonForTesting(model);
+        Control.initSingletonForTesting(
+                model, mock(ExtensionLoader.class, withSettings().lenient()));
+
+        AtomicInteger historyIds = new AtomicInteger();
+        TableHistory tableHistory = mock(TableHistory.class, withSettings().lenient());
+        given(tableHistory.write(anyLong(), anyInt(), any(HttpMessage.class)))
+                .willAnswer(
+                        invocation -> {
+                            RecordHistory record =
+                                    mock(RecordHistory.class, withSettings().lenient());
+                            given(record.getHistoryId()).willReturn(historyIds.incrementAndGet());
+                            given(record.getHttpMessage()).willReturn(invocation.getArgument(2));
+                            return record;
+                        });
+        HistoryReference.setTableHistory(tableHistory);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        HistoryReference.setTableHistory(null);
+    }
+
+    @Test
+    void shouldImportMultipleFilesInParallel() throws Exception {
+        // Given
+        List<File> files = createFiles(3);
+        // When
+        LogsImporter importer = new LogsImporter(files, LogsImporter.LogType.ZAP, 3, null);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(true)));
+        verify(siteTree, times(3 * MESSAGES_PER_FILE))
+                .addPath(any(HistoryReference.class), any(HttpMessage.class));
+    }
+
+    @Test
+    void shouldImportMultipleFilesFromEventDispatchThread() throws Exception {
+        // Given
+        List<File> files = createFiles(2);
+        AtomicReference<LogsImporter> importer = new AtomicReference<>();
+        // When
+        assertTimeoutPreemptively(
+                Duration.ofSeconds(30),
+                () ->
+                        EventQueue.invokeAndWait(
+                                () ->
+                                        importer.set(
+                                                new LogsImporter(
+                                                        files,
+                                                        LogsImporter.LogType.ZAP,
+                                                        2,
+                                                        null))));
+        // Then
+        assertThat(importer.get().isSuccess(), is(equalTo(true)));
+        verify(siteTree, times(2 * MESSAGES_PER_FILE))
+                .addPath(any(HistoryReference.class), any(HttpMessage.class));
+    }
+
+    @Test
+    void shouldNotSucceedIfAnyFileFailsToImport() throws Exception {
+        // Given
+        List<File> files = new ArrayList<>(createFiles(2));
+        files.add(dir.resolve("missing.txt").toFile());
+        // When
+        LogsImporter importer = new LogsImporter(files, LogsImporter.LogType.ZAP, 3, null);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(false)));
+        verify(siteTree, times(2 * MESSAGES_PER_FILE))
+                .addPath(any(HistoryReference.class), any(HttpMessage.class));
+    }
+
+    private List<File> createFiles(int count) throws Exception {
+        File[] files = new File[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder contents = new StringBuilder();
+            for (int j = 0; j < MESSAGES_PER_FILE; j++) {
+                contents.append("==== ")
+                        .append(j + 1)
+                        .append(" ==========\r\n")
+                        .append("GET http://example.com/")
+                        .append(i)
+                        .append('/')
+                        .append(j)
+                        .append(" HTTP/1.1\r\n")
+                        .append("Host: example.com\r\n")
+                        .append("\r\n")
+                        .append("HTTP/1.1 200 OK\r\n")
+                        .append("Content-Type: text/html\r\n")
+                        .append("\r\n")
+                        .append("<html></html>\r\n");
+            }
+            Path file = dir.resolve("messages" + i + ".txt");
+            Files.write(file, contents.toString().getBytes(StandardCharsets.ISO_8859_1));
+            files[i] = file.toFile();
+        }
+        return Arrays.asList(files);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.log;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link ZapLogsReader}. */
+class ZapLogsReaderUnitTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void shouldReadMessagesOneAtATime() throws Exception {
+        // Given
+        File file =
+                createFile(
+                        "==== 1 ==========\r\n"
+                                + "GET http://example.com/ HTTP/1.1\r\n"
+                                + "Host: example.com\r\n"
+                                + "\r\n"
+                                + "HTTP/1.1 200 OK\r\n"
+                                + "Content-Type: text/html\r\n"
+                                + "\r\n"
+                                + "<html>\r\nBody 1\r\n</html>\r\n"
+                                + "==== 2 ==========\r\n"
+                                + "POST http://example.com/form HTTP/1.1\r\n"
+                                + "Host: example.com\r\n"
+                                + "\r\n"
+                                + "a=1&b=2\r\n"
+                                + "HTTP/1.1 201 Created\r\n"
+                                + "\r\n"
+                                + "Created");
+        // When
+        try (ZapLogsReader reader = new ZapLogsReader(file)) {
+            HttpMessage msg1 = reader.next();
+            HttpMessage msg2 = reader.next();
+            HttpMessage msg3 = reader.next();
+            // Then
+            assertThat(
+                    msg1.getRequestHeader().getURI().toString(),
+                    is(equalTo("http://example.com/")));
+            assertThat(msg1.getRequestBody().toString(), is(equalTo("")));
+            assertThat(msg1.getResponseHeader().getStatusCode(), is(equalTo(200)));
+            assertThat(
+                    msg1.getResponseBody().toString(), is(equalTo("<html>\r\nBody 1\r\n</html>")));
+            assertThat(msg2.getRequestHeader().getMethod(), is(equalTo("POST")));
+            assertThat(msg2.getRequestBody().toString(), is(equalTo("a=1&b=2")));
+            assertThat(msg2.getResponseHeader().getStatusCode(), is(equalTo(201)));
+            assertThat(msg2.getResponseBody().toString(), is(equalTo("Created")));
+            assertThat(msg3, is(nullValue()));
+        }
+    }
+
+    @Test
+    void shouldNotMistakeRequestBodyForStatusLineIfWithinContentLength() throws Exception {
+        // Given
+        String requestBody = "line1\r\nHTTP/1.1 200 OK";
+        File file =
+                createFile(
+                        "==== 1 ==========\n"
+                                + "POST http://example.com/ HTTP/1.1\n"
+                                + "Content-Length: "
+                                + requestBody.length()
+                                + "\n"
+                                + "\n"
+                                + requestBody
+                                + "\r\n"
+                                + "HTTP/1.1 400 Bad Request\n"
+                                + "\n");
+        // When
+        try (ZapLogsReader reader = new ZapLogsReader(file)) {
+            HttpMessage msg = reader.next();
+            // Then
+            assertThat(msg.getRequestBody().toString(), is(equalTo(requestBody)));
+            assertThat(msg.getResponseHeader().getStatusCode(), is(equalTo(400)));
+        }
+    }
+
+    @Test
+    void shouldSkipMessagesWithoutResponse() throws Exception {
+        // Given
+        File file =
+                createFile(
+                        "==== 1 ==========\r\n"
+                                + "GET http://example.com/1 HTTP/1.1\r\n"
+                                + "\r\n"
+                                + "==== 2 ==========\r\n"
+                                + "GET http://example.com/2 HTTP/1.1\r\n"
+                                + "\r\n"
+                                + "HTTP/1.1 200 OK\r\n"
+                                + "\r\n");
+        // When
+        try (ZapLogsReader reader = new ZapLogsReader(file)) {
+            HttpMessage msg = reader.next();
+            // Then
+            assertThat(
+                    msg.getRequestHeader().getURI().toString(),
+                    is(equalTo("http://example.com/2")));
+            assertThat(reader.next(), is(nullValue()));
+            assertThat(reader.getMalformedMessages(), is(equalTo(0)));
+        }
+    }
+
+    @Test
+    void shouldSkipAndCountMalformedMessages() throws Exception {
+        // Given
+        File file =
+                createFile(
+                        "==== 1 ==========\r\n"
+                                + "Not a request\r\n"
+                                + "\r\n"
+                                + "HTTP/1.1 200 OK\r\n"
+                                + "\r\n"
+                                + "==== 2 ==========\r\n"
+                                + "GET http://example.com/2 HTTP/1.1\r\n"
+                                + "\r\n"
+                                + "HTTP/1.1 200 OK\r\n"
+                                + "\r\n");
+        // When
+        try (ZapLogsReader reader = new ZapLogsReader(file)) {
+            HttpMessage msg = reader.next();
+            // Then
+            assertThat(
+                    msg.getRequestHeader().getURI().toString(),
+                    is(equalTo("http://example.com/2")));
+            assertThat(reader.next(), is(nullValue()));
+            assertThat(reader.getMalformedMessages(), is(equalTo(1)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"==== 1 ==========\r\n", "==== 123 ==========\n", "====  ==========\n"})
+    void shouldDetectSeparator(String line) {
+        assertThat(ZapLogsReader.isSeparator(line), is(equalTo(true)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=== 1 ==========\r\n", "==== 1 ===\r\n", "==== a ==========\r\n"})
+    void shouldNotDetectSeparator(String line) {
+        assertThat(ZapLogsReader.isSeparator(line), is(equalTo(false)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"HTTP/1.1 200 OK\r\n", "HTTP/1.0 404\n", "HTTP/2.0 500 Error"})
+    void shouldDetectStatusLine(String line) {
+        assertThat(ZapLogsReader.isStatusLine(line), is(equalTo(true)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"HTTP/1.1 2000\r\n", "HTTP/1.1\r\n", "GET / HTTP/1.1\r\n"})
+    void shouldNotDetectStatusLine(String line) {
+        assertThat(ZapLogsReader.isStatusLine(line), is(equalTo(false)));
+    }
+
+    private File createFile(String contents) throws Exception {
+        Path file = dir.resolve("messages.txt");
+        Files.write(file, contents.getBytes(StandardCharsets.ISO_8859_1));
+        return file.toFile();
+    }
+}
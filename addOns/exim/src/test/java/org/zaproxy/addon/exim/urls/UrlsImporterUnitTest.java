@@ -0,0 +1,274 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.exim.urls;
+
+import static fi.iki.elonen.NanoHTTPD.newFixedLengthResponse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import fi.iki.elonen.NanoHTTPD.IHTTPSession;
+import fi.iki.elonen.NanoHTTPD.Response;
+import java.awt.EventQueue;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.db.RecordHistory;
+import org.parosproxy.paros.db.TableHistory;
+import org.parosproxy.paros.extension.ExtensionLoader;
+import org.parosproxy.paros.extension.history.ExtensionHistory;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.model.OptionsParam;
+import org.parosproxy.paros.model.Session;
+import org.parosproxy.paros.model.SiteMap;
+import org.parosproxy.paros.network.ConnectionParam;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.testutils.NanoServerHandler;
+import org.zaproxy.zap.testutils.TestUtils;
+import org.zaproxy.zap.utils.I18N;
+
+/** Unit test for {@link UrlsImporter}. */
+class UrlsImporterUnitTest extends TestUtils {
+
+    @TempDir Path dir;
+
+    private ConcurrencyServerHandler handler;
+    private List<String> addedUrls;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        setUpZap();
+        Constant.messages = new I18N(Locale.ENGLISH);
+        startServer();
+        handler = new ConcurrencyServerHandler();
+        nano.addHandler(handler);
+
+        Model model = mock(Model.class, withSettings().lenient());
+        OptionsParam optionsParam = mock(OptionsParam.class, withSettings().lenient());
+        given(optionsParam.getConnectionParam()).willReturn(new ConnectionParam());
+        given(model.getOptionsParam()).willReturn(optionsParam);
+        Session session = mock(Session.class, withSettings().lenient());
+        given(model.getSession()).willReturn(session);
+        SiteMap siteTree = mock(SiteMap.class, withSettings().lenient());
+        given(session.getSiteTree()).willReturn(siteTree);
+        addedUrls = Collections.synchronizedList(new ArrayList<>());
+        willAnswer(
+                        invocation -> {
+                            HttpMessage msg = invocation.getArgument(1);
+                            addedUrls.add(msg.getRequestHeader().getURI().toString());
+                            return null;
+                        })
+                .given(siteTree)
+                .addPath(any(HistoryReference.class), any(HttpMessage.class));
+        Model.setSingletonForTesting(model);
+        ExtensionLoader extensionLoader = mock(ExtensionLoader.class, withSettings().lenient());
+        given(extensionLoader.getExtension(ExtensionHistory.class))
+                .willReturn(mock(ExtensionHistory.class, withSettings().lenient()));
+        Control.initSingletonForTesting(model, extensionLoader);
+
+        AtomicInteger historyIds = new AtomicInteger();
+        TableHistory tableHistory = mock(TableHistory.class, withSettings().lenient());
+        given(tableHistory.write(anyLong(), anyInt(), any(HttpMessage.class)))
+                .willAnswer(
+                        invocation -> {
+                            RecordHistory record =
+                                    mock(RecordHistory.class, withSettings().lenient());
+                            given(record.getHistoryId()).willReturn(historyIds.incrementAndGet());
+                            given(record.getHttpMessage()).willReturn(invocation.getArgument(2));
+                            return record;
+                        });
+        HistoryReference.setTableHistory(tableHistory);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stopServer();
+        HistoryReference.setTableHistory(null);
+    }
+
+    @Test
+    void shouldImportUrlsInOrderOfFileWithOneThread() throws Exception {
+        // Given
+        List<String> urls = createUrls(10);
+        File file = createFile(urls);
+        // When
+        UrlsImporter importer = new UrlsImporter(file, null, 1, 1, null);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(true)));
+        assertThat(getAddedUrls(), contains(urls.toArray()));
+        assertThat(handler.getMaxConcurrentRequests(), is(equalTo(1)));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldImportAllUrlsConcurrently() throws Exception {
+        // Given
+        List<String> urls = createUrls(12);
+        File file = createFile(urls);
+        // When
+        UrlsImporter importer = new UrlsImporter(file, null, 4, 4, null);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(true)));
+        assertThat(getAddedUrls(), containsInAnyOrder(urls.toArray()));
+        assertThat(handler.getMaxConcurrentRequests(), is(greaterThan(1)));
+        assertThat(importer.getCounters().getUrls(), is(equalTo(12)));
+        assertThat(importer.getCounters().getImported(), is(equalTo(12)));
+        assertThat(importer.getCounters().getErrors(), is(equalTo(0)));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldLimitConcurrentRequestsPerHost() throws Exception {
+        // Given
+        List<String> urls = createUrls(6);
+        File file = createFile(urls);
+        // When
+        UrlsImporter importer = new UrlsImporter(file, null, 4, 1, null);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(true)));
+        assertThat(getAddedUrls(), containsInAnyOrder(urls.toArray()));
+        assertThat(handler.getMaxConcurrentRequests(), is(equalTo(1)));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldCountUrlsFailedAndIgnoreCommentsAndEmptyLines() throws Exception {
+        // Given
+        List<String> urls = createUrls(3);
+        String unreachableUrl = "http://localhost:" + getRandomPort() + "/unreachable";
+        List<String> lines = new ArrayList<>();
+        lines.add("# Comment");
+        lines.add(unreachableUrl);
+        lines.addAll(urls);
+        lines.add("");
+        lines.add(unreachableUrl);
+        File file = createFile(lines);
+        UrlsImporter.Counters counters = new UrlsImporter.Counters();
+        // When
+        UrlsImporter importer = new UrlsImporter(file, null, 2, 2, counters);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(true)));
+        assertThat(importer.getCounters(), is(equalTo(counters)));
+        assertThat(counters.getUrls(), is(equalTo(5)));
+        assertThat(counters.getImported(), is(equalTo(3)));
+        assertThat(counters.getErrors(), is(equalTo(2)));
+        assertThat(getAddedUrls(), containsInAnyOrder(urls.toArray()));
+    }
+
+    @Test
+    void shouldNotSucceedIfFileDoesNotExist() throws Exception {
+        // Given
+        File file = dir.resolve("missing.txt").toFile();
+        // When
+        UrlsImporter importer = new UrlsImporter(file, null, 2, 2, null);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(false)));
+        assertThat(importer.getCounters().getUrls(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldNotSucceedIfNoFile() {
+        // Given
+        File file = null;
+        // When
+        UrlsImporter importer = new UrlsImporter(file);
+        // Then
+        assertThat(importer.isSuccess(), is(equalTo(false)));
+    }
+
+    private List<String> createUrls(int count) {
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            urls.add("http://localhost:" + nano.getListeningPort() + "/" + i);
+        }
+        return urls;
+    }
+
+    private File createFile(List<String> lines) throws Exception {
+        Path file = dir.resolve("urls.txt");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private List<String> getAddedUrls() throws Exception {
+        // Wait for the messages added in the EDT.
+        EventQueue.invokeAndWait(() -> {});
+        synchronized (addedUrls) {
+            return new ArrayList<>(addedUrls);
+        }
+    }
+
+    private static class ConcurrencyServerHandler extends NanoServerHandler {
+
+        private final AtomicInteger concurrentRequests;
+        private final AtomicInteger maxConcurrentRequests;
+
+        ConcurrencyServerHandler() {
+            super("/");
+            this.concurrentRequests = new AtomicInteger();
+            this.maxConcurrentRequests = new AtomicInteger();
+        }
+
+        int getMaxConcurrentRequests() {
+            return maxConcurrentRequests.get();
+        }
+
+        @Override
+        protected Response serve(IHTTPSession session) {
+            consumeBody(session);
+            int concurrent = concurrentRequests.incrementAndGet();
+            maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+            try {
+                Thread.sleep(100);
+                return newFixedLengthResponse(Response.Status.OK, "text/plain", "OK");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return newFixedLengthResponse(
+                        Response.Status.INTERNAL_ERROR, "text/plain", "Interrupted");
+            } finally {
+                concurrentRequests.decrementAndGet();
+            }
+        }
+    }
+}
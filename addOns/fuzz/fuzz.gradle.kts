@@ -21,6 +21,20 @@ zapAddOn {
     manifest {
         author.set("ZAP Dev Team")
         url.set("https://www.zaproxy.org/docs/desktop/addons/fuzzer/")
+        extensions {
+            register("org.zaproxy.zap.extension.fuzz.automation.ExtensionFuzzAutomation") {
+                classnames {
+                    allowed.set(listOf("org.zaproxy.zap.extension.fuzz.automation"))
+                }
+                dependencies {
+                    addOns {
+                        register("automation") {
+                            version.set(">=0.12.0")
+                        }
+                    }
+                }
+            }
+        }
     }
 }
 
@@ -31,7 +45,9 @@ dependencies {
         setTransitive(false)
     }
     implementation("com.github.mifmif:generex:1.0.2")
+    compileOnly(parent!!.childProjects.get("automation")!!)
 
+    testImplementation(parent!!.childProjects.get("automation")!!)
     testImplementation(project(":testutils"))
 }
 
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.SortedSet;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -94,6 +95,12 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
 
     private PausableExecutorService fuzzerTaskExecutor;
 
+    /**
+     * The permits of the tasks that can be submitted but not yet done, bounds the number of tasks
+     * (and payloads) waiting to be executed.
+     */
+    private volatile Semaphore liveTasksPermits;
+
     public AbstractFuzzer(
             String fuzzerScanName,
             FuzzerOptions fuzzerOptions,
@@ -193,7 +200,7 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
         FuzzerThreadFactory threadFactory =
                 new FuzzerThreadFactory("ZAP-FuzzerThreadPool-" + fuzzerScanId + "-thread-");
 
-        if (fuzzerOptions.getSendMessageDelay() > 0) {
+        if (fuzzerOptions.getSendMessageDelay() > 0 && isDelayTasksOnExecution()) {
             PausableScheduledThreadPoolExecutor executor =
                     new PausableScheduledThreadPoolExecutor(poolSize, threadFactory);
             executor.setDefaultDelay(
@@ -212,6 +219,20 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
                 threadFactory);
     }
 
+    /**
+     * Tells whether or not the tasks should be delayed by the executor, using the send message
+     * delay of the options.
+     *
+     * <p>Defaults to {@code true}, should be overridden by fuzzers that pace the tasks themselves.
+     *
+     * @return {@code true} if the tasks should be delayed by the executor, {@code false}
+     *     otherwise.
+     * @see #createFuzzerTaskExecutor()
+     */
+    protected boolean isDelayTasksOnExecution() {
+        return true;
+    }
+
     protected FuzzerTaskSubmitter createFuzzerTaskSubmitter() {
         return new FuzzerTaskSubmitter(
                 "ZAP-FuzzerTaskSubmitter-" + fuzzerScanId, fuzzerOptions.getThreadCount() * 3);
@@ -423,6 +444,10 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
     protected void preTaskExecution(long taskId) {}
 
     protected void postTaskExecution(long taskId, boolean normalTermination) {
+        Semaphore permits = liveTasksPermits;
+        if (permits != null) {
+            permits.release();
+        }
         long done = tasksDoneCount.incrementAndGet();
         Stats.incCounter(ExtensionFuzz.MESSAGES_SENT_STATS);
         notifyListenersFuzzerProgress(done, tasksTotalCount);
@@ -542,12 +567,12 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
      */
     private class FuzzerTaskSubmitter extends Thread {
 
-        private final long maxNumberOfLiveTasks;
-        private long totalTasksSubmitted;
+        private final Semaphore permits;
 
         public FuzzerTaskSubmitter(String threadName, long maxNumberOfLiveTasks) {
             super(threadName);
-            this.maxNumberOfLiveTasks = maxNumberOfLiveTasks;
+            permits = new Semaphore((int) Math.min(Integer.MAX_VALUE, maxNumberOfLiveTasks));
+            liveTasksPermits = permits;
         }
 
         @Override
@@ -571,15 +596,8 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
 
         private void submitTasks() {
             while (multipleMessageLocationsReplacer.hasNext() && !isStopped()) {
-                while ((totalTasksSubmitted - tasksDoneCount.get()) > maxNumberOfLiveTasks
-                        && !isStopped()) {
-                    try {
-                        sleep(25);
-                    } catch (InterruptedException ignore) {
-                    }
-                }
-
-                if (isStopped()) {
+                // Wait for a task to be done before generating more payloads.
+                if (!acquirePermit()) {
                     return;
                 }
 
@@ -613,12 +631,23 @@ public abstract class AbstractFuzzer<M extends Message> implements Fuzzer<M> {
                                     multipleMessageLocationsReplacer.currentReplacements());
                         }
                         taskSubmitted = true;
-                        totalTasksSubmitted++;
                     }
                 } while (!taskSubmitted && !isStopped());
             }
         }
 
+        private boolean acquirePermit() {
+            while (!isStopped()) {
+                try {
+                    if (permits.tryAcquire(25, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException ignore) {
+                }
+            }
+            return false;
+        }
+
         protected List<Object> getCurrentPayloads() {
             List<Object> payloads =
                     new ArrayList<>(multipleMessageLocationsReplacer.currentReplacements().size());
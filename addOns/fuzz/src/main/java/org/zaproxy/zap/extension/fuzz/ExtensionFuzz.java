@@ -693,8 +693,10 @@ public class ExtensionFuzz extends ExtensionAdaptor {
         fuzzersController.registerScan(fuzzerHandler, fuzzer);
         fuzzer.run();
 
-        fuzzScansPanel.scannerStarted(fuzzer);
-        fuzzScansPanel.setTabFocus();
+        if (fuzzScansPanel != null) {
+            fuzzScansPanel.scannerStarted(fuzzer);
+            fuzzScansPanel.setTabFocus();
+        }
     }
 
     protected <M extends Message, F extends Fuzzer<M>> void showFuzzerDialog(
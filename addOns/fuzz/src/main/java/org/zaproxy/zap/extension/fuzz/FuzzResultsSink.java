@@ -0,0 +1,44 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz;
+
+/**
+ * A sink of the results of a fuzzer, for example, a table, a file, or a buffer.
+ *
+ * <p>The results might be provided concurrently by the threads of the fuzzer.
+ *
+ * @param <R> the type of the results.
+ */
+public interface FuzzResultsSink<R> {
+
+    /**
+     * Called when a result is available.
+     *
+     * @param result the result.
+     */
+    void resultAvailable(R result);
+
+    /**
+     * Called when the fuzzer has completed, no more results will be provided.
+     *
+     * <p>By default, does nothing.
+     */
+    default void fuzzerCompleted() {}
+}
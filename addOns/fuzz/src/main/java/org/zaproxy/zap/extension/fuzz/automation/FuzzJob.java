@@ -0,0 +1,385 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.automation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.httpclient.URI;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.parosproxy.paros.CommandLine;
+import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.automation.AutomationData;
+import org.zaproxy.addon.automation.AutomationEnvironment;
+import org.zaproxy.addon.automation.AutomationJob;
+import org.zaproxy.addon.automation.AutomationProgress;
+import org.zaproxy.addon.automation.jobs.JobData;
+import org.zaproxy.addon.automation.jobs.JobUtils;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.ExtensionHttpFuzzer;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzResult;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzResultsFileSink;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzer;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.InterestingHttpFuzzResultsSink;
+
+/**
+ * A job that fuzzes a request with the payloads of a file, streaming the results to a file
+ * instead of persisting all the messages.
+ */
+public class FuzzJob extends AutomationJob {
+
+    private static final String JOB_NAME = "fuzz";
+    private static final String RESOURCES_DIR = "/org/zaproxy/zap/extension/fuzz/resources/";
+
+    private static final String PARAM_URL = "url";
+    private static final String PARAM_TARGET = "target";
+    private static final String PARAM_PAYLOADS_FILE = "payloadsFile";
+
+    private ExtensionHttpFuzzer extHttpFuzzer;
+
+    private Parameters parameters = new Parameters();
+    private Data data;
+
+    public FuzzJob() {
+        this.data = new Data(this, parameters);
+    }
+
+    private ExtensionHttpFuzzer getExtHttpFuzzer() {
+        if (extHttpFuzzer == null) {
+            extHttpFuzzer =
+                    Control.getSingleton()
+                            .getExtensionLoader()
+                            .getExtension(ExtensionHttpFuzzer.class);
+        }
+        return extHttpFuzzer;
+    }
+
+    @Override
+    public void verifyParameters(AutomationProgress progress) {
+        Map<?, ?> jobData = this.getJobData();
+        if (jobData == null) {
+            return;
+        }
+        JobUtils.applyParamsToObject(
+                (LinkedHashMap<?, ?>) jobData.get("parameters"),
+                this.parameters,
+                this.getName(),
+                null,
+                progress);
+
+        String format = this.parameters.getResultsFormat();
+        if (!StringUtils.isEmpty(format)
+                && HttpFuzzResultsFileSink.Format.fromName(format) == null) {
+            progress.error(
+                    Constant.messages.getString(
+                            "fuzz.automation.error.format", this.getName(), format));
+        }
+    }
+
+    @Override
+    public void applyParameters(AutomationProgress progress) {
+        // Nothing to do
+    }
+
+    @Override
+    public Map<String, String> getCustomConfigParameters() {
+        Map<String, String> map = super.getCustomConfigParameters();
+        map.put(PARAM_URL, "");
+        map.put(PARAM_TARGET, "");
+        map.put(PARAM_PAYLOADS_FILE, "");
+        return map;
+    }
+
+    @Override
+    public void runJob(AutomationEnvironment env, AutomationProgress progress) {
+        String url = env.replaceVars(this.getParameters().getUrl());
+        String target = env.replaceVars(this.getParameters().getTarget());
+        String payloadsFile = env.replaceVars(this.getParameters().getPayloadsFile());
+        if (StringUtils.isEmpty(url)
+                || StringUtils.isEmpty(target)
+                || StringUtils.isEmpty(payloadsFile)) {
+            progress.error(
+                    Constant.messages.getString("fuzz.automation.error.params", this.getName()));
+            return;
+        }
+
+        Path payloads = Paths.get(payloadsFile);
+        if (!Files.isReadable(payloads)) {
+            progress.error(
+                    Constant.messages.getString(
+                            "fuzz.automation.error.file", this.getName(), payloadsFile));
+            return;
+        }
+
+        HttpMessage message;
+        try {
+            message = createMessage(url, env);
+        } catch (IOException e) {
+            progress.error(
+                    Constant.messages.getString(
+                            "fuzz.automation.error.url", this.getName(), url, e.getMessage()));
+            return;
+        }
+
+        InterestingHttpFuzzResultsSink interestingResults = new InterestingHttpFuzzResultsSink();
+        List<FuzzResultsSink<HttpFuzzResult>> sinks = new ArrayList<>(2);
+        sinks.add(interestingResults);
+
+        HttpFuzzResultsFileSink fileSink = null;
+        String resultsFile = env.replaceVars(this.getParameters().getResultsFile());
+        if (!StringUtils.isEmpty(resultsFile)) {
+            HttpFuzzResultsFileSink.Format format =
+                    HttpFuzzResultsFileSink.Format.fromName(
+                            this.getParameters().getResultsFormat());
+            try {
+                fileSink =
+                        new HttpFuzzResultsFileSink(
+                                Paths.get(resultsFile),
+                                format != null ? format : HttpFuzzResultsFileSink.Format.JSONL);
+            } catch (IOException e) {
+                progress.error(
+                        Constant.messages.getString(
+                                "fuzz.automation.error.results",
+                                this.getName(),
+                                resultsFile,
+                                e.getMessage()));
+                return;
+            }
+            sinks.add(fileSink);
+        }
+
+        HttpFuzzer fuzzer;
+        try {
+            fuzzer = getExtHttpFuzzer().runFuzzer(message, target, payloads, sinks);
+        } catch (IllegalArgumentException e) {
+            if (fileSink != null) {
+                fileSink.close();
+            }
+            progress.error(
+                    Constant.messages.getString(
+                            "fuzz.automation.error.run", this.getName(), e.getMessage()));
+            return;
+        }
+
+        long endTime = Long.MAX_VALUE;
+        if (JobUtils.unBox(this.getParameters().getMaxDuration()) > 0) {
+            endTime =
+                    System.currentTimeMillis()
+                            + TimeUnit.MINUTES.toMillis(this.getParameters().getMaxDuration());
+        }
+
+        while (!fuzzer.isStopped()) {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+            if (System.currentTimeMillis() > endTime) {
+                fuzzer.stopScan();
+                break;
+            }
+        }
+
+        progress.info(
+                Constant.messages.getString(
+                        "fuzz.automation.summary",
+                        this.getName(),
+                        fuzzer.getMessagesSentCount(),
+                        interestingResults.getInterestingResults(),
+                        fuzzer.getErrorCount()));
+    }
+
+    private HttpMessage createMessage(String url, AutomationEnvironment env) throws IOException {
+        HttpMessage message = new HttpMessage(new URI(url, true));
+        String method = this.getParameters().getMethod();
+        if (!StringUtils.isEmpty(method)) {
+            message.getRequestHeader().setMethod(method);
+        }
+        String body = env.replaceVars(this.getParameters().getBody());
+        if (!StringUtils.isEmpty(body)) {
+            message.setRequestBody(body);
+            message.getRequestHeader().setContentLength(message.getRequestBody().length());
+        }
+        return message;
+    }
+
+    @Override
+    public String getTemplateDataMin() {
+        return getResourceAsString(this.getType() + "-min.yaml");
+    }
+
+    @Override
+    public String getTemplateDataMax() {
+        return getResourceAsString(this.getType() + "-max.yaml");
+    }
+
+    private static String getResourceAsString(String name) {
+        try {
+            return IOUtils.toString(
+                    FuzzJob.class.getResourceAsStream(RESOURCES_DIR + name),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            CommandLine.error(
+                    Constant.messages.getString(
+                            "fuzz.automation.error.nofile", RESOURCES_DIR + name));
+        }
+        return "";
+    }
+
+    @Override
+    public Order getOrder() {
+        return Order.ATTACK;
+    }
+
+    @Override
+    public String getType() {
+        return JOB_NAME;
+    }
+
+    @Override
+    public Object getParamMethodObject() {
+        return null;
+    }
+
+    @Override
+    public String getParamMethodName() {
+        return null;
+    }
+
+    @Override
+    public Parameters getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String getSummary() {
+        return Constant.messages.getString(
+                "fuzz.automation.dialog.summary",
+                JobUtils.unBox(this.getParameters().getUrl(), "''"),
+                JobUtils.unBox(this.getParameters().getPayloadsFile(), "''"));
+    }
+
+    @Override
+    public Data getData() {
+        return data;
+    }
+
+    public static class Data extends JobData {
+        private Parameters parameters;
+
+        public Data(AutomationJob job, Parameters parameters) {
+            super(job);
+            this.parameters = parameters;
+        }
+
+        public Parameters getParameters() {
+            return parameters;
+        }
+
+        public void setParameters(Parameters parameters) {
+            this.parameters = parameters;
+        }
+    }
+
+    public static class Parameters extends AutomationData {
+        private String url;
+        private String method;
+        private String body;
+        private String target;
+        private String payloadsFile;
+        private String resultsFile;
+        private String resultsFormat;
+        private Integer maxDuration;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public void setBody(String body) {
+            this.body = body;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public void setTarget(String target) {
+            this.target = target;
+        }
+
+        public String getPayloadsFile() {
+            return payloadsFile;
+        }
+
+        public void setPayloadsFile(String payloadsFile) {
+            this.payloadsFile = payloadsFile;
+        }
+
+        public String getResultsFile() {
+            return resultsFile;
+        }
+
+        public void setResultsFile(String resultsFile) {
+            this.resultsFile = resultsFile;
+        }
+
+        public String getResultsFormat() {
+            return resultsFormat;
+        }
+
+        public void setResultsFormat(String resultsFormat) {
+            this.resultsFormat = resultsFormat;
+        }
+
+        public Integer getMaxDuration() {
+            return maxDuration;
+        }
+
+        public void setMaxDuration(Integer maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+    }
+}
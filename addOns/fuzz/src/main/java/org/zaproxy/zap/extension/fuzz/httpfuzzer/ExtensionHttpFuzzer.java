@@ -19,6 +19,7 @@
  */
 package org.zaproxy.zap.extension.fuzz.httpfuzzer;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +35,7 @@ import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.zap.ZAP;
 import org.zaproxy.zap.extension.anticsrf.ExtensionAntiCSRF;
 import org.zaproxy.zap.extension.fuzz.ExtensionFuzz;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.messagelocations.TextHttpMessageLocationReplacerFactory;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.processors.AntiCsrfHttpFuzzerMessageProcessorUIHandler;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.processors.FuzzerHttpMessageScriptProcessorAdapterUIHandler;
@@ -48,12 +50,16 @@ import org.zaproxy.zap.extension.fuzz.httpfuzzer.ui.HttpFuzzAttackPopupMenuItem;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.ui.HttpFuzzResultToHistoryPopupMenuItem;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.ui.HttpFuzzerResultStateHighlighter;
 import org.zaproxy.zap.extension.fuzz.messagelocations.MessageLocationReplacers;
+import org.zaproxy.zap.extension.fuzz.payloads.PayloadGeneratorMessageLocation;
+import org.zaproxy.zap.extension.fuzz.payloads.generator.FileStringPayloadGenerator;
 import org.zaproxy.zap.extension.script.ExtensionScript;
 import org.zaproxy.zap.extension.script.ScriptType;
 import org.zaproxy.zap.extension.search.ExtensionSearch;
 import org.zaproxy.zap.extension.search.HttpSearcher;
 import org.zaproxy.zap.extension.search.SearchResult;
 import org.zaproxy.zap.extension.users.ExtensionUserManagement;
+import org.zaproxy.zap.model.DefaultTextHttpMessageLocation;
+import org.zaproxy.zap.model.HttpMessageLocation;
 
 public class ExtensionHttpFuzzer extends ExtensionAdaptor {
 
@@ -62,6 +68,12 @@ public class ExtensionHttpFuzzer extends ExtensionAdaptor {
 
     private static final List<Class<? extends Extension>> DEPENDENCIES;
 
+    // The options of the fuzzers run without user interaction, see runFuzzer.
+    private static final boolean UNATTENDED_FOLLOW_REDIRECTS = false;
+    private static final boolean UNATTENDED_SHOW_REDIRECT_MESSAGES = false;
+    private static final boolean UNATTENDED_ALLOW_CIRCULAR_REDIRECTS = false;
+    private static final boolean UNATTENDED_ADAPTIVE_RATE_CONTROL = true;
+
     static {
         List<Class<? extends Extension>> dependencies = new ArrayList<>(1);
         dependencies.add(ExtensionFuzz.class);
@@ -130,6 +142,8 @@ public class ExtensionHttpFuzzer extends ExtensionAdaptor {
                 Control.getSingleton().getExtensionLoader().getExtension(ExtensionFuzz.class);
         extensionFuzz.addFuzzerHandler(httpFuzzerHandler);
 
+        extensionHook.addApiImplementor(new HttpFuzzerApi(this, extensionFuzz));
+
         if (getView() != null) {
             extensionHook
                     .getHookMenu()
@@ -213,6 +227,73 @@ public class ExtensionHttpFuzzer extends ExtensionAdaptor {
                 .removeFuzzResultStateHighlighter(highlighter);
     }
 
+    /**
+     * Runs a fuzzer, without user interaction, that replaces the first occurrence of the given
+     * target with the payloads read from the given file.
+     *
+     * <p>The target is searched in the request header and, if not found, in the request body.
+     * The fuzzer uses the default options, with {@link HttpFuzzerOptions#isAdaptiveRateControl()
+     * adaptive rate control}, without following redirects, and no message processors.
+     *
+     * @param message the message to fuzz.
+     * @param target the text of the message to replace with the payloads.
+     * @param payloadsFile the file with the payloads, one per line.
+     * @param resultsSinks the sinks of the results, might be {@code null} to show the results in
+     *     the table.
+     * @return the fuzzer started.
+     * @throws IllegalArgumentException if the target is empty or does not exist in the request, or
+     *     if the file has no payloads.
+     */
+    public HttpFuzzer runFuzzer(
+            HttpMessage message,
+            String target,
+            Path payloadsFile,
+            List<FuzzResultsSink<HttpFuzzResult>> resultsSinks) {
+        if (target.isEmpty()) {
+            throw new IllegalArgumentException("The target must not be empty.");
+        }
+        HttpMessageLocation.Location location = HttpMessageLocation.Location.REQUEST_HEADER;
+        int start = message.getRequestHeader().toString().indexOf(target);
+        if (start == -1) {
+            location = HttpMessageLocation.Location.REQUEST_BODY;
+            start = message.getRequestBody().toString().indexOf(target);
+        }
+        if (start == -1) {
+            throw new IllegalArgumentException("The target was not found in the request.");
+        }
+
+        FileStringPayloadGenerator payloadGenerator = new FileStringPayloadGenerator(payloadsFile);
+        if (payloadGenerator.getNumberOfPayloads() == 0) {
+            throw new IllegalArgumentException("The file has no payloads: " + payloadsFile);
+        }
+
+        List<PayloadGeneratorMessageLocation<?>> fuzzLocations = new ArrayList<>(1);
+        fuzzLocations.add(
+                new PayloadGeneratorMessageLocation<>(
+                        new DefaultTextHttpMessageLocation(
+                                location, start, start + target.length(), target),
+                        payloadGenerator.getNumberOfPayloads(),
+                        payloadGenerator.iterator()));
+
+        ExtensionFuzz extensionFuzz =
+                Control.getSingleton().getExtensionLoader().getExtension(ExtensionFuzz.class);
+        HttpFuzzer fuzzer =
+                httpFuzzerHandler.createFuzzer(
+                        message,
+                        fuzzLocations,
+                        new HttpFuzzerOptions(
+                                extensionFuzz.getDefaultFuzzerOptions(),
+                                UNATTENDED_FOLLOW_REDIRECTS,
+                                UNATTENDED_SHOW_REDIRECT_MESSAGES,
+                                HttpFuzzerOptions.DEFAULT_MAXIMUM_REDIRECTS,
+                                UNATTENDED_ALLOW_CIRCULAR_REDIRECTS,
+                                UNATTENDED_ADAPTIVE_RATE_CONTROL),
+                        Collections.emptyList(),
+                        resultsSinks);
+        extensionFuzz.runFuzzer(httpFuzzerHandler, fuzzer);
+        return fuzzer;
+    }
+
     public <T1 extends HttpFuzzerMessageProcessor, T2 extends HttpFuzzerMessageProcessorUI<T1>>
             void addFuzzerMessageProcessorUIHandler(
                     HttpFuzzerMessageProcessorUIHandler<T1, T2> handler) {
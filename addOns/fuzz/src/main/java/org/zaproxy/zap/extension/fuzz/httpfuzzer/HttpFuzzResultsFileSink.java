@@ -0,0 +1,238 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import net.sf.json.util.JSONUtils;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
+
+/**
+ * A {@link FuzzResultsSink} that streams the results to a file, one result per line, without
+ * keeping them in memory.
+ *
+ * <p>The file is closed once the fuzzer completes.
+ */
+public class HttpFuzzResultsFileSink implements FuzzResultsSink<HttpFuzzResult>, Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(HttpFuzzResultsFileSink.class);
+
+    private static final String[] HEADERS = {
+        "taskId",
+        "type",
+        "timestamp",
+        "method",
+        "url",
+        "statusCode",
+        "reason",
+        "rtt",
+        "requestHeaderSize",
+        "requestBodySize",
+        "responseHeaderSize",
+        "responseBodySize",
+        "payloads",
+        "states"
+    };
+
+    /** The format of the file. */
+    public enum Format {
+        /** JSON Lines, a JSON object per line. */
+        JSONL,
+        /** Comma-separated values, with a header line. */
+        CSV;
+
+        /**
+         * Gets the format with the given name, ignoring the case.
+         *
+         * @param name the name of the format.
+         * @return the format, or {@code null} if none matches.
+         */
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Path file;
+    private final Format format;
+    private final Writer writer;
+    private final CSVPrinter csvPrinter;
+    private long resultsWritten;
+    private boolean closed;
+
+    /**
+     * Constructs a {@code HttpFuzzResultsFileSink} that writes to the given file, with the given
+     * format.
+     *
+     * <p>The file is created or, if already existing, truncated.
+     *
+     * @param file the file to write the results.
+     * @param format the format of the results.
+     * @throws IOException if an error occurred while creating the file.
+     */
+    public HttpFuzzResultsFileSink(Path file, Format format) throws IOException {
+        this.file = file;
+        this.format = format;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        if (format == Format.CSV) {
+            csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(HEADERS));
+        } else {
+            csvPrinter = null;
+        }
+    }
+
+    /**
+     * Gets the file where the results are written.
+     *
+     * @return the file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of results written.
+     *
+     * @return the number of results.
+     */
+    public synchronized long getResultsWritten() {
+        return resultsWritten;
+    }
+
+    @Override
+    public synchronized void resultAvailable(HttpFuzzResult result) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            if (format == Format.CSV) {
+                csvPrinter.printRecord(toValues(result));
+            } else {
+                writer.write(toJson(result));
+                writer.write('\n');
+            }
+            resultsWritten++;
+        } catch (IOException e) {
+            LOGGER.error("Failed to write the result, no more results will be written:", e);
+            close();
+        }
+    }
+
+    @Override
+    public void fuzzerCompleted() {
+        close();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (csvPrinter != null) {
+                csvPrinter.close();
+            } else {
+                writer.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close the file {}:", file, e);
+        }
+    }
+
+    private static List<Object> toValues(HttpFuzzResult result) {
+        HttpMessage message = result.getHttpMessage();
+        List<Object> values = new ArrayList<>(HEADERS.length);
+        values.add(result.getTaskId());
+        values.add(result.getType());
+        values.add(message.getTimeSentMillis());
+        values.add(message.getRequestHeader().getMethod());
+        values.add(message.getRequestHeader().getURI().toString());
+        values.add(message.getResponseHeader().getStatusCode());
+        values.add(message.getResponseHeader().getReasonPhrase());
+        values.add(message.getTimeElapsedMillis());
+        values.add(message.getRequestHeader().toString().length());
+        values.add(message.getRequestBody().length());
+        values.add(message.getResponseHeader().toString().length());
+        values.add(message.getResponseBody().length());
+        values.add(result.getPayloads());
+        values.add(result.getCustomStates());
+        return values;
+    }
+
+    private static String toJson(HttpFuzzResult result) {
+        // Quoted manually, JSON-lib would otherwise parse the payloads that look like JSON.
+        List<Object> values = toValues(result);
+        StringBuilder strBuilder = new StringBuilder(256).append('{');
+        for (int i = 0; i < HEADERS.length - 2; i++) {
+            Object value = values.get(i);
+            strBuilder.append(JSONUtils.quote(HEADERS[i])).append(':');
+            if (value instanceof Number) {
+                strBuilder.append(value);
+            } else {
+                strBuilder.append(JSONUtils.quote(value != null ? value.toString() : ""));
+            }
+            strBuilder.append(',');
+        }
+
+        strBuilder.append("\"payloads\":[");
+        boolean first = true;
+        for (Object payload : result.getPayloads()) {
+            if (!first) {
+                strBuilder.append(',');
+            }
+            first = false;
+            strBuilder.append(JSONUtils.quote(String.valueOf(payload)));
+        }
+
+        strBuilder.append("],\"states\":{");
+        first = true;
+        for (Map.Entry<String, Object> state : result.getCustomStates().entrySet()) {
+            if (!first) {
+                strBuilder.append(',');
+            }
+            first = false;
+            strBuilder
+                    .append(JSONUtils.quote(state.getKey()))
+                    .append(':')
+                    .append(JSONUtils.quote(String.valueOf(state.getValue())));
+        }
+        return strBuilder.append("}}").toString();
+    }
+}
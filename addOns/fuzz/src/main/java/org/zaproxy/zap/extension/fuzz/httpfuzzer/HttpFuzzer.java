@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import org.parosproxy.paros.Constant;
@@ -36,6 +37,7 @@ import org.parosproxy.paros.network.HttpSender;
 import org.zaproxy.zap.extension.alert.ExtensionAlert;
 import org.zaproxy.zap.extension.fuzz.AbstractFuzzer;
 import org.zaproxy.zap.extension.fuzz.ExtensionFuzz;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.ui.HttpFuzzerErrorsTableModel;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.ui.HttpFuzzerResultsTableModel;
 import org.zaproxy.zap.extension.fuzz.messagelocations.MessageLocationReplacement;
@@ -50,10 +52,12 @@ public class HttpFuzzer extends AbstractFuzzer<HttpMessage> {
     private final HttpSender httpSender;
     private final HttpFuzzerResultsTableModel messagesModel;
     private final HttpFuzzerErrorsTableModel errorsModel;
+    private final List<FuzzResultsSink<HttpFuzzResult>> resultsSinks;
     private final List<HttpFuzzerListener> listeners;
     private final List<HttpFuzzerMessageProcessor> messageProcessors;
     private final AtomicInteger messagesSentCounter;
     private final HttpMessage originalMessage;
+    private final HttpFuzzerRateController rateController;
 
     public HttpFuzzer(
             String fuzzerScanName,
@@ -63,6 +67,40 @@ public class HttpFuzzer extends AbstractFuzzer<HttpMessage> {
                     fuzzLocations,
             MultipleMessageLocationsReplacer<HttpMessage> multipleMessageLocationsReplacer,
             List<HttpFuzzerMessageProcessor> messageProcessors) {
+        this(
+                fuzzerScanName,
+                fuzzerOptions,
+                message,
+                fuzzLocations,
+                multipleMessageLocationsReplacer,
+                messageProcessors,
+                null);
+    }
+
+    /**
+     * Constructs a {@code HttpFuzzer} that provides the results to the given sinks.
+     *
+     * <p>The results are shown in the {@link #getMessagesModel() messages model} (which persists
+     * the messages) only if no sinks are provided, to allow to fuzz without keeping all the
+     * results.
+     *
+     * @param fuzzerScanName the name of the fuzzer.
+     * @param fuzzerOptions the options of the fuzzer.
+     * @param message the message to fuzz.
+     * @param fuzzLocations the locations to fuzz.
+     * @param multipleMessageLocationsReplacer the replacer of the locations.
+     * @param messageProcessors the message processors.
+     * @param resultsSinks the sinks of the results, might be {@code null}.
+     */
+    public HttpFuzzer(
+            String fuzzerScanName,
+            HttpFuzzerOptions fuzzerOptions,
+            HttpMessage message,
+            List<MessageLocationReplacementGenerator<?, MessageLocationReplacement<?>>>
+                    fuzzLocations,
+            MultipleMessageLocationsReplacer<HttpMessage> multipleMessageLocationsReplacer,
+            List<HttpFuzzerMessageProcessor> messageProcessors,
+            List<FuzzResultsSink<HttpFuzzResult>> resultsSinks) {
         super(
                 fuzzerScanName,
                 fuzzerOptions,
@@ -94,8 +132,22 @@ public class HttpFuzzer extends AbstractFuzzer<HttpMessage> {
 
         this.originalMessage = message;
 
+        rateController =
+                fuzzerOptions.isAdaptiveRateControl()
+                        ? new HttpFuzzerRateController(
+                                fuzzerOptions.getThreadCount(),
+                                fuzzerOptions.getSendMessageDelay(),
+                                fuzzerOptions.getSendMessageDelayTimeUnit())
+                        : null;
+
         messagesModel = new HttpFuzzerResultsTableModel();
         errorsModel = new HttpFuzzerErrorsTableModel();
+        this.resultsSinks = new CopyOnWriteArrayList<>();
+        if (resultsSinks == null || resultsSinks.isEmpty()) {
+            this.resultsSinks.add(messagesModel);
+        } else {
+            this.resultsSinks.addAll(resultsSinks);
+        }
         listeners = new ArrayList<>(1);
         messagesSentCounter = new AtomicInteger(0);
 
@@ -138,12 +190,64 @@ public class HttpFuzzer extends AbstractFuzzer<HttpMessage> {
         return httpSender;
     }
 
+    /**
+     * Gets the controller of the rate of the requests.
+     *
+     * @return the rate controller, or {@code null} if the adaptive rate control is not enabled.
+     * @see HttpFuzzerOptions#isAdaptiveRateControl()
+     */
+    public HttpFuzzerRateController getRateController() {
+        return rateController;
+    }
+
+    @Override
+    protected boolean isDelayTasksOnExecution() {
+        // The delay is the minimum interval of the rate controller.
+        return rateController == null;
+    }
+
     protected Session getCurrentSession() {
         return currentSession;
     }
 
     protected void fuzzResultAvailable(HttpFuzzResult result) {
-        messagesModel.addResult(result);
+        for (FuzzResultsSink<HttpFuzzResult> sink : resultsSinks) {
+            try {
+                sink.resultAvailable(result);
+            } catch (Exception e) {
+                logger.error("An error occurred while providing the result to a sink:", e);
+            }
+        }
+    }
+
+    /**
+     * Adds the given sink of results.
+     *
+     * @param sink the sink to add.
+     */
+    public void addResultsSink(FuzzResultsSink<HttpFuzzResult> sink) {
+        resultsSinks.add(sink);
+    }
+
+    /**
+     * Removes the given sink of results.
+     *
+     * @param sink the sink to remove.
+     */
+    public void removeResultsSink(FuzzResultsSink<HttpFuzzResult> sink) {
+        resultsSinks.remove(sink);
+    }
+
+    @Override
+    protected void notifyListenersFuzzerCompleted(boolean successfully) {
+        for (FuzzResultsSink<HttpFuzzResult> sink : resultsSinks) {
+            try {
+                sink.fuzzerCompleted();
+            } catch (Exception e) {
+                logger.error("An error occurred while notifying a sink:", e);
+            }
+        }
+        super.notifyListenersFuzzerCompleted(successfully);
     }
 
     public HttpFuzzerResultsTableModel getMessagesModel() {
@@ -0,0 +1,332 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.db.DatabaseException;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.api.ApiAction;
+import org.zaproxy.zap.extension.api.ApiException;
+import org.zaproxy.zap.extension.api.ApiException.Type;
+import org.zaproxy.zap.extension.api.ApiImplementor;
+import org.zaproxy.zap.extension.api.ApiResponse;
+import org.zaproxy.zap.extension.api.ApiResponseElement;
+import org.zaproxy.zap.extension.api.ApiResponseList;
+import org.zaproxy.zap.extension.api.ApiResponseSet;
+import org.zaproxy.zap.extension.api.ApiView;
+import org.zaproxy.zap.extension.fuzz.ExtensionFuzz;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
+import org.zaproxy.zap.utils.ApiUtils;
+
+/**
+ * The API of the HTTP fuzzer, allows to run fuzzers without the GUI.
+ *
+ * <p>The fuzzers started through the API do not persist nor keep all the results, they keep just
+ * the interesting results (see {@link InterestingHttpFuzzResultsSink}) and, optionally, stream
+ * all the results to a file (see {@link HttpFuzzResultsFileSink}). Only the most recent finished
+ * fuzzers are kept, up to {@value #MAX_FINISHED_RUNS}.
+ */
+public class HttpFuzzerApi extends ApiImplementor {
+
+    private static final Logger LOGGER = LogManager.getLogger(HttpFuzzerApi.class);
+
+    /** The maximum number of finished fuzzers kept, the oldest are removed when exceeded. */
+    static final int MAX_FINISHED_RUNS = 25;
+
+    private static final String PREFIX = "fuzz";
+
+    private static final String ACTION_HTTP_FUZZ = "httpFuzz";
+    private static final String ACTION_STOP = "stop";
+    private static final String VIEW_STATUS = "status";
+    private static final String VIEW_INTERESTING_RESULTS = "interestingResults";
+
+    private static final String PARAM_MESSAGE_ID = "messageId";
+    private static final String PARAM_TARGET = "target";
+    private static final String PARAM_PAYLOADS_FILE = "payloadsFile";
+    private static final String PARAM_RESULTS_FILE = "resultsFile";
+    private static final String PARAM_RESULTS_FORMAT = "resultsFormat";
+    private static final String PARAM_CAPACITY = "interestingResultsCapacity";
+    private static final String PARAM_SIZE_DELTA = "sizeDelta";
+    private static final String PARAM_FUZZER_ID = "fuzzerId";
+
+    private final ExtensionHttpFuzzer extensionHttpFuzzer;
+    private final ExtensionFuzz extensionFuzz;
+    private final Map<Integer, FuzzerRun> fuzzerRuns;
+
+    public HttpFuzzerApi(ExtensionHttpFuzzer extensionHttpFuzzer, ExtensionFuzz extensionFuzz) {
+        this.extensionHttpFuzzer = extensionHttpFuzzer;
+        this.extensionFuzz = extensionFuzz;
+        this.fuzzerRuns = new ConcurrentHashMap<>();
+
+        this.addApiAction(
+                new ApiAction(
+                        ACTION_HTTP_FUZZ,
+                        new String[] {PARAM_MESSAGE_ID, PARAM_TARGET, PARAM_PAYLOADS_FILE},
+                        new String[] {
+                            PARAM_RESULTS_FILE,
+                            PARAM_RESULTS_FORMAT,
+                            PARAM_CAPACITY,
+                            PARAM_SIZE_DELTA
+                        }));
+        this.addApiAction(new ApiAction(ACTION_STOP, new String[] {PARAM_FUZZER_ID}));
+        this.addApiView(new ApiView(VIEW_STATUS, new String[] {PARAM_FUZZER_ID}));
+        this.addApiView(new ApiView(VIEW_INTERESTING_RESULTS, new String[] {PARAM_FUZZER_ID}));
+    }
+
+    @Override
+    public String getPrefix() {
+        return PREFIX;
+    }
+
+    @Override
+    public ApiResponse handleApiAction(String name, JSONObject params) throws ApiException {
+        switch (name) {
+            case ACTION_HTTP_FUZZ:
+                return new ApiResponseElement(name, Integer.toString(startFuzzer(params)));
+            case ACTION_STOP:
+                getFuzzerRun(params).getFuzzer().stopScan();
+                return ApiResponseElement.OK;
+            default:
+                throw new ApiException(Type.BAD_ACTION);
+        }
+    }
+
+    private int startFuzzer(JSONObject params) throws ApiException {
+        HttpMessage message = getMessage(ApiUtils.getIntParam(params, PARAM_MESSAGE_ID));
+        String target = ApiUtils.getNonEmptyStringParam(params, PARAM_TARGET);
+        Path payloadsFile = Paths.get(ApiUtils.getNonEmptyStringParam(params, PARAM_PAYLOADS_FILE));
+        if (!Files.isReadable(payloadsFile)) {
+            throw new ApiException(Type.DOES_NOT_EXIST, PARAM_PAYLOADS_FILE);
+        }
+
+        InterestingHttpFuzzResultsSink interestingResults;
+        try {
+            interestingResults =
+                    new InterestingHttpFuzzResultsSink(
+                            getOptionalIntParam(
+                                    params,
+                                    PARAM_CAPACITY,
+                                    InterestingHttpFuzzResultsSink.DEFAULT_CAPACITY),
+                            getOptionalIntParam(
+                                    params,
+                                    PARAM_SIZE_DELTA,
+                                    InterestingHttpFuzzResultsSink.DEFAULT_SIZE_DELTA));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(Type.ILLEGAL_PARAMETER, e.getMessage());
+        }
+
+        List<FuzzResultsSink<HttpFuzzResult>> sinks = new ArrayList<>(2);
+        sinks.add(interestingResults);
+        HttpFuzzResultsFileSink fileSink = createFileSink(params);
+        if (fileSink != null) {
+            sinks.add(fileSink);
+        }
+
+        HttpFuzzer fuzzer;
+        try {
+            fuzzer = extensionHttpFuzzer.runFuzzer(message, target, payloadsFile, sinks);
+        } catch (IllegalArgumentException e) {
+            if (fileSink != null) {
+                fileSink.close();
+            }
+            throw new ApiException(Type.ILLEGAL_PARAMETER, e.getMessage());
+        }
+
+        fuzzerRuns.put(fuzzer.getScanId(), new FuzzerRun(fuzzer, interestingResults, fileSink));
+        removeOldRuns();
+        return fuzzer.getScanId();
+    }
+
+    /**
+     * Removes the runs whose fuzzers were removed by the user and the oldest finished runs, if more
+     * than {@link #MAX_FINISHED_RUNS}.
+     */
+    private void removeOldRuns() {
+        List<HttpFuzzer> fuzzers = extensionFuzz.getFuzzers(HttpFuzzer.class);
+        List<Integer> finished = new ArrayList<>();
+        for (Map.Entry<Integer, FuzzerRun> entry : fuzzerRuns.entrySet()) {
+            HttpFuzzer fuzzer = entry.getValue().getFuzzer();
+            if (!fuzzers.contains(fuzzer)) {
+                fuzzerRuns.remove(entry.getKey());
+            } else if (fuzzer.isStopped()) {
+                finished.add(entry.getKey());
+            }
+        }
+
+        int excess = finished.size() - MAX_FINISHED_RUNS;
+        if (excess > 0) {
+            Collections.sort(finished);
+            for (int i = 0; i < excess; i++) {
+                fuzzerRuns.remove(finished.get(i));
+            }
+        }
+    }
+
+    private static HttpMessage getMessage(int id) throws ApiException {
+        try {
+            return new HistoryReference(id).getHttpMessage();
+        } catch (HttpMalformedHeaderException | DatabaseException e) {
+            LOGGER.debug("Failed to read the message {}:", id, e);
+            throw new ApiException(Type.DOES_NOT_EXIST, PARAM_MESSAGE_ID);
+        }
+    }
+
+    private static HttpFuzzResultsFileSink createFileSink(JSONObject params) throws ApiException {
+        String resultsFile = params.optString(PARAM_RESULTS_FILE, "");
+        if (StringUtils.isEmpty(resultsFile)) {
+            return null;
+        }
+
+        HttpFuzzResultsFileSink.Format format = HttpFuzzResultsFileSink.Format.JSONL;
+        String formatName = params.optString(PARAM_RESULTS_FORMAT, "");
+        if (!StringUtils.isEmpty(formatName)) {
+            format = HttpFuzzResultsFileSink.Format.fromName(formatName);
+            if (format == null) {
+                throw new ApiException(Type.ILLEGAL_PARAMETER, PARAM_RESULTS_FORMAT);
+            }
+        }
+
+        try {
+            return new HttpFuzzResultsFileSink(Paths.get(resultsFile), format);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to create the results file {}:", resultsFile, e);
+            throw new ApiException(Type.BAD_EXTERNAL_DATA, PARAM_RESULTS_FILE);
+        }
+    }
+
+    private static int getOptionalIntParam(JSONObject params, String name, int defaultValue)
+            throws ApiException {
+        if (!params.containsKey(name) || StringUtils.isEmpty(params.optString(name))) {
+            return defaultValue;
+        }
+        return ApiUtils.getIntParam(params, name);
+    }
+
+    @Override
+    public ApiResponse handleApiView(String name, JSONObject params) throws ApiException {
+        FuzzerRun run;
+        switch (name) {
+            case VIEW_STATUS:
+                run = getFuzzerRun(params);
+                HttpFuzzer fuzzer = run.getFuzzer();
+                Map<String, Object> status = new HashMap<>();
+                status.put("state", getState(fuzzer));
+                status.put("progress", fuzzer.getProgress());
+                status.put("maximum", fuzzer.getMaximum());
+                status.put("messagesSent", fuzzer.getMessagesSentCount());
+                status.put("errors", fuzzer.getErrorCount());
+                status.put(
+                        "interestingResults",
+                        run.getInterestingResults().getInterestingResults());
+                status.put(
+                        "resultsWritten",
+                        run.getFileSink() != null ? run.getFileSink().getResultsWritten() : 0);
+                return new ApiResponseSet<>(name, status);
+            case VIEW_INTERESTING_RESULTS:
+                run = getFuzzerRun(params);
+                ApiResponseList results = new ApiResponseList(name);
+                for (HttpFuzzResult result : run.getInterestingResults().getResults()) {
+                    results.addItem(toApiResponse(result));
+                }
+                return results;
+            default:
+                throw new ApiException(Type.BAD_VIEW);
+        }
+    }
+
+    private FuzzerRun getFuzzerRun(JSONObject params) throws ApiException {
+        int id = ApiUtils.getIntParam(params, PARAM_FUZZER_ID);
+        FuzzerRun run = fuzzerRuns.get(id);
+        if (run == null) {
+            throw new ApiException(Type.DOES_NOT_EXIST, PARAM_FUZZER_ID);
+        }
+        if (!extensionFuzz.getFuzzers(HttpFuzzer.class).contains(run.getFuzzer())) {
+            // Removed by the user, through the GUI.
+            fuzzerRuns.remove(id);
+            throw new ApiException(Type.DOES_NOT_EXIST, PARAM_FUZZER_ID);
+        }
+        return run;
+    }
+
+    private static String getState(HttpFuzzer fuzzer) {
+        if (fuzzer.isPaused()) {
+            return "PAUSED";
+        }
+        if (fuzzer.isRunning()) {
+            return "RUNNING";
+        }
+        return fuzzer.isStopped() ? "FINISHED" : "NOT_STARTED";
+    }
+
+    private static ApiResponseSet<Object> toApiResponse(HttpFuzzResult result) {
+        HttpMessage message = result.getHttpMessage();
+        Map<String, Object> map = new HashMap<>();
+        map.put("taskId", result.getTaskId());
+        map.put("url", message.getRequestHeader().getURI().toString());
+        map.put("statusCode", message.getResponseHeader().getStatusCode());
+        map.put("rtt", message.getTimeElapsedMillis());
+        map.put("responseBodySize", message.getResponseBody().length());
+        map.put("payloads", StringUtils.join(result.getPayloads(), ", "));
+        return new ApiResponseSet<>("result", map);
+    }
+
+    private static class FuzzerRun {
+
+        private final HttpFuzzer fuzzer;
+        private final InterestingHttpFuzzResultsSink interestingResults;
+        private final HttpFuzzResultsFileSink fileSink;
+
+        FuzzerRun(
+                HttpFuzzer fuzzer,
+                InterestingHttpFuzzResultsSink interestingResults,
+                HttpFuzzResultsFileSink fileSink) {
+            this.fuzzer = fuzzer;
+            this.interestingResults = interestingResults;
+            this.fileSink = fileSink;
+        }
+
+        HttpFuzzer getFuzzer() {
+            return fuzzer;
+        }
+
+        InterestingHttpFuzzResultsSink getInterestingResults() {
+            return interestingResults;
+        }
+
+        HttpFuzzResultsFileSink getFileSink() {
+            return fileSink;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.TreeSet;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.view.View;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
 import org.zaproxy.zap.extension.fuzz.FuzzerHandler;
 import org.zaproxy.zap.extension.fuzz.FuzzerOptions;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.ui.HttpFuzzResultsContentPanel;
@@ -134,12 +135,35 @@ public class HttpFuzzerHandler implements FuzzerHandler<HttpMessage, HttpFuzzer>
                 fuzzDialogue.getFuzzerMessageProcessors());
     }
 
-    @SuppressWarnings("unchecked")
     private HttpFuzzer createFuzzer(
             HttpMessage message,
             List<PayloadGeneratorMessageLocation<?>> fuzzLocations,
             HttpFuzzerOptions options,
             List<HttpFuzzerMessageProcessor> processors) {
+        return createFuzzer(message, fuzzLocations, options, processors, null);
+    }
+
+    /**
+     * Creates a fuzzer that provides the results to the given sinks, for example, to fuzz without
+     * a GUI.
+     *
+     * @param message the message to fuzz.
+     * @param fuzzLocations the locations to fuzz.
+     * @param options the options of the fuzzer.
+     * @param processors the message processors.
+     * @param resultsSinks the sinks of the results, might be {@code null} to show the results in
+     *     the table.
+     * @return the fuzzer, or {@code null} if there are no locations to fuzz.
+     * @see org.zaproxy.zap.extension.fuzz.ExtensionFuzz#runFuzzer(FuzzerHandler,
+     *     org.zaproxy.zap.extension.fuzz.Fuzzer)
+     */
+    @SuppressWarnings("unchecked")
+    public HttpFuzzer createFuzzer(
+            HttpMessage message,
+            List<PayloadGeneratorMessageLocation<?>> fuzzLocations,
+            HttpFuzzerOptions options,
+            List<HttpFuzzerMessageProcessor> processors,
+            List<FuzzResultsSink<HttpFuzzResult>> resultsSinks) {
         if (fuzzLocations.isEmpty()) {
             return null;
         }
@@ -174,7 +198,8 @@ public class HttpFuzzerHandler implements FuzzerHandler<HttpMessage, HttpFuzzer>
                 (List<MessageLocationReplacementGenerator<?, MessageLocationReplacement<?>>>)
                         (ArrayList) fuzzLocations,
                 multipleMessageLocationsReplacer,
-                processors);
+                processors,
+                resultsSinks);
     }
 
     private String createFuzzerName(HttpMessage message) {
@@ -33,6 +33,7 @@ public class HttpFuzzerHandlerOptionsPanel implements FuzzerHandlerOptionsPanel<
 
     private final JCheckBox followRedirectsCheckBox;
     private final JCheckBox showRedirectMessagesCheckBox;
+    private final JCheckBox adaptiveRateControlCheckBox;
 
     public HttpFuzzerHandlerOptionsPanel() {
         optionsPanel = new JPanel();
@@ -50,6 +51,15 @@ public class HttpFuzzerHandlerOptionsPanel implements FuzzerHandlerOptionsPanel<
                         Constant.messages.getString("fuzz.httpfuzzer.options.label.showredirects"));
         showRedirectMessagesLabel.setLabelFor(showRedirectMessagesCheckBox);
 
+        adaptiveRateControlCheckBox = new JCheckBox();
+        adaptiveRateControlCheckBox.setToolTipText(
+                Constant.messages.getString("fuzz.httpfuzzer.options.tooltip.adaptiveratecontrol"));
+        JLabel adaptiveRateControlLabel =
+                new JLabel(
+                        Constant.messages.getString(
+                                "fuzz.httpfuzzer.options.label.adaptiveratecontrol"));
+        adaptiveRateControlLabel.setLabelFor(adaptiveRateControlCheckBox);
+
         GroupLayout layout = new GroupLayout(optionsPanel);
         optionsPanel.setLayout(layout);
         layout.setAutoCreateGaps(true);
@@ -58,17 +68,23 @@ public class HttpFuzzerHandlerOptionsPanel implements FuzzerHandlerOptionsPanel<
                 layout.createSequentialGroup()
                         .addGroup(
                                 layout.createParallelGroup(GroupLayout.Alignment.TRAILING)
-                                        .addComponent(followRedirectsLabel))
+                                        .addComponent(followRedirectsLabel)
+                                        .addComponent(adaptiveRateControlLabel))
                         .addGroup(
                                 layout.createParallelGroup(GroupLayout.Alignment.LEADING)
-                                        .addComponent(followRedirectsCheckBox)));
+                                        .addComponent(followRedirectsCheckBox)
+                                        .addComponent(adaptiveRateControlCheckBox)));
 
         layout.setVerticalGroup(
                 layout.createSequentialGroup()
                         .addGroup(
                                 layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
                                         .addComponent(followRedirectsLabel)
-                                        .addComponent(followRedirectsCheckBox)));
+                                        .addComponent(followRedirectsCheckBox))
+                        .addGroup(
+                                layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                                        .addComponent(adaptiveRateControlLabel)
+                                        .addComponent(adaptiveRateControlCheckBox)));
     }
 
     @Override
@@ -84,11 +100,17 @@ public class HttpFuzzerHandlerOptionsPanel implements FuzzerHandlerOptionsPanel<
     @Override
     public HttpFuzzerOptions getOptions(FuzzerOptions baseOptions) {
         return new HttpFuzzerOptions(
-                baseOptions, followRedirectsCheckBox.isSelected(), false, 100, false);
+                baseOptions,
+                followRedirectsCheckBox.isSelected(),
+                false,
+                HttpFuzzerOptions.DEFAULT_MAXIMUM_REDIRECTS,
+                false,
+                adaptiveRateControlCheckBox.isSelected());
     }
 
     @Override
     public void reset() {
         followRedirectsCheckBox.setSelected(false);
+        adaptiveRateControlCheckBox.setSelected(false);
     }
 }
@@ -23,10 +23,14 @@ import org.zaproxy.zap.extension.fuzz.FuzzerOptions;
 
 public class HttpFuzzerOptions extends FuzzerOptions {
 
+    /** The default maximum number of redirects to follow. */
+    public static final int DEFAULT_MAXIMUM_REDIRECTS = 100;
+
     private final boolean followRedirects;
     private final boolean showRedirectMessages;
     private final int maximumRedirects;
     private final boolean allowCircularRedirects;
+    private final boolean adaptiveRateControl;
 
     public HttpFuzzerOptions(
             FuzzerOptions baseOptions,
@@ -34,12 +38,44 @@ public class HttpFuzzerOptions extends FuzzerOptions {
             boolean showRedirectMessages,
             int maximumRedirects,
             boolean allowCircularRedirects) {
+        this(
+                baseOptions,
+                followRedirects,
+                showRedirectMessages,
+                maximumRedirects,
+                allowCircularRedirects,
+                false);
+    }
+
+    /**
+     * Constructs a {@code HttpFuzzerOptions} with the given options.
+     *
+     * @param baseOptions the base options.
+     * @param followRedirects {@code true} if the redirects should be followed, {@code false}
+     *     otherwise.
+     * @param showRedirectMessages {@code true} if the redirect messages should be shown, {@code
+     *     false} otherwise.
+     * @param maximumRedirects the maximum number of redirects to follow.
+     * @param allowCircularRedirects {@code true} if circular redirects are allowed, {@code false}
+     *     otherwise.
+     * @param adaptiveRateControl {@code true} if the rate and concurrency of the requests should
+     *     adapt to the responsiveness of the target, {@code false} otherwise.
+     * @see HttpFuzzerRateController
+     */
+    public HttpFuzzerOptions(
+            FuzzerOptions baseOptions,
+            boolean followRedirects,
+            boolean showRedirectMessages,
+            int maximumRedirects,
+            boolean allowCircularRedirects,
+            boolean adaptiveRateControl) {
         super(baseOptions);
 
         this.followRedirects = followRedirects;
         this.showRedirectMessages = showRedirectMessages;
         this.maximumRedirects = maximumRedirects;
         this.allowCircularRedirects = allowCircularRedirects;
+        this.adaptiveRateControl = adaptiveRateControl;
     }
 
     public boolean isFollowRedirects() {
@@ -57,4 +93,14 @@ public class HttpFuzzerOptions extends FuzzerOptions {
     public boolean isAllowCircularRedirects() {
         return allowCircularRedirects;
     }
+
+    /**
+     * Tells whether or not the rate and concurrency of the requests adapt to the responsiveness of
+     * the target.
+     *
+     * @return {@code true} if the rate and concurrency adapt, {@code false} otherwise.
+     */
+    public boolean isAdaptiveRateControl() {
+        return adaptiveRateControl;
+    }
 }
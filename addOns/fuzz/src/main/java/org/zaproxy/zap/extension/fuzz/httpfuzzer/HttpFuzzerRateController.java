@@ -0,0 +1,313 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Controls the rate and the concurrency of the requests sent to each host, adapting them to the
+ * responsiveness of the host.
+ *
+ * <p>Follows an additive-increase/multiplicative-decrease (AIMD) approach: when the host shows
+ * signs of being overloaded (responds with {@code 429} or {@code 503}, fails to respond, or the
+ * latency increases well above the lowest latency observed) the number of concurrent requests is
+ * halved and the interval between requests doubled, otherwise the interval between requests is
+ * shortened and then the number of concurrent requests increased, one step each time as many
+ * requests as the current limit succeed, up to the given maximums. The rate is enforced with a
+ * token bucket, which is also used by the retries of the requests. The interval is increased up to
+ * 5 seconds, or the minimum interval if longer.
+ */
+public class HttpFuzzerRateController {
+
+    private static final long MAX_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final long WAIT_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private static final long INTERVAL_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long MIN_DECREASE_COOLDOWN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final long MIN_LATENCY_INCREASE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final int LATENCY_FACTOR = 3;
+
+    private final int maxConcurrency;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, HostState> hosts;
+
+    /**
+     * Constructs a {@code HttpFuzzerRateController} with the given maximum number of concurrent
+     * requests and minimum interval between requests, per host.
+     *
+     * @param maxConcurrency the maximum number of concurrent requests, must be greater than zero.
+     * @param minInterval the minimum interval between requests, zero for no interval.
+     * @param unit the time unit of the interval.
+     * @throws IllegalArgumentException if the maximum number of concurrent requests is not greater
+     *     than zero or if the interval is negative.
+     */
+    public HttpFuzzerRateController(int maxConcurrency, long minInterval, TimeUnit unit) {
+        this(maxConcurrency, minInterval, unit, System::nanoTime);
+    }
+
+    HttpFuzzerRateController(
+            int maxConcurrency, long minInterval, TimeUnit unit, LongSupplier nanoTime) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException(
+                    "Parameter maxConcurrency must be greater than zero.");
+        }
+        if (minInterval < 0) {
+            throw new IllegalArgumentException("Parameter minInterval must not be negative.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.minIntervalNanos = unit.toNanos(minInterval);
+        this.maxIntervalNanos = Math.max(minIntervalNanos, MAX_INTERVAL_NANOS);
+        this.nanoTime = nanoTime;
+        this.hosts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Acquires the permission to send a request to the given host, waiting until the number of
+     * concurrent requests is below the current limit and the interval between requests has
+     * elapsed.
+     *
+     * <p>Must be followed by a call to {@link #release(String, long, int)}, with the outcome of
+     * the request.
+     *
+     * @param host the host that will receive the request.
+     * @throws InterruptedException if interrupted while waiting.
+     * @see #acquire(String, BooleanSupplier, BooleanSupplier)
+     */
+    public void acquire(String host) throws InterruptedException {
+        acquire(host, NEVER, NEVER);
+    }
+
+    /**
+     * Acquires the permission to send a request to the given host, waiting until the number of
+     * concurrent requests is below the current limit and the interval between requests has
+     * elapsed, while not paused.
+     *
+     * <p>The wait is done in short steps, to not send the request while paused and to give up as
+     * soon as stopped.
+     *
+     * <p>If acquired, must be followed by a call to {@link #release(String, long, int)}, with the
+     * outcome of the request.
+     *
+     * @param host the host that will receive the request.
+     * @param paused tells whether or not the requests are paused.
+     * @param stopped tells whether or not the requests were stopped.
+     * @return {@code true} if acquired, {@code false} if stopped.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean acquire(String host, BooleanSupplier paused, BooleanSupplier stopped)
+            throws InterruptedException {
+        HostState state = getHostState(host);
+        long waitNanos = state.acquire(stopped);
+        if (waitNanos < 0) {
+            return false;
+        }
+
+        try {
+            long end = nanoTime.getAsLong() + waitNanos;
+            while (true) {
+                if (stopped.getAsBoolean()) {
+                    state.release();
+                    return false;
+                }
+                long remaining = end - nanoTime.getAsLong();
+                if (remaining <= 0 && !paused.getAsBoolean()) {
+                    return true;
+                }
+                TimeUnit.NANOSECONDS.sleep(
+                        remaining > 0 ? Math.min(remaining, WAIT_STEP_NANOS) : WAIT_STEP_NANOS);
+            }
+        } catch (InterruptedException e) {
+            state.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the permission acquired to send a request, adapting the concurrency and the rate
+     * with the outcome of the request.
+     *
+     * @param host the host that received the request.
+     * @param latency the time, in nanoseconds, it took to receive the response, or to fail.
+     * @param statusCode the status code of the response, or {@code -1} if failed to send the
+     *     request or receive the response.
+     * @see #acquire(String)
+     */
+    public void release(String host, long latency, int statusCode) {
+        getHostState(host).release(latency, isOverloadStatusCode(statusCode) || statusCode < 0);
+    }
+
+    private static boolean isOverloadStatusCode(int statusCode) {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    /**
+     * Gets the current limit of concurrent requests to the given host.
+     *
+     * @param host the host.
+     * @return the limit of concurrent requests.
+     */
+    public int getConcurrencyLimit(String host) {
+        return getHostState(host).getLimit();
+    }
+
+    /**
+     * Gets the current interval, in milliseconds, between the requests to the given host.
+     *
+     * @param host the host.
+     * @return the interval between requests.
+     */
+    public long getInterval(String host) {
+        return TimeUnit.NANOSECONDS.toMillis(getHostState(host).getIntervalNanos());
+    }
+
+    private HostState getHostState(String host) {
+        return hosts.computeIfAbsent(host, k -> new HostState());
+    }
+
+    private class HostState {
+
+        private int limit;
+        private int inFlight;
+        private int successes;
+        private long intervalNanos;
+        private double tokens;
+        private long lastRefill;
+        private long lastDecrease;
+        private long minLatency;
+        private long averageLatency;
+
+        HostState() {
+            limit = maxConcurrency;
+            intervalNanos = minIntervalNanos;
+            tokens = 1;
+            lastRefill = nanoTime.getAsLong();
+            lastDecrease = lastRefill - maxIntervalNanos;
+            minLatency = -1;
+        }
+
+        synchronized int getLimit() {
+            return limit;
+        }
+
+        synchronized long getIntervalNanos() {
+            return intervalNanos;
+        }
+
+        /**
+         * Takes a slot and a token, waiting for a slot.
+         *
+         * @param stopped tells whether or not to stop waiting.
+         * @return the time, in nanoseconds, to wait for the token, or {@code -1} if stopped.
+         */
+        synchronized long acquire(BooleanSupplier stopped) throws InterruptedException {
+            while (inFlight >= limit) {
+                if (stopped.getAsBoolean()) {
+                    return -1;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, WAIT_STEP_NANOS);
+            }
+            inFlight++;
+
+            long now = nanoTime.getAsLong();
+            if (intervalNanos == 0) {
+                tokens = 1;
+            } else {
+                tokens = Math.min(1, tokens + (double) (now - lastRefill) / intervalNanos);
+            }
+            lastRefill = now;
+            // Negative tokens are reserved for the requests already waiting.
+            tokens--;
+            return tokens >= 0 ? 0 : (long) (-tokens * intervalNanos);
+        }
+
+        synchronized void release() {
+            inFlight--;
+            notifyAll();
+        }
+
+        synchronized void release(long latency, boolean failed) {
+            release();
+
+            boolean overloaded = failed || isLatencyIncreased(latency);
+            if (!failed) {
+                updateLatency(latency);
+            }
+
+            if (overloaded) {
+                decrease();
+            } else if (++successes >= limit) {
+                successes = 0;
+                increase();
+            }
+        }
+
+        private boolean isLatencyIncreased(long latency) {
+            if (minLatency < 0) {
+                return false;
+            }
+            long threshold =
+                    Math.max(minLatency * LATENCY_FACTOR, minLatency + MIN_LATENCY_INCREASE_NANOS);
+            return latency > threshold && averageLatency > threshold;
+        }
+
+        private void updateLatency(long latency) {
+            if (minLatency < 0 || latency < minLatency) {
+                minLatency = latency;
+            }
+            averageLatency = averageLatency == 0 ? latency : (averageLatency * 7 + latency) / 8;
+        }
+
+        private void decrease() {
+            long now = nanoTime.getAsLong();
+            // Decrease at most once per round-trip, the responses of the requests sent before
+            // the decrease would still reflect the previous load.
+            if (now - lastDecrease < Math.max(averageLatency, MIN_DECREASE_COOLDOWN_NANOS)) {
+                return;
+            }
+            lastDecrease = now;
+            successes = 0;
+
+            limit = Math.max(1, limit / 2);
+            intervalNanos =
+                    Math.min(maxIntervalNanos, Math.max(intervalNanos * 2, INTERVAL_STEP_NANOS));
+        }
+
+        private void increase() {
+            if (intervalNanos > minIntervalNanos) {
+                intervalNanos = Math.max(minIntervalNanos, intervalNanos - INTERVAL_STEP_NANOS);
+            } else if (limit < maxConcurrency) {
+                limit++;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpSender;
 import org.zaproxy.zap.extension.fuzz.AbstractFuzzerTask;
 
@@ -78,8 +79,28 @@ public class HttpFuzzerTask extends AbstractFuzzerTask<HttpMessage> {
                 return null;
             }
 
+            HttpFuzzerRateController rateController = getParent().getRateController();
+            String host = null;
+            if (rateController != null) {
+                host = getHost(message);
+                try {
+                    if (!rateController.acquire(
+                            host, getParent()::isPaused, getParent()::isStopped)) {
+                        LOGGER.debug("Message not sent, fuzzer is stopped.");
+                        return null;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.debug("Interrupted while waiting to send the message.");
+                    return null;
+                }
+            }
+
+            long start = System.nanoTime();
+            int statusCode = -1;
             try {
                 sender.sendAndReceive(message);
+                statusCode = message.getResponseHeader().getStatusCode();
 
                 return message;
             } catch (IOException e) {
@@ -109,7 +130,16 @@ public class HttpFuzzerTask extends AbstractFuzzerTask<HttpMessage> {
                         e.getMessage(),
                         retryCount,
                         maxRetries);
+            } finally {
+                if (rateController != null) {
+                    rateController.release(host, System.nanoTime() - start, statusCode);
+                }
             }
         }
     }
+
+    private static String getHost(HttpMessage message) {
+        HttpRequestHeader requestHeader = message.getRequestHeader();
+        return requestHeader.getHostName() + ":" + requestHeader.getHostPort();
+    }
 }
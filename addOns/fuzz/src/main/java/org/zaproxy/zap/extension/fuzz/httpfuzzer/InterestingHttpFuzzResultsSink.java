@@ -0,0 +1,174 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
+
+/**
+ * A {@link FuzzResultsSink} that keeps in memory just the most recent results that are
+ * interesting, that is, the results whose response differs from the response of the original
+ * message (the baseline) or that reflect a payload.
+ *
+ * <p>A result is interesting if:
+ *
+ * <ul>
+ *   <li>the status code of the response is not the same as the baseline's;
+ *   <li>the size of the response body differs more than the given delta from the baseline's;
+ *   <li>a payload is reflected in the response body.
+ * </ul>
+ *
+ * The oldest interesting results are discarded once the capacity is reached.
+ */
+public class InterestingHttpFuzzResultsSink implements FuzzResultsSink<HttpFuzzResult> {
+
+    /** The default maximum number of results kept. */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /** The default difference, in bytes, of the size of the response body. */
+    public static final int DEFAULT_SIZE_DELTA = 100;
+
+    private static final int MIN_REFLECTED_PAYLOAD_LENGTH = 3;
+
+    private final int capacity;
+    private final int sizeDelta;
+    private final Deque<HttpFuzzResult> results;
+
+    private int baselineStatusCode;
+    private int baselineBodySize;
+    private boolean baselineSet;
+    private long resultsProcessed;
+    private long interestingResults;
+
+    /**
+     * Constructs an {@code InterestingHttpFuzzResultsSink} with default capacity and size delta.
+     *
+     * @see #DEFAULT_CAPACITY
+     * @see #DEFAULT_SIZE_DELTA
+     */
+    public InterestingHttpFuzzResultsSink() {
+        this(DEFAULT_CAPACITY, DEFAULT_SIZE_DELTA);
+    }
+
+    /**
+     * Constructs an {@code InterestingHttpFuzzResultsSink} with the given capacity and size delta.
+     *
+     * @param capacity the maximum number of results kept.
+     * @param sizeDelta the difference of the size of the response body for a result to be
+     *     interesting.
+     * @throws IllegalArgumentException if the capacity is not positive or the size delta is
+     *     negative.
+     */
+    public InterestingHttpFuzzResultsSink(int capacity, int sizeDelta) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Parameter capacity must be greater than zero.");
+        }
+        if (sizeDelta < 0) {
+            throw new IllegalArgumentException("Parameter sizeDelta must not be negative.");
+        }
+        this.capacity = capacity;
+        this.sizeDelta = sizeDelta;
+        this.results = new ArrayDeque<>(Math.min(capacity, DEFAULT_CAPACITY));
+    }
+
+    @Override
+    public void resultAvailable(HttpFuzzResult result) {
+        HttpMessage message = result.getHttpMessage();
+        int statusCode = message.getResponseHeader().getStatusCode();
+        int bodySize = message.getResponseBody().length();
+
+        synchronized (results) {
+            resultsProcessed++;
+            if (!baselineSet) {
+                // The original message is always the first result.
+                baselineSet = true;
+                baselineStatusCode = statusCode;
+                baselineBodySize = bodySize;
+                return;
+            }
+
+            if (statusCode == baselineStatusCode
+                    && Math.abs(bodySize - baselineBodySize) <= sizeDelta
+                    && !isPayloadReflected(result)) {
+                return;
+            }
+
+            interestingResults++;
+            if (results.size() == capacity) {
+                results.removeFirst();
+            }
+            results.addLast(result);
+        }
+    }
+
+    private static boolean isPayloadReflected(HttpFuzzResult result) {
+        String body = null;
+        for (Object payload : result.getPayloads()) {
+            String value = String.valueOf(payload);
+            if (value.length() < MIN_REFLECTED_PAYLOAD_LENGTH) {
+                continue;
+            }
+            if (body == null) {
+                body = result.getHttpMessage().getResponseBody().toString();
+            }
+            if (body.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the interesting results kept, from oldest to newest.
+     *
+     * @return a new list with the results, never {@code null}.
+     */
+    public List<HttpFuzzResult> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    /**
+     * Gets the number of results processed, including the original message.
+     *
+     * @return the number of results processed.
+     */
+    public long getResultsProcessed() {
+        synchronized (results) {
+            return resultsProcessed;
+        }
+    }
+
+    /**
+     * Gets the number of interesting results found, including the ones already discarded.
+     *
+     * @return the number of interesting results.
+     */
+    public long getInterestingResults() {
+        synchronized (results) {
+            return interestingResults;
+        }
+    }
+}
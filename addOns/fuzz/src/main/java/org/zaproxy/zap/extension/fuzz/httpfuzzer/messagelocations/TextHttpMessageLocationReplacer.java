@@ -19,18 +19,43 @@
  */
 package org.zaproxy.zap.extension.fuzz.httpfuzzer.messagelocations;
 
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.SortedSet;
+import java.util.function.Supplier;
+import org.apache.commons.httpclient.URI;
+import org.apache.commons.httpclient.URIException;
+import org.parosproxy.paros.network.HttpHeader;
+import org.parosproxy.paros.network.HttpHeaderField;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpRequestHeader;
 import org.zaproxy.zap.extension.fuzz.messagelocations.MessageLocationReplacement;
 import org.zaproxy.zap.extension.fuzz.messagelocations.MessageLocationReplacer;
+import org.zaproxy.zap.model.HttpMessageLocation;
 import org.zaproxy.zap.model.InvalidMessageException;
 import org.zaproxy.zap.model.MessageLocation;
 import org.zaproxy.zap.model.TextHttpMessageLocation;
 
+/**
+ * A {@link MessageLocationReplacer} of {@link TextHttpMessageLocation}s.
+ *
+ * <p>The message and the locations being replaced are compiled into a {@link Template} (the static
+ * text between the locations) once, which is then used to render the messages with just the
+ * values of the replacements, without cloning nor converting the whole message for each one.
+ * Only the request is rendered, unless a location of the response is being replaced, the other
+ * state of the message (for example, the note and the user) is copied.
+ */
 public class TextHttpMessageLocationReplacer implements MessageLocationReplacer<HttpMessage> {
 
     private HttpMessage message;
+    private Template template;
 
     @Override
     public boolean supports(MessageLocation location) {
@@ -45,6 +70,7 @@ public class TextHttpMessageLocationReplacer implements MessageLocationReplacer<
     @Override
     public void init(HttpMessage message) {
         this.message = message.cloneAll();
+        this.template = null;
     }
 
     @Override
@@ -54,104 +80,313 @@ public class TextHttpMessageLocationReplacer implements MessageLocationReplacer<
             throw new IllegalStateException("Replacer not initialised.");
         }
 
-        Replacer requestHeaderReplacement = null;
-        Replacer requestBodyReplacement = null;
-        Replacer responseHeaderReplacement = null;
-        Replacer responseBodyReplacement = null;
-
-        Replacer currentReplacement = null;
+        List<TextHttpMessageLocation> locations = new ArrayList<>(replacements.size());
+        List<String> values = new ArrayList<>(replacements.size());
         for (MessageLocationReplacement<?> replacement : replacements) {
             MessageLocation location = replacement.getMessageLocation();
             if (!(location instanceof TextHttpMessageLocation)) {
                 continue;
             }
+            locations.add((TextHttpMessageLocation) location);
+            values.add(replacement.getReplacement().toString());
+        }
+
+        Template currentTemplate = template;
+        if (currentTemplate == null || !currentTemplate.isFor(locations)) {
+            currentTemplate = new Template(message, locations);
+            template = currentTemplate;
+        }
+        return currentTemplate.render(values);
+    }
+
+    /**
+     * The compiled form of a message and the locations being replaced.
+     *
+     * <p>Each part of the message with locations is split into static segments and slots, the
+     * parts without locations are kept as is.
+     */
+    private static class Template {
 
-            TextHttpMessageLocation textLocation = (TextHttpMessageLocation) location;
-            switch (textLocation.getLocation()) {
-                case REQUEST_HEADER:
-                    if (requestHeaderReplacement == null) {
-                        requestHeaderReplacement =
-                                new Replacer(message.getRequestHeader().toString());
-                    }
-                    currentReplacement = requestHeaderReplacement;
-                    break;
-                case REQUEST_BODY:
-                    if (requestBodyReplacement == null) {
-                        requestBodyReplacement = new Replacer(message.getRequestBody().toString());
-                    }
-                    currentReplacement = requestBodyReplacement;
-                    break;
-                case RESPONSE_HEADER:
-                    if (responseHeaderReplacement == null) {
-                        responseHeaderReplacement =
-                                new Replacer(message.getResponseHeader().toString());
-                    }
-                    currentReplacement = responseHeaderReplacement;
-                    break;
-                case RESPONSE_BODY:
-                    if (responseBodyReplacement == null) {
-                        responseBodyReplacement =
-                                new Replacer(message.getResponseBody().toString());
-                    }
-                    currentReplacement = responseBodyReplacement;
-                    break;
-                default:
-                    currentReplacement = null;
-            }
-
-            if (currentReplacement != null) {
-                currentReplacement.replace(
-                        textLocation.getStart(),
-                        textLocation.getEnd(),
-                        replacement.getReplacement().toString());
-            }
-        }
-
-        HttpMessage replacedMessage = message.cloneAll();
-        if (requestHeaderReplacement != null) {
+        private final HttpMessage message;
+        private final List<TextHttpMessageLocation> locations;
+
+        private final HttpRequestHeader requestHeader;
+        private final byte[] requestBody;
+        private final String requestBodyCharset;
+
+        private final Part requestHeaderPart;
+        private final Part requestBodyPart;
+        private final Part responseHeaderPart;
+        private final Part responseBodyPart;
+
+        private Template(HttpMessage message, List<TextHttpMessageLocation> locations) {
+            this.message = message;
+            this.locations = locations;
+
+            requestHeader = message.getRequestHeader();
+            String header = requestHeader.toString();
+            requestBodyCharset = message.getRequestBody().getCharset();
+
+            requestHeaderPart =
+                    createPart(
+                            locations,
+                            HttpMessageLocation.Location.REQUEST_HEADER,
+                            () -> header,
+                            null);
+            requestBodyPart =
+                    createPart(
+                            locations,
+                            HttpMessageLocation.Location.REQUEST_BODY,
+                            () -> message.getRequestBody().toString(),
+                            getSegmentableCharset(requestBodyCharset));
+            requestBody = requestBodyPart == null ? message.getRequestBody().getBytes() : null;
+
+            responseHeaderPart =
+                    createPart(
+                            locations,
+                            HttpMessageLocation.Location.RESPONSE_HEADER,
+                            () -> message.getResponseHeader().toString(),
+                            null);
+            responseBodyPart =
+                    createPart(
+                            locations,
+                            HttpMessageLocation.Location.RESPONSE_BODY,
+                            () -> message.getResponseBody().toString(),
+                            null);
+        }
+
+        boolean isFor(List<TextHttpMessageLocation> otherLocations) {
+            return locations.equals(otherLocations);
+        }
+
+        HttpMessage render(List<String> values) throws InvalidMessageException {
+            HttpMessage replacedMessage = new HttpMessage();
             try {
-                replacedMessage.setRequestHeader(requestHeaderReplacement.toString());
-            } catch (HttpMalformedHeaderException e) {
+                if (requestHeaderPart != null) {
+                    replacedMessage.setRequestHeader(requestHeaderPart.render(values));
+                } else {
+                    replacedMessage.setRequestHeader(copy(requestHeader));
+                }
+            } catch (HttpMalformedHeaderException | URIException e) {
                 throw new InvalidMessageException(e);
             }
+
+            if (requestBodyPart == null) {
+                replacedMessage.setRequestBody(requestBody);
+            } else if (requestBodyPart.hasEncodedSegments()) {
+                replacedMessage.setRequestBody(requestBodyPart.renderBytes(values));
+            } else {
+                replacedMessage.setRequestBody(requestBodyPart.render(values));
+            }
+            if (requestBodyCharset != null) {
+                replacedMessage.getRequestBody().setCharset(requestBodyCharset);
+            }
+
+            if (responseHeaderPart != null || responseBodyPart != null) {
+                try {
+                    replacedMessage.setResponseHeader(
+                            responseHeaderPart != null
+                                    ? responseHeaderPart.render(values)
+                                    : message.getResponseHeader().toString());
+                } catch (HttpMalformedHeaderException e) {
+                    throw new InvalidMessageException(e);
+                }
+
+                if (responseBodyPart != null) {
+                    replacedMessage.setResponseBody(responseBodyPart.render(values));
+                } else {
+                    replacedMessage.setResponseBody(message.getResponseBody().getBytes());
+                }
+            }
+
+            replacedMessage.setResponseFromTargetHost(message.isResponseFromTargetHost());
+            replacedMessage.setTimeSentMillis(message.getTimeSentMillis());
+            replacedMessage.setTimeElapsedMillis(message.getTimeElapsedMillis());
+            replacedMessage.setNote(message.getNote());
+            replacedMessage.setUserObject(message.getUserObject());
+            replacedMessage.setRequestingUser(message.getRequestingUser());
+            return replacedMessage;
         }
 
-        if (requestBodyReplacement != null) {
-            replacedMessage.setRequestBody(requestBodyReplacement.toString());
+        /**
+         * Copies the given (already parsed) request header, without parsing it again.
+         *
+         * @param header the header to copy.
+         * @return the copy of the header.
+         * @throws HttpMalformedHeaderException if the header has non-standard line delimiters and
+         *     could not be parsed again.
+         * @throws URIException if the URI could not be copied.
+         */
+        private static HttpRequestHeader copy(HttpRequestHeader header)
+                throws HttpMalformedHeaderException, URIException {
+            if (!HttpHeader.CRLF.equals(header.getLineDelimiter())) {
+                // The line delimiter can only be kept by parsing.
+                return new HttpRequestHeader(header.toString(), header.isSecure());
+            }
+
+            HttpRequestHeader copy = new HttpRequestHeader();
+            copy.setMethod(header.getMethod());
+            try {
+                copy.setURI((URI) header.getURI().clone());
+            } catch (CloneNotSupportedException e) {
+                throw new URIException(e.getMessage());
+            }
+            copy.setVersion(header.getVersion());
+            copy.setSecure(header.isSecure());
+            for (HttpHeaderField field : header.getHeaders()) {
+                copy.addHeader(field.getName(), field.getValue());
+            }
+            int contentLength = header.getContentLength();
+            if (contentLength != -1) {
+                copy.setContentLength(contentLength);
+            }
+            copy.setSenderAddress(header.getSenderAddress());
+            return copy;
         }
 
-        if (responseHeaderReplacement != null) {
+        private static Charset getSegmentableCharset(String charsetName) {
+            if (charsetName == null) {
+                return null;
+            }
+            Charset charset;
             try {
-                replacedMessage.setResponseHeader(responseHeaderReplacement.toString());
-            } catch (HttpMalformedHeaderException e) {
-                throw new InvalidMessageException(e);
+                charset = Charset.forName(charsetName);
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                return null;
             }
+            // Charsets that do not depend on the previous chars (e.g. no BOM), the segments can be
+            // encoded separately.
+            if (StandardCharsets.UTF_8.equals(charset)
+                    || StandardCharsets.ISO_8859_1.equals(charset)
+                    || StandardCharsets.US_ASCII.equals(charset)) {
+                return charset;
+            }
+            return null;
         }
 
-        if (responseBodyReplacement != null) {
-            replacedMessage.setResponseBody(responseBodyReplacement.toString());
+        private static Part createPart(
+                List<TextHttpMessageLocation> locations,
+                HttpMessageLocation.Location location,
+                Supplier<String> text,
+                Charset charset) {
+            List<Slot> slots = new ArrayList<>();
+            for (int i = 0; i < locations.size(); i++) {
+                TextHttpMessageLocation textLocation = locations.get(i);
+                if (textLocation.getLocation() == location) {
+                    slots.add(new Slot(i, textLocation.getStart(), textLocation.getEnd()));
+                }
+            }
+            if (slots.isEmpty()) {
+                return null;
+            }
+            return new Part(text.get(), slots, charset);
         }
+    }
 
-        return replacedMessage;
+    private static class Slot {
+
+        private final int valueIndex;
+        private final int start;
+        private final int end;
+
+        Slot(int valueIndex, int start, int end) {
+            this.valueIndex = valueIndex;
+            this.start = start;
+            this.end = end;
+        }
     }
 
-    private static class Replacer {
+    /** A part of the message, with static segments interleaved with the slots of the values. */
+    private static class Part {
+
+        private final String[] segments;
+        private final int[] valueIndexes;
+        private final int segmentsLength;
 
-        private StringBuilder value;
-        private int offset;
+        private final Charset charset;
+        private final byte[][] encodedSegments;
+        private final int encodedSegmentsLength;
+
+        Part(String text, List<Slot> slots, Charset charset) {
+            Collections.sort(slots, Comparator.comparingInt(slot -> slot.start));
+
+            segments = new String[slots.size() + 1];
+            valueIndexes = new int[slots.size()];
+            int previousEnd = 0;
+            for (int i = 0; i < slots.size(); i++) {
+                Slot slot = slots.get(i);
+                if (slot.start < previousEnd || slot.end < slot.start || slot.end > text.length()) {
+                    throw new IllegalArgumentException(
+                            "Invalid location [" + slot.start + ", " + slot.end + "].");
+                }
+                segments[i] = text.substring(previousEnd, slot.start);
+                valueIndexes[i] = slot.valueIndex;
+                previousEnd = slot.end;
+            }
+            segments[slots.size()] = text.substring(previousEnd);
+            segmentsLength = text.length() - removedLength(slots);
 
-        private Replacer(String originalValue) {
-            value = new StringBuilder(originalValue);
+            this.charset = charset;
+            if (charset != null) {
+                encodedSegments = new byte[segments.length][];
+                int length = 0;
+                for (int i = 0; i < segments.length; i++) {
+                    encodedSegments[i] = segments[i].getBytes(charset);
+                    length += encodedSegments[i].length;
+                }
+                encodedSegmentsLength = length;
+            } else {
+                encodedSegments = null;
+                encodedSegmentsLength = 0;
+            }
+        }
+
+        private static int removedLength(List<Slot> slots) {
+            int length = 0;
+            for (Slot slot : slots) {
+                length += slot.end - slot.start;
+            }
+            return length;
+        }
+
+        boolean hasEncodedSegments() {
+            return encodedSegments != null;
+        }
+
+        String render(List<String> values) {
+            int length = segmentsLength;
+            for (int valueIndex : valueIndexes) {
+                length += values.get(valueIndex).length();
+            }
+
+            StringBuilder strBuilder = new StringBuilder(length);
+            strBuilder.append(segments[0]);
+            for (int i = 0; i < valueIndexes.length; i++) {
+                strBuilder.append(values.get(valueIndexes[i])).append(segments[i + 1]);
+            }
+            return strBuilder.toString();
         }
 
-        public void replace(int start, int end, String value) {
-            this.value.replace(offset + start, offset + end, value);
-            offset += value.length() - (end - start);
+        byte[] renderBytes(List<String> values) {
+            byte[][] encodedValues = new byte[valueIndexes.length][];
+            int length = encodedSegmentsLength;
+            for (int i = 0; i < valueIndexes.length; i++) {
+                encodedValues[i] = values.get(valueIndexes[i]).getBytes(charset);
+                length += encodedValues[i].length;
+            }
+
+            byte[] bytes = new byte[length];
+            int pos = copy(encodedSegments[0], bytes, 0);
+            for (int i = 0; i < encodedValues.length; i++) {
+                pos = copy(encodedValues[i], bytes, pos);
+                pos = copy(encodedSegments[i + 1], bytes, pos);
+            }
+            return bytes;
         }
 
-        @Override
-        public String toString() {
-            return value.toString();
+        private static int copy(byte[] src, byte[] dest, int pos) {
+            System.arraycopy(src, 0, dest, pos, src.length);
+            return pos + src.length;
         }
     }
 }
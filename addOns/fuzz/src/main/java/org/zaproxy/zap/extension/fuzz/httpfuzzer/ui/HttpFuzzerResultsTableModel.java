@@ -19,14 +19,17 @@
  */
 package org.zaproxy.zap.extension.fuzz.httpfuzzer.ui;
 
-import java.awt.EventQueue;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.swing.Timer;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,6 +39,7 @@ import org.parosproxy.paros.model.HistoryReference;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.ExtensionHttpFuzzer;
 import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzResult;
 import org.zaproxy.zap.extension.search.ExtensionSearch;
@@ -45,9 +49,17 @@ import org.zaproxy.zap.view.table.AbstractCustomColumnHistoryReferencesTableMode
 import org.zaproxy.zap.view.table.AbstractHistoryReferencesTableEntry;
 import org.zaproxy.zap.view.table.DefaultHistoryReferencesTableEntry;
 
+/**
+ * The table model of the results of a {@link org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzer
+ * HttpFuzzer}.
+ *
+ * <p>The results are added to the table in batches, at most every {@value #UPDATE_DELAY_MS}
+ * milliseconds, to not flood the EDT when fuzzing at high rates.
+ */
 public class HttpFuzzerResultsTableModel
         extends AbstractCustomColumnHistoryReferencesTableModel<
-                HttpFuzzerResultsTableModel.FuzzResultTableEntry> {
+                HttpFuzzerResultsTableModel.FuzzResultTableEntry>
+        implements FuzzResultsSink<HttpFuzzResult> {
 
     private static final long serialVersionUID = -7711293371478878302L;
 
@@ -79,14 +91,30 @@ public class HttpFuzzerResultsTableModel
         Constant.messages.getString("fuzz.httpfuzzer.results.tab.messages.table.header.payloads")
     };
 
+    private static final int UPDATE_DELAY_MS = 250;
+
     private List<FuzzResultTableEntry> results;
     private Map<Integer, Integer> idsToRows;
 
+    private final Queue<FuzzResultTableEntry> pendingResults;
+    private final AtomicBoolean updateScheduled;
+    private final Timer updateTimer;
+
     public HttpFuzzerResultsTableModel() {
         super(COLUMNS);
 
         results = new ArrayList<>();
         idsToRows = new HashMap<>();
+
+        pendingResults = new ConcurrentLinkedQueue<>();
+        updateScheduled = new AtomicBoolean();
+        updateTimer = new Timer(UPDATE_DELAY_MS, e -> addPendingResults());
+        updateTimer.setRepeats(false);
+    }
+
+    @Override
+    public void resultAvailable(HttpFuzzResult result) {
+        addResult(result);
     }
 
     public void addResult(final HttpFuzzResult result) {
@@ -99,24 +127,40 @@ public class HttpFuzzerResultsTableModel
                                     HistoryReference.TYPE_FUZZER_TEMPORARY,
                                     result.getHttpMessage());
 
-            EventQueue.invokeLater(
-                    () -> {
-                        final int row = results.size();
-                        idsToRows.put(Integer.valueOf(href.getHistoryId()), Integer.valueOf(row));
-                        results.add(
-                                new FuzzResultTableEntry(
-                                        href,
-                                        result.getTaskId(),
-                                        result.getType(),
-                                        result.getCustomStates(),
-                                        result.getPayloads()));
-                        fireTableRowsInserted(row, row);
-                    });
+            pendingResults.add(
+                    new FuzzResultTableEntry(
+                            href,
+                            result.getTaskId(),
+                            result.getType(),
+                            result.getCustomStates(),
+                            result.getPayloads()));
+            if (updateScheduled.compareAndSet(false, true)) {
+                // The timer is thread-safe, the action is executed in the EDT.
+                updateTimer.restart();
+            }
         } catch (HttpMalformedHeaderException | DatabaseException e) {
             logger.error("Failed to persist (and show) the message:", e);
         }
     }
 
+    private void addPendingResults() {
+        updateScheduled.set(false);
+
+        int firstRow = results.size();
+        FuzzResultTableEntry entry;
+        while ((entry = pendingResults.poll()) != null) {
+            idsToRows.put(
+                    Integer.valueOf(entry.getHistoryReference().getHistoryId()),
+                    Integer.valueOf(results.size()));
+            results.add(entry);
+        }
+
+        int lastRow = results.size() - 1;
+        if (lastRow >= firstRow) {
+            fireTableRowsInserted(firstRow, lastRow);
+        }
+    }
+
     @Override
     public void addEntry(FuzzResultTableEntry entry) {}
 
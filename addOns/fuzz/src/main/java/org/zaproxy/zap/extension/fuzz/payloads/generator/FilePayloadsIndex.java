@@ -0,0 +1,427 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.payloads.generator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A sparse index of the payloads of a file, to obtain the number of payloads and to start reading
+ * the payloads at any position without reading the file from the beginning.
+ *
+ * <p>The file is read once, with the same rules as {@link FileStringPayloadGenerator}, keeping the
+ * offset of every {@value #STRIDE}th payload. The indexes are cached, for the same file (size and
+ * last modification time) and rules, so that all the generators of a file share the same index.
+ *
+ * <p>The offsets are kept only for charsets that encode the line terminators (and the other ASCII
+ * characters) as single bytes, for example, UTF-8 and ISO-8859-1, for other charsets the index
+ * just has the number of payloads.
+ */
+final class FilePayloadsIndex {
+
+    /** The number of payloads between the offsets kept. */
+    static final int STRIDE = 256;
+
+    private static final int MAX_CACHED_INDEXES = 8;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<Key, FilePayloadsIndex> CACHE =
+            new LinkedHashMap<Key, FilePayloadsIndex>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, FilePayloadsIndex> eldest) {
+                    return size() > MAX_CACHED_INDEXES;
+                }
+            };
+
+    private final long numberOfPayloads;
+    private final long[] offsets;
+    private final CharacterCodingException decodingError;
+
+    private FilePayloadsIndex(
+            long numberOfPayloads, long[] offsets, CharacterCodingException decodingError) {
+        this.numberOfPayloads = numberOfPayloads;
+        this.offsets = offsets;
+        this.decodingError = decodingError;
+    }
+
+    /**
+     * Gets the index of the given file, creating it if not already cached.
+     *
+     * @param file the file with the payloads.
+     * @param charset the charset of the file.
+     * @param limit the maximum number of payloads, zero or negative number indicates no limit.
+     * @param commentToken the token that starts the commented lines, empty if none.
+     * @param ignoreTrimmedEmptyLines {@code true} if empty lines should be ignored, {@code false}
+     *     otherwise.
+     * @param ignoreFirstLine {@code true} if the first line should be ignored, {@code false}
+     *     otherwise.
+     * @return the index, never {@code null}.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    static synchronized FilePayloadsIndex get(
+            Path file,
+            Charset charset,
+            long limit,
+            String commentToken,
+            boolean ignoreTrimmedEmptyLines,
+            boolean ignoreFirstLine)
+            throws IOException {
+        Key key =
+                new Key(
+                        file,
+                        charset,
+                        limit,
+                        commentToken,
+                        ignoreTrimmedEmptyLines,
+                        ignoreFirstLine);
+        FilePayloadsIndex index = CACHE.get(key);
+        if (index == null) {
+            index = isAsciiCompatible(charset) ? new Builder(key).build() : count(key, null);
+            CACHE.put(key, index);
+        }
+        return index;
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        if (charset.newEncoder().maxBytesPerChar() != 1) {
+            return false;
+        }
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        return new String(ascii, StandardCharsets.US_ASCII).equals(new String(ascii, charset));
+    }
+
+    private static FilePayloadsIndex count(Key key, long[] offsets) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(key.file, key.charset)) {
+            if (key.ignoreFirstLine) {
+                reader.readLine();
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null && !key.isLimitReached(count)) {
+                if (key.isPayload(line)) {
+                    count++;
+                }
+            }
+        } catch (CharacterCodingException e) {
+            return new FilePayloadsIndex(count, offsets, e);
+        }
+        return new FilePayloadsIndex(count, offsets, null);
+    }
+
+    /**
+     * Gets the number of payloads of the file.
+     *
+     * <p>If the file could not be decoded, it's the number of payloads that can be read before the
+     * decoding error.
+     *
+     * @return the number of payloads.
+     * @see #getDecodingError()
+     */
+    long getNumberOfPayloads() {
+        return numberOfPayloads;
+    }
+
+    /**
+     * Gets the error that occurred while decoding the file, if any.
+     *
+     * @return the decoding error, or {@code null} if none.
+     */
+    CharacterCodingException getDecodingError() {
+        return decodingError;
+    }
+
+    /**
+     * Tells whether or not the index has the offsets of the payloads.
+     *
+     * @return {@code true} if the index has the offsets, {@code false} otherwise.
+     */
+    boolean hasOffsets() {
+        return offsets != null;
+    }
+
+    /**
+     * Gets the offset of the payload {@code STRIDE * block}.
+     *
+     * @param block the block of payloads.
+     * @return the offset, in bytes, of the first payload of the block.
+     * @throws IllegalStateException if the index does not have offsets.
+     */
+    long getOffset(long block) {
+        if (offsets == null) {
+            throw new IllegalStateException("The index does not have offsets.");
+        }
+        return offsets[(int) block];
+    }
+
+    private static class Key {
+
+        private final Path file;
+        private final long size;
+        private final long lastModified;
+        private final Charset charset;
+        private final long limit;
+        private final String commentToken;
+        private final boolean ignoreTrimmedEmptyLines;
+        private final boolean ignoreFirstLine;
+
+        Key(
+                Path file,
+                Charset charset,
+                long limit,
+                String commentToken,
+                boolean ignoreTrimmedEmptyLines,
+                boolean ignoreFirstLine)
+                throws IOException {
+            this.file = file.toAbsolutePath().normalize();
+            this.size = Files.size(file);
+            this.lastModified = Files.getLastModifiedTime(file).toMillis();
+            this.charset = charset;
+            this.limit = limit > FileStringPayloadGenerator.NO_LIMIT ? limit : 0;
+            this.commentToken = commentToken;
+            this.ignoreTrimmedEmptyLines = ignoreTrimmedEmptyLines;
+            this.ignoreFirstLine = ignoreFirstLine;
+        }
+
+        boolean isLimitReached(long count) {
+            return limit > 0 && count >= limit;
+        }
+
+        boolean isPayload(String line) {
+            return FileStringPayloadGenerator.isPayload(
+                    line, commentToken, ignoreTrimmedEmptyLines);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    file,
+                    size,
+                    lastModified,
+                    charset,
+                    limit,
+                    commentToken,
+                    ignoreTrimmedEmptyLines,
+                    ignoreFirstLine);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return size == other.size
+                    && lastModified == other.lastModified
+                    && limit == other.limit
+                    && ignoreTrimmedEmptyLines == other.ignoreTrimmedEmptyLines
+                    && ignoreFirstLine == other.ignoreFirstLine
+                    && file.equals(other.file)
+                    && charset.equals(other.charset)
+                    && commentToken.equals(other.commentToken);
+        }
+    }
+
+    /**
+     * Builds the index reading the bytes of the file, the lines are decoded only to validate the
+     * ones with non-ASCII bytes.
+     */
+    private static class Builder {
+
+        private final Key key;
+        private final CharsetDecoder decoder;
+        private final byte[] commentToken;
+
+        private long[] offsets;
+        private long count;
+        private long lineNumber;
+        private long lineStart;
+        private byte[] line;
+        private int lineLength;
+        private boolean lineAscii;
+        private CharBuffer decodedLine;
+        private CharacterCodingException decodingError;
+        private boolean done;
+
+        Builder(Key key) {
+            this.key = key;
+            this.decoder = key.charset.newDecoder();
+            this.commentToken =
+                    key.charset.newEncoder().canEncode(key.commentToken)
+                            ? key.commentToken.getBytes(key.charset)
+                            : null;
+            this.offsets = new long[16];
+            this.line = new byte[256];
+            this.lineAscii = true;
+        }
+
+        FilePayloadsIndex build() throws IOException {
+            try (InputStream is = Files.newInputStream(key.file)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long position = 0;
+                boolean previousCr = false;
+                int read;
+                while (!done && (read = is.read(buffer)) != -1) {
+                    for (int i = 0; i < read && !done; i++, position++) {
+                        byte b = buffer[i];
+                        if (b == '\n') {
+                            if (previousCr) {
+                                previousCr = false;
+                                lineStart = position + 1;
+                            } else {
+                                lineRead(position + 1);
+                            }
+                        } else if (b == '\r') {
+                            previousCr = true;
+                            lineRead(position + 1);
+                        } else {
+                            previousCr = false;
+                            append(b);
+                        }
+                    }
+                }
+                if (!done && lineLength > 0) {
+                    lineRead(position);
+                }
+            }
+            int blocks = (int) ((count + STRIDE - 1) / STRIDE);
+            if (decodingError != null) {
+                // The readers fail before the line that can't be decoded, they decode in chunks.
+                return count(key, Arrays.copyOf(offsets, blocks));
+            }
+            return new FilePayloadsIndex(count, Arrays.copyOf(offsets, blocks), null);
+        }
+
+        private void append(byte b) {
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = b;
+            if (b < 0) {
+                lineAscii = false;
+            }
+        }
+
+        private void lineRead(long nextLineStart) {
+            if (!lineAscii && !isDecodable()) {
+                done = true;
+                return;
+            }
+
+            if ((lineNumber++ != 0 || !key.ignoreFirstLine) && isPayload()) {
+                if (count % STRIDE == 0) {
+                    int block = (int) (count / STRIDE);
+                    if (block == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[block] = lineStart;
+                }
+                count++;
+                done = key.isLimitReached(count);
+            }
+
+            lineStart = nextLineStart;
+            lineLength = 0;
+            lineAscii = true;
+        }
+
+        private boolean isDecodable() {
+            int length = (int) Math.ceil(lineLength * (double) decoder.maxCharsPerByte());
+            if (decodedLine == null || decodedLine.capacity() < length) {
+                decodedLine = CharBuffer.allocate(length);
+            }
+            decodedLine.clear();
+            decoder.reset();
+            CoderResult result =
+                    decoder.decode(ByteBuffer.wrap(line, 0, lineLength), decodedLine, true);
+            if (!result.isError()) {
+                result = decoder.flush(decodedLine);
+            }
+            if (result.isError()) {
+                try {
+                    result.throwException();
+                } catch (CharacterCodingException e) {
+                    decodingError = e;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private boolean isPayload() {
+            if (key.ignoreTrimmedEmptyLines && isBlank()) {
+                return false;
+            }
+            if (key.commentToken.isEmpty()) {
+                return true;
+            }
+            return commentToken == null || !startsWithCommentToken();
+        }
+
+        /** Same as {@code String.trim().isEmpty()}, all characters up to the space. */
+        private boolean isBlank() {
+            for (int i = 0; i < lineLength; i++) {
+                if ((line[i] & 0xFF) > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean startsWithCommentToken() {
+            if (lineLength < commentToken.length) {
+                return false;
+            }
+            for (int i = 0; i < commentToken.length; i++) {
+                if (line[i] != commentToken[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -21,10 +21,14 @@ package org.zaproxy.zap.extension.fuzz.payloads.generator;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.zaproxy.zap.extension.fuzz.payloads.DefaultPayload;
@@ -35,6 +39,11 @@ import org.zaproxy.zap.utils.ResettableAutoCloseableIterator;
  *
  * <p>It reads the contents of a file and returns a payload for each line read. Ignoring empty and
  * commented lines.
+ *
+ * <p>The number of payloads and the position of the payloads in the file are obtained from an
+ * index of the file, created once and shared by all the generators of the same file, which allows
+ * the iterators to start at any payload, for example, to {@link #iterator(long) resume} the
+ * fuzzing or to {@link #shard(int, int) split} the payloads.
  */
 public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
@@ -50,7 +59,12 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
     private final Charset charset;
 
-    /** The number of payloads contained in the file. */
+    private final long limit;
+
+    /** The first payload of the file returned by the generator. */
+    private final long start;
+
+    /** The number of payloads returned by the generator. */
     private final long numberOfPayloads;
 
     private final boolean ignoreTrimmedEmptyLines;
@@ -59,6 +73,8 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
     private final String commentToken;
 
+    private volatile FilePayloadsIndex index;
+
     public FileStringPayloadGenerator(Path file) {
         this(file, NO_LIMIT);
     }
@@ -109,6 +125,8 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
         this.file = file;
         this.charset = charset;
+        this.limit = limit;
+        this.start = 0;
         this.commentToken = commentToken;
         this.ignoreTrimmedEmptyLines = ignoreTrimmedEmptyLines;
         this.ignoreFirstLine = ignoreFirstLine;
@@ -117,22 +135,27 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
         } else {
             long calculatedNumberOfPayloads = 0;
             try {
-                calculatedNumberOfPayloads =
-                        calculateNumberOfPayloadsImpl(
-                                file,
-                                charset,
-                                limit,
-                                commentToken,
-                                ignoreTrimmedEmptyLines,
-                                ignoreFirstLine,
-                                true);
-            } catch (IOException ignore) {
-                // Does not happen.
+                calculatedNumberOfPayloads = getIndex().getNumberOfPayloads();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to read the file {}", file, e);
             }
             this.numberOfPayloads = calculatedNumberOfPayloads;
         }
     }
 
+    private FileStringPayloadGenerator(
+            FileStringPayloadGenerator generator, long start, long numberOfPayloads) {
+        this.file = generator.file;
+        this.charset = generator.charset;
+        this.limit = generator.limit;
+        this.start = generator.start + start;
+        this.numberOfPayloads = numberOfPayloads;
+        this.commentToken = generator.commentToken;
+        this.ignoreTrimmedEmptyLines = generator.ignoreTrimmedEmptyLines;
+        this.ignoreFirstLine = generator.ignoreFirstLine;
+        this.index = generator.index;
+    }
+
     public static int calculateNumberOfPayloads(
             Path file,
             Charset charset,
@@ -141,57 +164,40 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
             boolean ignoreTrimmedEmptyLines,
             boolean ignoreFirstLine)
             throws IOException {
-        return calculateNumberOfPayloadsImpl(
-                file,
-                charset,
-                limit,
-                commentToken,
-                ignoreTrimmedEmptyLines,
-                ignoreFirstLine,
-                false);
+        FilePayloadsIndex index =
+                FilePayloadsIndex.get(
+                        file,
+                        charset,
+                        limit,
+                        commentToken,
+                        ignoreTrimmedEmptyLines,
+                        ignoreFirstLine);
+        CharacterCodingException decodingError = index.getDecodingError();
+        if (decodingError != null) {
+            throw new IOException("Failed to decode the file: " + file, decodingError);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, index.getNumberOfPayloads());
     }
 
-    private static int calculateNumberOfPayloadsImpl(
-            Path file,
-            Charset charset,
-            long limit,
-            String commentToken,
-            boolean ignoreTrimmedEmptyLines,
-            boolean ignoreFirstLine,
-            boolean ignoreException)
-            throws IOException {
-        boolean checkCommentedLines = !commentToken.isEmpty();
-        int count = 0;
-
-        try (BufferedReader reader = Files.newBufferedReader(file, charset)) {
-            if (ignoreFirstLine) {
-                reader.readLine();
-            }
-
-            boolean lineValid;
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                if (limit > NO_LIMIT && count >= limit) {
-                    break;
-                }
-
-                lineValid = true;
-                if (ignoreTrimmedEmptyLines && line.trim().isEmpty()) {
-                    lineValid = false;
-                } else if (checkCommentedLines) {
-                    lineValid = !line.startsWith(commentToken);
-                }
+    private FilePayloadsIndex getIndex() throws IOException {
+        if (index == null) {
+            index =
+                    FilePayloadsIndex.get(
+                            file,
+                            charset,
+                            limit,
+                            commentToken,
+                            ignoreTrimmedEmptyLines,
+                            ignoreFirstLine);
+        }
+        return index;
+    }
 
-                if (lineValid) {
-                    count++;
-                }
-            }
-        } catch (IOException e) {
-            if (!ignoreException) {
-                throw e;
-            }
+    static boolean isPayload(String line, String commentToken, boolean ignoreTrimmedEmptyLines) {
+        if (ignoreTrimmedEmptyLines && line.trim().isEmpty()) {
+            return false;
         }
-        return count;
+        return commentToken.isEmpty() || !line.startsWith(commentToken);
     }
 
     @Override
@@ -201,13 +207,52 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
     @Override
     public ResettableAutoCloseableIterator<DefaultPayload> iterator() {
-        return new FileIterator(
-                file,
-                charset,
-                numberOfPayloads,
-                commentToken,
-                ignoreTrimmedEmptyLines,
-                ignoreFirstLine);
+        return new FileIterator(this, start, start + numberOfPayloads);
+    }
+
+    /**
+     * Gets an iterator that starts at the given payload, for example, to resume the fuzzing.
+     *
+     * <p>The payloads before the given payload are not read, if the charset allows to index them.
+     *
+     * @param start the first payload returned, zero-based.
+     * @return the iterator, never {@code null}.
+     * @throws IllegalArgumentException if {@code start} is negative or greater than the number of
+     *     payloads.
+     */
+    public ResettableAutoCloseableIterator<DefaultPayload> iterator(long start) {
+        if (start < 0 || start > numberOfPayloads) {
+            throw new IllegalArgumentException(
+                    "Parameter start must be between zero and the number of payloads.");
+        }
+        return new FileIterator(this, this.start + start, this.start + numberOfPayloads);
+    }
+
+    /**
+     * Gets a generator with a contiguous part of the payloads of this generator, to split the
+     * payloads across fuzzers or threads.
+     *
+     * <p>The payloads are split in (nearly) equal parts, the generators of all the shards return
+     * all the payloads of this generator, without repetition. The generators share the index of
+     * the file and read just their part of the file.
+     *
+     * @param shard the shard, zero-based.
+     * @param shards the total number of shards.
+     * @return the generator with the payloads of the shard.
+     * @throws IllegalArgumentException if {@code shards} is not greater than zero or if {@code
+     *     shard} is not between zero and {@code shards}, exclusive.
+     */
+    public FileStringPayloadGenerator shard(int shard, int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Parameter shards must be greater than zero.");
+        }
+        if (shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException(
+                    "Parameter shard must be between zero and shards, exclusive.");
+        }
+        long shardStart = numberOfPayloads * shard / shards;
+        long shardEnd = numberOfPayloads * (shard + 1) / shards;
+        return new FileStringPayloadGenerator(this, shardStart, shardEnd - shardStart);
     }
 
     @Override
@@ -217,36 +262,23 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
     private static class FileIterator implements ResettableAutoCloseableIterator<DefaultPayload> {
 
-        private final Path file;
-        private final Charset charset;
-        private final long limit;
-        private final String commentToken;
-        private final boolean checkCommentedLines;
-        private final boolean ignoreTrimmedEmptyLines;
-        private final boolean ignoreFirstLine;
+        private final FileStringPayloadGenerator generator;
+        private final long start;
+        private final long end;
         private BufferedReader reader;
         private boolean initialised;
         private long current;
 
-        public FileIterator(
-                Path file,
-                Charset charset,
-                long limit,
-                String commentToken,
-                boolean ignoreTrimmedEmptyLines,
-                boolean ignoreFirstLine) {
-            this.file = file;
-            this.charset = charset;
-            this.limit = limit;
-            this.commentToken = commentToken;
-            this.checkCommentedLines = !commentToken.isEmpty();
-            this.ignoreTrimmedEmptyLines = ignoreTrimmedEmptyLines;
-            this.ignoreFirstLine = ignoreFirstLine;
+        public FileIterator(FileStringPayloadGenerator generator, long start, long end) {
+            this.generator = generator;
+            this.start = start;
+            this.end = end;
+            this.current = start;
         }
 
         @Override
         public boolean hasNext() {
-            return current < limit;
+            return current < end;
         }
 
         @Override
@@ -265,10 +297,24 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
                 return;
             }
             try {
-                reader = Files.newBufferedReader(file, charset);
-                if (ignoreFirstLine) {
+                long offset = 0;
+                long payloadsToSkip = current;
+                if (current > 0) {
+                    FilePayloadsIndex index = generator.getIndex();
+                    if (index.hasOffsets()) {
+                        long block = current / FilePayloadsIndex.STRIDE;
+                        offset = index.getOffset(block);
+                        payloadsToSkip = current - block * FilePayloadsIndex.STRIDE;
+                    }
+                }
+
+                reader = createReader(offset);
+                if (offset == 0 && generator.ignoreFirstLine) {
                     reader.readLine();
                 }
+                for (; payloadsToSkip > 0; payloadsToSkip--) {
+                    readNextPayload();
+                }
             } catch (IOException e) {
                 throw new PayloadGenerationException("Failed to read/initialise the file:", e);
             } finally {
@@ -276,23 +322,28 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
             }
         }
 
+        private BufferedReader createReader(long offset) throws IOException {
+            FileChannel channel = FileChannel.open(generator.file, StandardOpenOption.READ);
+            try {
+                channel.position(offset);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            return new BufferedReader(
+                    Channels.newReader(channel, generator.charset.newDecoder(), -1));
+        }
+
         private DefaultPayload readNextPayload() {
             if (reader == null) {
                 throw new PayloadGenerationException("Failed to read the file.");
             }
 
             try {
-                boolean lineValid;
                 String line = null;
                 while ((line = reader.readLine()) != null) {
-                    lineValid = true;
-                    if (ignoreTrimmedEmptyLines && line.trim().isEmpty()) {
-                        lineValid = false;
-                    } else if (checkCommentedLines) {
-                        lineValid = !line.startsWith(commentToken);
-                    }
-
-                    if (lineValid) {
+                    if (isPayload(
+                            line, generator.commentToken, generator.ignoreTrimmedEmptyLines)) {
                         return new DefaultPayload(line);
                     }
                 }
@@ -308,7 +359,7 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
 
         @Override
         public void reset() {
-            current = 0;
+            current = start;
             initialised = false;
             close();
         }
@@ -322,7 +373,9 @@ public class FileStringPayloadGenerator implements StringPayloadGenerator {
             try {
                 reader.close();
             } catch (IOException ignore) {
-                LOGGER.debug("Failed to close file {}", file, ignore);
+                LOGGER.debug("Failed to close file {}", generator.file, ignore);
+            } finally {
+                reader = null;
             }
         }
     }
@@ -0,0 +1,299 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.automation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.Constant;
+import org.parosproxy.paros.control.Control;
+import org.parosproxy.paros.extension.ExtensionLoader;
+import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.network.HttpMessage;
+import org.yaml.snakeyaml.Yaml;
+import org.zaproxy.addon.automation.AutomationEnvironment;
+import org.zaproxy.addon.automation.AutomationJob;
+import org.zaproxy.addon.automation.AutomationProgress;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.ExtensionHttpFuzzer;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzResult;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzResultsFileSink;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.HttpFuzzer;
+import org.zaproxy.zap.extension.fuzz.httpfuzzer.InterestingHttpFuzzResultsSink;
+import org.zaproxy.zap.utils.I18N;
+
+class FuzzJobUnitTest {
+
+    @TempDir Path tempDir;
+
+    private ExtensionHttpFuzzer extHttpFuzzer;
+    private AutomationEnvironment env;
+    private Path payloadsFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Constant.messages = new I18N(Locale.ENGLISH);
+
+        Model model = mock(Model.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        Model.setSingletonForTesting(model);
+        ExtensionLoader extensionLoader = mock(ExtensionLoader.class, withSettings().lenient());
+        extHttpFuzzer = mock(ExtensionHttpFuzzer.class, withSettings().lenient());
+        given(extensionLoader.getExtension(ExtensionHttpFuzzer.class)).willReturn(extHttpFuzzer);
+        Control.initSingletonForTesting(Model.getSingleton(), extensionLoader);
+
+        env = mock(AutomationEnvironment.class, withSettings().lenient());
+        given(env.replaceVars(any())).willAnswer(returnsFirstArg());
+
+        payloadsFile = tempDir.resolve("payloads.txt");
+        Files.write(payloadsFile, "a\nb\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReturnDefaultFields() {
+        // Given / When
+        FuzzJob job = new FuzzJob();
+
+        // Then
+        assertThat(job.getType(), is(equalTo("fuzz")));
+        assertThat(job.getName(), is(equalTo("fuzz")));
+        assertThat(job.getOrder(), is(equalTo(AutomationJob.Order.ATTACK)));
+        assertThat(job.getParamMethodObject(), is(nullValue()));
+        assertThat(job.getParamMethodName(), is(nullValue()));
+    }
+
+    @Test
+    void shouldReturnCustomConfigParams() {
+        // Given
+        FuzzJob job = new FuzzJob();
+
+        // When
+        Map<String, String> params = job.getCustomConfigParameters();
+
+        // Then
+        assertThat(params.size(), is(equalTo(3)));
+        assertThat(params.get("url"), is(equalTo("")));
+        assertThat(params.get("target"), is(equalTo("")));
+        assertThat(params.get("payloadsFile"), is(equalTo("")));
+    }
+
+    @Test
+    void shouldApplyCustomConfigParams() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        String yamlStr =
+                "parameters:\n"
+                        + "  url: http://example.com/?p=target\n"
+                        + "  method: POST\n"
+                        + "  body: a=b\n"
+                        + "  target: target\n"
+                        + "  payloadsFile: payloads.txt\n"
+                        + "  resultsFile: results.csv\n"
+                        + "  resultsFormat: csv\n"
+                        + "  maxDuration: 5";
+        Yaml yaml = new Yaml();
+        Object data = yaml.load(yamlStr);
+
+        FuzzJob job = new FuzzJob();
+        job.setJobData(((LinkedHashMap<?, ?>) data));
+
+        // When
+        job.verifyParameters(progress);
+        job.applyParameters(progress);
+
+        // Then
+        assertThat(job.getParameters().getUrl(), is(equalTo("http://example.com/?p=target")));
+        assertThat(job.getParameters().getMethod(), is(equalTo("POST")));
+        assertThat(job.getParameters().getBody(), is(equalTo("a=b")));
+        assertThat(job.getParameters().getTarget(), is(equalTo("target")));
+        assertThat(job.getParameters().getPayloadsFile(), is(equalTo("payloads.txt")));
+        assertThat(job.getParameters().getResultsFile(), is(equalTo("results.csv")));
+        assertThat(job.getParameters().getResultsFormat(), is(equalTo("csv")));
+        assertThat(job.getParameters().getMaxDuration(), is(equalTo(5)));
+        assertThat(progress.hasWarnings(), is(equalTo(false)));
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldFailIfInvalidResultsFormat() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        String yamlStr = "parameters:\n" + "  resultsFormat: xml";
+        Yaml yaml = new Yaml();
+        Object data = yaml.load(yamlStr);
+
+        FuzzJob job = new FuzzJob();
+        job.setJobData(((LinkedHashMap<?, ?>) data));
+
+        // When
+        job.verifyParameters(progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(true)));
+        assertThat(progress.getErrors().get(0), is(equalTo("!fuzz.automation.error.format!")));
+    }
+
+    @Test
+    void shouldFailIfMissingRequiredParams() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        String yamlStr = "parameters:\n" + "  url: http://example.com/";
+        FuzzJob job = createJob(yamlStr, progress);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(true)));
+        assertThat(progress.getErrors().get(0), is(equalTo("!fuzz.automation.error.params!")));
+    }
+
+    @Test
+    void shouldFailIfPayloadsFileNotReadable() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        String yamlStr =
+                "parameters:\n"
+                        + "  url: http://example.com/?p=target\n"
+                        + "  target: target\n"
+                        + "  payloadsFile: "
+                        + tempDir.resolve("missing.txt");
+        FuzzJob job = createJob(yamlStr, progress);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(true)));
+        assertThat(progress.getErrors().get(0), is(equalTo("!fuzz.automation.error.file!")));
+    }
+
+    @Test
+    void shouldFailIfFuzzerNotStarted() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        given(extHttpFuzzer.runFuzzer(any(), anyString(), any(), anyList()))
+                .willThrow(new IllegalArgumentException("The target was not found."));
+        FuzzJob job = createJob(fuzzYaml(""), progress);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(true)));
+        assertThat(progress.getErrors().get(0), is(equalTo("!fuzz.automation.error.run!")));
+    }
+
+    @Test
+    void shouldRunFuzzerAndReportSummary() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        List<List<FuzzResultsSink<HttpFuzzResult>>> sinks = new ArrayList<>();
+        HttpFuzzer fuzzer = mock(HttpFuzzer.class, withSettings().lenient());
+        given(fuzzer.isStopped()).willReturn(true);
+        given(extHttpFuzzer.runFuzzer(any(), anyString(), any(), anyList()))
+                .willAnswer(
+                        invocation -> {
+                            sinks.add(invocation.getArgument(3));
+                            return fuzzer;
+                        });
+        FuzzJob job = createJob(fuzzYaml(""), progress);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(progress.getInfos().get(0), is(equalTo("!fuzz.automation.summary!")));
+        verify(extHttpFuzzer)
+                .runFuzzer(any(HttpMessage.class), eq("target"), eq(payloadsFile), anyList());
+        assertThat(sinks.get(0), hasSize(1));
+        assertThat(sinks.get(0).get(0), is(instanceOf(InterestingHttpFuzzResultsSink.class)));
+    }
+
+    @Test
+    void shouldRunFuzzerWithResultsFile() {
+        // Given
+        AutomationProgress progress = new AutomationProgress();
+        List<List<FuzzResultsSink<HttpFuzzResult>>> sinks = new ArrayList<>();
+        HttpFuzzer fuzzer = mock(HttpFuzzer.class, withSettings().lenient());
+        given(fuzzer.isStopped()).willReturn(true);
+        given(extHttpFuzzer.runFuzzer(any(), anyString(), any(), anyList()))
+                .willAnswer(
+                        invocation -> {
+                            sinks.add(invocation.getArgument(3));
+                            return fuzzer;
+                        });
+        Path resultsFile = tempDir.resolve("results.jsonl");
+        FuzzJob job = createJob(fuzzYaml("  resultsFile: " + resultsFile + "\n"), progress);
+
+        // When
+        job.runJob(env, progress);
+
+        // Then
+        assertThat(progress.hasErrors(), is(equalTo(false)));
+        assertThat(sinks.get(0), hasSize(2));
+        assertThat(sinks.get(0).get(1), is(instanceOf(HttpFuzzResultsFileSink.class)));
+        assertThat(Files.exists(resultsFile), is(equalTo(true)));
+    }
+
+    private String fuzzYaml(String extraParams) {
+        return "parameters:\n"
+                + "  url: http://example.com/?p=target\n"
+                + "  target: target\n"
+                + "  payloadsFile: "
+                + payloadsFile
+                + "\n"
+                + extraParams;
+    }
+
+    private static FuzzJob createJob(String yamlStr, AutomationProgress progress) {
+        Yaml yaml = new Yaml();
+        Object data = yaml.load(yamlStr);
+        FuzzJob job = new FuzzJob();
+        job.setJobData(((LinkedHashMap<?, ?>) data));
+        job.verifyParameters(progress);
+        return job;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link HttpFuzzResultsFileSink}. */
+class HttpFuzzResultsFileSinkUnitTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    void shouldWriteResultsAsJsonLines() throws Exception {
+        // Given
+        Path file = tempDir.resolve("results.jsonl");
+        HttpFuzzResultsFileSink sink =
+                new HttpFuzzResultsFileSink(file, HttpFuzzResultsFileSink.Format.JSONL);
+        HttpFuzzResult result = result(1, "[\"payload\"]");
+        result.addCustomState("State", "Value");
+        // When
+        sink.resultAvailable(result);
+        sink.fuzzerCompleted();
+        // Then
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines.size(), is(equalTo(1)));
+        assertThat(lines.get(0), startsWith("{\"taskId\":1,\"type\":\"Fuzzed\","));
+        assertThat(lines.get(0), containsString(",\"url\":\"http://example.com/\","));
+        assertThat(
+                lines.get(0),
+                endsWith(
+                        ",\"payloads\":[\"[\\\"payload\\\"]\"],"
+                                + "\"states\":{\"State\":\"Value\"}}"));
+        assertThat(sink.getResultsWritten(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldWriteResultsAsCsv() throws Exception {
+        // Given
+        Path file = tempDir.resolve("results.csv");
+        HttpFuzzResultsFileSink sink =
+                new HttpFuzzResultsFileSink(file, HttpFuzzResultsFileSink.Format.CSV);
+        // When
+        sink.resultAvailable(result(1, "a"));
+        sink.resultAvailable(result(2, "b"));
+        sink.fuzzerCompleted();
+        // Then
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines.size(), is(equalTo(3)));
+        assertThat(lines.get(0), startsWith("taskId,type,timestamp,method,url,"));
+        assertThat(lines.get(1), startsWith("1,Fuzzed,"));
+        assertThat(lines.get(2), startsWith("2,Fuzzed,"));
+    }
+
+    @Test
+    void shouldNotWriteResultsAfterCompleted() throws Exception {
+        // Given
+        Path file = tempDir.resolve("results.jsonl");
+        HttpFuzzResultsFileSink sink =
+                new HttpFuzzResultsFileSink(file, HttpFuzzResultsFileSink.Format.JSONL);
+        sink.resultAvailable(result(1, "a"));
+        sink.fuzzerCompleted();
+        // When
+        sink.resultAvailable(result(2, "b"));
+        // Then
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines.size(), is(equalTo(1)));
+        assertThat(sink.getResultsWritten(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldParseFormatIgnoringCase() {
+        // Given
+        String[] names = {"jsonl", "CSV", "xml"};
+        // When
+        HttpFuzzResultsFileSink.Format[] formats = {
+            HttpFuzzResultsFileSink.Format.fromName(names[0]),
+            HttpFuzzResultsFileSink.Format.fromName(names[1]),
+            HttpFuzzResultsFileSink.Format.fromName(names[2])
+        };
+        // Then
+        assertThat(
+                Arrays.asList(formats),
+                contains(
+                        HttpFuzzResultsFileSink.Format.JSONL,
+                        HttpFuzzResultsFileSink.Format.CSV,
+                        null));
+    }
+
+    private static HttpFuzzResult result(long taskId, String payload) throws Exception {
+        HttpMessage message = new HttpMessage(new URI("http://example.com/", true));
+        return new HttpFuzzResult(taskId, "Fuzzed", message, Arrays.asList(payload));
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.json.JSONObject;
+import org.apache.commons.httpclient.URI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parosproxy.paros.db.DatabaseException;
+import org.parosproxy.paros.db.RecordHistory;
+import org.parosproxy.paros.db.TableAlert;
+import org.parosproxy.paros.db.TableHistory;
+import org.parosproxy.paros.db.TableTag;
+import org.parosproxy.paros.model.HistoryReference;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.api.ApiException;
+import org.zaproxy.zap.extension.api.ApiResponse;
+import org.zaproxy.zap.extension.api.ApiResponseElement;
+import org.zaproxy.zap.extension.fuzz.ExtensionFuzz;
+import org.zaproxy.zap.extension.fuzz.FuzzResultsSink;
+import org.zaproxy.zap.testutils.TestUtils;
+
+/** Unit test for {@link HttpFuzzerApi}. */
+class HttpFuzzerApiUnitTest extends TestUtils {
+
+    private static final int MESSAGE_ID = 1;
+
+    @TempDir Path tempDir;
+
+    private ExtensionHttpFuzzer extensionHttpFuzzer;
+    private ExtensionFuzz extensionFuzz;
+    private TableHistory tableHistory;
+    private List<HttpFuzzer> fuzzers;
+    private HttpMessage message;
+    private Path payloadsFile;
+
+    private HttpFuzzerApi api;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        setUpZap();
+
+        message = new HttpMessage(new URI("http://example.com/?p=target", true));
+        tableHistory = mock(TableHistory.class, withSettings().lenient());
+        RecordHistory recordHistory = mock(RecordHistory.class, withSettings().lenient());
+        given(recordHistory.getHistoryId()).willReturn(MESSAGE_ID);
+        given(recordHistory.getHttpMessage()).willReturn(message);
+        given(tableHistory.read(MESSAGE_ID)).willReturn(recordHistory);
+        HistoryReference.setTableHistory(tableHistory);
+        HistoryReference.setTableAlert(mock(TableAlert.class, withSettings().lenient()));
+        HistoryReference.setTableTag(mock(TableTag.class, withSettings().lenient()));
+
+        payloadsFile = tempDir.resolve("payloads.txt");
+        Files.write(payloadsFile, "a\nb\n".getBytes(StandardCharsets.UTF_8));
+
+        fuzzers = new ArrayList<>();
+        extensionFuzz = mock(ExtensionFuzz.class, withSettings().lenient());
+        given(extensionFuzz.getFuzzers(HttpFuzzer.class)).willReturn(fuzzers);
+        extensionHttpFuzzer = mock(ExtensionHttpFuzzer.class, withSettings().lenient());
+
+        api = new HttpFuzzerApi(extensionHttpFuzzer, extensionFuzz);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        HistoryReference.setTableHistory(null);
+        HistoryReference.setTableAlert(null);
+        HistoryReference.setTableTag(null);
+    }
+
+    @Test
+    void shouldHavePrefix() {
+        // Given / When
+        String prefix = api.getPrefix();
+        // Then
+        assertThat(prefix, is(equalTo("fuzz")));
+    }
+
+    @Test
+    void shouldThrowBadActionIfActionUnknown() {
+        // Given
+        String name = "_NotKnownAction_";
+        // When
+        ApiException exception =
+                assertThrows(
+                        ApiException.class, () -> api.handleApiAction(name, new JSONObject()));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_ACTION)));
+    }
+
+    @Test
+    void shouldThrowBadViewIfViewUnknown() {
+        // Given
+        String name = "_NotKnownView_";
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiView(name, new JSONObject()));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_VIEW)));
+    }
+
+    @Test
+    void shouldStartFuzzerAndReturnItsId() throws Exception {
+        // Given
+        HttpFuzzer fuzzer = fuzzer(5, false);
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList())).willReturn(fuzzer);
+        // When
+        ApiResponse response = api.handleApiAction("httpFuzz", fuzzParams());
+        // Then
+        assertThat(((ApiResponseElement) response).getValue(), is(equalTo("5")));
+        verify(extensionHttpFuzzer)
+                .runFuzzer(eq(message), eq("target"), eq(payloadsFile), anyList());
+    }
+
+    @Test
+    void shouldStartFuzzerWithInterestingResultsAndFileSinks() throws Exception {
+        // Given
+        List<List<FuzzResultsSink<HttpFuzzResult>>> sinks = new ArrayList<>();
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList()))
+                .willAnswer(
+                        invocation -> {
+                            sinks.add(invocation.getArgument(3));
+                            return fuzzer(1, false);
+                        });
+        JSONObject params = fuzzParams();
+        params.put("resultsFile", tempDir.resolve("results.csv").toString());
+        params.put("resultsFormat", "csv");
+        // When
+        api.handleApiAction("httpFuzz", params);
+        // Then
+        assertThat(sinks, hasSize(1));
+        assertThat(sinks.get(0), hasSize(2));
+        assertThat(sinks.get(0).get(0), is(instanceOf(InterestingHttpFuzzResultsSink.class)));
+        assertThat(sinks.get(0).get(1), is(instanceOf(HttpFuzzResultsFileSink.class)));
+    }
+
+    @Test
+    void shouldThrowDoesNotExistIfMessageNotRead() throws Exception {
+        // Given
+        given(tableHistory.read(anyInt())).willThrow(DatabaseException.class);
+        // When
+        ApiException exception =
+                assertThrows(
+                        ApiException.class, () -> api.handleApiAction("httpFuzz", fuzzParams()));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.DOES_NOT_EXIST)));
+    }
+
+    @Test
+    void shouldThrowDoesNotExistIfPayloadsFileNotReadable() throws Exception {
+        // Given
+        JSONObject params = fuzzParams();
+        params.put("payloadsFile", tempDir.resolve("missing.txt").toString());
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiAction("httpFuzz", params));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.DOES_NOT_EXIST)));
+    }
+
+    @Test
+    void shouldThrowIllegalParameterIfResultsFormatUnknown() throws Exception {
+        // Given
+        JSONObject params = fuzzParams();
+        params.put("resultsFile", tempDir.resolve("results.txt").toString());
+        params.put("resultsFormat", "xml");
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiAction("httpFuzz", params));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.ILLEGAL_PARAMETER)));
+    }
+
+    @Test
+    void shouldThrowIllegalParameterIfFuzzerNotStarted() throws Exception {
+        // Given
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList()))
+                .willThrow(new IllegalArgumentException("The target was not found."));
+        // When
+        ApiException exception =
+                assertThrows(
+                        ApiException.class, () -> api.handleApiAction("httpFuzz", fuzzParams()));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.ILLEGAL_PARAMETER)));
+    }
+
+    @Test
+    void shouldGetStatusOfFuzzer() throws Exception {
+        // Given
+        HttpFuzzer fuzzer = fuzzer(3, true);
+        given(fuzzer.getMessagesSentCount()).willReturn(2);
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList())).willReturn(fuzzer);
+        api.handleApiAction("httpFuzz", fuzzParams());
+        // When
+        ApiResponse response = api.handleApiView("status", fuzzerIdParams(3));
+        // Then
+        String json = response.toJSON().toString();
+        assertThat(json, containsString("\"state\":\"FINISHED\""));
+        assertThat(json, containsString("\"messagesSent\":2"));
+    }
+
+    @Test
+    void shouldStopFuzzer() throws Exception {
+        // Given
+        HttpFuzzer fuzzer = fuzzer(3, false);
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList())).willReturn(fuzzer);
+        api.handleApiAction("httpFuzz", fuzzParams());
+        // When
+        api.handleApiAction("stop", fuzzerIdParams(3));
+        // Then
+        verify(fuzzer).stopScan();
+    }
+
+    @Test
+    void shouldThrowDoesNotExistIfFuzzerUnknown() {
+        // Given
+        JSONObject params = fuzzerIdParams(42);
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> api.handleApiView("status", params));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.DOES_NOT_EXIST)));
+    }
+
+    @Test
+    void shouldThrowDoesNotExistIfFuzzerRemoved() throws Exception {
+        // Given
+        HttpFuzzer fuzzer = fuzzer(3, true);
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList())).willReturn(fuzzer);
+        api.handleApiAction("httpFuzz", fuzzParams());
+        fuzzers.remove(fuzzer);
+        // When
+        ApiException exception =
+                assertThrows(
+                        ApiException.class, () -> api.handleApiView("status", fuzzerIdParams(3)));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.DOES_NOT_EXIST)));
+    }
+
+    @Test
+    void shouldRemoveOldestFinishedFuzzersWhenExceedingMaximum() throws Exception {
+        // Given
+        AtomicInteger ids = new AtomicInteger();
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList()))
+                .willAnswer(invocation -> fuzzer(ids.incrementAndGet(), true));
+        // When
+        for (int i = 0; i < HttpFuzzerApi.MAX_FINISHED_RUNS + 2; i++) {
+            api.handleApiAction("httpFuzz", fuzzParams());
+        }
+        // Then
+        for (int id = 1; id <= 2; id++) {
+            JSONObject params = fuzzerIdParams(id);
+            ApiException exception =
+                    assertThrows(ApiException.class, () -> api.handleApiView("status", params));
+            assertThat(exception.getType(), is(equalTo(ApiException.Type.DOES_NOT_EXIST)));
+        }
+        for (int id = 3; id <= HttpFuzzerApi.MAX_FINISHED_RUNS + 2; id++) {
+            api.handleApiView("status", fuzzerIdParams(id));
+        }
+    }
+
+    @Test
+    void shouldNotRemoveFuzzersStillRunning() throws Exception {
+        // Given
+        AtomicInteger ids = new AtomicInteger();
+        given(extensionHttpFuzzer.runFuzzer(any(), any(), any(), anyList()))
+                .willAnswer(invocation -> fuzzer(ids.incrementAndGet(), false));
+        // When
+        for (int i = 0; i < HttpFuzzerApi.MAX_FINISHED_RUNS + 2; i++) {
+            api.handleApiAction("httpFuzz", fuzzParams());
+        }
+        // Then
+        for (int id = 1; id <= HttpFuzzerApi.MAX_FINISHED_RUNS + 2; id++) {
+            api.handleApiView("status", fuzzerIdParams(id));
+        }
+    }
+
+    private HttpFuzzer fuzzer(int id, boolean stopped) {
+        HttpFuzzer fuzzer = mock(HttpFuzzer.class, withSettings().lenient());
+        given(fuzzer.getScanId()).willReturn(id);
+        given(fuzzer.isStopped()).willReturn(stopped);
+        fuzzers.add(fuzzer);
+        return fuzzer;
+    }
+
+    private JSONObject fuzzParams() {
+        JSONObject params = new JSONObject();
+        params.put("messageId", Integer.toString(MESSAGE_ID));
+        params.put("target", "target");
+        params.put("payloadsFile", payloadsFile.toString());
+        return params;
+    }
+
+    private static JSONObject fuzzerIdParams(int id) {
+        JSONObject params = new JSONObject();
+        params.put("fuzzerId", Integer.toString(id));
+        return params;
+    }
+}
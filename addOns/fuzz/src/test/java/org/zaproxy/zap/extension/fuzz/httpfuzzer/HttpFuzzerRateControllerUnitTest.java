@@ -0,0 +1,470 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import static fi.iki.elonen.NanoHTTPD.newFixedLengthResponse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import fi.iki.elonen.NanoHTTPD.IHTTPSession;
+import fi.iki.elonen.NanoHTTPD.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.parosproxy.paros.network.ConnectionParam;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.testutils.NanoServerHandler;
+import org.zaproxy.zap.testutils.TestUtils;
+
+/** Unit test for {@link HttpFuzzerRateController}. */
+class HttpFuzzerRateControllerUnitTest extends TestUtils {
+
+    private static final String HOST = "example.com:80";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @AfterEach
+    void teardown() {
+        stopServer();
+    }
+
+    @Test
+    void shouldNotAllowNonPositiveMaxConcurrency() {
+        // Given
+        int maxConcurrency = 0;
+        // When / Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new HttpFuzzerRateController(maxConcurrency, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldNotAllowNegativeMinInterval() {
+        // Given
+        long minInterval = -1;
+        // When / Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new HttpFuzzerRateController(1, minInterval, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldStartWithMaxConcurrencyAndMinInterval() {
+        // Given / When
+        HttpFuzzerRateController controller = createController(4, 20);
+        // Then
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(4)));
+        assertThat(controller.getInterval(HOST), is(equalTo(20L)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {429, 503, -1})
+    void shouldDecreaseConcurrencyAndRateWhenOverloaded(int statusCode) throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(4, 0);
+        // When
+        send(controller, HOST, 10, statusCode);
+        // Then
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(2)));
+        assertThat(controller.getInterval(HOST), is(equalTo(10L)));
+    }
+
+    @Test
+    void shouldDecreaseOnlyOnceWhileTheResponsesReflectThePreviousLoad() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(8, 0);
+        controller.acquire(HOST);
+        controller.acquire(HOST);
+        controller.acquire(HOST);
+        // When
+        controller.release(HOST, millis(10), 503);
+        controller.release(HOST, millis(10), 503);
+        controller.release(HOST, millis(10), 503);
+        // Then
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(4)));
+        assertThat(controller.getInterval(HOST), is(equalTo(10L)));
+    }
+
+    @Test
+    void shouldDecreaseWhenLatencyIncreasesWellAboveLowestLatency() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(4, 0);
+        send(controller, HOST, 10, 200);
+        send(controller, HOST, 10, 200);
+        // When
+        for (int i = 0; i < 5; i++) {
+            send(controller, HOST, 500, 200);
+        }
+        // Then
+        assertThat(controller.getConcurrencyLimit(HOST), is(lessThan(4)));
+        assertThat(controller.getInterval(HOST), is(greaterThan(0L)));
+    }
+
+    @Test
+    void shouldNotDecreaseWhenLatencyIsStable() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(4, 0);
+        // When
+        for (int i = 0; i < 20; i++) {
+            send(controller, HOST, 50 + i % 3 * 10, 200);
+        }
+        // Then
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(4)));
+        assertThat(controller.getInterval(HOST), is(equalTo(0L)));
+    }
+
+    @Test
+    void shouldIncreaseRateAndThenConcurrencyWhileSucceeding() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(4, 0);
+        send(controller, HOST, 10, 429);
+        // When
+        send(controller, HOST, 10, 200);
+        send(controller, HOST, 10, 200);
+        long intervalAfterSuccesses = controller.getInterval(HOST);
+        int limitAfterSuccesses = controller.getConcurrencyLimit(HOST);
+        for (int i = 0; i < 5; i++) {
+            send(controller, HOST, 10, 200);
+        }
+        // Then
+        assertThat(intervalAfterSuccesses, is(equalTo(0L)));
+        assertThat(limitAfterSuccesses, is(equalTo(2)));
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(4)));
+    }
+
+    @Test
+    void shouldKeepConcurrencyAndIntervalWithinBounds() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(2, 30);
+        // When
+        for (int i = 0; i < 10; i++) {
+            send(controller, HOST, 10, 200);
+        }
+        int limitAfterSuccesses = controller.getConcurrencyLimit(HOST);
+        long intervalAfterSuccesses = controller.getInterval(HOST);
+        for (int i = 0; i < 10; i++) {
+            send(controller, HOST, 10, 503);
+        }
+        // Then
+        assertThat(limitAfterSuccesses, is(equalTo(2)));
+        assertThat(intervalAfterSuccesses, is(equalTo(30L)));
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(1)));
+        assertThat(controller.getInterval(HOST), is(equalTo(5000L)));
+    }
+
+    @Test
+    void shouldKeepMinIntervalLongerThanMaxBackOff() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(2, 6000);
+        long intervalBefore = controller.getInterval(HOST);
+        // When
+        for (int i = 0; i < 10; i++) {
+            send(controller, HOST, 10, 503);
+        }
+        // Then
+        assertThat(intervalBefore, is(equalTo(6000L)));
+        assertThat(controller.getInterval(HOST), is(equalTo(6000L)));
+    }
+
+    @Test
+    void shouldKeepStatePerHost() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(4, 0);
+        String otherHost = "example.org:443";
+        // When
+        send(controller, HOST, 10, 503);
+        // Then
+        assertThat(controller.getConcurrencyLimit(HOST), is(equalTo(2)));
+        assertThat(controller.getConcurrencyLimit(otherHost), is(equalTo(4)));
+        assertThat(controller.getInterval(otherHost), is(equalTo(0L)));
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldWaitForRequestsInFlightWhenLimitReached() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(1, 0);
+        controller.acquire(HOST);
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread =
+                new Thread(
+                        () -> {
+                            try {
+                                controller.acquire(HOST);
+                                acquired.countDown();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+        // When
+        thread.start();
+        boolean acquiredBeforeRelease = acquired.await(200, TimeUnit.MILLISECONDS);
+        controller.release(HOST, millis(10), 200);
+        // Then
+        assertThat(acquiredBeforeRelease, is(equalTo(false)));
+        assertThat(acquired.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldPaceRequestsWithMinInterval() throws Exception {
+        // Given
+        HttpFuzzerRateController controller =
+                new HttpFuzzerRateController(1, 50, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        // When
+        for (int i = 0; i < 4; i++) {
+            controller.acquire(HOST);
+            controller.release(HOST, millis(1), 200);
+        }
+        // Then
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(elapsed, is(greaterThanOrEqualTo(140L)));
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldWaitForIntervalWithGivenClock() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(2, 100);
+        controller.acquire(HOST);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> acquired =
+                    executor.submit(() -> controller.acquire(HOST, () -> false, () -> false));
+            // When
+            boolean acquiredBeforeInterval = isDone(acquired, 300);
+            nanoTime.addAndGet(millis(100));
+            // Then
+            assertThat(acquiredBeforeInterval, is(equalTo(false)));
+            assertThat(acquired.get(5, TimeUnit.SECONDS), is(equalTo(true)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldStopWaitingForIntervalWhenStopped() throws Exception {
+        // Given
+        HttpFuzzerRateController controller =
+                new HttpFuzzerRateController(2, 1, TimeUnit.MINUTES);
+        controller.acquire(HOST);
+        AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> acquired =
+                    executor.submit(() -> controller.acquire(HOST, () -> false, stopped::get));
+            // When
+            Thread.sleep(200);
+            stopped.set(true);
+            // Then
+            assertThat(acquired.get(5, TimeUnit.SECONDS), is(equalTo(false)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldStopWaitingForRequestsInFlightWhenStopped() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(1, 0);
+        controller.acquire(HOST);
+        AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> acquired =
+                    executor.submit(() -> controller.acquire(HOST, () -> false, stopped::get));
+            // When
+            Thread.sleep(200);
+            stopped.set(true);
+            // Then
+            assertThat(acquired.get(5, TimeUnit.SECONDS), is(equalTo(false)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldWaitWhilePaused() throws Exception {
+        // Given
+        HttpFuzzerRateController controller = createController(1, 0);
+        AtomicBoolean paused = new AtomicBoolean(true);
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread =
+                new Thread(
+                        () -> {
+                            try {
+                                if (controller.acquire(HOST, paused::get, () -> false)) {
+                                    acquired.countDown();
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+        // When
+        thread.start();
+        boolean acquiredWhilePaused = acquired.await(300, TimeUnit.MILLISECONDS);
+        paused.set(false);
+        // Then
+        assertThat(acquiredWhilePaused, is(equalTo(false)));
+        assertThat(acquired.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+    }
+
+    @Test
+    @Timeout(60)
+    void shouldAdaptToServerThatIsOverloaded() throws Exception {
+        // Given
+        setUpZap();
+        startServer();
+        int serverCapacity = 2;
+        OverloadableServerHandler handler = new OverloadableServerHandler(serverCapacity);
+        nano.addHandler(handler);
+        int threads = 4;
+        HttpFuzzerRateController controller =
+                new HttpFuzzerRateController(threads, 0, TimeUnit.MILLISECONDS);
+        HttpSender httpSender = new HttpSender(new ConnectionParam(), false, 0);
+        String host = "localhost:" + nano.getListeningPort();
+        AtomicInteger lowestLimit = new AtomicInteger(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tasks = new ArrayList<>();
+        // When
+        try {
+            for (int i = 0; i < threads; i++) {
+                tasks.add(
+                        executor.submit(
+                                () -> {
+                                    for (int j = 0; j < 15; j++) {
+                                        HttpMessage msg = getHttpMessage("/");
+                                        controller.acquire(host);
+                                        long start = System.nanoTime();
+                                        httpSender.sendAndReceive(msg);
+                                        controller.release(
+                                                host,
+                                                System.nanoTime() - start,
+                                                msg.getResponseHeader().getStatusCode());
+                                        lowestLimit.accumulateAndGet(
+                                                controller.getConcurrencyLimit(host), Math::min);
+                                    }
+                                    return null;
+                                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // Then
+        assertThat(handler.getOverloadedResponses(), is(greaterThan(0)));
+        assertThat(lowestLimit.get(), is(lessThanOrEqualTo(serverCapacity)));
+    }
+
+    private HttpFuzzerRateController createController(int maxConcurrency, long minInterval) {
+        return new HttpFuzzerRateController(
+                maxConcurrency, minInterval, TimeUnit.MILLISECONDS, nanoTime::get);
+    }
+
+    private void send(HttpFuzzerRateController controller, String host, long latency, int status)
+            throws InterruptedException {
+        // Advance the time past the (maximum) interval between requests.
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        controller.acquire(host);
+        controller.release(host, millis(latency), status);
+    }
+
+    private static boolean isDone(Future<?> future, long waitMillis) throws Exception {
+        try {
+            future.get(waitMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    /**
+     * A handler whose latency increases with the number of concurrent requests, and that responds
+     * with {@code 503} when over capacity.
+     */
+    private static class OverloadableServerHandler extends NanoServerHandler {
+
+        private final int capacity;
+        private final AtomicInteger concurrentRequests;
+        private final AtomicInteger overloadedResponses;
+
+        OverloadableServerHandler(int capacity) {
+            super("/");
+            this.capacity = capacity;
+            this.concurrentRequests = new AtomicInteger();
+            this.overloadedResponses = new AtomicInteger();
+        }
+
+        int getOverloadedResponses() {
+            return overloadedResponses.get();
+        }
+
+        @Override
+        protected Response serve(IHTTPSession session) {
+            consumeBody(session);
+            int concurrent = concurrentRequests.incrementAndGet();
+            try {
+                Thread.sleep(20L * concurrent);
+                if (concurrent > capacity) {
+                    overloadedResponses.incrementAndGet();
+                    return newFixedLengthResponse(
+                            Response.Status.SERVICE_UNAVAILABLE, "text/plain", "Overloaded");
+                }
+                return newFixedLengthResponse(Response.Status.OK, "text/plain", "OK");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return newFixedLengthResponse(
+                        Response.Status.INTERNAL_ERROR, "text/plain", "Interrupted");
+            } finally {
+                concurrentRequests.decrementAndGet();
+            }
+        }
+    }
+}
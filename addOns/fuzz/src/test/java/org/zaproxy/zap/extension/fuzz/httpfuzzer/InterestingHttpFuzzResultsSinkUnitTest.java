@@ -0,0 +1,134 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link InterestingHttpFuzzResultsSink}. */
+class InterestingHttpFuzzResultsSinkUnitTest {
+
+    @Test
+    void shouldNotAllowNonPositiveCapacity() {
+        // Given
+        int capacity = 0;
+        // When / Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new InterestingHttpFuzzResultsSink(capacity, 10));
+    }
+
+    @Test
+    void shouldNotAllowNegativeSizeDelta() {
+        // Given
+        int sizeDelta = -1;
+        // When / Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new InterestingHttpFuzzResultsSink(10, sizeDelta));
+    }
+
+    @Test
+    void shouldNotKeepBaselineNorSimilarResults() {
+        // Given
+        InterestingHttpFuzzResultsSink sink = new InterestingHttpFuzzResultsSink(10, 5);
+        // When
+        sink.resultAvailable(result(0, 200, "Baseline body", "a"));
+        sink.resultAvailable(result(1, 200, "Similar body", "payload"));
+        // Then
+        assertThat(sink.getResults(), is(empty()));
+        assertThat(sink.getResultsProcessed(), is(equalTo(2L)));
+        assertThat(sink.getInterestingResults(), is(equalTo(0L)));
+    }
+
+    @Test
+    void shouldKeepResultsWithDifferentStatusCode() {
+        // Given
+        InterestingHttpFuzzResultsSink sink = new InterestingHttpFuzzResultsSink(10, 5);
+        sink.resultAvailable(result(0, 200, "Body", "a"));
+        HttpFuzzResult result = result(1, 500, "Body", "payload");
+        // When
+        sink.resultAvailable(result);
+        // Then
+        assertThat(sink.getResults(), contains(result));
+    }
+
+    @Test
+    void shouldKeepResultsWithDifferentBodySize() {
+        // Given
+        InterestingHttpFuzzResultsSink sink = new InterestingHttpFuzzResultsSink(10, 5);
+        sink.resultAvailable(result(0, 200, "Body", "a"));
+        HttpFuzzResult result = result(1, 200, "Body with more than 5 chars", "payload");
+        // When
+        sink.resultAvailable(result);
+        // Then
+        assertThat(sink.getResults(), contains(result));
+    }
+
+    @Test
+    void shouldKeepResultsWithReflectedPayload() {
+        // Given
+        InterestingHttpFuzzResultsSink sink = new InterestingHttpFuzzResultsSink(10, 5);
+        sink.resultAvailable(result(0, 200, "Body abc", "a"));
+        HttpFuzzResult result = result(1, 200, "Body xyz", "xyz");
+        // When
+        sink.resultAvailable(result);
+        // Then
+        assertThat(sink.getResults(), contains(result));
+    }
+
+    @Test
+    void shouldDiscardOldestResultsWhenFull() {
+        // Given
+        InterestingHttpFuzzResultsSink sink = new InterestingHttpFuzzResultsSink(2, 0);
+        sink.resultAvailable(result(0, 200, "Body", "a"));
+        HttpFuzzResult result1 = result(1, 500, "Body", "1");
+        HttpFuzzResult result2 = result(2, 500, "Body", "2");
+        HttpFuzzResult result3 = result(3, 500, "Body", "3");
+        // When
+        sink.resultAvailable(result1);
+        sink.resultAvailable(result2);
+        sink.resultAvailable(result3);
+        // Then
+        assertThat(sink.getResults(), contains(result2, result3));
+        assertThat(sink.getInterestingResults(), is(equalTo(3L)));
+    }
+
+    private static HttpFuzzResult result(
+            long taskId, int statusCode, String responseBody, String payload) {
+        HttpMessage message = new HttpMessage();
+        try {
+            message.setResponseHeader("HTTP/1.1 " + statusCode + " Reason\r\n");
+        } catch (HttpMalformedHeaderException e) {
+            throw new RuntimeException(e);
+        }
+        message.setResponseBody(responseBody);
+        return new HttpFuzzResult(taskId, "Type", message, Arrays.asList(payload));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.fuzz.httpfuzzer.messagelocations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.fuzz.messagelocations.MessageLocationReplacement;
+import org.zaproxy.zap.extension.fuzz.messagelocations.StringMessageLocationReplacement;
+import org.zaproxy.zap.model.DefaultTextHttpMessageLocation;
+import org.zaproxy.zap.model.HttpMessageLocation;
+import org.zaproxy.zap.users.User;
+
+/** Unit test for {@link TextHttpMessageLocationReplacer}. */
+class TextHttpMessageLocationReplacerUnitTest {
+
+    private static final String REQUEST_HEADER =
+            "POST http://example.com/path?p=abc HTTP/1.1\r\nHost: example.com\r\n\r\n";
+    private static final String REQUEST_BODY = "a=123&b=456";
+    private static final String RESPONSE_HEADER = "HTTP/1.1 200 OK\r\n\r\n";
+    private static final String RESPONSE_BODY = "Response Body";
+
+    private HttpMessage message;
+    private int queryValueStart;
+    private TextHttpMessageLocationReplacer replacer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        message = new HttpMessage();
+        message.setRequestHeader(REQUEST_HEADER);
+        message.setRequestBody(REQUEST_BODY);
+        message.setResponseHeader(RESPONSE_HEADER);
+        message.setResponseBody(RESPONSE_BODY);
+        queryValueStart = message.getRequestHeader().toString().indexOf("abc");
+
+        replacer = new TextHttpMessageLocationReplacer();
+    }
+
+    @Test
+    void shouldFailToReplaceIfNotInitialised() {
+        // Given
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> replacer.replace(replacements));
+    }
+
+    @Test
+    void shouldReplaceSingleLocationOfRequestHeader() throws Exception {
+        // Given
+        replacer.init(message);
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(
+                replacement(
+                        HttpMessageLocation.Location.REQUEST_HEADER,
+                        queryValueStart,
+                        queryValueStart + 3,
+                        "xyz"));
+        // When
+        HttpMessage replacedMessage = replacer.replace(replacements);
+        // Then
+        assertThat(
+                replacedMessage.getRequestHeader().getURI().toString(),
+                is(equalTo("http://example.com/path?p=xyz")));
+        assertThat(replacedMessage.getRequestBody().toString(), is(equalTo(REQUEST_BODY)));
+    }
+
+    @Test
+    void shouldReplaceMultipleLocationsOfRequestBody() throws Exception {
+        // Given
+        replacer.init(message);
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(replacement(HttpMessageLocation.Location.REQUEST_BODY, 2, 5, "1"));
+        replacements.add(replacement(HttpMessageLocation.Location.REQUEST_BODY, 8, 11, "45678"));
+        // When
+        HttpMessage replacedMessage = replacer.replace(replacements);
+        // Then
+        assertThat(replacedMessage.getRequestBody().toString(), is(equalTo("a=1&b=45678")));
+        assertThat(
+                replacedMessage.getRequestHeader().toString(),
+                is(equalTo(message.getRequestHeader().toString())));
+    }
+
+    @Test
+    void shouldReplaceLocationsOfHeaderAndBodyWithDifferentValues() throws Exception {
+        // Given
+        replacer.init(message);
+        // When
+        HttpMessage replacedMessage1 = replacer.replace(headerAndBodyReplacements("x", "y"));
+        HttpMessage replacedMessage2 = replacer.replace(headerAndBodyReplacements("1", "22"));
+        // Then
+        assertThat(
+                replacedMessage1.getRequestHeader().getURI().toString(),
+                is(equalTo("http://example.com/path?p=x")));
+        assertThat(replacedMessage1.getRequestBody().toString(), is(equalTo("a=y&b=456")));
+        assertThat(
+                replacedMessage2.getRequestHeader().getURI().toString(),
+                is(equalTo("http://example.com/path?p=1")));
+        assertThat(replacedMessage2.getRequestBody().toString(), is(equalTo("a=22&b=456")));
+    }
+
+    @Test
+    void shouldNotCopyResponseIfNoLocationOfResponse() throws Exception {
+        // Given
+        replacer.init(message);
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(replacement(HttpMessageLocation.Location.REQUEST_BODY, 2, 5, "1"));
+        // When
+        HttpMessage replacedMessage = replacer.replace(replacements);
+        // Then
+        assertThat(replacedMessage.getResponseHeader().isEmpty(), is(equalTo(true)));
+        assertThat(replacedMessage.getResponseBody().length(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldReplaceLocationOfResponseBody() throws Exception {
+        // Given
+        replacer.init(message);
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(replacement(HttpMessageLocation.Location.RESPONSE_BODY, 0, 8, "Other"));
+        // When
+        HttpMessage replacedMessage = replacer.replace(replacements);
+        // Then
+        assertThat(
+                replacedMessage.getResponseHeader().toString(),
+                is(equalTo(message.getResponseHeader().toString())));
+        assertThat(replacedMessage.getResponseBody().toString(), is(equalTo("Other Body")));
+        assertThat(replacedMessage.getRequestBody().toString(), is(equalTo(REQUEST_BODY)));
+    }
+
+    @Test
+    void shouldNotModifyInitialisedMessage() throws Exception {
+        // Given
+        String requestHeader = message.getRequestHeader().toString();
+        replacer.init(message);
+        // When
+        replacer.replace(headerAndBodyReplacements("x", "y"));
+        // Then
+        assertThat(message.getRequestHeader().toString(), is(equalTo(requestHeader)));
+        assertThat(message.getRequestBody().toString(), is(equalTo(REQUEST_BODY)));
+    }
+
+    @Test
+    void shouldCopyStateOfMessage() throws Exception {
+        // Given
+        User user = mock(User.class);
+        Object userObject = new Object();
+        message.setNote("Note");
+        message.setTimeSentMillis(1234L);
+        message.setTimeElapsedMillis(56);
+        message.setUserObject(userObject);
+        message.setRequestingUser(user);
+        message.setResponseFromTargetHost(true);
+        replacer.init(message);
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(replacement(HttpMessageLocation.Location.REQUEST_BODY, 2, 5, "1"));
+        // When
+        HttpMessage replacedMessage = replacer.replace(replacements);
+        // Then
+        assertThat(replacedMessage.getNote(), is(equalTo("Note")));
+        assertThat(replacedMessage.getTimeSentMillis(), is(equalTo(1234L)));
+        assertThat(replacedMessage.getTimeElapsedMillis(), is(equalTo(56)));
+        assertThat(replacedMessage.getUserObject(), is(sameInstance(userObject)));
+        assertThat(replacedMessage.getRequestingUser(), is(sameInstance(user)));
+        assertThat(replacedMessage.isResponseFromTargetHost(), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldCopyRequestHeaderIfNoLocationOfRequestHeader() throws Exception {
+        // Given
+        message.getRequestHeader().setHeader("X-Custom", "value");
+        message.getRequestHeader().setContentLength(REQUEST_BODY.length());
+        String requestHeader = message.getRequestHeader().toString();
+        replacer.init(message);
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(replacement(HttpMessageLocation.Location.REQUEST_BODY, 2, 5, "1"));
+        // When
+        HttpMessage replacedMessage1 = replacer.replace(replacements);
+        HttpMessage replacedMessage2 = replacer.replace(replacements);
+        replacedMessage1.getRequestHeader().setHeader("X-Custom", "other value");
+        replacedMessage1.getRequestHeader().getURI().setQuery("p=other");
+        // Then
+        assertThat(
+                replacedMessage2.getRequestHeader(),
+                is(not(sameInstance(replacedMessage1.getRequestHeader()))));
+        assertThat(replacedMessage2.getRequestHeader().toString(), is(equalTo(requestHeader)));
+        assertThat(
+                replacedMessage2.getRequestHeader().getContentLength(),
+                is(equalTo(REQUEST_BODY.length())));
+        assertThat(replacedMessage2.getRequestHeader().isSecure(), is(equalTo(false)));
+        assertThat(message.getRequestHeader().toString(), is(equalTo(requestHeader)));
+    }
+
+    private SortedSet<MessageLocationReplacement<?>> headerAndBodyReplacements(
+            String headerValue, String bodyValue) {
+        SortedSet<MessageLocationReplacement<?>> replacements = new TreeSet<>();
+        replacements.add(
+                replacement(
+                        HttpMessageLocation.Location.REQUEST_HEADER,
+                        queryValueStart,
+                        queryValueStart + 3,
+                        headerValue));
+        replacements.add(replacement(HttpMessageLocation.Location.REQUEST_BODY, 2, 5, bodyValue));
+        return replacements;
+    }
+
+    private static MessageLocationReplacement<?> replacement(
+            HttpMessageLocation.Location location, int start, int end, String value) {
+        return new StringMessageLocationReplacement(
+                new DefaultTextHttpMessageLocation(location, start, end, ""), value);
+    }
+}
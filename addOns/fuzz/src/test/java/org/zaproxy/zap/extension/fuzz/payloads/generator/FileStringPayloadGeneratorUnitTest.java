@@ -21,9 +21,11 @@ package org.zaproxy.zap.extension.fuzz.payloads.generator;
 
 import static org.hamcrest.CoreMatchers.both;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,12 +38,16 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.zaproxy.zap.extension.fuzz.payloads.DefaultPayload;
 import org.zaproxy.zap.testutils.TestUtils;
 import org.zaproxy.zap.utils.ResettableAutoCloseableIterator;
@@ -195,6 +201,199 @@ class FileStringPayloadGeneratorUnitTest extends TestUtils {
         assertThat(numberOfIteratedPayloads(generator), is(equalTo(payloadCount)));
     }
 
+    @Test
+    void shouldReadPayloadsIgnoringFirstCommentedAndEmptyLinesWithAnyLineTerminator()
+            throws Exception {
+        // Given
+        Path file =
+                fileWithContents(
+                        "Header\r\nA\n# Comment\r  \rB\r\n\nÁ\n#\nC", StandardCharsets.UTF_8);
+        // When
+        FileStringPayloadGenerator generator =
+                new FileStringPayloadGenerator(
+                        file,
+                        StandardCharsets.UTF_8,
+                        NO_LIMIT,
+                        DEFAULT_COMMENT_TOKEN,
+                        IGNORE_EMPTY_LINES,
+                        true);
+        // Then
+        assertThat(generator.getNumberOfPayloads(), is(equalTo(4L)));
+        assertThat(payloads(generator.iterator()), contains("A", "B", "Á", "C"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 255, 256, 257, 700, 999, 1000})
+    void shouldIteratePayloadsFromGivenStart(long start) throws Exception {
+        // Given
+        int payloadCount = 1000;
+        Path file = fileWithPayloadsCommentsAndEmptyLines(payloadCount);
+        FileStringPayloadGenerator generator = new FileStringPayloadGenerator(file);
+        // When
+        List<String> payloads = payloads(generator.iterator(start));
+        // Then
+        assertThat(payloads, hasSize((int) (payloadCount - start)));
+        assertThat(
+                payloads,
+                is(equalTo(expectedPayloads(payloadCount).subList((int) start, payloadCount))));
+    }
+
+    @Test
+    void shouldIteratePayloadsFromGivenStartWithCharsetNotIndexed() throws Exception {
+        // Given
+        Path file = fileWithContents("#\nA\n\nB\nC\nD", StandardCharsets.UTF_16);
+        FileStringPayloadGenerator generator =
+                new FileStringPayloadGenerator(
+                        file,
+                        StandardCharsets.UTF_16,
+                        NO_LIMIT,
+                        DEFAULT_COMMENT_TOKEN,
+                        IGNORE_EMPTY_LINES,
+                        IGNORE_FIRST_LINE);
+        // When
+        List<String> payloads = payloads(generator.iterator(2));
+        // Then
+        assertThat(generator.getNumberOfPayloads(), is(equalTo(4L)));
+        assertThat(payloads, contains("C", "D"));
+    }
+
+    @Test
+    void shouldStartAgainFromGivenStartWhenReset() throws Exception {
+        // Given
+        Path file = fileWithPayloadsCommentsAndEmptyLines(600);
+        FileStringPayloadGenerator generator = new FileStringPayloadGenerator(file);
+        ResettableAutoCloseableIterator<DefaultPayload> iterator = generator.iterator(300);
+        iterator.next();
+        iterator.next();
+        // When
+        iterator.reset();
+        // Then
+        assertThat(iterator.next().getValue(), is(equalTo("Payload 300")));
+        iterator.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {-1, 11})
+    void shouldNotAllowStartOutsideThePayloads(long start) throws Exception {
+        // Given
+        Path file = fileWithPayloadsCommentsAndEmptyLines(10);
+        FileStringPayloadGenerator generator = new FileStringPayloadGenerator(file);
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> generator.iterator(start));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 1000})
+    void shouldSplitPayloadsInShardsWithoutRepetition(int shards) throws Exception {
+        // Given
+        int payloadCount = 1000;
+        Path file = fileWithPayloadsCommentsAndEmptyLines(payloadCount);
+        FileStringPayloadGenerator generator = new FileStringPayloadGenerator(file);
+        List<String> payloads = new ArrayList<>();
+        long numberOfPayloads = 0;
+        // When
+        for (int i = 0; i < shards; i++) {
+            FileStringPayloadGenerator shard = generator.shard(i, shards);
+            numberOfPayloads += shard.getNumberOfPayloads();
+            payloads.addAll(payloads(shard.iterator()));
+        }
+        // Then
+        assertThat(numberOfPayloads, is(equalTo((long) payloadCount)));
+        assertThat(payloads, is(equalTo(expectedPayloads(payloadCount))));
+    }
+
+    @Test
+    void shouldSplitShards() throws Exception {
+        // Given
+        Path file = fileWithPayloadsCommentsAndEmptyLines(12);
+        FileStringPayloadGenerator shard = new FileStringPayloadGenerator(file).shard(1, 2);
+        // When
+        FileStringPayloadGenerator subShard = shard.shard(1, 2);
+        // Then
+        assertThat(subShard.getNumberOfPayloads(), is(equalTo(3L)));
+        assertThat(
+                payloads(subShard.iterator()),
+                contains("Payload 9", "Payload 10", "Payload 11"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "-1, 2", "2, 2"})
+    void shouldNotAllowInvalidShards(int shard, int shards) throws Exception {
+        // Given
+        Path file = fileWithPayloadsCommentsAndEmptyLines(10);
+        FileStringPayloadGenerator generator = new FileStringPayloadGenerator(file);
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> generator.shard(shard, shards));
+    }
+
+    @Test
+    void shouldThrowWhenCalculatingNumberOfPayloadsWithIncorrectCharset() throws Exception {
+        // Given
+        Path file = fileWithIso8859Payloads(10);
+        // When / Then
+        assertThrows(
+                IOException.class,
+                () ->
+                        FileStringPayloadGenerator.calculateNumberOfPayloads(
+                                file,
+                                StandardCharsets.UTF_8,
+                                NO_LIMIT,
+                                DEFAULT_COMMENT_TOKEN,
+                                IGNORE_EMPTY_LINES,
+                                IGNORE_FIRST_LINE));
+    }
+
+    @Test
+    void shouldCalculateNumberOfPayloadsUpToLimit() throws Exception {
+        // Given
+        Path file = fileWithPayloadsCommentsAndEmptyLines(100);
+        // When
+        int count =
+                FileStringPayloadGenerator.calculateNumberOfPayloads(
+                        file,
+                        StandardCharsets.UTF_8,
+                        10,
+                        DEFAULT_COMMENT_TOKEN,
+                        IGNORE_EMPTY_LINES,
+                        IGNORE_FIRST_LINE);
+        // Then
+        assertThat(count, is(equalTo(10)));
+    }
+
+    private static Path fileWithContents(String contents, Charset charset) throws IOException {
+        Path file = Files.createTempFile(tempDir, "fuzz", ".txt");
+        Files.write(file, contents.getBytes(charset));
+        return file;
+    }
+
+    private static Path fileWithPayloadsCommentsAndEmptyLines(int count) throws IOException {
+        Path file = Files.createTempFile(tempDir, "fuzz", ".txt");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String payload : expectedPayloads(count)) {
+                writer.append("# Comment\n").append(payload).append("\r\n\n");
+            }
+        }
+        return file;
+    }
+
+    private static List<String> expectedPayloads(int count) {
+        List<String> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payloads.add("Payload " + i);
+        }
+        return payloads;
+    }
+
+    private static List<String> payloads(ResettableAutoCloseableIterator<DefaultPayload> iterator) {
+        List<String> payloads = new ArrayList<>();
+        try (ResettableAutoCloseableIterator<DefaultPayload> it = iterator) {
+            while (it.hasNext()) {
+                payloads.add(it.next().getValue());
+            }
+        }
+        return payloads;
+    }
+
     private static Path fileWithIso8859Payloads(long count) throws IOException {
         Path file = Files.createTempFile(tempDir, "fuzz", ".txt");
         try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
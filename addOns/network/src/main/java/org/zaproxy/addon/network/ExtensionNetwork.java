@@ -21,7 +21,6 @@ package org.zaproxy.addon.network;
 
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.NettyRuntime;
-import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.EventExecutorGroup;
 import java.io.File;
@@ -82,9 +81,12 @@ import org.zaproxy.addon.network.LocalServersOptions.ServersChangedListener;
 import org.zaproxy.addon.network.internal.TlsUtils;
 import org.zaproxy.addon.network.internal.cert.CertificateUtils;
 import org.zaproxy.addon.network.internal.cert.GenerationException;
+import org.zaproxy.addon.network.internal.cert.KeyPairPool;
 import org.zaproxy.addon.network.internal.cert.ServerCertificateGenerator;
 import org.zaproxy.addon.network.internal.handlers.PassThroughHandler;
+import org.zaproxy.addon.network.internal.handlers.TlsProtocolHandler;
 import org.zaproxy.addon.network.internal.server.AliasChecker;
+import org.zaproxy.addon.network.internal.server.HandlerExecutor;
 import org.zaproxy.addon.network.internal.server.http.HttpServer;
 import org.zaproxy.addon.network.internal.server.http.LocalServer;
 import org.zaproxy.addon.network.internal.server.http.LocalServerConfig;
@@ -117,10 +119,21 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
 
     private static final String I18N_PREFIX = "network";
 
+    private static final String SERVER_CERTS_DIR = "network/certs";
+
     private static final int ARG_CERT_LOAD = 0;
     private static final int ARG_CERT_PUB_DUMP = 1;
     private static final int ARG_CERT_FULL_DUMP = 2;
 
+    /**
+     * The maximum number of threads used to handle the messages received by the servers.
+     *
+     * <p>The handling might block (e.g. forward the message, breakpoints), each message being
+     * handled occupies a thread, the threads are created on demand.
+     */
+    private static final int MAX_HANDLER_THREADS =
+            Math.max(100, NettyRuntime.availableProcessors() * 16);
+
     private static final int ARG_HOST_IDX = 3;
     private static final int ARG_PORT_IDX = 4;
 
@@ -131,6 +144,7 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
     private Object syncGroups = new Object();
     private boolean groupsInitiated;
     private NioEventLoopGroup mainEventLoopGroup;
+    private HandlerExecutor mainHandlerExecutor;
     private EventExecutorGroup mainEventExecutorGroup;
 
     private ServerCertificatesOptions serverCertificatesOptions;
@@ -273,11 +287,12 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
             }
 
             if (mainEventExecutorGroup == null) {
-                mainEventExecutorGroup =
-                        new DefaultEventExecutorGroup(
-                                NettyRuntime.availableProcessors(),
+                mainHandlerExecutor =
+                        new HandlerExecutor(
+                                MAX_HANDLER_THREADS,
                                 new DefaultThreadFactory(
                                         "ZAP-IO-EventExecutor", Thread.MAX_PRIORITY));
+                mainEventExecutorGroup = mainHandlerExecutor.createGroup();
             }
 
             groupsInitiated = true;
@@ -306,6 +321,8 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
                             "Interrupted while waiting for the main event executor group to shutdown.");
                     Thread.currentThread().interrupt();
                 }
+                mainEventExecutorGroup = null;
+                mainHandlerExecutor = null;
             }
 
             groupsInitiated = false;
@@ -330,11 +347,21 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
     }
 
     private Server createHttpServer(Supplier<MainServerHandler> handler) {
-        return new HttpServer(
-                getMainEventLoopGroup(),
-                getMainEventExecutorGroup(),
-                sslCertificateService,
-                handler);
+        HttpServer server =
+                new HttpServer(
+                        getMainEventLoopGroup(),
+                        getMainEventExecutorGroup(),
+                        sslCertificateService,
+                        handler);
+        server.setMaxBodySize(this::getMaxBodySize);
+        return server;
+    }
+
+    private int getMaxBodySize() {
+        if (localServersOptions == null) {
+            return LocalServersOptions.DEFAULT_MAX_BODY_SIZE;
+        }
+        return localServersOptions.getMaxBodySize();
     }
 
     /**
@@ -610,16 +637,19 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
     }
 
     private LocalServer createLocalServer(LocalServerConfig config) {
-        return new LocalServer(
-                getMainEventLoopGroup(),
-                getMainEventExecutorGroup(),
-                sslCertificateService,
-                legacyProxyListenerHandler,
-                passThroughHandler,
-                httpSenderHandler,
-                new LocalServerConfig(config, aliasChecker),
-                serialiseForBreak,
-                getModel());
+        LocalServer server =
+                new LocalServer(
+                        getMainEventLoopGroup(),
+                        getMainEventExecutorGroup(),
+                        sslCertificateService,
+                        legacyProxyListenerHandler,
+                        passThroughHandler,
+                        httpSenderHandler,
+                        new LocalServerConfig(config, aliasChecker),
+                        serialiseForBreak,
+                        getModel());
+        server.setMaxBodySize(this::getMaxBodySize);
+        return server;
     }
 
     private void startLocalServers(String overrideAddress, int overridePort, boolean install) {
@@ -1034,6 +1064,23 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
         return localServersOptions;
     }
 
+    KeyPairPool getKeyPairPool() {
+        if (sslCertificateService instanceof SslCertificateServiceImpl) {
+            return ((SslCertificateServiceImpl) sslCertificateService).getKeyPairPool();
+        }
+        return null;
+    }
+
+    HttpSenderHandler getHttpSenderHandler() {
+        return httpSenderHandler;
+    }
+
+    HandlerExecutor getMainHandlerExecutor() {
+        synchronized (syncGroups) {
+            return mainHandlerExecutor;
+        }
+    }
+
     @Override
     public void start() {
         if (!handleServerCerts) {
@@ -1064,11 +1111,71 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
 
     class SslCertificateServiceImpl implements SslCertificateService {
 
-        private ServerCertificateGenerator generator;
+        private volatile ServerCertificateGenerator generator;
+        private volatile KeyPairPool keyPairPool;
 
         @Override
         public void initializeRootCA(KeyStore keyStore) {
-            generator = new ServerCertificateGenerator(keyStore, serverCertificatesOptions);
+            KeyPairPool newKeyPairPool = null;
+            int keyPoolSize = serverCertificatesOptions.getServerCertKeyPoolSize();
+            if (keyPoolSize > 0) {
+                newKeyPairPool =
+                        new KeyPairPool(
+                                serverCertificatesOptions.getServerCertKeyType(), keyPoolSize);
+            }
+
+            ServerCertificateGenerator newGenerator;
+            try {
+                newGenerator =
+                        new ServerCertificateGenerator(
+                                keyStore,
+                                serverCertificatesOptions,
+                                Paths.get(Constant.getZapHome(), SERVER_CERTS_DIR),
+                                newKeyPairPool);
+            } catch (RuntimeException e) {
+                if (newKeyPairPool != null) {
+                    newKeyPairPool.close();
+                }
+                throw e;
+            }
+
+            // Replace the generator before closing the previous one, the handshakes in progress
+            // keep using a generator meanwhile.
+            ServerCertificateGenerator oldGenerator;
+            KeyPairPool oldKeyPairPool;
+            synchronized (this) {
+                oldGenerator = generator;
+                oldKeyPairPool = keyPairPool;
+                keyPairPool = newKeyPairPool;
+                generator = newGenerator;
+            }
+            // Do not resume the sessions established with the previous root CA certificate.
+            TlsProtocolHandler.clearSslContexts();
+
+            if (oldGenerator != null) {
+                oldGenerator.close();
+            }
+            if (oldKeyPairPool != null) {
+                oldKeyPairPool.close();
+            }
+        }
+
+        KeyPairPool getKeyPairPool() {
+            return keyPairPool;
+        }
+
+        synchronized void closeKeyPairPool() {
+            if (keyPairPool != null) {
+                keyPairPool.close();
+                keyPairPool = null;
+            }
+        }
+
+        synchronized void closeGenerator() {
+            if (generator != null) {
+                generator.close();
+                generator = null;
+            }
         }
 
         @Override
@@ -1079,11 +1186,12 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
 
         @Override
         public KeyStore createCertForHost(CertData certData) throws IOException {
-            if (generator == null) {
+            ServerCertificateGenerator currentGenerator = generator;
+            if (currentGenerator == null) {
                 throw new MissingRootCertificateException("The root CA certificate was not set.");
             }
             try {
-                return generator.generate(certData);
+                return currentGenerator.generate(certData);
             } catch (GenerationException e) {
                 throw new IOException(e);
             }
@@ -1172,12 +1280,17 @@ public class ExtensionNetwork extends ExtensionAdaptor implements CommandLineLis
     public void unload() {
         Control.getSingleton().getExtensionLoader().removeProxyServer(legacyProxyListenerHandler);
         legacyProxyListenerHandler = null;
+        TlsProtocolHandler.clearSslContexts();
 
         if (!handleServerCerts) {
             return;
         }
 
         setSslCertificateService(null);
+        if (sslCertificateService instanceof SslCertificateServiceImpl) {
+            ((SslCertificateServiceImpl) sslCertificateService).closeGenerator();
+            ((SslCertificateServiceImpl) sslCertificateService).closeKeyPairPool();
+        }
         Security.removeProvider(BouncyCastleProvider.PROVIDER_NAME);
 
         if (hasView()) {
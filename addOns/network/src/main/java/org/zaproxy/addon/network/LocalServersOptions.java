@@ -84,6 +84,11 @@ public class LocalServersOptions extends VersionedAbstractParam {
     private static final String ALIAS_NAME = "name";
     private static final String CONFIRM_REMOVE_ALIAS = ALIASES_BASE_KEY + ".confirmRemove";
 
+    private static final String MAX_BODY_SIZE_KEY = BASE_KEY + ".maxBodySize";
+
+    /** The default maximum size, in bytes, of the bodies received, {@value}, that is, unlimited. */
+    public static final int DEFAULT_MAX_BODY_SIZE = 0;
+
     private static final String PASS_THROUGHS_BASE_KEY = BASE_KEY + ".passThroughs";
     private static final String ALL_PASS_THROUGHS_KEY = PASS_THROUGHS_BASE_KEY + ".passThrough";
     private static final String PASS_THROUGH_ENABLED = "enabled";
@@ -98,6 +103,7 @@ public class LocalServersOptions extends VersionedAbstractParam {
     private LocalServerConfig mainProxy = new LocalServerConfig();
     private List<LocalServerConfig> servers = Collections.emptyList();
     private boolean confirmRemoveServer = true;
+    private int maxBodySize = DEFAULT_MAX_BODY_SIZE;
     private List<ServersChangedListener> serversChangedListener = new ArrayList<>(2);
 
     @Override
@@ -152,9 +158,36 @@ public class LocalServersOptions extends VersionedAbstractParam {
         }
         confirmRemovePassThrough = getBoolean(CONFIRM_REMOVE_PASS_THROUGH, true);
 
+        maxBodySize = Math.max(0, getInt(MAX_BODY_SIZE_KEY, DEFAULT_MAX_BODY_SIZE));
+
         readMainProxyAndServers();
     }
 
+    /**
+     * Sets the maximum size, in bytes, of the bodies received by the servers/proxies.
+     *
+     * <p>The messages with larger bodies are rejected, without being fully read.
+     *
+     * @param maxBodySize the maximum size, {@code 0} for unlimited.
+     * @throws IllegalArgumentException if the given size is negative.
+     */
+    public void setMaxBodySize(int maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("The maximum size must not be negative.");
+        }
+        this.maxBodySize = maxBodySize;
+        getConfig().setProperty(MAX_BODY_SIZE_KEY, maxBodySize);
+    }
+
+    /**
+     * Gets the maximum size, in bytes, of the bodies received by the servers/proxies.
+     *
+     * @return the maximum size, {@code 0} if unlimited.
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
     /**
      * Adds the given alias.
      *
@@ -38,10 +38,15 @@ import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.network.internal.cert.CertificateUtils;
+import org.zaproxy.addon.network.internal.cert.KeyPairPool;
+import org.zaproxy.addon.network.internal.handlers.TlsHandshakeStats;
+import org.zaproxy.addon.network.internal.handlers.TlsProtocolHandler;
+import org.zaproxy.addon.network.internal.server.HandlerExecutor;
 import org.zaproxy.addon.network.internal.server.http.Alias;
 import org.zaproxy.addon.network.internal.server.http.LocalServerConfig;
 import org.zaproxy.addon.network.internal.server.http.LocalServerConfig.ServerMode;
 import org.zaproxy.addon.network.internal.server.http.PassThrough;
+import org.zaproxy.addon.network.internal.server.http.handlers.HttpSenderHandler;
 import org.zaproxy.zap.extension.api.API;
 import org.zaproxy.zap.extension.api.ApiAction;
 import org.zaproxy.zap.extension.api.ApiException;
@@ -75,8 +80,10 @@ public class NetworkApi extends ApiImplementor {
     private static final String VIEW_GET_ALIASES = "getAliases";
     private static final String VIEW_GET_LOCAL_SERVERS = "getLocalServers";
     private static final String VIEW_GET_PASS_THROUGHS = "getPassThroughs";
+    private static final String VIEW_GET_PROXY_STATS = "getProxyStats";
     private static final String VIEW_GET_ROOT_CA_CERT_VALIDITY = "getRootCaCertValidity";
     private static final String VIEW_GET_SERVER_CERT_VALIDITY = "getServerCertValidity";
+    private static final String VIEW_GET_SERVER_CERT_KEY_POOL_STATS = "getServerCertKeyPoolStats";
 
     private static final String OTHER_ROOT_CA_CERT = "rootCaCert";
 
@@ -114,6 +121,7 @@ public class NetworkApi extends ApiImplementor {
 
             this.addApiView(new ApiView(VIEW_GET_ROOT_CA_CERT_VALIDITY));
             this.addApiView(new ApiView(VIEW_GET_SERVER_CERT_VALIDITY));
+            this.addApiView(new ApiView(VIEW_GET_SERVER_CERT_KEY_POOL_STATS));
         }
 
         if (isHandleLocalServers(extensionNetwork)) {
@@ -154,6 +162,7 @@ public class NetworkApi extends ApiImplementor {
             this.addApiView(new ApiView(VIEW_GET_ALIASES));
             this.addApiView(new ApiView(VIEW_GET_LOCAL_SERVERS));
             this.addApiView(new ApiView(VIEW_GET_PASS_THROUGHS));
+            this.addApiView(new ApiView(VIEW_GET_PROXY_STATS));
         }
 
         this.addApiOthers(new ApiOther(OTHER_ROOT_CA_CERT, false));
@@ -439,6 +448,35 @@ public class NetworkApi extends ApiImplementor {
                 }
                 return response;
 
+            case VIEW_GET_PROXY_STATS:
+                {
+                    if (!isHandleLocalServers(extensionNetwork)) {
+                        throw new ApiException(ApiException.Type.BAD_VIEW);
+                    }
+                    Map<String, Object> stats = new HashMap<>();
+                    HttpSenderHandler httpSenderHandler = extensionNetwork.getHttpSenderHandler();
+                    stats.put(
+                            "inFlight",
+                            httpSenderHandler != null ? httpSenderHandler.getInFlightCount() : 0);
+                    stats.put(
+                            "forwarded",
+                            httpSenderHandler != null ? httpSenderHandler.getForwardedCount() : 0);
+                    HandlerExecutor executor = extensionNetwork.getMainHandlerExecutor();
+                    stats.put("busyThreads", executor != null ? executor.getBusyThreads() : 0);
+                    stats.put("queuedTasks", executor != null ? executor.getQueuedTasks() : 0);
+                    stats.put(
+                            "queueWaitAvgMillis",
+                            executor != null ? executor.getAverageWaitTimeMillis() : 0);
+                    stats.put(
+                            "queueWaitMaxMillis",
+                            executor != null ? executor.getMaxWaitTimeMillis() : 0);
+                    TlsHandshakeStats tlsStats = TlsProtocolHandler.getHandshakeStats();
+                    stats.put("tlsHandshakes", tlsStats.getHandshakes());
+                    stats.put("tlsHandshakesPerSecond", tlsStats.getHandshakesPerSecond());
+                    stats.put("tlsResumptionRatio", tlsStats.getResumptionRatio());
+                    return new ApiResponseSet<>(name, stats);
+                }
+
             case VIEW_GET_ROOT_CA_CERT_VALIDITY:
                 if (!isHandleServerCerts(extensionNetwork)) {
                     throw new ApiException(ApiException.Type.BAD_VIEW);
@@ -465,6 +503,28 @@ public class NetworkApi extends ApiImplementor {
                                         .getServerCertValidity()
                                         .toDays()));
 
+            case VIEW_GET_SERVER_CERT_KEY_POOL_STATS:
+                {
+                    if (!isHandleServerCerts(extensionNetwork)) {
+                        throw new ApiException(ApiException.Type.BAD_VIEW);
+                    }
+                    Map<String, Object> stats = new HashMap<>();
+                    KeyPairPool keyPairPool = extensionNetwork.getKeyPairPool();
+                    stats.put(
+                            "keyType",
+                            keyPairPool != null
+                                    ? keyPairPool.getKeyType().name()
+                                    : extensionNetwork
+                                            .getServerCertificatesOptions()
+                                            .getServerCertKeyType()
+                                            .name());
+                    stats.put("size", keyPairPool != null ? keyPairPool.getSize() : 0);
+                    stats.put("available", keyPairPool != null ? keyPairPool.getAvailable() : 0);
+                    stats.put("hits", keyPairPool != null ? keyPairPool.getHits() : 0);
+                    stats.put("misses", keyPairPool != null ? keyPairPool.getMisses() : 0);
+                    return new ApiResponseSet<>(name, stats);
+                }
+
             default:
                 throw new ApiException(ApiException.Type.BAD_VIEW);
         }
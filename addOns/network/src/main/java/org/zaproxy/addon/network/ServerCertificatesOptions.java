@@ -27,6 +27,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.zaproxy.addon.network.internal.cert.CertConfig;
 import org.zaproxy.addon.network.internal.cert.CertificateUtils;
+import org.zaproxy.addon.network.internal.cert.KeyType;
 import org.zaproxy.zap.common.VersionedAbstractParam;
 
 /** The options related to server certificates. */
@@ -49,6 +50,15 @@ public class ServerCertificatesOptions extends VersionedAbstractParam {
      */
     public static final int DEFAULT_SERVER_CERT_VALIDITY = 368;
 
+    /** The default maximum number of server certificates kept in memory. */
+    public static final int DEFAULT_SERVER_CERT_CACHE_SIZE = 1000;
+
+    /** The default type of the keys of the server certificates. */
+    public static final KeyType DEFAULT_SERVER_CERT_KEY_TYPE = KeyType.RSA_2048;
+
+    /** The default number of key pairs pre-generated for the server certificates. */
+    public static final int DEFAULT_SERVER_CERT_KEY_POOL_SIZE = 10;
+
     /**
      * The current version of the configurations. Used to keep track of configuration changes
      * between releases, in case changes/updates are needed.
@@ -80,6 +90,10 @@ public class ServerCertificatesOptions extends VersionedAbstractParam {
 
     private static final String SERVER_BASE_KEY = BASE_KEY + ".server.";
     private static final String SERVER_CERT_VALIDITY_DAYS = SERVER_BASE_KEY + "certValidityDays";
+    private static final String SERVER_CERT_CACHE_SIZE = SERVER_BASE_KEY + "certCacheSize";
+    private static final String SERVER_CERT_PERSISTENCE = SERVER_BASE_KEY + "certPersistence";
+    private static final String SERVER_CERT_KEY_TYPE = SERVER_BASE_KEY + "keyType";
+    private static final String SERVER_CERT_KEY_POOL_SIZE = SERVER_BASE_KEY + "keyPoolSize";
 
     private KeyStore rootCaKeyStore;
     private Duration rootCaCertValidity = Duration.ofDays(DEFAULT_ROOT_CA_CERT_VALIDITY);
@@ -87,6 +101,10 @@ public class ServerCertificatesOptions extends VersionedAbstractParam {
 
     private Duration serverCertValidity = Duration.ofDays(DEFAULT_SERVER_CERT_VALIDITY);
     private CertConfig serverCertConfig = new CertConfig(serverCertValidity);
+    private int serverCertCacheSize = DEFAULT_SERVER_CERT_CACHE_SIZE;
+    private boolean serverCertPersistence;
+    private KeyType serverCertKeyType = DEFAULT_SERVER_CERT_KEY_TYPE;
+    private int serverCertKeyPoolSize = DEFAULT_SERVER_CERT_KEY_POOL_SIZE;
 
     @Override
     protected int getCurrentVersion() {
@@ -117,6 +135,18 @@ public class ServerCertificatesOptions extends VersionedAbstractParam {
         }
         serverCertValidity = Duration.ofDays(validity);
         serverCertConfig = new CertConfig(serverCertValidity);
+
+        serverCertCacheSize = getInt(SERVER_CERT_CACHE_SIZE, DEFAULT_SERVER_CERT_CACHE_SIZE);
+        if (serverCertCacheSize <= 0) {
+            serverCertCacheSize = DEFAULT_SERVER_CERT_CACHE_SIZE;
+        }
+        serverCertPersistence = getBoolean(SERVER_CERT_PERSISTENCE, false);
+        serverCertKeyType =
+                KeyType.parse(
+                        getString(SERVER_CERT_KEY_TYPE, DEFAULT_SERVER_CERT_KEY_TYPE.name()),
+                        DEFAULT_SERVER_CERT_KEY_TYPE);
+        serverCertKeyPoolSize =
+                Math.max(0, getInt(SERVER_CERT_KEY_POOL_SIZE, DEFAULT_SERVER_CERT_KEY_POOL_SIZE));
     }
 
     private void migrateCoreConfig() {
@@ -253,4 +283,100 @@ public class ServerCertificatesOptions extends VersionedAbstractParam {
     public CertConfig getServerCertConfig() {
         return serverCertConfig;
     }
+
+    /**
+     * Gets the maximum number of server certificates kept in memory.
+     *
+     * @return the maximum number of certificates.
+     */
+    public int getServerCertCacheSize() {
+        return serverCertCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of server certificates kept in memory.
+     *
+     * <p>The least recently used certificates are discarded when the maximum is reached.
+     *
+     * @param size the maximum number of certificates.
+     * @throws IllegalArgumentException if the given size is less than or equal to 0.
+     */
+    public void setServerCertCacheSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0.");
+        }
+
+        getConfig().setProperty(SERVER_CERT_CACHE_SIZE, size);
+        serverCertCacheSize = size;
+    }
+
+    /**
+     * Tells whether or not the server certificates should be persisted, to be reused between runs.
+     *
+     * @return {@code true} if the certificates should be persisted, {@code false} otherwise.
+     */
+    public boolean isServerCertPersistence() {
+        return serverCertPersistence;
+    }
+
+    /**
+     * Sets whether or not the server certificates should be persisted, to be reused between runs.
+     *
+     * @param persistence {@code true} if the certificates should be persisted, {@code false}
+     *     otherwise.
+     */
+    public void setServerCertPersistence(boolean persistence) {
+        getConfig().setProperty(SERVER_CERT_PERSISTENCE, persistence);
+        serverCertPersistence = persistence;
+    }
+
+    /**
+     * Gets the type of the keys of the server certificates.
+     *
+     * @return the key type, never {@code null}.
+     */
+    public KeyType getServerCertKeyType() {
+        return serverCertKeyType;
+    }
+
+    /**
+     * Sets the type of the keys of the server certificates.
+     *
+     * <p>Applies only to certificates generated afterwards.
+     *
+     * @param keyType the key type.
+     * @throws NullPointerException if the given key type is {@code null}.
+     */
+    public void setServerCertKeyType(KeyType keyType) {
+        Objects.requireNonNull(keyType);
+
+        getConfig().setProperty(SERVER_CERT_KEY_TYPE, keyType.name());
+        serverCertKeyType = keyType;
+    }
+
+    /**
+     * Gets the number of key pairs pre-generated for the server certificates.
+     *
+     * @return the number of key pairs, {@code 0} if none are pre-generated.
+     */
+    public int getServerCertKeyPoolSize() {
+        return serverCertKeyPoolSize;
+    }
+
+    /**
+     * Sets the number of key pairs pre-generated for the server certificates.
+     *
+     * <p>Applies when the root CA certificate is set.
+     *
+     * @param size the number of key pairs, {@code 0} to not pre-generate.
+     * @throws IllegalArgumentException if the given size is negative.
+     */
+    public void setServerCertKeyPoolSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The size must be greater than or equal to 0.");
+        }
+
+        getConfig().setProperty(SERVER_CERT_KEY_POOL_SIZE, size);
+        serverCertKeyPoolSize = size;
+    }
 }
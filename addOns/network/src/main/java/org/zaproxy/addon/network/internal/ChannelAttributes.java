@@ -65,6 +65,13 @@ public final class ChannelAttributes {
     public static final AttributeKey<Boolean> RECURSIVE_MESSAGE =
             AttributeKey.newInstance("zap.recursive-message");
 
+    /**
+     * The attribute that contains the maximum size, in bytes, of the bodies received, {@code 0}
+     * for unlimited.
+     */
+    public static final AttributeKey<Integer> MAX_BODY_SIZE =
+            AttributeKey.newInstance("zap.max-body-size");
+
     /** The attribute that contains the server configuration that the channel belongs to. */
     public static final AttributeKey<ServerConfig> SERVER_CONFIG =
             AttributeKey.newInstance("zap.server-config");
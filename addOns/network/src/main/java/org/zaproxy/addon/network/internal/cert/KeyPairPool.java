@@ -0,0 +1,208 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.cert;
+
+import java.security.KeyPair;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A pool of pre-generated key pairs, to not generate them while creating the server certificates.
+ *
+ * <p>The pool is filled in the background, when the number of available key pairs drops to the
+ * low-water mark. If no key pair is available one is generated in the calling thread.
+ */
+public class KeyPairPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(KeyPairPool.class);
+
+    private final KeyType keyType;
+    private final int size;
+    private final int lowWater;
+    private final BlockingQueue<KeyPair> keyPairs;
+    private final ExecutorService executor;
+    private final AtomicBoolean refilling;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Constructs a {@code KeyPairPool} with the given key type and size, refilled when half empty.
+     *
+     * @param keyType the type of the keys.
+     * @param size the number of key pairs kept in the pool.
+     * @throws NullPointerException if the given key type is {@code null}.
+     * @throws IllegalArgumentException if the size is not greater than 0.
+     */
+    public KeyPairPool(KeyType keyType, int size) {
+        this(keyType, size, size / 2);
+    }
+
+    /**
+     * Constructs a {@code KeyPairPool} with the given key type, size, and low-water mark.
+     *
+     * @param keyType the type of the keys.
+     * @param size the number of key pairs kept in the pool.
+     * @param lowWater the number of available key pairs that triggers the refill.
+     * @throws NullPointerException if the given key type is {@code null}.
+     * @throws IllegalArgumentException if the size is not greater than 0 or the low-water mark is
+     *     negative or not less than the size.
+     */
+    public KeyPairPool(KeyType keyType, int size, int lowWater) {
+        this.keyType = Objects.requireNonNull(keyType);
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0.");
+        }
+        if (lowWater < 0 || lowWater >= size) {
+            throw new IllegalArgumentException(
+                    "The low-water mark must be greater than or equal to 0 and less than the size.");
+        }
+        this.size = size;
+        this.lowWater = lowWater;
+        this.keyPairs = new ArrayBlockingQueue<>(size);
+        this.executor =
+                Executors.newSingleThreadExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "ZAP-KeyPairPool");
+                            thread.setDaemon(true);
+                            thread.setPriority(Thread.MIN_PRIORITY);
+                            return thread;
+                        });
+        this.refilling = new AtomicBoolean();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+
+        scheduleRefill();
+    }
+
+    /**
+     * Gets the type of the keys.
+     *
+     * @return the key type, never {@code null}.
+     */
+    public KeyType getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * Gets the number of key pairs kept in the pool.
+     *
+     * @return the size of the pool.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of key pairs that triggers the refill.
+     *
+     * @return the low-water mark.
+     */
+    public int getLowWater() {
+        return lowWater;
+    }
+
+    /**
+     * Gets the number of key pairs currently available.
+     *
+     * @return the number of available key pairs.
+     */
+    public int getAvailable() {
+        return keyPairs.size();
+    }
+
+    /**
+     * Gets the number of key pairs obtained from the pool.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of key pairs that had to be generated because the pool was empty.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Takes a key pair from the pool, or generates one if none is available.
+     *
+     * @return the key pair, never {@code null}.
+     * @throws GenerationException if an error occurred while generating the key pair.
+     */
+    public KeyPair take() {
+        KeyPair keyPair = keyPairs.poll();
+        if (keyPairs.size() <= lowWater) {
+            scheduleRefill();
+        }
+
+        if (keyPair != null) {
+            hits.increment();
+            return keyPair;
+        }
+        misses.increment();
+        return keyType.generateKeyPair();
+    }
+
+    private void scheduleRefill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    private void refill() {
+        try {
+            while (keyPairs.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                if (!keyPairs.offer(keyType.generateKeyPair())) {
+                    break;
+                }
+            }
+        } catch (GenerationException e) {
+            LOGGER.warn("Failed to pre-generate the key pairs:", e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    /** Stops the refill of the pool and discards the available key pairs. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        keyPairs.clear();
+    }
+}
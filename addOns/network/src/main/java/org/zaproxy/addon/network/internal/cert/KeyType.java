@@ -0,0 +1,91 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.cert;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.RSAKeyGenParameterSpec;
+
+/** The type of the keys of the server certificates. */
+public enum KeyType {
+
+    /** RSA keys with 2048 bits. */
+    RSA_2048("RSA", new RSAKeyGenParameterSpec(2048, RSAKeyGenParameterSpec.F4)),
+
+    /** EC keys using the curve P-256 (secp256r1). */
+    EC_P256("EC", new ECGenParameterSpec("secp256r1")),
+
+    /** EC keys using the curve P-384 (secp384r1). */
+    EC_P384("EC", new ECGenParameterSpec("secp384r1"));
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final String algorithm;
+    private final AlgorithmParameterSpec spec;
+
+    private KeyType(String algorithm, AlgorithmParameterSpec spec) {
+        this.algorithm = algorithm;
+        this.spec = spec;
+    }
+
+    /**
+     * Gets the name of the key algorithm.
+     *
+     * @return the name of the algorithm, for example, {@code RSA}.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Generates a new key pair of this type.
+     *
+     * @return the key pair.
+     * @throws GenerationException if an error occurred while generating the key pair.
+     */
+    public KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator keyGenerator = KeyPairGenerator.getInstance(algorithm);
+            keyGenerator.initialize(spec, RANDOM);
+            return keyGenerator.generateKeyPair();
+        } catch (Exception e) {
+            throw new GenerationException("Failed to generate the key pair " + this, e);
+        }
+    }
+
+    /**
+     * Gets the key type with the given name.
+     *
+     * @param name the name of the key type.
+     * @param defaultType the type returned if none matches the name.
+     * @return the key type, or the default if none matches.
+     */
+    public static KeyType parse(String name, KeyType defaultType) {
+        for (KeyType type : values()) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return defaultType;
+    }
+}
@@ -19,20 +19,66 @@
  */
 package org.zaproxy.addon.network.internal.cert;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyPair;
 import java.security.KeyStore;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.cert.X509Certificate;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.security.CertData;
 import org.zaproxy.addon.network.ServerCertificatesOptions;
 
-/** A generator of server certificates. */
-public class ServerCertificateGenerator {
+/**
+ * A generator of server certificates.
+ *
+ * <p>The generated certificates are kept in a bounded (least recently used) cache, the
+ * certificates for different servers are generated concurrently while the concurrent requests for
+ * the same server wait for the same generation. Optionally, the certificates are also persisted in
+ * a directory, to be reused between runs.
+ *
+ * <p>The certificates are persisted in the background, to not delay the TLS handshakes. The
+ * persisted certificates that were not issued by the current root CA certificate, are no longer
+ * valid, or, if the persistence is disabled, all of them, are deleted in the background when the
+ * generator is created.
+ */
+public class ServerCertificateGenerator implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(ServerCertificateGenerator.class);
+
+    /**
+     * The minimum remaining validity that a persisted certificate must have to be reused,
+     * otherwise a new one is generated.
+     */
+    private static final Duration MIN_REMAINING_VALIDITY = Duration.ofDays(1);
+
+    private static final String PERSISTED_FILE_EXTENSION = ".ks";
+
+    private static final String TEMP_FILE_PREFIX = "cert";
+
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
 
     private static final AtomicLong serial;
 
@@ -51,11 +97,17 @@ public class ServerCertificateGenerator {
     private final PublicKey rootCaPublicKey;
     private final PrivateKey rooCaPrivateKey;
     private final ServerCertificatesOptions serverCertificatesOptions;
-    private final Map<CertData, KeyStore> cache;
+    private final Path persistenceDir;
+    private final ExecutorService persistenceExecutor;
+    private final KeyPairPool keyPairPool;
+    private final String rootCaFingerprint;
+    private final Map<CertData, CompletableFuture<KeyStore>> cache;
 
     /**
      * Constructs a {@code ServerCertificateGenerator} with the given {@code KeyStore} and options.
      *
+     * <p>The certificates are not persisted.
+     *
      * @param keyStore the {@code KeyStore} containing the root CA certificate.
      * @param serverCertificatesOptions the options to obtain the server configuration.
      * @throws NullPointerException if the given {@code KeyStore} does not contain a certificate nor
@@ -63,14 +115,94 @@ public class ServerCertificateGenerator {
      */
     public ServerCertificateGenerator(
             KeyStore keyStore, ServerCertificatesOptions serverCertificatesOptions) {
+        this(keyStore, serverCertificatesOptions, null);
+    }
+
+    /**
+     * Constructs a {@code ServerCertificateGenerator} with the given {@code KeyStore}, options, and
+     * persistence directory.
+     *
+     * <p>The certificates are persisted in the given directory, if not {@code null} and the
+     * persistence is enabled in the options. The generator should be closed once no longer needed.
+     *
+     * @param keyStore the {@code KeyStore} containing the root CA certificate.
+     * @param serverCertificatesOptions the options to obtain the server configuration.
+     * @param persistenceDir the directory where to persist the certificates, might be {@code null}.
+     * @throws NullPointerException if the given {@code KeyStore} does not contain a certificate nor
+     *     the private key, and if the given options are {@code null}.
+     * @see ServerCertificatesOptions#isServerCertPersistence()
+     * @see #close()
+     */
+    public ServerCertificateGenerator(
+            KeyStore keyStore,
+            ServerCertificatesOptions serverCertificatesOptions,
+            Path persistenceDir) {
+        this(keyStore, serverCertificatesOptions, persistenceDir, null);
+    }
+
+    /**
+     * Constructs a {@code ServerCertificateGenerator} with the given {@code KeyStore}, options,
+     * persistence directory, and key pair pool.
+     *
+     * <p>The key pairs are taken from the given pool, if not {@code null} and of the key type set
+     * in the options, otherwise generated when creating the certificate.
+     *
+     * @param keyStore the {@code KeyStore} containing the root CA certificate.
+     * @param serverCertificatesOptions the options to obtain the server configuration.
+     * @param persistenceDir the directory where to persist the certificates, might be {@code null}.
+     * @param keyPairPool the pool of key pairs, might be {@code null}.
+     * @throws NullPointerException if the given {@code KeyStore} does not contain a certificate nor
+     *     the private key, and if the given options are {@code null}.
+     * @see ServerCertificatesOptions#getServerCertKeyType()
+     */
+    public ServerCertificateGenerator(
+            KeyStore keyStore,
+            ServerCertificatesOptions serverCertificatesOptions,
+            Path persistenceDir,
+            KeyPairPool keyPairPool) {
         Objects.requireNonNull(keyStore);
         this.serverCertificatesOptions = Objects.requireNonNull(serverCertificatesOptions);
+        this.persistenceDir = persistenceDir;
+        this.keyPairPool = keyPairPool;
 
         rootCaCert = Objects.requireNonNull(CertificateUtils.getCertificate(keyStore));
         rootCaPublicKey = rootCaCert.getPublicKey();
         rooCaPrivateKey = Objects.requireNonNull(CertificateUtils.getPrivateKey(keyStore));
+        rootCaFingerprint = createRootCaFingerprint(rootCaCert);
+
+        cache =
+                new LinkedHashMap<CertData, CompletableFuture<KeyStore>>(16, 0.75f, true) {
+
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<CertData, CompletableFuture<KeyStore>> eldest) {
+                        return size() > serverCertificatesOptions.getServerCertCacheSize();
+                    }
+                };
 
-        cache = new HashMap<>();
+        if (persistenceDir == null) {
+            persistenceExecutor = null;
+        } else {
+            persistenceExecutor =
+                    Executors.newSingleThreadExecutor(
+                            r -> {
+                                Thread thread = new Thread(r, "ZAP-ServerCertPersistence");
+                                thread.setDaemon(true);
+                                thread.setPriority(Thread.MIN_PRIORITY);
+                                return thread;
+                            });
+            executePersistence(this::deleteUnusablePersisted);
+        }
+    }
+
+    private static String createRootCaFingerprint(X509Certificate rootCaCert) {
+        try {
+            return sha256(rootCaCert.getEncoded());
+        } catch (Exception e) {
+            throw new GenerationException(e);
+        }
     }
 
     /**
@@ -82,18 +214,221 @@ public class ServerCertificateGenerator {
      * @throws GenerationException if an error occurred while generating the certificate.
      * @throws NullPointerException if the {@code certData} is null.
      */
-    public synchronized KeyStore generate(CertData certData) {
+    public KeyStore generate(CertData certData) {
         Objects.requireNonNull(certData);
 
-        return cache.computeIfAbsent(
-                certData,
-                data ->
-                        CertificateUtils.createServerKeyStore(
-                                rootCaCert,
-                                rootCaPublicKey,
-                                rooCaPrivateKey,
-                                data,
-                                serial.getAndIncrement(),
-                                serverCertificatesOptions.getServerCertConfig()));
+        CompletableFuture<KeyStore> future;
+        boolean generate = false;
+        synchronized (cache) {
+            future = cache.get(certData);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                cache.put(certData, future);
+                generate = true;
+            }
+        }
+
+        if (generate) {
+            try {
+                future.complete(createKeyStore(certData));
+            } catch (RuntimeException e) {
+                synchronized (cache) {
+                    cache.remove(certData, future);
+                }
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        return getKeyStore(future);
+    }
+
+    private static KeyStore getKeyStore(CompletableFuture<KeyStore> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Interrupted while waiting for the certificate.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GenerationException) {
+                throw (GenerationException) cause;
+            }
+            throw new GenerationException(cause);
+        }
+    }
+
+    private KeyStore createKeyStore(CertData certData) {
+        Path file = getPersistedFile(certData);
+        if (file != null) {
+            KeyStore keyStore = readPersisted(file);
+            if (keyStore != null) {
+                return keyStore;
+            }
+        }
+
+        KeyStore keyStore =
+                CertificateUtils.createServerKeyStore(
+                        rootCaCert,
+                        rootCaPublicKey,
+                        rooCaPrivateKey,
+                        certData,
+                        serial.getAndIncrement(),
+                        serverCertificatesOptions.getServerCertConfig(),
+                        createKeyPair());
+
+        if (file != null) {
+            executePersistence(() -> persist(file, keyStore));
+        }
+        return keyStore;
+    }
+
+    private KeyPair createKeyPair() {
+        KeyType keyType = serverCertificatesOptions.getServerCertKeyType();
+        if (keyPairPool != null && keyPairPool.getKeyType() == keyType) {
+            return keyPairPool.take();
+        }
+        return keyType.generateKeyPair();
+    }
+
+    private Path getPersistedFile(CertData certData) {
+        if (persistenceDir == null || !serverCertificatesOptions.isServerCertPersistence()) {
+            return null;
+        }
+
+        StringBuilder strBuilder = new StringBuilder(100);
+        strBuilder.append(rootCaFingerprint).append('\n');
+        strBuilder.append(certData.getCommonName()).append('\n');
+        strBuilder.append(certData.isSubjectAlternativeNameIsCritical()).append('\n');
+        for (CertData.Name name : certData.getSubjectAlternativeNames()) {
+            strBuilder.append(name.getType()).append(':').append(name.getValue()).append('\n');
+        }
+        strBuilder.append(serverCertificatesOptions.getServerCertKeyType()).append('\n');
+        strBuilder.append(serverCertificatesOptions.getServerCertValidity().toDays());
+        try {
+            return persistenceDir.resolve(
+                    sha256(strBuilder.toString().getBytes(StandardCharsets.UTF_8))
+                            + PERSISTED_FILE_EXTENSION);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to create the name of the persisted certificate:", e);
+            return null;
+        }
+    }
+
+    private void executePersistence(Runnable task) {
+        try {
+            persistenceExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Persistence already closed, ignoring task.");
+        }
+    }
+
+    /**
+     * Deletes the persisted certificates that can no longer be used, not issued by the current
+     * root CA certificate or not valid, or all of them if the persistence is disabled. Also deletes
+     * the temporary files left behind.
+     */
+    private void deleteUnusablePersisted() {
+        if (!Files.isDirectory(persistenceDir)) {
+            return;
+        }
+
+        boolean persistence = serverCertificatesOptions.isServerCertPersistence();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(persistenceDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(TEMP_FILE_PREFIX) && name.endsWith(TEMP_FILE_EXTENSION)) {
+                    deleteQuietly(file);
+                } else if (name.endsWith(PERSISTED_FILE_EXTENSION)
+                        && (!persistence || readPersisted(file) == null)) {
+                    LOGGER.debug("Deleting persisted certificate {}", file);
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete the persisted certificates:", e);
+        }
+    }
+
+    private KeyStore readPersisted(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try {
+            KeyStore keyStore =
+                    CertificateUtils.stringToKeystore(
+                            new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+            X509Certificate certificate = CertificateUtils.getCertificate(keyStore);
+            if (certificate == null || CertificateUtils.getPrivateKey(keyStore) == null) {
+                return null;
+            }
+            certificate.verify(rootCaPublicKey);
+            certificate.checkValidity(
+                    new Date(System.currentTimeMillis() + MIN_REMAINING_VALIDITY.toMillis()));
+            return keyStore;
+        } catch (Exception e) {
+            LOGGER.debug("Ignoring persisted certificate {}: {}", file, e.getMessage());
+        }
+        return null;
+    }
+
+    private static void persist(Path file, KeyStore keyStore) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tempFile =
+                    Files.createTempFile(file.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_EXTENSION);
+            Files.write(
+                    tempFile,
+                    CertificateUtils.keyStoreToString(keyStore).getBytes(StandardCharsets.US_ASCII));
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to persist the server certificate:", e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to delete the file {}", file, e);
+        }
+    }
+
+    /**
+     * Stops the persistence of the certificates, waiting (a few seconds) for the certificates
+     * pending to be persisted.
+     */
+    @Override
+    public void close() {
+        if (persistenceExecutor == null) {
+            return;
+        }
+
+        persistenceExecutor.shutdown();
+        try {
+            if (!persistenceExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out while persisting the server certificates.");
+                persistenceExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            persistenceExecutor.shutdownNow();
+        }
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+        StringBuilder strBuilder = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            strBuilder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            strBuilder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return strBuilder.toString();
     }
 }
@@ -29,7 +29,12 @@ import java.security.Principal;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.net.ssl.ExtendedSSLSession;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
@@ -49,16 +54,32 @@ import org.parosproxy.paros.security.SslCertificateService;
  * A key manager for generated server certificates.
  *
  * <p>Attempts to use the SNI provided in the SSL/TLS handshake, falling back to the requested
- * hostname or the address of the server.
+ * hostname (either the one provided when constructing the key manager or the peer host of the
+ * engine) or the address of the server.
+ *
+ * <p>The hostname is part of the chosen alias, which allows to share the key manager (and the SSL
+ * context) between connections. The key store chosen for a handshake is kept until its certificate
+ * chain and private key are obtained, so that both match even if the key store is evicted from the
+ * cache of the certificate service in the meantime.
  */
 public class SniX509KeyManager extends X509ExtendedKeyManager {
 
     private static final Logger LOGGER = LogManager.getLogger(SniX509KeyManager.class);
 
+    private static final char ALIAS_SEPARATOR = '\n';
+
+    /**
+     * The maximum number of key managers kept for the handshakes in progress, bounds the ones kept
+     * for handshakes that did not complete.
+     */
+    private static final int MAX_HANDSHAKE_KEY_MANAGERS = 1000;
+
     private final SslCertificateService sslCertificateService;
     private final String fallbackHostname;
     private InetAddress listeningAddress;
-    private X509KeyManager x509KeyManager;
+    private final Map<KeyStore, X509KeyManager> x509KeyManagers;
+    private final Map<String, HandshakeKeyManager> handshakeKeyManagers;
+    private final AtomicLong handshakeCounter;
 
     /**
      * Constructs a {@code SniX509KeyManager} with the given data.
@@ -66,7 +87,7 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
      * @param sslCertificateService the service used to generate the server certificates.
      * @param listeningAddress the address the server is listening to.
      * @param fallbackHostname the hostname to use if none was provided during the SSL/TLS handshake
-     *     (SNI).
+     *     (SNI), might be {@code null} to use the peer host of the engine.
      * @throws NullPointerException if the given {@code sslCertificateService} or {@code
      *     listeningAddress} is null.
      */
@@ -77,17 +98,41 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
         this.sslCertificateService = Objects.requireNonNull(sslCertificateService);
         this.listeningAddress = Objects.requireNonNull(listeningAddress);
         this.fallbackHostname = fallbackHostname;
+        this.x509KeyManagers = Collections.synchronizedMap(new WeakHashMap<>());
+        this.handshakeKeyManagers =
+                Collections.synchronizedMap(
+                        new LinkedHashMap<String, HandshakeKeyManager>() {
+
+                            private static final long serialVersionUID = 1L;
+
+                            @Override
+                            protected boolean removeEldestEntry(
+                                    Map.Entry<String, HandshakeKeyManager> eldest) {
+                                return size() > MAX_HANDSHAKE_KEY_MANAGERS;
+                            }
+                        });
+        this.handshakeCounter = new AtomicLong();
     }
 
     @Override
     public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
-        if (x509KeyManager == null) {
-            createX509KeyManager(engine);
+        String hostname = extractHostname(engine);
+        X509KeyManager x509KeyManager = getX509KeyManager(hostname);
+        String alias = x509KeyManager.chooseServerAlias(keyType, issuers, null);
+        if (alias == null) {
+            return null;
         }
-        return x509KeyManager.chooseServerAlias(keyType, issuers, null);
+        String engineAlias =
+                alias
+                        + ALIAS_SEPARATOR
+                        + (hostname != null ? hostname : "")
+                        + ALIAS_SEPARATOR
+                        + handshakeCounter.incrementAndGet();
+        handshakeKeyManagers.put(engineAlias, new HandshakeKeyManager(x509KeyManager));
+        return engineAlias;
     }
 
-    private void createX509KeyManager(SSLEngine engine) {
+    private String extractHostname(SSLEngine engine) {
         SSLSession session = engine.getHandshakeSession();
         if (session == null) {
             LOGGER.warn("No handshake session to extract the domain.");
@@ -95,22 +140,43 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
 
         String hostname = extractHostname(session);
         if (hostname == null) {
-            LOGGER.debug(
-                    "No domain extracted from handshake session, fallback to: {}",
-                    fallbackHostname);
-            hostname = fallbackHostname;
-        } else {
-            LOGGER.debug("Domain extracted from handshake session: {}", hostname);
+            String fallback = fallbackHostname != null ? fallbackHostname : engine.getPeerHost();
+            LOGGER.debug("No domain extracted from handshake session, fallback to: {}", fallback);
+            return fallback;
+        }
+        LOGGER.debug("Domain extracted from handshake session: {}", hostname);
+        return hostname;
+    }
+
+    private X509KeyManager getX509KeyManager(String hostname) {
+        KeyStore keyStore = null;
+        try {
+            keyStore = createCertForHostname(sslCertificateService, hostname, listeningAddress);
+        } catch (IOException e) {
+            logAndThrow(
+                    "Failed to generate the certificate for '"
+                            + hostname
+                            + "' caused by: "
+                            + e.getMessage(),
+                    e);
         }
 
+        // The certificate service caches the key stores, reuse the key managers as well.
+        X509KeyManager x509KeyManager = x509KeyManagers.get(keyStore);
+        if (x509KeyManager == null) {
+            x509KeyManager = createX509KeyManager(hostname, keyStore);
+            x509KeyManagers.put(keyStore, x509KeyManager);
+        }
+        return x509KeyManager;
+    }
+
+    private static X509KeyManager createX509KeyManager(String hostname, KeyStore keyStore) {
         KeyManagerFactory keyManagerFactory = null;
         try {
             keyManagerFactory =
                     KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-
-            initKeyManagerFactoryWithCertForHostname(
-                    sslCertificateService, keyManagerFactory, hostname, listeningAddress);
-        } catch (GeneralSecurityException | IOException e) {
+            keyManagerFactory.init(keyStore, SslCertificateService.PASSPHRASE);
+        } catch (GeneralSecurityException e) {
             logAndThrow(
                     "Failed to generate the certificate for '"
                             + hostname
@@ -119,12 +185,13 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
                     e);
         }
 
-        x509KeyManager = getX509KeyManager(keyManagerFactory.getKeyManagers());
+        X509KeyManager x509KeyManager = getX509KeyManager(keyManagerFactory.getKeyManagers());
         if (x509KeyManager == null) {
             logAndThrow(
                     "No X509KeyManager found in: "
                             + Arrays.toString(keyManagerFactory.getKeyManagers()));
         }
+        return x509KeyManager;
     }
 
     private static void logAndThrow(String message) {
@@ -158,12 +225,11 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
         return null;
     }
 
-    private static void initKeyManagerFactoryWithCertForHostname(
+    private static KeyStore createCertForHostname(
             SslCertificateService sslCertificateService,
-            KeyManagerFactory keyManagerFactory,
             String hostname,
             InetAddress listeningAddress)
-            throws GeneralSecurityException, IOException {
+            throws IOException {
 
         boolean hostnameIsIpAddress = isIpAddress(hostname);
 
@@ -178,8 +244,7 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
                     new CertData.Name(CertData.Name.IP_ADDRESS, hostname));
         }
 
-        KeyStore ks = sslCertificateService.createCertForHost(certData);
-        keyManagerFactory.init(ks, SslCertificateService.PASSPHRASE);
+        return sslCertificateService.createCertForHost(certData);
     }
 
     private static boolean isIpAddress(String value) {
@@ -190,12 +255,53 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
 
     @Override
     public X509Certificate[] getCertificateChain(String alias) {
-        return x509KeyManager.getCertificateChain(alias);
+        int idx = alias.indexOf(ALIAS_SEPARATOR);
+        if (idx == -1) {
+            return null;
+        }
+        String keyAlias = alias.substring(0, idx);
+        synchronized (handshakeKeyManagers) {
+            HandshakeKeyManager handshakeKeyManager = handshakeKeyManagers.get(alias);
+            if (handshakeKeyManager != null) {
+                handshakeKeyManager.chainObtained = true;
+                removeIfObtained(alias, handshakeKeyManager);
+                return handshakeKeyManager.x509KeyManager.getCertificateChain(keyAlias);
+            }
+        }
+        return getX509KeyManager(getHostname(alias, idx)).getCertificateChain(keyAlias);
     }
 
     @Override
     public PrivateKey getPrivateKey(String alias) {
-        return x509KeyManager.getPrivateKey(alias);
+        int idx = alias.indexOf(ALIAS_SEPARATOR);
+        if (idx == -1) {
+            return null;
+        }
+        String keyAlias = alias.substring(0, idx);
+        synchronized (handshakeKeyManagers) {
+            HandshakeKeyManager handshakeKeyManager = handshakeKeyManagers.get(alias);
+            if (handshakeKeyManager != null) {
+                handshakeKeyManager.keyObtained = true;
+                removeIfObtained(alias, handshakeKeyManager);
+                return handshakeKeyManager.x509KeyManager.getPrivateKey(keyAlias);
+            }
+        }
+        return getX509KeyManager(getHostname(alias, idx)).getPrivateKey(keyAlias);
+    }
+
+    private void removeIfObtained(String alias, HandshakeKeyManager handshakeKeyManager) {
+        if (handshakeKeyManager.chainObtained && handshakeKeyManager.keyObtained) {
+            handshakeKeyManagers.remove(alias);
+        }
+    }
+
+    private static String getHostname(String alias, int separatorIdx) {
+        int end = alias.lastIndexOf(ALIAS_SEPARATOR);
+        String hostname =
+                end > separatorIdx
+                        ? alias.substring(separatorIdx + 1, end)
+                        : alias.substring(separatorIdx + 1);
+        return hostname.isEmpty() ? null : hostname;
     }
 
     @Override
@@ -217,4 +323,15 @@ public class SniX509KeyManager extends X509ExtendedKeyManager {
     public String[] getClientAliases(String keyType, Principal[] issuers) {
         return null;
     }
+
+    private static class HandshakeKeyManager {
+
+        private final X509KeyManager x509KeyManager;
+        private boolean chainObtained;
+        private boolean keyObtained;
+
+        HandshakeKeyManager(X509KeyManager x509KeyManager) {
+            this.x509KeyManager = x509KeyManager;
+        }
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.codec;
+
+/**
+ * An exception that indicates that the body of a HTTP message is larger than the maximum size
+ * allowed.
+ *
+ * @see org.zaproxy.addon.network.internal.ChannelAttributes#MAX_BODY_SIZE
+ */
+public class BodyTooLargeException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    /**
+     * Constructs a {@code BodyTooLargeException} with the given maximum size.
+     *
+     * @param maxSize the maximum size allowed, in bytes.
+     */
+    public BodyTooLargeException(int maxSize) {
+        super("The body is larger than the maximum size allowed: " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the maximum size allowed.
+     *
+     * @return the maximum size allowed, in bytes.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -20,6 +20,8 @@
 package org.zaproxy.addon.network.internal.codec;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
@@ -34,11 +36,19 @@ import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpResponseHeader;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.addon.network.internal.ChannelAttributes;
 
 /**
  * Decodes a HTTP message, request or response into a {@link HttpMessage}.
  *
  * <p>Based on Netty's {@code HttpObjectDecoder}.
+ *
+ * <p>The body is read in whole readable regions, kept as (retained) slices of the received buffers
+ * until the message is complete, at which point it is copied, once, into the {@link HttpBody}.
+ *
+ * <p>The bodies larger than the size set in the {@link ChannelAttributes#MAX_BODY_SIZE} attribute
+ * of the channel, if any, are not read, the message is produced with a {@link
+ * BodyTooLargeException}.
  */
 public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
 
@@ -53,8 +63,6 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
     private static final byte LF = 10;
     private static final byte CR = 13;
 
-    static final int MAX_CHUNK_SIZE = 80;
-
     private final HeaderParser headerParser;
     private final LineParser lineParser;
     private final boolean decodingRequest;
@@ -64,9 +72,10 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
     private HttpMessage message;
     private HttpHeader header;
     private HttpBody body;
-    private byte[] chunkBuffer;
+    private CompositeByteBuf content;
 
     private long chunkSize;
+    private int maxBodySize;
 
     private enum State {
         READ_HEADER,
@@ -94,7 +103,6 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
         this.decodingRequest = decodingRequest;
         this.headerProvider = headerProvider;
         this.bodyProvider = bodyProvider;
-        chunkBuffer = new byte[MAX_CHUNK_SIZE];
     }
 
     @Override
@@ -110,6 +118,7 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
                 }
 
                 headerParser.reset();
+                maxBodySize = getMaxBodySize(ctx);
                 try {
                     message = new HttpMessage();
                     header = headerProvider.get(ctx, message, headerContent.toString());
@@ -142,6 +151,11 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
                     return;
                 }
 
+                if (isBodyTooLarge(contentLength)) {
+                    out.add(bodyTooLarge(buffer));
+                    return;
+                }
+
                 currentState =
                         contentLength > 0
                                 ? State.READ_FIXED_LENGTH_CONTENT
@@ -153,23 +167,28 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
                 return;
             case READ_VARIABLE_LENGTH_CONTENT:
                 {
-                    int toRead = Math.min(buffer.readableBytes(), MAX_CHUNK_SIZE);
+                    int toRead = buffer.readableBytes();
+                    if (isBodyTooLarge(getContentSize() + (long) toRead)) {
+                        out.add(bodyTooLarge(buffer));
+                        return;
+                    }
                     if (toRead > 0) {
-                        appendToBody(buffer, toRead);
+                        appendToBody(ctx, buffer, toRead);
                     }
                     return;
                 }
             case READ_FIXED_LENGTH_CONTENT:
                 {
-                    int toRead = Math.min(buffer.readableBytes(), MAX_CHUNK_SIZE);
+                    int toRead = buffer.readableBytes();
                     if (toRead > chunkSize) {
                         toRead = (int) chunkSize;
                     }
 
                     chunkSize -= toRead;
-                    appendToBody(buffer, toRead);
+                    appendToBody(ctx, buffer, toRead);
 
                     if (chunkSize == 0) {
+                        completeBody();
                         out.add(message);
                         resetNow();
                     }
@@ -199,14 +218,18 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
                 }
             case READ_CHUNKED_CONTENT:
                 {
-                    int toRead = Math.min((int) chunkSize, MAX_CHUNK_SIZE);
-                    toRead = Math.min(toRead, buffer.readableBytes());
+                    int toRead = (int) Math.min(chunkSize, buffer.readableBytes());
                     if (toRead == 0) {
                         return;
                     }
 
+                    if (isBodyTooLarge(getContentSize() + (long) toRead)) {
+                        out.add(bodyTooLarge(buffer));
+                        return;
+                    }
+
                     chunkSize -= toRead;
-                    appendToBody(buffer, toRead);
+                    appendToBody(ctx, buffer, toRead);
 
                     if (chunkSize != 0) {
                         return;
@@ -234,6 +257,7 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
                         return;
                     }
 
+                    completeBody();
                     header.setHeader(HttpHeader.TRANSFER_ENCODING, null);
                     header.setContentLength(body.length());
                     out.add(message);
@@ -260,9 +284,67 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
         }
     }
 
-    private void appendToBody(ByteBuf buffer, int length) {
-        buffer.readBytes(chunkBuffer, 0, length);
-        body.append(chunkBuffer, length);
+    private static int getMaxBodySize(ChannelHandlerContext ctx) {
+        Integer size = ctx.channel().attr(ChannelAttributes.MAX_BODY_SIZE).get();
+        return size != null ? size : 0;
+    }
+
+    private boolean isBodyTooLarge(long size) {
+        return maxBodySize > 0 && size > maxBodySize;
+    }
+
+    private int getContentSize() {
+        return content != null ? content.readableBytes() : 0;
+    }
+
+    /**
+     * Discards the content read so far and produces the message with a {@link
+     * BodyTooLargeException}, the rest of the data received is not read.
+     */
+    private HttpMessage bodyTooLarge(ByteBuf buffer) {
+        releaseContent();
+        return invalidMessage(buffer, new BodyTooLargeException(maxBodySize));
+    }
+
+    private void appendToBody(ChannelHandlerContext ctx, ByteBuf buffer, int length) {
+        if (length <= 0) {
+            return;
+        }
+        if (content == null) {
+            content = ctx.alloc().compositeBuffer(Integer.MAX_VALUE);
+        }
+        content.addComponent(true, buffer.readRetainedSlice(length));
+    }
+
+    /**
+     * Copies the content read so far into the body of the message, if any, and releases the read
+     * buffers.
+     */
+    private void completeBody() {
+        if (content == null) {
+            return;
+        }
+
+        try {
+            if (body != null && content.isReadable()) {
+                body.setBody(ByteBufUtil.getBytes(content));
+            }
+        } finally {
+            releaseContent();
+        }
+    }
+
+    private void releaseContent() {
+        if (content != null) {
+            content.release();
+            content = null;
+        }
+    }
+
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        releaseContent();
+        super.handlerRemoved0(ctx);
     }
 
     private boolean isTransferEncodingChunked() {
@@ -287,6 +369,7 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
             return;
         }
 
+        completeBody();
         boolean chunked = isTransferEncodingChunked();
         if (currentState == State.READ_VARIABLE_LENGTH_CONTENT && !in.isReadable() && !chunked) {
             out.add(message);
@@ -326,6 +409,7 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
         this.header = null;
         body = null;
 
+        releaseContent();
         headerParser.reset();
         lineParser.reset();
 
@@ -355,6 +439,8 @@ public abstract class HttpMessageDecoder extends ByteToMessageDecoder {
 
         if (message == null) {
             message = new HttpMessage();
+        } else {
+            completeBody();
         }
         message.setUserObject(cause);
 
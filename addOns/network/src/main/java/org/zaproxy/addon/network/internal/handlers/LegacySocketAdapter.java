@@ -22,6 +22,7 @@ package org.zaproxy.addon.network.internal.handlers;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
@@ -34,6 +35,7 @@ import java.net.SocketException;
 import java.util.Objects;
 import java.util.concurrent.LinkedBlockingQueue;
 import org.zaproxy.addon.network.internal.ChannelAttributes;
+import org.zaproxy.addon.network.server.ChannelSocket;
 import org.zaproxy.zap.PersistentConnectionListener;
 
 /**
@@ -99,7 +101,52 @@ public class LegacySocketAdapter extends SimpleChannelInboundHandler<ByteBuf> {
         pendingReads.offer(1);
     }
 
-    private class SocketImpl extends Socket {
+    private void replaceWith(ChannelHandler... handlers) {
+        Objects.requireNonNull(handlers);
+        if (handlers.length == 0) {
+            throw new IllegalArgumentException("No handlers provided.");
+        }
+
+        inboundChannel
+                .eventLoop()
+                .execute(
+                        () -> {
+                            ChannelPipeline pipeline = inboundChannel.pipeline();
+                            ChannelHandlerContext ctx = pipeline.context(this);
+                            if (ctx == null) {
+                                return;
+                            }
+
+                            String previous = ctx.name();
+                            for (int i = 0; i < handlers.length; i++) {
+                                String name = HANDLER_NAME + ".replacement." + i;
+                                pipeline.addAfter(previous, name, handlers[i]);
+                                previous = name;
+                            }
+
+                            if (buf.isReadable()) {
+                                ctx.fireChannelRead(buf.retainedSlice());
+                            }
+                            buf.release();
+                            pipeline.remove(this);
+
+                            if (!inboundChannel.isActive()) {
+                                ctx.fireChannelInactive();
+                            }
+                        });
+    }
+
+    private class SocketImpl extends Socket implements ChannelSocket {
+
+        @Override
+        public Channel getChannel() {
+            return inboundChannel;
+        }
+
+        @Override
+        public void replaceInputHandler(ChannelHandler... handlers) {
+            replaceWith(handlers);
+        }
 
         @Override
         public InputStream getInputStream() throws IOException {
@@ -19,24 +19,31 @@
  */
 package org.zaproxy.addon.network.internal.handlers;
 
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.timeout.ReadTimeoutException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import javax.net.ssl.SSLHandshakeException;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpResponseHeader;
 import org.parosproxy.paros.security.MissingRootCertificateException;
 import org.zaproxy.addon.network.internal.cert.GenerationException;
+import org.zaproxy.addon.network.internal.codec.BodyTooLargeException;
 
 /**
  * Handles exceptions caught in the pipeline.
  *
- * <p>Logs the cause appropriately and closes the connection.
+ * <p>Logs the cause appropriately and closes the connection. For a {@link BodyTooLargeException}
+ * it responds with {@code 413 Payload Too Large} before closing the connection.
  */
 @Sharable
 public class ServerExceptionHandler extends ChannelInboundHandlerAdapter {
@@ -45,6 +52,9 @@ public class ServerExceptionHandler extends ChannelInboundHandlerAdapter {
 
     private static final ServerExceptionHandler INSTANCE = new ServerExceptionHandler();
 
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final String PAYLOAD_TOO_LARGE_REASON_PHRASE = "Payload Too Large";
+
     /**
      * Gets the instance of this handler.
      *
@@ -62,15 +72,44 @@ public class ServerExceptionHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         logCause(cause);
+
+        if (cause instanceof BodyTooLargeException) {
+            ctx.writeAndFlush(createPayloadTooLargeResponse(cause.getMessage()))
+                    .addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+
         ctx.close();
     }
 
+    private static HttpMessage createPayloadTooLargeResponse(String message) {
+        HttpResponseHeader responseHeader = new HttpResponseHeader();
+        responseHeader.setVersion(HttpHeader.HTTP11);
+        responseHeader.setStatusCode(PAYLOAD_TOO_LARGE);
+        responseHeader.setReasonPhrase(PAYLOAD_TOO_LARGE_REASON_PHRASE);
+        responseHeader.setHeader(HttpHeader.CONNECTION, HttpHeader._CLOSE);
+        responseHeader.setHeader(HttpHeader.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        responseHeader.setHeader(
+                HttpHeader.CONTENT_LENGTH,
+                Integer.toString(message.getBytes(StandardCharsets.UTF_8).length));
+
+        HttpMessage msg = new HttpMessage();
+        msg.setResponseHeader(responseHeader);
+        msg.setResponseBody(message);
+        return msg;
+    }
+
     private static void logCause(Throwable cause) {
         if (cause instanceof ReadTimeoutException) {
             LOGGER.debug("Timed out while reading message.");
             return;
         }
 
+        if (cause instanceof BodyTooLargeException) {
+            LOGGER.warn("Rejected message: {}", cause.getMessage());
+            return;
+        }
+
         if (cause instanceof HttpMalformedHeaderException) {
             LOGGER.warn("Received malformed header: {}", cause.getMessage());
             return;
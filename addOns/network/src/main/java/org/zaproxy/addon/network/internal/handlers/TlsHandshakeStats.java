@@ -0,0 +1,111 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.handlers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of the SSL/TLS handshakes done as a server.
+ *
+ * @see TlsProtocolHandler#getHandshakeStats()
+ */
+public class TlsHandshakeStats {
+
+    private final LongAdder handshakes;
+    private final LongAdder resumedHandshakes;
+
+    private long currentSecond;
+    private int currentSecondHandshakes;
+    private int lastSecondHandshakes;
+
+    TlsHandshakeStats() {
+        handshakes = new LongAdder();
+        resumedHandshakes = new LongAdder();
+    }
+
+    /**
+     * Records a successful handshake.
+     *
+     * @param resumed {@code true} if the session was resumed, {@code false} otherwise.
+     */
+    void handshakeCompleted(boolean resumed) {
+        handshakes.increment();
+        if (resumed) {
+            resumedHandshakes.increment();
+        }
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        synchronized (this) {
+            updateSecond(second);
+            currentSecondHandshakes++;
+        }
+    }
+
+    private void updateSecond(long second) {
+        if (second != currentSecond) {
+            lastSecondHandshakes = second == currentSecond + 1 ? currentSecondHandshakes : 0;
+            currentSecondHandshakes = 0;
+            currentSecond = second;
+        }
+    }
+
+    /**
+     * Gets the number of successful handshakes.
+     *
+     * @return the number of handshakes.
+     */
+    public long getHandshakes() {
+        return handshakes.sum();
+    }
+
+    /**
+     * Gets the number of successful handshakes that resumed a previous session.
+     *
+     * @return the number of resumed handshakes.
+     */
+    public long getResumedHandshakes() {
+        return resumedHandshakes.sum();
+    }
+
+    /**
+     * Gets the number of handshakes done in the last second.
+     *
+     * @return the number of handshakes per second.
+     */
+    public synchronized int getHandshakesPerSecond() {
+        updateSecond(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime()));
+        return lastSecondHandshakes;
+    }
+
+    /**
+     * Gets the ratio of handshakes that resumed a previous session, between {@code 0} and {@code
+     * 1}.
+     *
+     * @return the resumption ratio.
+     */
+    public double getResumptionRatio() {
+        long count = handshakes.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) resumedHandshakes.sum() / count;
+    }
+}
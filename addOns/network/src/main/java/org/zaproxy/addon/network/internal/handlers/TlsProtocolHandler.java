@@ -26,7 +26,14 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
+import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.SSLException;
+import org.parosproxy.paros.security.SslCertificateService;
 import org.zaproxy.addon.network.internal.ChannelAttributes;
 import org.zaproxy.addon.network.internal.cert.SniX509KeyManager;
 
@@ -35,6 +42,10 @@ import org.zaproxy.addon.network.internal.cert.SniX509KeyManager;
  *
  * <p>The handler removes itself after handling the possible SSL/TLS connection.
  *
+ * <p>The SSL contexts are shared between the connections with the same local address, enabled
+ * protocols, and certificate service, which allows the clients to resume the sessions, until
+ * {@link #clearSslContexts() cleared}.
+ *
  * @see TlsConfig
  * @see ChannelAttributes#TLS_CONFIG
  */
@@ -45,6 +56,14 @@ public class TlsProtocolHandler extends ByteToMessageDecoder {
 
     private static final int SSL_RECORD_HEADER_LENGTH = 5;
 
+    private static final int SESSION_CACHE_SIZE = 10_000;
+
+    private static final int SESSION_TIMEOUT_SECONDS = 3600;
+
+    private static final Map<SslContextKey, SslContext> SSL_CONTEXTS = new ConcurrentHashMap<>();
+
+    private static final TlsHandshakeStats HANDSHAKE_STATS = new TlsHandshakeStats();
+
     private final String authority;
 
     /** Constructs a {@code TlsProtocolHandler} with no authority. */
@@ -72,6 +91,26 @@ public class TlsProtocolHandler extends ByteToMessageDecoder {
         return authority;
     }
 
+    /**
+     * Gets the statistics of the handshakes.
+     *
+     * @return the statistics, never {@code null}.
+     */
+    public static TlsHandshakeStats getHandshakeStats() {
+        return HANDSHAKE_STATS;
+    }
+
+    /**
+     * Clears the SSL contexts shared between the connections, and with them the sessions that could
+     * be resumed.
+     *
+     * <p>Should be called when the certificates can no longer be used, for example, the root CA
+     * certificate changed, or when no longer handling SSL/TLS connections.
+     */
+    public static void clearSslContexts() {
+        SSL_CONTEXTS.clear();
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out)
             throws Exception {
@@ -93,15 +132,97 @@ public class TlsProtocolHandler extends ByteToMessageDecoder {
         TlsConfig config = ch.attr(ChannelAttributes.TLS_CONFIG).get();
 
         SslContext sslCtx =
-                SslContextBuilder.forServer(
-                                new SniX509KeyManager(
-                                        ch.attr(ChannelAttributes.CERTIFICATE_SERVICE).get(),
-                                        ch.attr(ChannelAttributes.LOCAL_ADDRESS).get().getAddress(),
-                                        authority))
-                        .protocols(config.getEnabledProtocols())
-                        .build();
-        ctx.pipeline().addAfter(ctx.name(), TLS_HANDLER_NAME, sslCtx.newHandler(ctx.alloc()));
+                getSslContext(
+                        ch.attr(ChannelAttributes.CERTIFICATE_SERVICE).get(),
+                        ch.attr(ChannelAttributes.LOCAL_ADDRESS).get().getAddress(),
+                        config.getEnabledProtocols());
+        // The authority is provided as peer host, used as fallback by the key manager.
+        SslHandler sslHandler =
+                authority != null
+                        ? sslCtx.newHandler(ctx.alloc(), authority, -1)
+                        : sslCtx.newHandler(ctx.alloc());
+        long handshakeStart = System.currentTimeMillis();
+        sslHandler
+                .handshakeFuture()
+                .addListener(
+                        future -> {
+                            if (future.isSuccess()) {
+                                HANDSHAKE_STATS.handshakeCompleted(
+                                        isResumed(sslHandler, handshakeStart));
+                            }
+                        });
+        ctx.pipeline().addAfter(ctx.name(), TLS_HANDLER_NAME, sslHandler);
 
         return true;
     }
+
+    private static SslContext getSslContext(
+            SslCertificateService certificateService,
+            InetAddress localAddress,
+            List<String> protocols)
+            throws SSLException {
+        SslContextKey key = new SslContextKey(certificateService, localAddress, protocols);
+        SslContext sslCtx = SSL_CONTEXTS.get(key);
+        if (sslCtx == null) {
+            sslCtx =
+                    SslContextBuilder.forServer(
+                                    new SniX509KeyManager(certificateService, localAddress, null))
+                            .protocols(protocols)
+                            .sessionCacheSize(SESSION_CACHE_SIZE)
+                            .sessionTimeout(SESSION_TIMEOUT_SECONDS)
+                            .build();
+            SslContext existingSslCtx = SSL_CONTEXTS.putIfAbsent(key, sslCtx);
+            if (existingSslCtx != null) {
+                sslCtx = existingSslCtx;
+            }
+        }
+        return sslCtx;
+    }
+
+    /**
+     * Tells whether or not the session of the given handler was resumed, that is, it was created
+     * before the handshake started.
+     */
+    private static boolean isResumed(SslHandler sslHandler, long handshakeStart) {
+        return sslHandler.engine().getSession().getCreationTime() < handshakeStart;
+    }
+
+    private static class SslContextKey {
+
+        private final SslCertificateService certificateService;
+        private final InetAddress localAddress;
+        private final List<String> protocols;
+        private final int hashCode;
+
+        SslContextKey(
+                SslCertificateService certificateService,
+                InetAddress localAddress,
+                List<String> protocols) {
+            this.certificateService = certificateService;
+            this.localAddress = localAddress;
+            this.protocols = new ArrayList<>(protocols);
+            this.hashCode =
+                    Objects.hash(
+                            System.identityHashCode(certificateService), localAddress, protocols);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SslContextKey)) {
+                return false;
+            }
+            SslContextKey other = (SslContextKey) obj;
+            return certificateService == other.certificateService
+                    && Objects.equals(localAddress, other.localAddress)
+                    && Objects.equals(protocols, other.protocols);
+        }
+    }
 }
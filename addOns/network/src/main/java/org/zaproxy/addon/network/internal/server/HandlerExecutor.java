@@ -0,0 +1,141 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.server;
+
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.NonStickyEventExecutorGroup;
+import io.netty.util.concurrent.UnorderedThreadPoolEventExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The executor of the (possibly blocking) main handlers of the servers.
+ *
+ * <p>Unlike a {@code DefaultEventExecutorGroup}, where each channel is bound to a single thread
+ * (and thus blocked by any other channel bound to the same thread), the tasks are executed by any
+ * idle thread of the pool, while still preserving the order of the tasks of each channel, see
+ * {@link #createGroup()}. The threads are created on demand, up to the maximum, and terminated
+ * when idle.
+ *
+ * <p>Keeps track of the time the tasks wait for a thread.
+ */
+public class HandlerExecutor extends UnorderedThreadPoolEventExecutor {
+
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private final LongAdder tasksExecuted;
+    private final LongAdder totalWaitTimeNanos;
+    private final AtomicLong maxWaitTimeNanos;
+
+    /**
+     * Constructs a {@code HandlerExecutor} with the given maximum number of threads and thread
+     * factory.
+     *
+     * @param maxThreads the maximum number of threads.
+     * @param threadFactory the thread factory.
+     */
+    public HandlerExecutor(int maxThreads, ThreadFactory threadFactory) {
+        super(maxThreads, threadFactory);
+
+        setKeepAliveTime(IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        allowCoreThreadTimeOut(true);
+
+        tasksExecuted = new LongAdder();
+        totalWaitTimeNanos = new LongAdder();
+        maxWaitTimeNanos = new AtomicLong();
+    }
+
+    /**
+     * Creates an {@code EventExecutorGroup} that preserves the order of the tasks of each channel
+     * while using the threads of this executor.
+     *
+     * @return the event executor group.
+     */
+    public EventExecutorGroup createGroup() {
+        return new NonStickyEventExecutorGroup(this);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long submitTime = System.nanoTime();
+        super.execute(
+                () -> {
+                    taskStarted(System.nanoTime() - submitTime);
+                    command.run();
+                });
+    }
+
+    private void taskStarted(long waitTimeNanos) {
+        tasksExecuted.increment();
+        totalWaitTimeNanos.add(waitTimeNanos);
+        maxWaitTimeNanos.accumulateAndGet(waitTimeNanos, Math::max);
+    }
+
+    /**
+     * Gets the number of threads that are executing tasks.
+     *
+     * @return the number of busy threads.
+     */
+    public int getBusyThreads() {
+        return getActiveCount();
+    }
+
+    /**
+     * Gets the number of tasks waiting for a thread.
+     *
+     * @return the number of queued tasks.
+     */
+    public int getQueuedTasks() {
+        return getQueue().size();
+    }
+
+    /**
+     * Gets the number of tasks started.
+     *
+     * @return the number of tasks.
+     */
+    public long getTasksExecuted() {
+        return tasksExecuted.sum();
+    }
+
+    /**
+     * Gets the average time, in milliseconds, that the tasks waited for a thread.
+     *
+     * @return the average wait time.
+     */
+    public long getAverageWaitTimeMillis() {
+        long count = tasksExecuted.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitTimeNanos.sum() / count);
+    }
+
+    /**
+     * Gets the maximum time, in milliseconds, that a task waited for a thread.
+     *
+     * @return the maximum wait time.
+     */
+    public long getMaxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTimeNanos.get());
+    }
+}
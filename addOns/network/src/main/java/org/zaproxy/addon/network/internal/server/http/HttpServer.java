@@ -25,6 +25,7 @@ import io.netty.util.concurrent.EventExecutorGroup;
 import java.io.IOException;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 import org.parosproxy.paros.network.ConnectionParam;
 import org.parosproxy.paros.security.SslCertificateService;
@@ -59,6 +60,7 @@ public class HttpServer extends BaseServer {
     private final SslCertificateService sslCertificateService;
     private Supplier<MainServerHandler> handler;
     private DefaultServerConfig serverConfig;
+    private IntSupplier maxBodySize;
 
     /**
      * Constructs a {@code HttpServer} with the given properties and no handler.
@@ -79,6 +81,7 @@ public class HttpServer extends BaseServer {
         this.sslCertificateService = Objects.requireNonNull(sslCertificateService);
 
         this.serverConfig = new DefaultServerConfig();
+        this.maxBodySize = () -> 0;
         setChannelInitialiser(this::initChannel);
     }
 
@@ -110,8 +113,21 @@ public class HttpServer extends BaseServer {
         this.handler = Objects.requireNonNull(handler);
     }
 
+    /**
+     * Sets the supplier of the maximum size, in bytes, of the bodies received.
+     *
+     * <p>The maximum size is obtained for each new connection.
+     *
+     * @param maxBodySize the supplier of the maximum size, {@code 0} for unlimited.
+     * @throws NullPointerException if the given supplier is {@code null}.
+     */
+    public void setMaxBodySize(IntSupplier maxBodySize) {
+        this.maxBodySize = Objects.requireNonNull(maxBodySize);
+    }
+
     protected void initChannel(SocketChannel ch) {
         ch.attr(ChannelAttributes.CERTIFICATE_SERVICE).set(sslCertificateService);
+        ch.attr(ChannelAttributes.MAX_BODY_SIZE).set(maxBodySize.getAsInt());
         ch.attr(ChannelAttributes.SERVER_CONFIG).set(serverConfig);
         ch.attr(ChannelAttributes.TLS_CONFIG).set(DEFAULT_TLS_CONFIG);
 
@@ -24,6 +24,8 @@ import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import javax.net.ssl.SSLException;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.lang.exception.ExceptionUtils;
@@ -55,6 +57,8 @@ public class HttpSenderHandler implements HttpMessageHandler {
 
     private ConnectionParam connectionParam;
     private HttpSender httpSender;
+    private final AtomicInteger inFlight;
+    private final LongAdder forwarded;
 
     /**
      * Constructs a {@code HttpSenderHandler} with the given connection configuration and HTTP
@@ -67,6 +71,26 @@ public class HttpSenderHandler implements HttpMessageHandler {
     public HttpSenderHandler(ConnectionParam connectionParam, HttpSender httpSender) {
         this.connectionParam = Objects.requireNonNull(connectionParam);
         this.httpSender = Objects.requireNonNull(httpSender);
+        this.inFlight = new AtomicInteger();
+        this.forwarded = new LongAdder();
+    }
+
+    /**
+     * Gets the number of messages currently being sent.
+     *
+     * @return the number of messages in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the number of messages sent, successfully or not.
+     *
+     * @return the number of messages sent.
+     */
+    public long getForwardedCount() {
+        return forwarded.sum();
     }
 
     @Override
@@ -75,6 +99,7 @@ public class HttpSenderHandler implements HttpMessageHandler {
             return;
         }
 
+        inFlight.incrementAndGet();
         try {
             if (ctx.isExcluded()) {
                 httpSender.sendAndReceive(msg, EXCLUDED_REQ_CONFIG);
@@ -103,6 +128,9 @@ public class HttpSenderHandler implements HttpMessageHandler {
 
         } catch (IOException e) {
             setErrorResponse(ctx, msg, HttpStatusCode.BAD_GATEWAY, BAD_GATEWAY_REASON_PHRASE, e);
+        } finally {
+            inFlight.decrementAndGet();
+            forwarded.increment();
         }
     }
 
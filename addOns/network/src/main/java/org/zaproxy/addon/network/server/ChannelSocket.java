@@ -0,0 +1,54 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.server;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+
+/**
+ * A {@link java.net.Socket} backed by a {@link Channel}, exposed to the {@code
+ * PersistentConnectionListener}s.
+ *
+ * <p>Allows to read the data of the channel in its pipeline, instead of with a blocking thread.
+ *
+ * @since 0.2.0
+ */
+public interface ChannelSocket {
+
+    /**
+     * Gets the channel of the socket.
+     *
+     * @return the channel, never {@code null}.
+     */
+    Channel getChannel();
+
+    /**
+     * Replaces the handler that feeds the input stream of the socket with the given handlers.
+     *
+     * <p>The data already read but not yet consumed through the input stream is passed to the
+     * given handlers, which are added in the given order. The input stream should no longer be
+     * used. The replacement is done in the event loop of the channel.
+     *
+     * @param handlers the handlers that will read the data of the channel.
+     * @throws NullPointerException if the given handlers are {@code null}.
+     * @throws IllegalArgumentException if no handlers are given.
+     */
+    void replaceInputHandler(ChannelHandler... handlers);
+}
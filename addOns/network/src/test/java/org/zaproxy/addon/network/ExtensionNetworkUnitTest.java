@@ -61,6 +61,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.Level;
@@ -617,6 +618,47 @@ class ExtensionNetworkUnitTest extends TestUtils {
         assertThat(service.createCertForHost(new CertData("example.org")), is(notNullValue()));
     }
 
+    @Test
+    void shouldKeepGeneratingCertificatesWhileRootCaCertIsReinitialised() throws Exception {
+        // Given
+        extension.handleServerCerts = true;
+        extension.hook(mock(ExtensionHook.class));
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(
+                "network.serverCertificates.rootCa.ks", NetworkTestUtils.FISH_CERT_BASE64_STR);
+        extension.getServerCertificatesOptions().load(config);
+        extension.start();
+        ArgumentCaptor<SslCertificateService> argument =
+                ArgumentCaptor.forClass(SslCertificateService.class);
+        verify(extension.setSslCertificateService, times(1)).accept(argument.capture());
+        SslCertificateService service = argument.getAllValues().get(0);
+        KeyStore rootCaKeyStore = extension.getServerCertificatesOptions().getRootCaKeyStore();
+        AtomicBoolean reinitialising = new AtomicBoolean(true);
+        List<Exception> errors = new Vector<>();
+        Thread handshakes =
+                new Thread(
+                        () -> {
+                            int i = 0;
+                            while (reinitialising.get()) {
+                                try {
+                                    service.createCertForHost(
+                                            new CertData("example" + i++ + ".org"));
+                                } catch (Exception e) {
+                                    errors.add(e);
+                                }
+                            }
+                        });
+        handshakes.start();
+        // When
+        for (int i = 0; i < 10; i++) {
+            service.initializeRootCA(rootCaKeyStore);
+        }
+        reinitialising.set(false);
+        handshakes.join();
+        // Then
+        assertThat(errors, is(empty()));
+    }
+
     @Test
     void shouldLoadRootCaCertAndSetSslCertificateServiceOnStartIfHandlingServerCerts()
             throws Exception {
@@ -132,6 +132,7 @@ class LocalServersOptionsUnitTest {
         assertThat(options.isConfirmRemoveAlias(), is(equalTo(true)));
         assertThat(options.getServers(), is(empty()));
         assertThat(options.isConfirmRemoveServer(), is(equalTo(true)));
+        assertThat(options.getMaxBodySize(), is(equalTo(0)));
         LocalServerConfig mainProxy = options.getMainProxy();
         assertThat(mainProxy, is(notNullValue()));
         assertThat(mainProxy.getAddress(), is(equalTo(LocalServerConfig.DEFAULT_ADDRESS)));
@@ -193,6 +194,62 @@ class LocalServersOptionsUnitTest {
         assertThat(options.isConfirmRemoveAlias(), is(equalTo(true)));
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1024, 10485760})
+    void shouldLoadConfigWithMaxBodySize(int value) {
+        // Given
+        ZapXmlConfiguration config =
+                configWith(
+                        "<network>\n"
+                                + "  <localServers version=\"1\">\n"
+                                + "    <maxBodySize>"
+                                + value
+                                + "</maxBodySize>\n"
+                                + "  </localServers>\n"
+                                + "</network>");
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getMaxBodySize(), is(equalTo(value)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"-1", "not int"})
+    void shouldLoadConfigWithInvalidMaxBodySize(String value) {
+        // Given
+        ZapXmlConfiguration config =
+                configWith(
+                        "<network>\n"
+                                + "  <localServers version=\"1\">\n"
+                                + "    <maxBodySize>"
+                                + value
+                                + "</maxBodySize>\n"
+                                + "  </localServers>\n"
+                                + "</network>");
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getMaxBodySize(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldSetAndPersistMaxBodySize() {
+        // Given / When
+        options.setMaxBodySize(2048);
+        // Then
+        assertThat(options.getMaxBodySize(), is(equalTo(2048)));
+        assertThat(config.getInt("network.localServers.maxBodySize"), is(equalTo(2048)));
+    }
+
+    @Test
+    void shouldThrowIfSettingNegativeMaxBodySize() {
+        // Given
+        int maxBodySize = -1;
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxBodySize(maxBodySize));
+        assertThat(options.getMaxBodySize(), is(equalTo(0)));
+    }
+
     static Stream<Arguments> serverPersistenceData() {
         return Stream.of(
                 arguments(
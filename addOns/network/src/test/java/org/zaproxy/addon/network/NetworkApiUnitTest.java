@@ -59,10 +59,14 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.network.internal.cert.CertificateUtils;
+import org.zaproxy.addon.network.internal.cert.KeyPairPool;
+import org.zaproxy.addon.network.internal.cert.KeyType;
+import org.zaproxy.addon.network.internal.server.HandlerExecutor;
 import org.zaproxy.addon.network.internal.server.http.Alias;
 import org.zaproxy.addon.network.internal.server.http.LocalServerConfig;
 import org.zaproxy.addon.network.internal.server.http.LocalServerConfig.ServerMode;
 import org.zaproxy.addon.network.internal.server.http.PassThrough;
+import org.zaproxy.addon.network.internal.server.http.handlers.HttpSenderHandler;
 import org.zaproxy.zap.extension.api.API;
 import org.zaproxy.zap.extension.api.API.RequestType;
 import org.zaproxy.zap.extension.api.ApiElement;
@@ -126,7 +130,7 @@ class NetworkApiUnitTest extends TestUtils {
         networkApi = new NetworkApi(extensionNetwork);
         // Then
         assertThat(networkApi.getApiActions(), hasSize(4));
-        assertThat(networkApi.getApiViews(), hasSize(2));
+        assertThat(networkApi.getApiViews(), hasSize(3));
         assertThat(networkApi.getApiOthers(), hasSize(1));
     }
 
@@ -139,7 +143,7 @@ class NetworkApiUnitTest extends TestUtils {
         networkApi = new NetworkApi(extensionNetwork);
         // Then
         assertThat(networkApi.getApiActions(), hasSize(12));
-        assertThat(networkApi.getApiViews(), hasSize(5));
+        assertThat(networkApi.getApiViews(), hasSize(7));
         assertThat(networkApi.getApiOthers(), hasSize(1));
     }
 
@@ -453,6 +457,64 @@ class NetworkApiUnitTest extends TestUtils {
         assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_VIEW)));
     }
 
+    @Test
+    void shouldGetServerCertKeyPoolStats() throws Exception {
+        // Given
+        String name = "getServerCertKeyPoolStats";
+        JSONObject params = new JSONObject();
+        given(extensionNetwork.isHandleServerCerts()).willReturn(true);
+        KeyPairPool keyPairPool = mock(KeyPairPool.class);
+        given(keyPairPool.getKeyType()).willReturn(KeyType.EC_P256);
+        given(keyPairPool.getSize()).willReturn(10);
+        given(keyPairPool.getAvailable()).willReturn(4);
+        given(keyPairPool.getHits()).willReturn(6L);
+        given(keyPairPool.getMisses()).willReturn(2L);
+        given(extensionNetwork.getKeyPairPool()).willReturn(keyPairPool);
+        // When
+        ApiResponse response = networkApi.handleApiView(name, params);
+        // Then
+        assertThat(response.getName(), is(equalTo(name)));
+        String json = response.toJSON().toString();
+        assertThat(
+                json,
+                allOf(
+                        containsString("\"keyType\":\"EC_P256\""),
+                        containsString("\"size\":10"),
+                        containsString("\"available\":4"),
+                        containsString("\"hits\":6"),
+                        containsString("\"misses\":2")));
+    }
+
+    @Test
+    void shouldGetServerCertKeyPoolStatsEvenIfNoPool() throws Exception {
+        // Given
+        String name = "getServerCertKeyPoolStats";
+        JSONObject params = new JSONObject();
+        given(extensionNetwork.isHandleServerCerts()).willReturn(true);
+        given(serverCertificatesOptions.getServerCertKeyType()).willReturn(KeyType.RSA_2048);
+        // When
+        ApiResponse response = networkApi.handleApiView(name, params);
+        // Then
+        assertThat(response.getName(), is(equalTo(name)));
+        assertThat(
+                response.toJSON().toString(),
+                allOf(containsString("\"keyType\":\"RSA_2048\""), containsString("\"size\":0")));
+    }
+
+    @Test
+    void shouldThrowApiExceptionWhenGettingServerCertKeyPoolStatsIfNotHandlingServerCerts()
+            throws Exception {
+        // Given
+        String name = "getServerCertKeyPoolStats";
+        JSONObject params = new JSONObject();
+        given(extensionNetwork.isHandleServerCerts()).willReturn(false);
+        // When
+        ApiException exception =
+                assertThrows(ApiException.class, () -> networkApi.handleApiView(name, params));
+        // Then
+        assertThat(exception.getType(), is(equalTo(ApiException.Type.BAD_VIEW)));
+    }
+
     @Test
     void shouldReturnOkForAddedAlias() throws Exception {
         // Given
@@ -568,6 +630,51 @@ class NetworkApiUnitTest extends TestUtils {
                                         + "{\"name\":\"example.com\",\"enabled\":false}]}")));
     }
 
+    @Test
+    void shouldGetProxyStats() throws Exception {
+        // Given
+        String name = "getProxyStats";
+        JSONObject params = new JSONObject();
+        given(extensionNetwork.isHandleLocalServers()).willReturn(true);
+        HttpSenderHandler httpSenderHandler = mock(HttpSenderHandler.class);
+        given(httpSenderHandler.getInFlightCount()).willReturn(3);
+        given(httpSenderHandler.getForwardedCount()).willReturn(42L);
+        given(extensionNetwork.getHttpSenderHandler()).willReturn(httpSenderHandler);
+        HandlerExecutor executor = mock(HandlerExecutor.class);
+        given(executor.getBusyThreads()).willReturn(4);
+        given(executor.getQueuedTasks()).willReturn(5);
+        given(executor.getAverageWaitTimeMillis()).willReturn(6L);
+        given(executor.getMaxWaitTimeMillis()).willReturn(7L);
+        given(extensionNetwork.getMainHandlerExecutor()).willReturn(executor);
+        // When
+        ApiResponse response = networkApi.handleApiView(name, params);
+        // Then
+        assertThat(response.getName(), is(equalTo(name)));
+        String json = response.toJSON().toString();
+        assertThat(
+                json,
+                allOf(
+                        containsString("\"inFlight\":3"),
+                        containsString("\"forwarded\":42"),
+                        containsString("\"busyThreads\":4"),
+                        containsString("\"queuedTasks\":5"),
+                        containsString("\"queueWaitAvgMillis\":6"),
+                        containsString("\"queueWaitMaxMillis\":7")));
+    }
+
+    @Test
+    void shouldGetProxyStatsEvenIfServersNotStarted() throws Exception {
+        // Given
+        String name = "getProxyStats";
+        JSONObject params = new JSONObject();
+        given(extensionNetwork.isHandleLocalServers()).willReturn(true);
+        // When
+        ApiResponse response = networkApi.handleApiView(name, params);
+        // Then
+        assertThat(response.getName(), is(equalTo(name)));
+        assertThat(response.toJSON().toString(), containsString("\"inFlight\":0"));
+    }
+
     @Test
     void shouldReturnOkForAddedPassThrough() throws Exception {
         // Given
@@ -899,7 +1006,7 @@ class NetworkApiUnitTest extends TestUtils {
     }
 
     @ParameterizedTest
-    @ValueSource(strings = {"getAliases", "getPassThroughs", "getLocalServers"})
+    @ValueSource(strings = {"getAliases", "getPassThroughs", "getLocalServers", "getProxyStats"})
     void shouldThrowApiExceptionForUnsupportedViewsIfNotHandlingLocalServers(String name)
             throws Exception {
         // Given
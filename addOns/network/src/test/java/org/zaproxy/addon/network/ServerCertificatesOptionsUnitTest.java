@@ -26,6 +26,9 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.zaproxy.addon.network.ServerCertificatesOptions.DEFAULT_ROOT_CA_CERT_VALIDITY;
+import static org.zaproxy.addon.network.ServerCertificatesOptions.DEFAULT_SERVER_CERT_CACHE_SIZE;
+import static org.zaproxy.addon.network.ServerCertificatesOptions.DEFAULT_SERVER_CERT_KEY_POOL_SIZE;
+import static org.zaproxy.addon.network.ServerCertificatesOptions.DEFAULT_SERVER_CERT_KEY_TYPE;
 import static org.zaproxy.addon.network.ServerCertificatesOptions.DEFAULT_SERVER_CERT_VALIDITY;
 
 import java.security.KeyStore;
@@ -37,6 +40,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.zaproxy.addon.network.internal.cert.CertificateUtils;
+import org.zaproxy.addon.network.internal.cert.KeyType;
 import org.zaproxy.zap.utils.ZapXmlConfiguration;
 
 /** Unit test for {@link ServerCertificatesOptions}. */
@@ -48,6 +52,13 @@ class ServerCertificatesOptionsUnitTest {
             "network.serverCertificates.rootCa.certValidityDays";
     private static final String SERVER_CERT_VALIDITY_DAYS_KEY =
             "network.serverCertificates.server.certValidityDays";
+    private static final String SERVER_CERT_CACHE_SIZE_KEY =
+            "network.serverCertificates.server.certCacheSize";
+    private static final String SERVER_CERT_PERSISTENCE_KEY =
+            "network.serverCertificates.server.certPersistence";
+    private static final String SERVER_CERT_KEY_TYPE_KEY = "network.serverCertificates.server.keyType";
+    private static final String SERVER_CERT_KEY_POOL_SIZE_KEY =
+            "network.serverCertificates.server.keyPoolSize";
 
     private static final String TEST_KEY_STORE_STR = NetworkTestUtils.FISH_CERT_BASE64_STR;
 
@@ -85,6 +96,11 @@ class ServerCertificatesOptionsUnitTest {
         assertThat(
                 options.getServerCertConfig().getValidity(),
                 is(equalTo(Duration.ofDays(DEFAULT_SERVER_CERT_VALIDITY))));
+        assertThat(options.getServerCertCacheSize(), is(equalTo(DEFAULT_SERVER_CERT_CACHE_SIZE)));
+        assertThat(options.isServerCertPersistence(), is(equalTo(false)));
+        assertThat(options.getServerCertKeyType(), is(equalTo(DEFAULT_SERVER_CERT_KEY_TYPE)));
+        assertThat(
+                options.getServerCertKeyPoolSize(), is(equalTo(DEFAULT_SERVER_CERT_KEY_POOL_SIZE)));
     }
 
     @Test
@@ -107,6 +123,11 @@ class ServerCertificatesOptionsUnitTest {
         assertThat(
                 options.getServerCertConfig().getValidity(),
                 is(equalTo(Duration.ofDays(DEFAULT_SERVER_CERT_VALIDITY))));
+        assertThat(options.getServerCertCacheSize(), is(equalTo(DEFAULT_SERVER_CERT_CACHE_SIZE)));
+        assertThat(options.isServerCertPersistence(), is(equalTo(false)));
+        assertThat(options.getServerCertKeyType(), is(equalTo(DEFAULT_SERVER_CERT_KEY_TYPE)));
+        assertThat(
+                options.getServerCertKeyPoolSize(), is(equalTo(DEFAULT_SERVER_CERT_KEY_POOL_SIZE)));
     }
 
     @Test
@@ -380,4 +401,168 @@ class ServerCertificatesOptionsUnitTest {
         assertThat(config.getLong(SERVER_CERT_VALIDITY_DAYS_KEY), is(equalTo(validity.toDays())));
         assertThat(options.getServerCertConfig().getValidity(), is(equalTo(validity)));
     }
+
+    @Test
+    void shouldLoadConfigWithServerCertCacheSize() {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_CACHE_SIZE_KEY, "50");
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getServerCertCacheSize(), is(equalTo(50)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"-1", "0", "A", ""})
+    void shouldUseDefaultWithInvalidServerCertCacheSize(String size) {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_CACHE_SIZE_KEY, size);
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getServerCertCacheSize(), is(equalTo(DEFAULT_SERVER_CERT_CACHE_SIZE)));
+    }
+
+    @Test
+    void shouldSetAndPersistServerCertCacheSize() throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        // When
+        options.setServerCertCacheSize(25);
+        // Then
+        assertThat(options.getServerCertCacheSize(), is(equalTo(25)));
+        assertThat(config.getInt(SERVER_CERT_CACHE_SIZE_KEY), is(equalTo(25)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0})
+    void shouldNotSetNorPersistInvalidServerCertCacheSize(int size) throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        options.setServerCertCacheSize(25);
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> options.setServerCertCacheSize(size));
+        assertThat(options.getServerCertCacheSize(), is(equalTo(25)));
+        assertThat(config.getInt(SERVER_CERT_CACHE_SIZE_KEY), is(equalTo(25)));
+    }
+
+    @Test
+    void shouldLoadConfigWithServerCertPersistence() {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_PERSISTENCE_KEY, "true");
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.isServerCertPersistence(), is(equalTo(true)));
+    }
+
+    @Test
+    void shouldSetAndPersistServerCertPersistence() throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        // When
+        options.setServerCertPersistence(true);
+        // Then
+        assertThat(options.isServerCertPersistence(), is(equalTo(true)));
+        assertThat(config.getBoolean(SERVER_CERT_PERSISTENCE_KEY), is(equalTo(true)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"EC_P256", "ec_p384", "RSA_2048"})
+    void shouldLoadConfigWithServerCertKeyType(String keyType) {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_KEY_TYPE_KEY, keyType);
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getServerCertKeyType().name(), is(equalTo(keyType.toUpperCase())));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "DSA", "EC"})
+    void shouldUseDefaultWithInvalidServerCertKeyType(String keyType) {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_KEY_TYPE_KEY, keyType);
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getServerCertKeyType(), is(equalTo(DEFAULT_SERVER_CERT_KEY_TYPE)));
+    }
+
+    @Test
+    void shouldSetAndPersistServerCertKeyType() throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        // When
+        options.setServerCertKeyType(KeyType.EC_P256);
+        // Then
+        assertThat(options.getServerCertKeyType(), is(equalTo(KeyType.EC_P256)));
+        assertThat(config.getString(SERVER_CERT_KEY_TYPE_KEY), is(equalTo("EC_P256")));
+    }
+
+    @Test
+    void shouldNotSetNullServerCertKeyType() throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        // When / Then
+        assertThrows(NullPointerException.class, () -> options.setServerCertKeyType(null));
+        assertThat(options.getServerCertKeyType(), is(equalTo(DEFAULT_SERVER_CERT_KEY_TYPE)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "5", "50"})
+    void shouldLoadConfigWithServerCertKeyPoolSize(String size) {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_KEY_POOL_SIZE_KEY, size);
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getServerCertKeyPoolSize(), is(equalTo(Integer.parseInt(size))));
+    }
+
+    @Test
+    void shouldUseZeroWithNegativeServerCertKeyPoolSize() {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty(SERVER_CERT_KEY_POOL_SIZE_KEY, "-1");
+        // When
+        options.load(config);
+        // Then
+        assertThat(options.getServerCertKeyPoolSize(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldSetAndPersistServerCertKeyPoolSize() throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        // When
+        options.setServerCertKeyPoolSize(20);
+        // Then
+        assertThat(options.getServerCertKeyPoolSize(), is(equalTo(20)));
+        assertThat(config.getInt(SERVER_CERT_KEY_POOL_SIZE_KEY), is(equalTo(20)));
+    }
+
+    @Test
+    void shouldNotSetNorPersistNegativeServerCertKeyPoolSize() throws Exception {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        options.load(config);
+        options.setServerCertKeyPoolSize(20);
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> options.setServerCertKeyPoolSize(-1));
+        assertThat(options.getServerCertKeyPoolSize(), is(equalTo(20)));
+        assertThat(config.getInt(SERVER_CERT_KEY_POOL_SIZE_KEY), is(equalTo(20)));
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.cert;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Unit test for {@link KeyPairPool}. */
+class KeyPairPoolUnitTest {
+
+    private KeyPairPool pool;
+
+    @AfterEach
+    void cleanUp() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void shouldThrowIfKeyTypeIsNull() {
+        // Given
+        KeyType keyType = null;
+        // When / Then
+        assertThrows(NullPointerException.class, () -> new KeyPairPool(keyType, 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0})
+    void shouldThrowIfSizeIsNotPositive(int size) {
+        assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(KeyType.EC_P256, size));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 2, 3})
+    void shouldThrowIfLowWaterIsInvalid(int lowWater) {
+        assertThrows(
+                IllegalArgumentException.class, () -> new KeyPairPool(KeyType.EC_P256, 2, lowWater));
+    }
+
+    @Test
+    void shouldUseHalfOfSizeAsLowWater() {
+        // Given / When
+        pool = new KeyPairPool(KeyType.EC_P256, 10);
+        // Then
+        assertThat(pool.getSize(), is(equalTo(10)));
+        assertThat(pool.getLowWater(), is(equalTo(5)));
+        assertThat(pool.getKeyType(), is(equalTo(KeyType.EC_P256)));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldFillPoolInBackground() throws Exception {
+        // Given / When
+        pool = new KeyPairPool(KeyType.EC_P256, 3);
+        // Then
+        waitFor(() -> pool.getAvailable() == 3);
+        assertThat(pool.getAvailable(), is(equalTo(3)));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldCountHitWhenKeyPairAvailable() throws Exception {
+        // Given
+        pool = new KeyPairPool(KeyType.EC_P256, 2);
+        waitFor(() -> pool.getAvailable() == 2);
+        // When
+        KeyPair keyPair = pool.take();
+        // Then
+        assertThat(keyPair, is(notNullValue()));
+        assertThat(pool.getHits(), is(equalTo(1L)));
+        assertThat(pool.getMisses(), is(equalTo(0L)));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldRefillWhenLowWaterReached() throws Exception {
+        // Given
+        pool = new KeyPairPool(KeyType.EC_P256, 4, 2);
+        waitFor(() -> pool.getAvailable() == 4);
+        // When
+        pool.take();
+        pool.take();
+        // Then
+        waitFor(() -> pool.getAvailable() == 4);
+        assertThat(pool.getHits(), is(equalTo(2L)));
+    }
+
+    @Test
+    void shouldGenerateKeyPairWhenClosed() {
+        // Given
+        pool = new KeyPairPool(KeyType.EC_P256, 2);
+        pool.close();
+        // When
+        KeyPair keyPair = pool.take();
+        // Then
+        assertThat(keyPair, is(notNullValue()));
+        assertThat(pool.getAvailable(), is(equalTo(0)));
+        assertThat(pool.getMisses(), is(equalTo(1L)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(KeyType.class)
+    void shouldGenerateKeyPairOfType(KeyType keyType) {
+        // Given / When
+        KeyPair keyPair = keyType.generateKeyPair();
+        // Then
+        assertThat(keyPair.getPublic().getAlgorithm(), is(equalTo(keyType.getAlgorithm())));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
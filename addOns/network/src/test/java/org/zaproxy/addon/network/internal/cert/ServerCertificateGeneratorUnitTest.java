@@ -20,19 +20,39 @@
 package org.zaproxy.addon.network.internal.cert;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
 import java.security.KeyStore;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 import org.parosproxy.paros.security.CertData;
 import org.zaproxy.addon.network.NetworkTestUtils;
 import org.zaproxy.addon.network.ServerCertificatesOptions;
@@ -161,4 +181,248 @@ class ServerCertificateGeneratorUnitTest {
                 CertificateUtils.getCertificate(certKeyStoreSecond).getSerialNumber();
         assertThat(secondSerial, is(equalTo(firstSerial.add(BigInteger.ONE))));
     }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedCertificateWhenCacheIsFull() {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertCacheSize(2);
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options);
+        KeyStore first = generator.generate(new CertData("example.com"));
+        KeyStore second = generator.generate(new CertData("example.org"));
+        generator.generate(new CertData("example.com"));
+        // When
+        generator.generate(new CertData("example.net"));
+        // Then
+        assertThat(generator.generate(new CertData("example.com")), is(sameInstance(first)));
+        assertThat(
+                generator.generate(new CertData("example.org")), is(not(sameInstance(second))));
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldGenerateCertificateOnceWhenRequestedConcurrently() throws Exception {
+        // Given
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options);
+        CertData certData = new CertData("concurrent.example.com");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<KeyStore>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    return generator.generate(certData);
+                                }));
+            }
+            // When
+            start.countDown();
+            KeyStore first = results.get(0).get();
+            // Then
+            for (Future<KeyStore> result : results) {
+                assertThat(result.get(), is(sameInstance(first)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotPersistCertificatesIfNotEnabled(@TempDir Path dir) throws Exception {
+        // Given
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        // When
+        generator.generate(new CertData("example.com"));
+        generator.close();
+        // Then
+        assertThat(listFiles(dir), hasSize(0));
+    }
+
+    @Test
+    void shouldPersistAndReuseCertificates(@TempDir Path dir) throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertPersistence(true);
+        CertData certData = new CertData("example.com");
+        KeyStore persisted = generateAndClose(options, dir, certData);
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        // When
+        KeyStore certKeyStore = generator.generate(certData);
+        generator.close();
+        // Then
+        assertThat(listFiles(dir), hasSize(1));
+        assertThat(
+                CertificateUtils.getCertificate(certKeyStore),
+                is(equalTo(CertificateUtils.getCertificate(persisted))));
+    }
+
+    @Test
+    void shouldGenerateNewCertificateIfPersistedIsInvalid(@TempDir Path dir) throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertPersistence(true);
+        CertData certData = new CertData("example.com");
+        generateAndClose(options, dir, certData);
+        Path file = listFiles(dir).get(0);
+        Files.write(file, new byte[] {1, 2, 3});
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        // When
+        KeyStore certKeyStore = generator.generate(certData);
+        generator.close();
+        // Then
+        assertThat(certKeyStore, is(notNullValue()));
+        assertThat(listFiles(dir), hasSize(1));
+        assertThat(Files.size(file), is(not(equalTo(3L))));
+    }
+
+    @Test
+    void shouldDeletePersistedCertificatesOfOtherRootCa(@TempDir Path dir) throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertPersistence(true);
+        KeyStore otherRootCa =
+                CertificateUtils.createRootCaKeyStore(new CertConfig(Duration.ofDays(365)));
+        ServerCertificateGenerator otherGenerator =
+                new ServerCertificateGenerator(otherRootCa, options, dir);
+        otherGenerator.generate(new CertData("example.com"));
+        otherGenerator.close();
+        // When
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        generator.close();
+        // Then
+        assertThat(listFiles(dir), hasSize(0));
+    }
+
+    @Test
+    void shouldDeletePersistedCertificatesIfPersistenceDisabled(@TempDir Path dir)
+            throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertPersistence(true);
+        generateAndClose(options, dir, new CertData("example.com"));
+        options.setServerCertPersistence(false);
+        // When
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        generator.close();
+        // Then
+        assertThat(listFiles(dir), hasSize(0));
+    }
+
+    @Test
+    void shouldDeleteInvalidPersistedAndTemporaryFiles(@TempDir Path dir) throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertPersistence(true);
+        Files.write(dir.resolve("invalid.ks"), new byte[] {1, 2, 3});
+        Files.write(dir.resolve("cert123.tmp"), new byte[] {1, 2, 3});
+        Files.write(dir.resolve("other.txt"), new byte[] {1, 2, 3});
+        // When
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        generator.close();
+        // Then
+        assertThat(listFiles(dir), contains(dir.resolve("other.txt")));
+    }
+
+    @Test
+    void shouldNotPersistCertificatesAfterClose(@TempDir Path dir) throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertPersistence(true);
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        generator.close();
+        // When
+        KeyStore certKeyStore = generator.generate(new CertData("example.com"));
+        // Then
+        assertThat(certKeyStore, is(notNullValue()));
+        assertThat(listFiles(dir), hasSize(0));
+    }
+
+    @Test
+    void shouldGenerateCertificateWithKeyTypeFromOptions() {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertKeyType(KeyType.EC_P256);
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options);
+        // When
+        KeyStore certKeyStore = generator.generate(new CertData("example.com"));
+        // Then
+        assertThat(
+                CertificateUtils.getCertificate(certKeyStore).getPublicKey().getAlgorithm(),
+                is(equalTo("EC")));
+    }
+
+    @Test
+    void shouldTakeKeyPairsFromPoolOfSameKeyType() {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertKeyType(KeyType.EC_P256);
+        KeyPairPool pool = mock(KeyPairPool.class);
+        given(pool.getKeyType()).willReturn(KeyType.EC_P256);
+        KeyPair keyPair = KeyType.EC_P256.generateKeyPair();
+        given(pool.take()).willReturn(keyPair);
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, null, pool);
+        // When
+        KeyStore certKeyStore = generator.generate(new CertData("example.com"));
+        // Then
+        verify(pool).take();
+        assertThat(
+                CertificateUtils.getCertificate(certKeyStore).getPublicKey(),
+                is(equalTo(keyPair.getPublic())));
+    }
+
+    @Test
+    void shouldNotTakeKeyPairsFromPoolOfDifferentKeyType() {
+        // Given
+        KeyPairPool pool = mock(KeyPairPool.class);
+        given(pool.getKeyType()).willReturn(KeyType.EC_P256);
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, null, pool);
+        // When
+        KeyStore certKeyStore = generator.generate(new CertData("example.com"));
+        // Then
+        verify(pool, never()).take();
+        assertThat(
+                CertificateUtils.getCertificate(certKeyStore).getPublicKey().getAlgorithm(),
+                is(equalTo("RSA")));
+    }
+
+    private static KeyStore generateAndClose(
+            ServerCertificatesOptions options, Path dir, CertData certData) {
+        ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(testKeyStore, options, dir);
+        try {
+            return generator.generate(certData);
+        } finally {
+            generator.close();
+        }
+    }
+
+    private static List<Path> listFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
 }
@@ -21,8 +21,10 @@ package org.zaproxy.addon.network.internal.cert;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.any;
@@ -34,6 +36,10 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.security.KeyStore;
 import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
 import java.util.Arrays;
 import javax.net.ssl.ExtendedSSLSession;
 import javax.net.ssl.SNIHostName;
@@ -42,6 +48,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.parosproxy.paros.security.CertData;
 import org.parosproxy.paros.security.SslCertificateService;
+import org.zaproxy.addon.network.NetworkTestUtils;
+import org.zaproxy.addon.network.ServerCertificatesOptions;
+import org.zaproxy.zap.utils.ZapXmlConfiguration;
 
 /** Unit test for {@link SniX509KeyManager}. */
 class SniX509KeyManagerUnitTest {
@@ -106,6 +115,21 @@ class SniX509KeyManagerUnitTest {
         verify(sslCertificateService).createCertForHost(certData);
     }
 
+    @Test
+    void shouldUsePeerHostIfNoFallbackHostnameNorSni() throws Exception {
+        // Given
+        String peerHost = "example.net";
+        given(engine.getPeerHost()).willReturn(peerHost);
+        CertData certData = new CertData(peerHost);
+        given(sslCertificateService.createCertForHost(certData)).willReturn(keyStore);
+        SniX509KeyManager sniX509KeyManager =
+                new SniX509KeyManager(sslCertificateService, LISTENING_INET_ADDRESS, null);
+        // When
+        sniX509KeyManager.chooseEngineServerAlias(keyType, issuers, engine);
+        // Then
+        verify(sslCertificateService).createCertForHost(certData);
+    }
+
     @Test
     void shouldUseFallbackHostnameAsIpAddress() throws Exception {
         // Given
@@ -161,6 +185,51 @@ class SniX509KeyManagerUnitTest {
         assertThat(e.getCause(), is(instanceOf(IOException.class)));
     }
 
+    @Test
+    void shouldKeepKeyStoreOfHandshakeEvenIfEvictedFromCache() throws Exception {
+        // Given
+        ServerCertificatesOptions options = new ServerCertificatesOptions();
+        options.load(new ZapXmlConfiguration());
+        options.setServerCertCacheSize(1);
+        KeyStore rootCaKeyStore =
+                CertificateUtils.stringToKeystore(NetworkTestUtils.FISH_CERT_BASE64_STR);
+        try (ServerCertificateGenerator generator =
+                new ServerCertificateGenerator(rootCaKeyStore, options)) {
+            given(sslCertificateService.createCertForHost(any(CertData.class)))
+                    .willAnswer(invocation -> generator.generate(invocation.getArgument(0)));
+            SSLEngine engineA = createEngine("a.example.com");
+            SSLEngine engineB = createEngine("b.example.com");
+            // When
+            String aliasA = sniX509KeyManager.chooseEngineServerAlias(keyType, issuers, engineA);
+            String aliasB = sniX509KeyManager.chooseEngineServerAlias(keyType, issuers, engineB);
+            PrivateKey keyA = sniX509KeyManager.getPrivateKey(aliasA);
+            PrivateKey keyB = sniX509KeyManager.getPrivateKey(aliasB);
+            X509Certificate[] chainA = sniX509KeyManager.getCertificateChain(aliasA);
+            X509Certificate[] chainB = sniX509KeyManager.getCertificateChain(aliasB);
+            // Then
+            assertKeyMatchesCertificate(keyA, chainA, "a.example.com");
+            assertKeyMatchesCertificate(keyB, chainB, "b.example.com");
+        }
+    }
+
+    private SSLEngine createEngine(String sni) {
+        ExtendedSSLSession session = mock(ExtendedSSLSession.class);
+        given(session.getRequestedServerNames()).willReturn(Arrays.asList(new SNIHostName(sni)));
+        SSLEngine engine = mock(SSLEngine.class);
+        given(engine.getHandshakeSession()).willReturn(session);
+        return engine;
+    }
+
+    private static void assertKeyMatchesCertificate(
+            PrivateKey key, X509Certificate[] chain, String hostname) {
+        assertThat(key, is(notNullValue()));
+        assertThat(chain, is(notNullValue()));
+        assertThat(chain[0].getSubjectX500Principal().getName(), containsString(hostname));
+        assertThat(
+                ((RSAPrivateKey) key).getModulus(),
+                is(equalTo(((RSAPublicKey) chain[0].getPublicKey()).getModulus())));
+    }
+
     private static CertData createIpCertData(String address) {
         CertData certData = new CertData();
         certData.addSubjectAlternativeName(new CertData.Name(CertData.Name.IP_ADDRESS, address));
@@ -30,6 +30,7 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import java.nio.charset.StandardCharsets;
@@ -45,12 +46,11 @@ import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpHeaderField;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.network.internal.ChannelAttributes;
 
 /** Unit test for {@link HttpMessageDecoder}. */
 abstract class HttpMessageDecoderUnitTest {
 
-    protected static final int MAX_CHUNK_SIZE = HttpMessageDecoder.MAX_CHUNK_SIZE;
-
     protected EmbeddedChannel channel;
 
     @BeforeEach
@@ -157,6 +157,127 @@ abstract class HttpMessageDecoderUnitTest {
         assertChannelState();
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 80, 4096, 65536})
+    void shouldReadLargeFixedLengthBodyIncrementally(int batchSize) {
+        // Given
+        String body = StringUtils.repeat("0123456789", 100_000);
+        written(getPrimeHeader() + "Content-Length: " + body.length() + "\r\n\r\n", false);
+        // When
+        writtenIncrementally(body, batchSize);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(extractBody(message).length(), is(equalTo(body.length())));
+        assertThat(extractBody(message).toString(), is(equalTo(body)));
+        assertChannelState();
+    }
+
+    @Test
+    void shouldReadFixedLengthBodyFollowedByAnotherMessageInSameBuffer() {
+        // Given
+        String body = StringUtils.repeat("A", 1000);
+        String content =
+                getPrimeHeader()
+                        + "Content-Length: 1000\r\n\r\n"
+                        + body
+                        + getPrimeHeader()
+                        + "Content-Length: 3\r\n\r\nXYZ";
+        // When
+        written(content, true);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(extractBody(message).toString(), is(equalTo(body)));
+        message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(extractBody(message).toString(), is(equalTo("XYZ")));
+        assertChannelState();
+    }
+
+    @Test
+    void shouldReleaseReceivedBuffersAfterReadingBody() {
+        // Given
+        String body = "0123456789012345";
+        ByteBuf buffer =
+                Unpooled.copiedBuffer(
+                        getPrimeHeader() + "Content-Length: 16\r\n\r\n" + body,
+                        StandardCharsets.US_ASCII);
+        // When
+        channel.writeInbound(buffer);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(extractBody(message).toString(), is(equalTo(body)));
+        assertThat(buffer.refCnt(), is(equalTo(0)));
+        assertChannelState();
+    }
+
+    @Test
+    void shouldReadFixedLengthBodyWithMaxBodySize() {
+        // Given
+        channel.attr(ChannelAttributes.MAX_BODY_SIZE).set(16);
+        String body = "0123456789012345";
+        String content = getPrimeHeader() + "Content-Length: 16\r\n\r\n" + body;
+        // When
+        written(content, true);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(message.getUserObject(), is(nullValue()));
+        assertThat(extractBody(message).toString(), is(equalTo(body)));
+        assertChannelState();
+    }
+
+    @Test
+    void shouldProduceMessageWithExceptionIfFixedLengthBodyLargerThanMaxBodySize() {
+        // Given
+        channel.attr(ChannelAttributes.MAX_BODY_SIZE).set(15);
+        String content = getPrimeHeader() + "Content-Length: 16\r\n\r\n0123456789012345";
+        // When
+        written(content, true);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(message.getUserObject(), is(instanceOf(BodyTooLargeException.class)));
+        BodyTooLargeException exception = (BodyTooLargeException) message.getUserObject();
+        assertThat(exception.getMaxSize(), is(equalTo(15)));
+        assertThat(extractBody(message).toString(), is(equalTo("")));
+        assertChannelState();
+    }
+
+    @Test
+    void shouldProduceMessageWithExceptionIfChunkedBodyLargerThanMaxBodySize() {
+        // Given
+        channel.attr(ChannelAttributes.MAX_BODY_SIZE).set(6);
+        written(getPrimeHeader() + "Transfer-Encoding: chunked\r\n\r\n3\r\nAbc\r\n", false);
+        // When
+        written("4\r\nwxyz\r\n0\r\n\r\n", true);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(message.getUserObject(), is(instanceOf(BodyTooLargeException.class)));
+        assertThat(extractBody(message).toString(), is(equalTo("")));
+        assertChannelState();
+    }
+
+    @Test
+    void shouldReadChunkedBodyWithMaxBodySize() {
+        // Given
+        channel.attr(ChannelAttributes.MAX_BODY_SIZE).set(7);
+        String content =
+                getPrimeHeader()
+                        + "Transfer-Encoding: chunked\r\n\r\n3\r\nAbc\r\n4\r\nwxyz\r\n0\r\n\r\n";
+        // When
+        written(content, true);
+        // Then
+        HttpMessage message = channel.readInbound();
+        assertThat(message, is(notNullValue()));
+        assertThat(message.getUserObject(), is(nullValue()));
+        assertThat(extractBody(message).toString(), is(equalTo("Abcwxyz")));
+        assertChannelState();
+    }
+
     @Test
     void shouldProduceMessageWithExceptionIfChannelClosedBeforeSendingFullFixedLengthBody() {
         // Given / When
@@ -309,7 +430,7 @@ abstract class HttpMessageDecoderUnitTest {
     }
 
     @ParameterizedTest
-    @ValueSource(ints = {1, MAX_CHUNK_SIZE - 1, MAX_CHUNK_SIZE, MAX_CHUNK_SIZE + 1})
+    @ValueSource(ints = {1, 79, 80, 81, 8192})
     void shouldReadChunkedBodyIncrementally(int batchSize) {
         // Given
         String body = StringUtils.repeat("A", batchSize);
@@ -28,6 +28,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInRelativeOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
@@ -52,6 +55,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.opentest4j.AssertionFailedError;
 import org.zaproxy.addon.network.internal.ChannelAttributes;
+import org.zaproxy.addon.network.server.ChannelSocket;
 
 /** Unit test for {@link LegacySocketAdapter}. */
 @Timeout(5)
@@ -413,11 +417,56 @@ class LegacySocketAdapterUnitTest {
         assertThat(inboundChannel.isActive(), is(equalTo(false)));
     }
 
+    @Test
+    void shouldProvideChannelThroughTheSocket() throws Exception {
+        // Given
+        socketAdapter = new LegacySocketAdapter(inboundChannel);
+        // When
+        Socket socket = socketAdapter.getSocket();
+        // Then
+        assertThat(socket, is(instanceOf(ChannelSocket.class)));
+        assertThat(((ChannelSocket) socket).getChannel(), is(sameInstance(inboundChannel)));
+    }
+
+    @Test
+    void shouldReplaceInputHandlerPassingPendingData() throws Exception {
+        // Given
+        socketAdapter = new LegacySocketAdapter(inboundChannel);
+        written("Pending ");
+        DataHandler handler = new DataHandler();
+        // When
+        ((ChannelSocket) socketAdapter.getSocket()).replaceInputHandler(handler);
+        inboundChannel.runPendingTasks();
+        written("data");
+        // Then
+        assertThat(pipeline.names(), not(hasItem(LegacySocketAdapter.HANDLER_NAME)));
+        assertThat(handler.data.toString(), is(equalTo("Pending data")));
+    }
+
+    @Test
+    void shouldThrowIfNoReplacementInputHandlers() throws Exception {
+        // Given
+        socketAdapter = new LegacySocketAdapter(inboundChannel);
+        ChannelSocket socket = (ChannelSocket) socketAdapter.getSocket();
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> socket.replaceInputHandler());
+    }
+
     private void written(String content) {
         ByteBuf buf = Unpooled.copiedBuffer(content, StandardCharsets.US_ASCII);
         assertThat(inboundChannel.writeInbound(buf), is(equalTo(false)));
     }
 
+    private static class DataHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final StringBuilder data = new StringBuilder();
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+            data.append(msg.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
     private static class DummyHandler extends SimpleChannelInboundHandler<Object> {
         @Override
         protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {}
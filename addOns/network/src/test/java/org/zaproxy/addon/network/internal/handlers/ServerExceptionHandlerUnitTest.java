@@ -27,10 +27,13 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.timeout.ReadTimeoutException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import javax.net.ssl.SSLHandshakeException;
@@ -45,6 +48,8 @@ import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.security.MissingRootCertificateException;
 import org.zaproxy.addon.network.TestLogAppender;
 import org.zaproxy.addon.network.internal.cert.GenerationException;
+import org.zaproxy.addon.network.internal.codec.BodyTooLargeException;
+import org.zaproxy.addon.network.internal.codec.HttpResponseEncoder;
 
 /** Unit test for {@link ServerExceptionHandler}. */
 class ServerExceptionHandlerUnitTest {
@@ -169,6 +174,31 @@ class ServerExceptionHandlerUnitTest {
         assertThat(logEvents, hasItem(startsWith("WARN Received malformed header: Missing xyz")));
     }
 
+    @Test
+    void shouldRespondPayloadTooLargeAndCloseChannelOnBodyTooLargeException() throws Exception {
+        // Given
+        EmbeddedChannel channel =
+                new EmbeddedChannel(HttpResponseEncoder.getInstance(), serverExceptionHandler);
+        Exception exception = new BodyTooLargeException(2);
+        // When
+        channel.pipeline().fireExceptionCaught(exception);
+        // Then
+        ByteBuf response = channel.readOutbound();
+        assertThat(
+                response.toString(StandardCharsets.US_ASCII),
+                is(
+                        equalTo(
+                                "HTTP/1.1 413 Payload Too Large\r\n"
+                                        + "Connection: close\r\n"
+                                        + "Content-Type: text/plain; charset=UTF-8\r\n"
+                                        + "Content-Length: 57\r\n\r\n"
+                                        + "The body is larger than the maximum size allowed: 2 bytes")));
+        assertThat(channel.isActive(), is(equalTo(false)));
+        assertThat(
+                logEvents,
+                hasItem(startsWith("WARN Rejected message: The body is larger than the maximum")));
+    }
+
     @Test
     void shouldLogIoExceptionAsDebug() throws Exception {
         // Given
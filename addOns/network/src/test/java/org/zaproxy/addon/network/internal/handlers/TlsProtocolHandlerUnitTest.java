@@ -26,6 +26,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.BDDMockito.given;
@@ -55,6 +58,7 @@ import java.net.UnknownHostException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -400,11 +404,70 @@ class TlsProtocolHandlerUnitTest {
         assertThat(getCertificate(clientChannel), containsString("IPAddress: " + localAddress));
     }
 
+    @Test
+    void shouldResumeSessionsOfSameClient() throws Exception {
+        // Given
+        int port = server.start(Server.ANY_PORT);
+        SslContext sslCtx =
+                SslContextBuilder.forClient()
+                        .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                        .protocols(TlsUtils.TLS_V1_2)
+                        .build();
+        clientTls =
+                new TextTestClient(
+                        SERVER_ADDRESS,
+                        ch ->
+                                ch.pipeline()
+                                        .addFirst(
+                                                sslCtx.newHandler(
+                                                        ch.alloc(), SERVER_ADDRESS, port)));
+        TlsHandshakeStats stats = TlsProtocolHandler.getHandshakeStats();
+        long handshakes = stats.getHandshakes();
+        long resumedHandshakes = stats.getResumedHandshakes();
+        // When
+        Channel clientChannel1 = clientTls.connect(port, "First connection.");
+        Channel clientChannel2 = clientTls.connect(port, "Second connection.");
+        // Then
+        assertThat(getSessionId(clientChannel2), is(equalTo(getSessionId(clientChannel1))));
+        assertThat(stats.getHandshakes(), is(greaterThanOrEqualTo(handshakes + 2)));
+        assertThat(stats.getResumedHandshakes(), is(greaterThanOrEqualTo(resumedHandshakes + 1)));
+    }
+
+    @Test
+    void shouldNotResumeSessionsAfterSslContextsCleared() throws Exception {
+        // Given
+        int port = server.start(Server.ANY_PORT);
+        SslContext sslCtx =
+                SslContextBuilder.forClient()
+                        .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                        .protocols(TlsUtils.TLS_V1_2)
+                        .build();
+        clientTls =
+                new TextTestClient(
+                        SERVER_ADDRESS,
+                        ch ->
+                                ch.pipeline()
+                                        .addFirst(
+                                                sslCtx.newHandler(
+                                                        ch.alloc(), SERVER_ADDRESS, port)));
+        Channel clientChannel1 = clientTls.connect(port, "First connection.");
+        // When
+        TlsProtocolHandler.clearSslContexts();
+        Channel clientChannel2 = clientTls.connect(port, "Second connection.");
+        // Then
+        assertThat(getSessionId(clientChannel2), is(not(equalTo(getSessionId(clientChannel1)))));
+    }
+
     private void waitForServerChannel() throws InterruptedException {
         serverChannelReady.await(5, TimeUnit.SECONDS);
         assertThat(serverChannel, is(notNullValue()));
     }
 
+    private static String getSessionId(Channel clientChannel) {
+        return Arrays.toString(
+                clientChannel.pipeline().get(SslHandler.class).engine().getSession().getId());
+    }
+
     private static String getCertificate(Channel clientChannel) throws Exception {
         return clientChannel
                 .pipeline()
@@ -0,0 +1,119 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.network.internal.server;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/** Unit test for {@link HandlerExecutor}. */
+class HandlerExecutorUnitTest {
+
+    private HandlerExecutor executor;
+    private EventExecutorGroup group;
+
+    @BeforeEach
+    void setUp() {
+        executor = new HandlerExecutor(4, new DefaultThreadFactory("ZAP-Test"));
+        group = executor.createGroup();
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        group.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldPreserveOrderOfTasksOfSameExecutor() throws Exception {
+        // Given
+        EventExecutor channelExecutor = group.next();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(5);
+        // When
+        for (int i = 0; i < 5; i++) {
+            int task = i;
+            channelExecutor.execute(
+                    () -> {
+                        order.add(task);
+                        done.countDown();
+                    });
+        }
+        // Then
+        done.await();
+        assertThat(order, contains(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldNotBlockOtherExecutorsWhenOneIsBlocked() throws Exception {
+        // Given
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        group.next().execute(() -> awaitUninterruptibly(blocker));
+        // When
+        group.next().execute(otherDone::countDown);
+        // Then
+        boolean otherExecuted = otherDone.await(5, TimeUnit.SECONDS);
+        blocker.countDown();
+        assertThat(otherExecuted, is(equalTo(true)));
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldTrackTasksExecutedAndWaitTime() throws Exception {
+        // Given
+        CountDownLatch done = new CountDownLatch(3);
+        // When
+        for (int i = 0; i < 3; i++) {
+            group.next().execute(done::countDown);
+        }
+        // Then
+        done.await();
+        assertThat(executor.getTasksExecuted(), is(greaterThanOrEqualTo(3L)));
+        assertThat(executor.getAverageWaitTimeMillis(), is(greaterThanOrEqualTo(0L)));
+        assertThat(
+                executor.getMaxWaitTimeMillis(),
+                is(greaterThanOrEqualTo(executor.getAverageWaitTimeMillis())));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -29,6 +29,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -189,6 +190,40 @@ class HttpSenderHandlerUnitTest extends TestUtils {
         assertThat(message.getResponseBody().toString(), is(equalTo("")));
     }
 
+    @Test
+    void shouldCountMessagesInFlightAndForwarded() throws Exception {
+        // Given
+        given(ctx.isFromClient()).willReturn(true);
+        HttpMessage message = createServerRequest("GET / HTTP/1.1");
+        int[] inFlightWhileSending = {-1};
+        doAnswer(
+                        invocation -> {
+                            inFlightWhileSending[0] = handler.getInFlightCount();
+                            return null;
+                        })
+                .when(httpSender)
+                .sendAndReceive(message);
+        // When
+        handler.handleMessage(ctx, message);
+        // Then
+        assertThat(inFlightWhileSending[0], is(equalTo(1)));
+        assertThat(handler.getInFlightCount(), is(equalTo(0)));
+        assertThat(handler.getForwardedCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldCountMessagesForwardedEvenIfFailed() throws Exception {
+        // Given
+        given(ctx.isFromClient()).willReturn(true);
+        HttpMessage message = createServerRequest("GET / HTTP/1.1");
+        doThrow(IOException.class).when(httpSender).sendAndReceive(message);
+        // When
+        handler.handleMessage(ctx, message);
+        // Then
+        assertThat(handler.getInFlightCount(), is(equalTo(0)));
+        assertThat(handler.getForwardedCount(), is(equalTo(1L)));
+    }
+
     private void verifyMessageSent(HttpMessage message) throws IOException {
         verify(httpSender, times(1)).sendAndReceive(message);
         verify(httpSender, times(0)).sendAndReceive(any(), anyBoolean());
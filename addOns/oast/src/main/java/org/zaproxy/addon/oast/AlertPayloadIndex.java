@@ -0,0 +1,293 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.oast;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.core.scanner.Alert;
+
+/**
+ * An index of the alerts waiting for an interaction with their payload.
+ *
+ * <p>The payloads are indexed by their token, the longest sequence of alphanumeric characters,
+ * hyphens and underscores (e.g. the UUID of a callback payload or the unique ID of an Interactsh
+ * or BOAST payload), which allows to correlate the interactions by looking up the tokens of the
+ * URI instead of checking every payload. The payloads with the same token are kept together, each
+ * is confirmed to be contained in the URI.
+ *
+ * <p>The alerts are softly referenced, the entries are removed once the alerts are collected or
+ * when the index is cleared (e.g. session changed). Safe for concurrent use.
+ */
+final class AlertPayloadIndex {
+
+    private static final Logger LOGGER = LogManager.getLogger(AlertPayloadIndex.class);
+
+    private final Map<String, Map<String, Entry>> entries;
+    private final Set<Integer> tokenLengths;
+    private final ReferenceQueue<Alert> collectedAlerts;
+
+    private final LongAdder payloadsRegistered;
+    private final LongAdder payloadsExpired;
+    private final LongAdder interactionsCorrelated;
+    private final LongAdder interactionsUncorrelated;
+    private final LongAdder totalCorrelationLatencyMillis;
+    private final AtomicLong maxCorrelationLatencyMillis;
+
+    AlertPayloadIndex() {
+        entries = new ConcurrentHashMap<>();
+        tokenLengths = ConcurrentHashMap.newKeySet();
+        collectedAlerts = new ReferenceQueue<>();
+
+        payloadsRegistered = new LongAdder();
+        payloadsExpired = new LongAdder();
+        interactionsCorrelated = new LongAdder();
+        interactionsUncorrelated = new LongAdder();
+        totalCorrelationLatencyMillis = new LongAdder();
+        maxCorrelationLatencyMillis = new AtomicLong();
+    }
+
+    /**
+     * Registers the given alert, to be raised when an interaction with the given payload is
+     * received.
+     *
+     * @param payload the payload.
+     * @param alert the alert.
+     */
+    void register(String payload, Alert alert) {
+        removeCollectedAlerts();
+
+        String token = getToken(payload);
+        if (token.isEmpty()) {
+            return;
+        }
+        tokenLengths.add(token.length());
+        Entry entry = new Entry(token, payload, alert, collectedAlerts, System.nanoTime());
+        entries.compute(
+                token,
+                (k, payloads) -> {
+                    if (payloads == null) {
+                        payloads = new ConcurrentHashMap<>();
+                    }
+                    Entry previous = payloads.put(payload, entry);
+                    if (previous != null) {
+                        previous.clear();
+                    }
+                    return payloads;
+                });
+        payloadsRegistered.increment();
+    }
+
+    /**
+     * Gets the alert whose payload is contained in the given URI.
+     *
+     * @param uri the URI of the interaction.
+     * @return the alert, or {@code null} if none or if the alert was already collected.
+     */
+    Alert get(String uri) {
+        removeCollectedAlerts();
+
+        Entry entry = find(uri);
+        if (entry == null) {
+            interactionsUncorrelated.increment();
+            return null;
+        }
+
+        Alert alert = entry.get();
+        if (alert == null) {
+            LOGGER.warn(
+                    "Soft reference to alert object for interaction at {} expired. Not raising alert.",
+                    uri);
+            remove(entry);
+            return null;
+        }
+
+        interactionsCorrelated.increment();
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.registrationTime);
+        totalCorrelationLatencyMillis.add(latency);
+        maxCorrelationLatencyMillis.accumulateAndGet(latency, Math::max);
+        return alert;
+    }
+
+    private Entry find(String uri) {
+        int length = uri.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && !isTokenChar(uri.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < length && isTokenChar(uri.charAt(end))) {
+                end++;
+            }
+            int segmentLength = end - start;
+            if (segmentLength != 0) {
+                Entry entry = lookUp(uri, start, segmentLength);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+            start = end;
+        }
+        return null;
+    }
+
+    private Entry lookUp(String uri, int start, int segmentLength) {
+        for (int tokenLength : tokenLengths) {
+            // The token might be followed by other characters (e.g. callback path).
+            if (tokenLength <= segmentLength) {
+                Map<String, Entry> payloads =
+                        entries.get(uri.substring(start, start + tokenLength));
+                if (payloads == null) {
+                    continue;
+                }
+                for (Entry entry : payloads.values()) {
+                    if (uri.contains(entry.payload)) {
+                        return entry;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Clears the index, for example, when the session changes. */
+    void clear() {
+        entries.clear();
+        tokenLengths.clear();
+        removeCollectedAlerts();
+    }
+
+    private void removeCollectedAlerts() {
+        Reference<? extends Alert> reference;
+        while ((reference = collectedAlerts.poll()) != null) {
+            remove((Entry) reference);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.computeIfPresent(
+                entry.token,
+                (k, payloads) -> {
+                    if (payloads.remove(entry.payload, entry)) {
+                        payloadsExpired.increment();
+                    }
+                    return payloads.isEmpty() ? null : payloads;
+                });
+    }
+
+    int getPayloadsPending() {
+        return entries.values().stream().mapToInt(Map::size).sum();
+    }
+
+    long getPayloadsRegistered() {
+        return payloadsRegistered.sum();
+    }
+
+    long getPayloadsExpired() {
+        return payloadsExpired.sum();
+    }
+
+    long getInteractionsCorrelated() {
+        return interactionsCorrelated.sum();
+    }
+
+    long getInteractionsUncorrelated() {
+        return interactionsUncorrelated.sum();
+    }
+
+    /**
+     * Gets the average time, in milliseconds, between the registration of the payloads and the
+     * correlated interactions.
+     *
+     * @return the average correlation latency.
+     */
+    long getAverageCorrelationLatencyMillis() {
+        long count = interactionsCorrelated.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return totalCorrelationLatencyMillis.sum() / count;
+    }
+
+    /**
+     * Gets the maximum time, in milliseconds, between the registration of a payload and a
+     * correlated interaction.
+     *
+     * @return the maximum correlation latency.
+     */
+    long getMaxCorrelationLatencyMillis() {
+        return maxCorrelationLatencyMillis.get();
+    }
+
+    static String getToken(String payload) {
+        int tokenStart = 0;
+        int tokenLength = 0;
+        int length = payload.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && isTokenChar(payload.charAt(end))) {
+                end++;
+            }
+            if (end - start > tokenLength) {
+                tokenStart = start;
+                tokenLength = end - start;
+            }
+            start = end + 1;
+        }
+        return payload.substring(tokenStart, tokenStart + tokenLength);
+    }
+
+    private static boolean isTokenChar(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '-'
+                || c == '_';
+    }
+
+    private static class Entry extends SoftReference<Alert> {
+
+        private final String token;
+        private final String payload;
+        private final long registrationTime;
+
+        Entry(
+                String token,
+                String payload,
+                Alert alert,
+                ReferenceQueue<Alert> queue,
+                long registrationTime) {
+            super(alert, queue);
+            this.token = token;
+            this.payload = payload;
+            this.registrationTime = registrationTime;
+        }
+    }
+}
@@ -24,8 +24,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
@@ -71,8 +69,7 @@ public class ExtensionOast extends ExtensionAdaptor {
             Collections.unmodifiableList(Arrays.asList(ExtensionNetwork.class));
 
     private final Map<String, OastService> services = new HashMap<>();
-    private final ReferenceMap alertCache =
-            new ReferenceMap(AbstractReferenceMap.HARD, AbstractReferenceMap.SOFT);
+    private final AlertPayloadIndex alertIndex = new AlertPayloadIndex();
     private OastOptionsPanel oastOptionsPanel;
     private OastPanel oastPanel;
     private OastParam oastParam;
@@ -109,7 +106,7 @@ public class ExtensionOast extends ExtensionAdaptor {
         registerOastService(callbackService);
         registerOastService(interactshService);
 
-        extensionHook.addApiImplementor(new OastApi());
+        extensionHook.addApiImplementor(new OastApi(alertIndex));
         extensionHook.addSessionListener(new OastSessionChangedListener());
 
         oastParam = new OastParam();
@@ -234,73 +231,67 @@ public class ExtensionOast extends ExtensionAdaptor {
 
     public String registerAlertAndGetPayloadForCallbackService(Alert alert, String handler) {
         String payload = callbackService.getNewPayload(handler);
-        alertCache.put(payload, alert);
+        alertIndex.register(payload, alert);
         return payload;
     }
 
     public String registerAlertAndGetPayload(Alert alert) throws Exception {
         if (getActiveScanOastService() != null) {
             String payload = getActiveScanOastService().getNewPayload();
-            alertCache.put(payload, alert);
+            alertIndex.register(payload, alert);
             return payload;
         }
         return null;
     }
 
-    @SuppressWarnings("unchecked")
     private void activeScanAlertOastRequestHandler(OastRequest request) {
         try {
             HttpMessage oastReceivedMsg = request.getHistoryReference().getHttpMessage();
             String uri = oastReceivedMsg.getRequestHeader().getURI().toString();
-            if (alertCache.keySet().stream().noneMatch(k -> uri.contains(k.toString()))) {
-                return;
-            }
-            Alert alert = null;
-            for (Object k : alertCache.keySet()) {
-                String key = k.toString();
-                if (uri.contains(key)) {
-                    alert = (Alert) alertCache.get(key);
-                }
-            }
+            Alert alert = alertIndex.get(uri);
             if (alert == null) {
-                LOGGER.warn(
-                        "Soft reference to alert object for interaction at {} expired. Not raising alert.",
-                        uri);
                 return;
             }
-            alert.setOtherInfo(
-                    alert.getOtherInfo()
-                            + '\n'
-                            + Constant.messages.getString("oast.alert.otherinfo.request")
-                            + '\n'
-                            + oastReceivedMsg.getRequestHeader()
-                            + oastReceivedMsg.getRequestBody()
-                            + '\n'
-                            + Constant.messages.getString("oast.alert.otherinfo.response")
-                            + '\n'
-                            + oastReceivedMsg.getResponseHeader()
-                            + oastReceivedMsg.getResponseBody()
-                            + "\n--------------------------------");
-            if (alert.getAlertId() == -1) {
-                Map<String, String> alertTags = new HashMap<>(alert.getTags());
-                alertTags.putIfAbsent(OAST_ALERT_TAG_KEY, OAST_ALERT_TAG_VALUE);
-                alert.setTags(alertTags);
-                alert.setEvidence(oastReceivedMsg.getRequestHeader().getPrimeHeader());
-                Control.getSingleton()
-                        .getExtensionLoader()
-                        .getExtension(ExtensionAlert.class)
-                        .alertFound(alert, null);
-            } else {
-                Control.getSingleton()
-                        .getExtensionLoader()
-                        .getExtension(ExtensionAlert.class)
-                        .updateAlert(alert);
+            synchronized (alert) {
+                raiseOrUpdateAlert(alert, oastReceivedMsg);
             }
         } catch (Exception e) {
             LOGGER.error("Could not handle OAST request.", e);
         }
     }
 
+    private static void raiseOrUpdateAlert(Alert alert, HttpMessage oastReceivedMsg)
+            throws HttpMalformedHeaderException, DatabaseException {
+        alert.setOtherInfo(
+                alert.getOtherInfo()
+                        + '\n'
+                        + Constant.messages.getString("oast.alert.otherinfo.request")
+                        + '\n'
+                        + oastReceivedMsg.getRequestHeader()
+                        + oastReceivedMsg.getRequestBody()
+                        + '\n'
+                        + Constant.messages.getString("oast.alert.otherinfo.response")
+                        + '\n'
+                        + oastReceivedMsg.getResponseHeader()
+                        + oastReceivedMsg.getResponseBody()
+                        + "\n--------------------------------");
+        if (alert.getAlertId() == -1) {
+            Map<String, String> alertTags = new HashMap<>(alert.getTags());
+            alertTags.putIfAbsent(OAST_ALERT_TAG_KEY, OAST_ALERT_TAG_VALUE);
+            alert.setTags(alertTags);
+            alert.setEvidence(oastReceivedMsg.getRequestHeader().getPrimeHeader());
+            Control.getSingleton()
+                    .getExtensionLoader()
+                    .getExtension(ExtensionAlert.class)
+                    .alertFound(alert, null);
+        } else {
+            Control.getSingleton()
+                    .getExtensionLoader()
+                    .getExtension(ExtensionAlert.class)
+                    .updateAlert(alert);
+        }
+    }
+
     @Override
     public boolean supportsDb(String type) {
         return true;
@@ -333,7 +324,7 @@ public class ExtensionOast extends ExtensionAdaptor {
             }
             getOastServices().values().forEach(OastService::sessionChanged);
             getOastServices().values().forEach(OastService::clearOastRequestHandlers);
-            alertCache.clear();
+            alertIndex.clear();
             for (OastService s : getOastServices().values()) {
                 if (hasView()) {
                     s.addOastRequestHandler(o -> getOastPanel().addOastRequest(o));
@@ -19,14 +19,59 @@
  */
 package org.zaproxy.addon.oast;
 
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.json.JSONObject;
+import org.zaproxy.zap.extension.api.ApiException;
+import org.zaproxy.zap.extension.api.ApiException.Type;
 import org.zaproxy.zap.extension.api.ApiImplementor;
+import org.zaproxy.zap.extension.api.ApiResponse;
+import org.zaproxy.zap.extension.api.ApiResponseSet;
+import org.zaproxy.zap.extension.api.ApiView;
 
 public class OastApi extends ApiImplementor {
 
     private static final String PREFIX = "oast";
 
+    private static final String VIEW_ALERT_PAYLOADS_STATS = "alertPayloadsStats";
+
+    private final AlertPayloadIndex alertIndex;
+
+    public OastApi() {
+        this(null);
+    }
+
+    OastApi(AlertPayloadIndex alertIndex) {
+        this.alertIndex = alertIndex;
+
+        this.addApiView(new ApiView(VIEW_ALERT_PAYLOADS_STATS));
+    }
+
     @Override
     public String getPrefix() {
         return PREFIX;
     }
+
+    @Override
+    public ApiResponse handleApiView(String name, JSONObject params) throws ApiException {
+        switch (name) {
+            case VIEW_ALERT_PAYLOADS_STATS:
+                if (alertIndex == null) {
+                    throw new ApiException(Type.BAD_VIEW);
+                }
+                Map<String, Object> stats = new HashMap<>();
+                stats.put("payloadsRegistered", alertIndex.getPayloadsRegistered());
+                stats.put("payloadsPending", alertIndex.getPayloadsPending());
+                stats.put("payloadsExpired", alertIndex.getPayloadsExpired());
+                stats.put("interactionsCorrelated", alertIndex.getInteractionsCorrelated());
+                stats.put("interactionsUncorrelated", alertIndex.getInteractionsUncorrelated());
+                stats.put(
+                        "averageCorrelationLatency",
+                        alertIndex.getAverageCorrelationLatencyMillis());
+                stats.put("maxCorrelationLatency", alertIndex.getMaxCorrelationLatencyMillis());
+                return new ApiResponseSet<>(name, stats);
+            default:
+                throw new ApiException(Type.BAD_VIEW);
+        }
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.addon.oast;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.parosproxy.paros.core.scanner.Alert;
+
+/** Unit test for {@link AlertPayloadIndex}. */
+class AlertPayloadIndexUnitTest {
+
+    private static final String CALLBACK_PAYLOAD =
+            "http://192.0.2.1:8080/1b4e28ba-2fa1-11d2-883f-0016d3cca427";
+    private static final String INTERACTSH_PAYLOAD =
+            "a.c58bduhe008dovpvhvugcfemp9yyyyyyn.interact.sh";
+    private static final String BOAST_PAYLOAD = "zuatvf5gmjcvf2yrmgc5y4bz3i.odiss.eu";
+
+    private AlertPayloadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AlertPayloadIndex();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        CALLBACK_PAYLOAD + ", 1b4e28ba-2fa1-11d2-883f-0016d3cca427",
+        INTERACTSH_PAYLOAD + ", c58bduhe008dovpvhvugcfemp9yyyyyyn",
+        BOAST_PAYLOAD + ", zuatvf5gmjcvf2yrmgc5y4bz3i"
+    })
+    void shouldGetLongestTokenOfPayload(String payload, String token) {
+        assertThat(AlertPayloadIndex.getToken(payload), is(equalTo(token)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        CALLBACK_PAYLOAD + ", " + CALLBACK_PAYLOAD,
+        CALLBACK_PAYLOAD + ", " + CALLBACK_PAYLOAD + "/path?a=b",
+        CALLBACK_PAYLOAD + ", " + CALLBACK_PAYLOAD + "abc",
+        INTERACTSH_PAYLOAD + ", http://" + INTERACTSH_PAYLOAD + "/",
+        INTERACTSH_PAYLOAD + ", http://sub." + INTERACTSH_PAYLOAD,
+        BOAST_PAYLOAD + ", http://" + BOAST_PAYLOAD + "."
+    })
+    void shouldGetAlertOfPayloadContainedInUri(String payload, String uri) {
+        // Given
+        Alert alert = new Alert(1);
+        index.register("http://192.0.2.1:8080/other-payload", new Alert(2));
+        index.register(payload, alert);
+        // When
+        Alert correlatedAlert = index.get(uri);
+        // Then
+        assertThat(correlatedAlert, is(sameInstance(alert)));
+        assertThat(index.getInteractionsCorrelated(), is(equalTo(1L)));
+        assertThat(index.getInteractionsUncorrelated(), is(equalTo(0L)));
+    }
+
+    @Test
+    void shouldNotGetAlertIfUriDoesNotContainWholePayload() {
+        // Given
+        index.register(CALLBACK_PAYLOAD, new Alert(1));
+        // When
+        Alert alert = index.get("http://192.0.2.2:8080/1b4e28ba-2fa1-11d2-883f-0016d3cca427");
+        // Then
+        assertThat(alert, is(nullValue()));
+        assertThat(index.getInteractionsCorrelated(), is(equalTo(0L)));
+        assertThat(index.getInteractionsUncorrelated(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldGetAlertsOfPayloadsWithSameToken() {
+        // Given
+        String otherPayload = "b.c58bduhe008dovpvhvugcfemp9yyyyyyn.interact.sh";
+        Alert alert = new Alert(1);
+        Alert otherAlert = new Alert(2);
+        index.register(INTERACTSH_PAYLOAD, alert);
+        index.register(otherPayload, otherAlert);
+        // When
+        Alert correlatedAlert = index.get("http://" + INTERACTSH_PAYLOAD);
+        Alert otherCorrelatedAlert = index.get("http://" + otherPayload);
+        // Then
+        assertThat(correlatedAlert, is(sameInstance(alert)));
+        assertThat(otherCorrelatedAlert, is(sameInstance(otherAlert)));
+        assertThat(index.getPayloadsPending(), is(equalTo(2)));
+        assertThat(index.getInteractionsCorrelated(), is(equalTo(2L)));
+    }
+
+    @Test
+    void shouldReplaceAlertOfSamePayload() {
+        // Given
+        Alert alert = new Alert(1);
+        index.register(BOAST_PAYLOAD, new Alert(2));
+        index.register(BOAST_PAYLOAD, alert);
+        // When
+        Alert correlatedAlert = index.get("http://" + BOAST_PAYLOAD);
+        // Then
+        assertThat(correlatedAlert, is(sameInstance(alert)));
+        assertThat(index.getPayloadsPending(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldNotGetAlertsAfterClear() {
+        // Given
+        index.register(INTERACTSH_PAYLOAD, new Alert(1));
+        // When
+        index.clear();
+        // Then
+        assertThat(index.get("http://" + INTERACTSH_PAYLOAD), is(nullValue()));
+        assertThat(index.getPayloadsPending(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldCountPayloadsRegistered() {
+        // Given / When
+        index.register(CALLBACK_PAYLOAD, new Alert(1));
+        index.register(INTERACTSH_PAYLOAD, new Alert(1));
+        index.register(BOAST_PAYLOAD, new Alert(1));
+        // Then
+        assertThat(index.getPayloadsRegistered(), is(equalTo(3L)));
+        assertThat(index.getPayloadsPending(), is(equalTo(3)));
+    }
+
+    @Test
+    void shouldTrackCorrelationLatency() {
+        // Given
+        index.register(BOAST_PAYLOAD, new Alert(1));
+        // When
+        index.get("http://" + BOAST_PAYLOAD);
+        // Then
+        assertThat(
+                index.getMaxCorrelationLatencyMillis(),
+                is(equalTo(index.getAverageCorrelationLatencyMillis())));
+    }
+}
@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,7 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.MultiPatternMatcher;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 import org.zaproxy.zap.utils.ContentMatcher;
 
@@ -78,6 +80,10 @@ public class ApplicationErrorScanRule extends PluginPassiveScanner {
     // Inner Content Matcher component with pattern definitions
     private ContentMatcher matcher = null;
 
+    // The custom payloads, to find them all in a single pass, rebuilt when the payloads change
+    private static volatile PayloadsMatcher payloadsMatcher =
+            new PayloadsMatcher(Collections.emptyList());
+
     private ContentMatcher getContentMatcher() {
         if (matcher == null) {
             Path path = Paths.get(APP_ERRORS_FILE);
@@ -170,11 +176,11 @@ public class ApplicationErrorScanRule extends PluginPassiveScanner {
         } else if (!getHelper().isPage404(msg)
                 && !msg.getResponseHeader().hasContentType("application/wasm")) {
             String body = msg.getResponseBody().toString();
-            for (String payload : getCustomPayloads().get()) {
-                if (body.contains(payload)) {
-                    raiseAlert(msg, id, payload, getRisk());
-                    return;
-                }
+            MultiPatternMatcher.Match<String> payloadMatch =
+                    getPayloadsMatcher().findFirst(body);
+            if (payloadMatch != null) {
+                raiseAlert(msg, id, payloadMatch.getKey(), getRisk());
+                return;
             }
             String evidence = getContentMatcher().findInContent(body);
             if (evidence != null) {
@@ -204,6 +210,32 @@ public class ApplicationErrorScanRule extends PluginPassiveScanner {
         return payloadProvider;
     }
 
+    private static MultiPatternMatcher<String> getPayloadsMatcher() {
+        List<String> payloads = new ArrayList<>();
+        getCustomPayloads().get().forEach(payloads::add);
+
+        PayloadsMatcher current = payloadsMatcher;
+        if (!current.payloads.equals(payloads)) {
+            current = new PayloadsMatcher(payloads);
+            payloadsMatcher = current;
+        }
+        return current.matcher;
+    }
+
+    private static class PayloadsMatcher {
+
+        private final List<String> payloads;
+        private final MultiPatternMatcher<String> matcher;
+
+        PayloadsMatcher(List<String> payloads) {
+            this.payloads = payloads;
+
+            MultiPatternMatcher.Builder<String> builder = MultiPatternMatcher.builder();
+            payloads.forEach(payload -> builder.addLiteral(payload, payload));
+            this.matcher = builder.build();
+        }
+    }
+
     public static void setPayloadProvider(Supplier<Iterable<String>> provider) {
         payloadProvider = provider == null ? DEFAULT_PAYLOAD_PROVIDER : provider;
     }
@@ -28,19 +28,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
-import net.htmlparser.jericho.StartTagType;
-import net.htmlparser.jericho.Tag;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.MessageAnalysisContext;
+import org.zaproxy.addon.commonlib.MultiPatternMatcher;
 import org.zaproxy.addon.commonlib.ResourceIdentificationUtils;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -62,74 +59,45 @@ public class InformationDisclosureSuspiciousCommentsScanRule extends PluginPassi
     private static final Logger logger =
             LogManager.getLogger(InformationDisclosureSuspiciousCommentsScanRule.class);
 
-    private static List<Pattern> patterns = null;
+    private static MultiPatternMatcher<Pattern> patterns = null;
 
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
 
-        List<Pattern> patterns = getPatterns();
+        MultiPatternMatcher<Pattern> patterns = getPatterns();
         Map<String, List<AlertSummary>> alertMap = new HashMap<>();
 
-        if (msg.getResponseBody().length() > 0 && msg.getResponseHeader().isText()) {
+        if (msg.getResponseBody().length() > 0
+                && msg.getResponseHeader().isText()
+                && patterns.size() > 0) {
 
+            MessageAnalysisContext context = MessageAnalysisContext.get(msg, source);
             if (ResourceIdentificationUtils.isJavaScript(msg)) {
                 // Just treat as text
-                String[] lines = msg.getResponseBody().toString().split("\n");
-                for (String line : lines) {
-                    for (Pattern pattern : patterns) {
-                        Matcher m = pattern.matcher(line);
-                        if (m.find()) {
-                            recordAlertSummary(
-                                    alertMap,
-                                    new AlertSummary(
-                                            pattern.toString(),
-                                            line,
-                                            Alert.CONFIDENCE_LOW,
-                                            m.group()));
-                            break; // Only need to record this line once
-                        }
+                // Screen the whole body at once, most do not have any suspicious comment
+                if (!patterns.findCandidates(context.getResponseBody()).isEmpty()) {
+                    int lines = context.getResponseBodyLineOffsets().length;
+                    for (int i = 0; i < lines; i++) {
+                        // Only need to record this line once
+                        recordFirstMatch(
+                                alertMap,
+                                patterns,
+                                context.getResponseBodyLine(i),
+                                Alert.CONFIDENCE_LOW);
                     }
                 }
             } else {
                 // Can use the parser
 
                 // Check the comments
-                List<Tag> tags = source.getAllTags(StartTagType.COMMENT);
-                for (Tag tag : tags) {
-                    String tagStr = tag.toString();
-                    for (Pattern pattern : patterns) {
-                        Matcher m = pattern.matcher(tagStr);
-                        if (m.find()) {
-                            recordAlertSummary(
-                                    alertMap,
-                                    new AlertSummary(
-                                            pattern.toString(),
-                                            tagStr,
-                                            Alert.CONFIDENCE_MEDIUM,
-                                            m.group()));
-                            break; // Only need to record this comment once
-                        }
-                    }
+                for (String comment : context.getResponseComments()) {
+                    // Only need to record this comment once
+                    recordFirstMatch(alertMap, patterns, comment, Alert.CONFIDENCE_MEDIUM);
                 }
                 // Check the scripts
-                Element el;
-                int offset = 0;
-                while ((el = source.getNextElement(offset, HTMLElementName.SCRIPT)) != null) {
-                    for (Pattern pattern : patterns) {
-                        String elStr = el.toString();
-                        Matcher m = pattern.matcher(elStr);
-                        if (m.find()) {
-                            recordAlertSummary(
-                                    alertMap,
-                                    new AlertSummary(
-                                            pattern.toString(),
-                                            elStr,
-                                            Alert.CONFIDENCE_LOW,
-                                            m.group()));
-                            break; // Only need to record this script once
-                        }
-                    }
-                    offset = el.getEnd();
+                for (String script : context.getResponseScripts()) {
+                    // Only need to record this script once
+                    recordFirstMatch(alertMap, patterns, script, Alert.CONFIDENCE_LOW);
                 }
             }
         }
@@ -157,6 +125,20 @@ public class InformationDisclosureSuspiciousCommentsScanRule extends PluginPassi
         }
     }
 
+    private static void recordFirstMatch(
+            Map<String, List<AlertSummary>> alertMap,
+            MultiPatternMatcher<Pattern> patterns,
+            String detail,
+            int confidence) {
+        MultiPatternMatcher.Match<Pattern> match = patterns.findFirst(detail);
+        if (match != null) {
+            recordAlertSummary(
+                    alertMap,
+                    new AlertSummary(
+                            match.getKey().toString(), detail, confidence, match.group()));
+        }
+    }
+
     private static void recordAlertSummary(
             Map<String, List<AlertSummary>> alertMap, AlertSummary summary) {
         alertMap.computeIfAbsent(summary.getPattern(), k -> new ArrayList<>()).add(summary);
@@ -183,9 +165,9 @@ public class InformationDisclosureSuspiciousCommentsScanRule extends PluginPassi
                 .raise();
     }
 
-    private static List<Pattern> getPatterns() {
+    private static MultiPatternMatcher<Pattern> getPatterns() {
         if (patterns == null) {
-            patterns = new ArrayList<>();
+            MultiPatternMatcher.Builder<Pattern> builder = MultiPatternMatcher.builder();
 
             try {
                 File f =
@@ -203,9 +185,10 @@ public class InformationDisclosureSuspiciousCommentsScanRule extends PluginPassi
                     while ((line = reader.readLine()) != null) {
                         line = line.trim();
                         if (!line.startsWith("#") && line.length() > 0) {
-                            patterns.add(
+                            Pattern pattern =
                                     Pattern.compile(
-                                            "\\b" + line + "\\b", Pattern.CASE_INSENSITIVE));
+                                            "\\b" + line + "\\b", Pattern.CASE_INSENSITIVE);
+                            builder.addPattern(pattern, pattern);
                         }
                     }
                 }
@@ -218,6 +201,7 @@ public class InformationDisclosureSuspiciousCommentsScanRule extends PluginPassi
                         suspiciousCommentsListFile,
                         e.getMessage());
             }
+            patterns = builder.build();
         }
         return patterns;
     }
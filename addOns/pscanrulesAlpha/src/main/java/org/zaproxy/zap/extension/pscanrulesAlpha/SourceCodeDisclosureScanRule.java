@@ -19,10 +19,8 @@
  */
 package org.zaproxy.zap.extension.pscanrulesAlpha;
 
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.htmlparser.jericho.Source;
 import org.apache.logging.log4j.LogManager;
@@ -31,6 +29,7 @@ import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.MultiPatternMatcher;
 import org.zaproxy.addon.commonlib.ResourceIdentificationUtils;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -49,6 +48,9 @@ public class SourceCodeDisclosureScanRule extends PluginPassiveScanner {
      */
     static Map<Pattern, String> languagePatterns = new LinkedHashMap<>();
 
+    /** The language patterns, to screen the response body in a single pass. */
+    private static final MultiPatternMatcher<String> LANGUAGE_PATTERNS_MATCHER;
+
     static {
         // PHP
         languagePatterns.put(
@@ -626,6 +628,10 @@ public class SourceCodeDisclosureScanRule extends PluginPassiveScanner {
 
         // TODO: consider sorting the patterns by decreasing pattern length, so more specific
         // patterns are tried before more general patterns
+
+        MultiPatternMatcher.Builder<String> builder = MultiPatternMatcher.builder();
+        languagePatterns.forEach((pattern, language) -> builder.addPattern(language, pattern));
+        LANGUAGE_PATTERNS_MATCHER = builder.build();
     }
 
     /** Prefix for internationalized messages used by this rule */
@@ -660,23 +666,20 @@ public class SourceCodeDisclosureScanRule extends PluginPassiveScanner {
         // get the body contents as a String, so we can match against it
         String responsebody = msg.getResponseBody().toString();
 
-        // try each of the patterns in turn against the response.
+        // try each of the patterns in turn against the response, screened in a single pass.
         // we deliberately do not assume that only status 200 responses will contain source code.
         String evidence = null;
         String programminglanguage = null;
-        Iterator<Pattern> patternIterator = languagePatterns.keySet().iterator();
-        while (patternIterator.hasNext()) {
-            Pattern languagePattern = patternIterator.next();
-            programminglanguage = languagePatterns.get(languagePattern);
-            Matcher matcher = languagePattern.matcher(responsebody);
-            if (matcher.find()) {
-                evidence = matcher.group();
-                log.debug(
-                        "Passive Source Code Disclosure on pattern {}, evidence: {}",
-                        languagePattern,
-                        evidence);
-                break; // use the first match
-            }
+        // use the first match
+        MultiPatternMatcher.Match<String> match =
+                LANGUAGE_PATTERNS_MATCHER.findFirst(responsebody);
+        if (match != null) {
+            programminglanguage = match.getKey();
+            evidence = match.group();
+            log.debug(
+                    "Passive Source Code Disclosure on pattern {}, evidence: {}",
+                    match.getPattern(),
+                    evidence);
         }
         if (evidence != null && evidence.length() > 0) {
             // we found something
@@ -19,9 +19,12 @@
  */
 package org.zaproxy.zap.extension.pscanrulesBeta;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.htmlparser.jericho.Source;
@@ -32,6 +35,7 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.MultiPatternMatcher;
 import org.zaproxy.addon.commonlib.ResourceIdentificationUtils;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -45,6 +49,9 @@ public class HashDisclosureScanRule extends PluginPassiveScanner {
     /** a map of a regular expression pattern to details of the Hash type found */
     static Map<Pattern, HashAlert> hashPatterns = new LinkedHashMap<>();
 
+    /** The hash patterns, to screen the contents in a single pass. */
+    private static final MultiPatternMatcher<Pattern> HASH_PATTERNS_MATCHER;
+
     static {
         // Traditional DES: causes *way* too many false positives to enable this..
         // Example: sa3tHJ3/KuYvI
@@ -151,6 +158,10 @@ public class HashDisclosureScanRule extends PluginPassiveScanner {
         //  - if the hash value can be re-generated, then it is a "reflection" attack
         //  - if the hash value cannot be re-generated using the available data, then perhaps it is
         // being retrieved from a database??? => Dangerous.
+
+        MultiPatternMatcher.Builder<Pattern> builder = MultiPatternMatcher.builder();
+        hashPatterns.keySet().forEach(pattern -> builder.addPattern(pattern, pattern));
+        HASH_PATTERNS_MATCHER = builder.build();
     }
 
     private static Logger log = LogManager.getLogger(HashDisclosureScanRule.class);
@@ -220,7 +231,6 @@ public class HashDisclosureScanRule extends PluginPassiveScanner {
     public void checkForHashes(HttpMessage msg, int id, String[] haystacks) {
         // try each of the patterns in turn against the response.
         String hashType = null;
-        Iterator<Pattern> patternIterator = hashPatterns.keySet().iterator();
 
         int minimumConfidence = Alert.CONFIDENCE_LOW;
         switch (this.getAlertThreshold()) {
@@ -232,16 +242,25 @@ public class HashDisclosureScanRule extends PluginPassiveScanner {
                 break;
         }
 
-        while (patternIterator.hasNext()) {
-            Pattern hashPattern = patternIterator.next();
-            HashAlert hashalert = hashPatterns.get(hashPattern);
+        // screen the patterns that might match each of the haystacks, in a single pass.
+        List<Set<Pattern>> candidates = new ArrayList<>(haystacks.length);
+        for (String haystack : haystacks) {
+            candidates.add(new HashSet<>(HASH_PATTERNS_MATCHER.findCandidates(haystack)));
+        }
+
+        for (Map.Entry<Pattern, HashAlert> entry : hashPatterns.entrySet()) {
+            Pattern hashPattern = entry.getKey();
+            HashAlert hashalert = entry.getValue();
             if (hashalert.getConfidence() < minimumConfidence) {
                 continue;
             }
             hashType = hashalert.getDescription();
             log.debug("Trying Hash Pattern: {} for hash type {}", hashPattern, hashType);
-            for (String haystack : haystacks) {
-                Matcher matcher = hashPattern.matcher(haystack);
+            for (int i = 0; i < haystacks.length; i++) {
+                if (!candidates.get(i).contains(hashPattern)) {
+                    continue;
+                }
+                Matcher matcher = hashPattern.matcher(haystacks[i]);
                 while (matcher.find()) {
                     String evidence = matcher.group();
                     log.debug("Found a match for hash type {} : {}", hashType, evidence);
@@ -24,16 +24,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import net.htmlparser.jericho.HTMLElementName;
-import net.htmlparser.jericho.OutputDocument;
 import net.htmlparser.jericho.Source;
-import net.htmlparser.jericho.StartTag;
 import org.apache.commons.lang.StringUtils;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.MessageAnalysisContext;
 import org.zaproxy.addon.commonlib.PiiUtils;
 import org.zaproxy.addon.commonlib.ResourceIdentificationUtils;
 import org.zaproxy.addon.commonlib.binlist.BinList;
@@ -92,7 +90,8 @@ public class PiiScanRule extends PluginPassiveScanner {
             return;
         }
 
-        String responseBody = getResponseBodyWithStylesRemoved(source);
+        String responseBody =
+                MessageAnalysisContext.get(msg, source).getResponseBodyWithoutStyles();
         List<Candidate> candidates = getNumberSequences(responseBody);
         for (Candidate candidate : candidates) {
             for (CreditCard cc : CreditCard.values()) {
@@ -112,15 +111,6 @@ public class PiiScanRule extends PluginPassiveScanner {
         }
     }
 
-    private static String getResponseBodyWithStylesRemoved(Source source) {
-        OutputDocument outputDocument = new OutputDocument(source);
-        outputDocument.remove(source.getAllElements(HTMLElementName.STYLE));
-        for (StartTag startTag : source.getAllStartTags("style", null)) {
-            outputDocument.remove(startTag.getAttributes().get("style"));
-        }
-        return outputDocument.toString();
-    }
-
     /**
      * Checks whether a particular {@code String} input appears to be a valid number in scientific
      * (exponent) notation. Ex: 2.14111111111111111e-2, 8.46786664623715E-47, 3.14111111111117293e5
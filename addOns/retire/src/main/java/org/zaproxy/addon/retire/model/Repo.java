@@ -32,11 +32,14 @@ import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -44,6 +47,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.RegexLiterals;
 import org.zaproxy.addon.retire.Result;
 import org.zaproxy.addon.retire.RetireUtil;
 
@@ -51,20 +55,38 @@ public class Repo {
 
     private static final String DONT_CHECK_NAME = "dont check";
 
+    /** The maximum number of results of the contents kept, keyed by the hash of the content. */
+    private static final int CONTENT_RESULTS_CACHE_SIZE = 500;
+
     private final Map<String, RepoEntry> entries;
 
+    private final CompiledEntry dontCheck;
+    private final List<CompiledEntry> compiledEntries;
+    private final Map<String, HashEntry> hashes;
+    private final Map<String, ContentResult> contentResults;
+
     public Repo(String resourcePath) throws IOException {
         try (InputStream in = Repo.class.getResourceAsStream(resourcePath);
                 BufferedReader reader =
                         new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)); ) {
             entries = createEntries(reader);
         }
+
+        dontCheck = createDontCheck(entries);
+        compiledEntries = compileEntries(entries);
+        hashes = indexHashes(entries);
+        contentResults = createContentResultsCache();
     }
 
     public Repo(Path file) throws IOException {
         try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
             entries = createEntries(reader);
         }
+
+        dontCheck = createDontCheck(entries);
+        compiledEntries = compileEntries(entries);
+        hashes = indexHashes(entries);
+        contentResults = createContentResultsCache();
     }
 
     private static Map<String, RepoEntry> createEntries(Reader reader) throws IOException {
@@ -80,6 +102,53 @@ public class Repo {
         }
     }
 
+    private static CompiledEntry createDontCheck(Map<String, RepoEntry> entries) {
+        RepoEntry entry = entries.get(DONT_CHECK_NAME);
+        if (entry == null) {
+            return null;
+        }
+        return new CompiledEntry(DONT_CHECK_NAME, entry);
+    }
+
+    private static List<CompiledEntry> compileEntries(Map<String, RepoEntry> entries) {
+        List<CompiledEntry> compiled = new ArrayList<>(entries.size());
+        for (Map.Entry<String, RepoEntry> repoEntry : entries.entrySet()) {
+            if (!DONT_CHECK_NAME.equals(repoEntry.getKey())) {
+                compiled.add(new CompiledEntry(repoEntry.getKey(), repoEntry.getValue()));
+            }
+        }
+        return compiled;
+    }
+
+    private static Map<String, HashEntry> indexHashes(Map<String, RepoEntry> entries) {
+        Map<String, HashEntry> index = new HashMap<>();
+        for (Map.Entry<String, RepoEntry> repoEntry : entries.entrySet()) {
+            Extractors extractors = repoEntry.getValue().getExtractors();
+            if (extractors == null) {
+                continue;
+            }
+            for (Entry<String, String> hashEntry : extractors.getHashes().entrySet()) {
+                // The first library with the hash takes precedence, as when searched in order.
+                index.putIfAbsent(
+                        hashEntry.getKey().toLowerCase(Locale.ROOT),
+                        new HashEntry(repoEntry.getKey(), repoEntry.getValue(), hashEntry));
+            }
+        }
+        return index;
+    }
+
+    @SuppressWarnings("serial")
+    private static Map<String, ContentResult> createContentResultsCache() {
+        return Collections.synchronizedMap(
+                new LinkedHashMap<String, ContentResult>(CONTENT_RESULTS_CACHE_SIZE, 0.75f, true) {
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, ContentResult> eldest) {
+                        return size() > CONTENT_RESULTS_CACHE_SIZE;
+                    }
+                });
+    }
+
     /*
      * This is the top level function called from the scanner. It first checks if:
      * 1)Matching vulnerability is found in database for JS file URL, if YES return return HashSet of related info.
@@ -87,23 +156,22 @@ public class Repo {
      * 3)Matching vulnerability is found in database for JS file content, if YES return return HashSet of related info.
      * 4)Matching vulnerability is found in database for JS file hash, if YES return HashSet of related info .
      * 5)Return empty HashSet.
+     *
+     * The outcome of the checks of the content (3 and 4) is cached by the hash of the content,
+     * the same files are usually served in several pages and from several URLs.
      */
     public Result scanJS(HttpMessage msg) {
 
         String uri = msg.getRequestHeader().getURI().toString();
         String fileName = RetireUtil.getFileName(msg.getRequestHeader().getURI());
-        String content = msg.getResponseBody().toString();
         Result result;
 
-        // Check if included in don't check section
-        HashMap<String, String> msginfo = new HashMap<>();
-        msginfo.put(Extractors.TYPE_URI, uri);
-        if (fileName != null) {
-            msginfo.put(Extractors.TYPE_FILENAME, fileName);
-        }
-        msginfo.put(Extractors.TYPE_FILECONTENT, content);
+        ContentResult contentResult = getContentResult(msg);
 
-        if (dontcheck(msginfo)) {
+        // Check if included in don't check section
+        if (contentResult.isDontCheck()
+                || dontcheck(Extractors.TYPE_URI, uri)
+                || (fileName != null && dontcheck(Extractors.TYPE_FILENAME, fileName))) {
             return null;
         }
 
@@ -119,13 +187,28 @@ public class Repo {
             return result;
         }
 
-        result = scan(Extractors.TYPE_FILECONTENT, content);
-        if (result != null) {
-            return result;
-        }
+        return contentResult.getResult();
+    }
 
+    private ContentResult getContentResult(HttpMessage msg) {
         String hash = RetireUtil.getHash(msg.getResponseBody().getBytes());
-        return scanHash(hash);
+        ContentResult contentResult = contentResults.get(hash);
+        if (contentResult != null) {
+            return contentResult;
+        }
+
+        String content = msg.getResponseBody().toString();
+        if (dontcheck(Extractors.TYPE_FILECONTENT, content)) {
+            contentResult = ContentResult.DONT_CHECK;
+        } else {
+            Result result = scan(Extractors.TYPE_FILECONTENT, content);
+            if (result == null) {
+                result = scanHash(hash);
+            }
+            contentResult = new ContentResult(result);
+        }
+        contentResults.put(hash, contentResult);
+        return contentResult;
     }
 
     /*
@@ -136,28 +219,17 @@ public class Repo {
      */
     private Result scanHash(String hash) {
         // Testable URL: https://ajax.googleapis.com/ajax/libs/dojo/1.1.1/dojo/dojo.js
-        for (Map.Entry<String, RepoEntry> repoEntry : entries.entrySet()) {
-            Map<String, String> hashes = repoEntry.getValue().getExtractors().getHashes();
-
-            if (hashes != null && !hashes.isEmpty()) {
-                for (Entry<String, String> hashItem : hashes.entrySet()) {
-                    Map.Entry<String, String> hashEntry = hashItem;
-                    List<Vulnerability> vulnerabilities = repoEntry.getValue().getVulnerabilities();
-
-                    if (hash.equalsIgnoreCase(hashEntry.getKey())) {
-                        Map<String, Set<String>> results =
-                                isVersionVulnerable(vulnerabilities, hashEntry.getValue());
-                        Result result =
-                                new Result(repoEntry.getKey(), hashEntry.getValue(), results, "");
-                        result.setOtherinfo(
-                                Constant.messages.getString(
-                                        "retire.rule.otherinfo", hashEntry.getKey()));
-                        return result;
-                    }
-                }
-            }
+        HashEntry hashEntry = hashes.get(hash.toLowerCase(Locale.ROOT));
+        if (hashEntry == null) {
+            return null;
         }
-        return null;
+
+        Map<String, Set<String>> results =
+                isVersionVulnerable(hashEntry.getVulnerabilities(), hashEntry.getVersion());
+        Result result = new Result(hashEntry.getName(), hashEntry.getVersion(), results, "");
+        result.setOtherinfo(
+                Constant.messages.getString("retire.rule.otherinfo", hashEntry.getHash()));
+        return result;
     }
 
     /*
@@ -167,35 +239,22 @@ public class Repo {
      */
     private Result scan(String extractorType, String input) {
         // reading each entry for JS libraries in repo
-        for (Map.Entry<String, RepoEntry> repoEntry : entries.entrySet()) {
-            List<String> extractors = repoEntry.getValue().getExtractors().get(extractorType);
-
+        for (CompiledEntry compiledEntry : compiledEntries) {
             // Reading all regexes with this extractor type (i.e. fileURI, fileName or fileContent
-            // for
-            // this particular JS library
-            if (extractors != null && !extractors.isEmpty()) {
-                ListIterator<String> iterator = extractors.listIterator();
-                while (iterator.hasNext()) {
-                    String regex = iterator.next();
-                    if (regex != null) {
-                        Pattern pattern = Pattern.compile(regex);
-                        Matcher matcher = pattern.matcher(input);
-                        if (matcher.find()) {
-                            String versionString = matcher.group(1);
-
-                            // Now try to determine if this version is vulnerable
-                            List<Vulnerability> vulnerabilities =
-                                    repoEntry.getValue().getVulnerabilities();
-                            Map<String, Set<String>> results =
-                                    isVersionVulnerable(vulnerabilities, versionString);
-                            if (!results.isEmpty()) {
-                                return new Result(
-                                        repoEntry.getKey(),
-                                        versionString,
-                                        results,
-                                        matcher.group(0));
-                            }
-                        }
+            // for this particular JS library
+            for (CompiledExtractor extractor : compiledEntry.getExtractors(extractorType)) {
+                Matcher matcher = extractor.find(input);
+                if (matcher != null) {
+                    String versionString = matcher.group(1);
+
+                    // Now try to determine if this version is vulnerable
+                    List<Vulnerability> vulnerabilities =
+                            compiledEntry.getEntry().getVulnerabilities();
+                    Map<String, Set<String>> results =
+                            isVersionVulnerable(vulnerabilities, versionString);
+                    if (!results.isEmpty()) {
+                        return new Result(
+                                compiledEntry.getName(), versionString, results, matcher.group(0));
                     }
                 }
             }
@@ -207,28 +266,15 @@ public class Repo {
      * This function informs whether to scan a JS library at all. There are certain
      * libraries designated "dont check", so just ignore those.
      */
-    private boolean dontcheck(HashMap<String, String> msginfo) {
-        List<String> matches = null;
-
-        RepoEntry dc = entries.get(DONT_CHECK_NAME);
-        Extractors extractors = dc.getExtractors();
-
-        // iterating over extractors
-        for (Entry<String, String> criterion : msginfo.entrySet()) {
-            matches = extractors.get(criterion.getKey());
-            if (matches != null && !matches.isEmpty()) {
-                Iterator<String> iterator = matches.iterator();
-                while (iterator.hasNext()) {
-                    String next = iterator.next();
-                    if (next != null) {
-                        Pattern p = Pattern.compile(next);
-                        Matcher m = p.matcher(criterion.getValue());
-                        // doing a match for each filename regex
-                        if (m.find()) {
-                            return true;
-                        }
-                    }
-                }
+    private boolean dontcheck(String extractorType, String input) {
+        if (dontCheck == null) {
+            return false;
+        }
+
+        // doing a match for each regex of the type
+        for (CompiledExtractor extractor : dontCheck.getExtractors(extractorType)) {
+            if (extractor.find(input) != null) {
+                return true;
             }
         }
         return false;
@@ -275,4 +321,149 @@ public class Repo {
         }
         return results;
     }
+
+    /** A library of the repository, with its extractors compiled. */
+    private static class CompiledEntry {
+
+        private final String name;
+        private final RepoEntry entry;
+        private final List<CompiledExtractor> uri;
+        private final List<CompiledExtractor> filename;
+        private final List<CompiledExtractor> filecontent;
+
+        CompiledEntry(String name, RepoEntry entry) {
+            this.name = name;
+            this.entry = entry;
+
+            Extractors extractors = entry.getExtractors();
+            if (extractors == null) {
+                uri = Collections.emptyList();
+                filename = Collections.emptyList();
+                filecontent = Collections.emptyList();
+            } else {
+                uri = compile(extractors.getUri());
+                filename = compile(extractors.getFilename());
+                filecontent = compile(extractors.getFilecontent());
+            }
+        }
+
+        private static List<CompiledExtractor> compile(List<String> regexes) {
+            if (regexes == null || regexes.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<CompiledExtractor> extractors = new ArrayList<>(regexes.size());
+            for (String regex : regexes) {
+                if (regex != null) {
+                    extractors.add(new CompiledExtractor(regex));
+                }
+            }
+            return extractors;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        RepoEntry getEntry() {
+            return entry;
+        }
+
+        List<CompiledExtractor> getExtractors(String type) {
+            switch (type) {
+                case Extractors.TYPE_FILENAME:
+                    return filename;
+                case Extractors.TYPE_FILECONTENT:
+                    return filecontent;
+                case Extractors.TYPE_URI:
+                default:
+                    return uri;
+            }
+        }
+    }
+
+    /**
+     * An extractor compiled, along with the literal that the input must contain for it to match.
+     */
+    private static class CompiledExtractor {
+
+        private final Pattern pattern;
+        private final String literal;
+
+        CompiledExtractor(String regex) {
+            pattern = Pattern.compile(regex);
+            literal = RegexLiterals.getRequiredLiteral(regex);
+        }
+
+        /**
+         * Finds the pattern in the given input.
+         *
+         * @param input the input.
+         * @return the matcher, positioned at the match, or {@code null} if not found.
+         */
+        Matcher find(String input) {
+            if (!literal.isEmpty() && !input.contains(literal)) {
+                return null;
+            }
+            Matcher matcher = pattern.matcher(input);
+            return matcher.find() ? matcher : null;
+        }
+    }
+
+    /** A hash of a library, with its version. */
+    private static class HashEntry {
+
+        private final String name;
+        private final String hash;
+        private final String version;
+        private final List<Vulnerability> vulnerabilities;
+
+        HashEntry(String name, RepoEntry entry, Map.Entry<String, String> hashEntry) {
+            this.name = name;
+            this.hash = hashEntry.getKey();
+            this.version = hashEntry.getValue();
+            this.vulnerabilities = entry.getVulnerabilities();
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getHash() {
+            return hash;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        List<Vulnerability> getVulnerabilities() {
+            return vulnerabilities;
+        }
+    }
+
+    /** The outcome of the checks of a content. */
+    private static class ContentResult {
+
+        static final ContentResult DONT_CHECK = new ContentResult(null, true);
+
+        private final Result result;
+        private final boolean dontCheck;
+
+        ContentResult(Result result) {
+            this(result, false);
+        }
+
+        private ContentResult(Result result, boolean dontCheck) {
+            this.result = result;
+            this.dontCheck = dontCheck;
+        }
+
+        Result getResult() {
+            return result;
+        }
+
+        boolean isDontCheck() {
+            return dontCheck;
+        }
+    }
 }
@@ -190,6 +190,37 @@ class RetireScanRuleUnitTest extends PassiveScannerTest<RetireScanRule> {
         assertEquals(0, alertsRaised.size());
     }
 
+    @Test
+    void shouldRaiseAlertOnSameVulnerableContentFromDifferentUrls() {
+        // Given
+        String content = "/*!\n * Bootstrap v3.3.7 (http://getbootstrap.com)\n */";
+        HttpMessage msg1 = createMessage("http://example.com/a.js", content);
+        HttpMessage msg2 = createMessage("http://example.org/b.js", content);
+        given(passiveScanData.isPage200(any())).willReturn(true);
+        // When
+        scanHttpResponseReceive(msg1);
+        scanHttpResponseReceive(msg2);
+        // Then
+        assertEquals(2, alertsRaised.size());
+        assertEquals("* Bootstrap v3.3.7", alertsRaised.get(0).getEvidence());
+        assertEquals("* Bootstrap v3.3.7", alertsRaised.get(1).getEvidence());
+    }
+
+    @Test
+    void shouldNotRaiseAlertOnDontCheckUrlWithVulnerableContentPreviouslyScanned() {
+        // Given
+        String content = "/*!\n * Bootstrap v3.3.7 (http://getbootstrap.com)\n */";
+        HttpMessage msg1 = createMessage("http://example.com/a.js", content);
+        HttpMessage msg2 = createMessage("https://www.google-analytics.com/ga.js", content);
+        given(passiveScanData.isPage200(any())).willReturn(true);
+        // When
+        scanHttpResponseReceive(msg1);
+        scanHttpResponseReceive(msg2);
+        // Then
+        assertEquals(1, alertsRaised.size());
+        assertEquals("http://example.com/a.js", alertsRaised.get(0).getUri());
+    }
+
     @Test
     void shouldReturnExpectedMappings() {
         // Given / When
@@ -1,5 +1,9 @@
 import org.zaproxy.gradle.addon.AddOnStatus
 
+plugins {
+    id("me.champeau.jmh") version "0.6.6"
+}
+
 description = "An advanced active injection bundle for SQLi (derived by SQLMap)"
 
 zapAddOn {
@@ -19,7 +23,7 @@ zapAddOn {
         dependencies {
             addOns {
                 register("commonlib") {
-                    version.set(">= 1.5.0 & < 2.0.0")
+                    version.set(">= 1.9.0 & < 2.0.0")
                 }
             }
         }
@@ -36,6 +40,8 @@ dependencies {
     compileOnly(parent!!.childProjects.get("commonlib")!!)
 
     implementation("org.jdom:jdom:2.0.2")
+
+    testImplementation(project(":testutils"))
 }
 
 spotless {
@@ -0,0 +1,95 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the comparison of large responses with {@link ResponseMatcher}.
+ *
+ * <p>The injected response differs from the original response in a single line, in the middle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ResponseMatcherBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    private int size;
+
+    private ResponseMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = new ResponseMatcher();
+        matcher.setOriginalResponse(createPage(size, false));
+        matcher.setInjectedResponse(createPage(size, true));
+        // Index the original response, as done by the first comparison of a scan
+        matcher.getQuickRatio();
+        matcher.getRatio();
+    }
+
+    @Benchmark
+    public double quickRatio() {
+        return matcher.getQuickRatio();
+    }
+
+    @Benchmark
+    public double ratio() {
+        return matcher.getRatio();
+    }
+
+    @Benchmark
+    public boolean isComparable() {
+        return matcher.isComparable();
+    }
+
+    private static String createPage(int size, boolean changed) {
+        StringBuilder strBuilder = new StringBuilder(size + 64);
+        strBuilder.append("<html><body><table>\n");
+        boolean change = changed;
+        for (int i = 0; strBuilder.length() < size; i++) {
+            strBuilder.append("<tr><td>Row ").append(i).append("</td><td>");
+            if (change && strBuilder.length() >= size / 2) {
+                strBuilder.append("Changed");
+                change = false;
+            } else {
+                strBuilder.append("Value ").append(i % 97);
+            }
+            strBuilder.append("</td></tr>\n");
+        }
+        strBuilder.append("</table></body></html>");
+        return strBuilder.toString();
+    }
+}
@@ -19,8 +19,7 @@
  */
 package org.zaproxy.zap.extension.sqliplugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Class for string diff management used to compare the original content to the one related to a
@@ -45,15 +44,22 @@ public class ResponseMatcher {
     // Maximum value for comparison ratio
     public static final double MAX_RATIO = 1.0;
 
+    // Maximum length of both contents to compare them by characters, instead of by lines
+    private static final int MAX_CHARS_RATIO_LENGTH = 20000;
+
+    // Maximum margin of the quick ratio over the thresholds to confirm it with the full ratio
+    private static final double CONFIRM_RATIO_MARGIN = 0.01;
+
     private String strA;
     private String strB;
-    // Inner helper class for strB string counting
-    private Map<Integer, Integer> fullBCount;
+    // Inner helpers for strB, lazily created
+    private CharCounts fullBCount;
+    private SequenceMatcher charsMatcher;
+    private SequenceMatcher linesMatcher;
     private double matchRatio;
     private boolean negativeLogic;
 
     public ResponseMatcher() {
-        fullBCount = new HashMap<>();
         matchRatio = -1;
         negativeLogic = false;
     }
@@ -66,7 +72,9 @@ public class ResponseMatcher {
     /** @param strB */
     public void setOriginalResponse(String b) {
         this.strB = b;
-        this.fullBCount.clear();
+        this.fullBCount = null;
+        this.charsMatcher = null;
+        this.linesMatcher = null;
         matchRatio = -1;
     }
 
@@ -82,60 +90,59 @@ public class ResponseMatcher {
      * @return
      */
     public double getQuickRatio() {
-        int chr;
-        int count;
-        int matches = 0;
-        int start = 0;
-        while (start < Math.min(strA.length(), strB.length())) {
-            if (strA.charAt(start) == strB.charAt(start)) {
-                start += 1;
-
-            } else break;
+        int totalLength = strA.length() + strB.length();
+        if (totalLength == 0) {
+            return 1.0;
         }
 
         // viewing strA and strB as multisets, set matches to the cardinality
         // of their intersection; this counts the number of matches
         // without regard to order, so is clearly an upper bound
-        if (fullBCount.isEmpty()) {
-
-            for (int i = start; i < strB.length(); i++) {
-                chr = strB.charAt(i);
-                count = fullBCount.containsKey(chr) ? fullBCount.get(chr) : 1;
-                fullBCount.put(chr, count);
-            }
+        if (fullBCount == null) {
+            fullBCount = new CharCounts(strB);
         }
 
         // avail[x] is the number of times x appears in 'strB' less the
-        // number of times we've seen it in 'strA' so far ... kinda
-        Map<Integer, Integer> avail = new HashMap<>();
-
-        for (int i = start; i < strA.length(); i++) {
-            chr = strA.charAt(i);
-            if (avail.containsKey(chr)) {
-                count = avail.get(chr);
-
-            } else if (fullBCount.containsKey(chr)) {
-                count = fullBCount.get(chr);
-
-            } else {
-                count = 0;
+        // number of times we've seen it in 'strA' so far
+        CharCounts avail = new CharCounts(fullBCount);
+        int matches = 0;
+        for (int i = 0; i < strA.length(); i++) {
+            if (avail.take(strA.charAt(i))) {
+                matches++;
             }
+        }
 
-            avail.put(chr, count - 1);
+        return 2.0 * matches / totalLength;
+    }
 
-            if (count > 0) {
-                matches += 1;
+    /**
+     * Return a measure of the sequences' similarity, as the number of elements in the matching
+     * blocks. Small contents are compared by characters, large contents by lines.
+     *
+     * @return the ratio, between {@link #MIN_RATIO} and {@link #MAX_RATIO}.
+     */
+    public double getRatio() {
+        if (strA.length() + strB.length() <= MAX_CHARS_RATIO_LENGTH) {
+            if (charsMatcher == null) {
+                charsMatcher = new SequenceMatcher(SequenceMatcher.toChars(strB));
             }
+            return charsMatcher.ratio(SequenceMatcher.toChars(strA));
         }
 
-        int totalLength = strA.length() + strB.length();
-
-        return (totalLength > 0) ? 2.0 * (start + matches) / totalLength : 1.0;
+        if (linesMatcher == null) {
+            linesMatcher = new SequenceMatcher(SequenceMatcher.toLineHashes(strB));
+        }
+        return linesMatcher.ratio(SequenceMatcher.toLineHashes(strA));
     }
 
     /**
-     * @param where
-     * @return
+     * Tells whether or not the injected response is comparable to the original response.
+     *
+     * <p>The responses are compared with the quick ratio, which is an upper bound of the full ratio
+     * (e.g. the same lines in a different order have a quick ratio of {@code 1.0}), so when the
+     * quick ratio is just above the thresholds it is confirmed with the full ratio.
+     *
+     * @return {@code true} if the responses are comparable, {@code false} otherwise.
      */
     public boolean isComparable() {
         double ratio = getQuickRatio();
@@ -144,8 +151,11 @@ public class ResponseMatcher {
         // set it as base ratio value
         if (matchRatio < 0) matchRatio = ratio;
 
-        boolean comparable =
-                ((ratio > UPPER_RATIO_BOUND) || ((ratio - matchRatio) > DIFF_TOLERANCE));
+        double margin = getMargin(ratio);
+        boolean comparable = margin > 0;
+        if (comparable && margin <= CONFIRM_RATIO_MARGIN) {
+            comparable = getMargin(getRatio()) > 0;
+        }
 
         // Test if we need strA negative logic approach.
         // This is used in raw page comparison scheme as that what is "different" than original
@@ -154,4 +164,112 @@ public class ResponseMatcher {
         // by the comparison mechanism itself
         return negativeLogic ^ comparable;
     }
+
+    /**
+     * Gets the margin of the given ratio over the thresholds, positive if comparable.
+     *
+     * @param ratio the ratio of the responses.
+     * @return the margin over the thresholds.
+     */
+    private double getMargin(double ratio) {
+        return Math.max(ratio - UPPER_RATIO_BOUND, (ratio - matchRatio) - DIFF_TOLERANCE);
+    }
+
+    /**
+     * The counts of the characters of a string, in a table for the Latin-1 characters and in a
+     * hash table for the others.
+     */
+    private static class CharCounts {
+
+        private static final int TABLE_SIZE = 256;
+
+        private final int[] table;
+        // Open addressing, the empty slots have the key 0, never used as it's in the table
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        CharCounts(String str) {
+            table = new int[TABLE_SIZE];
+            keys = new int[16];
+            values = new int[16];
+            for (int i = 0; i < str.length(); i++) {
+                char chr = str.charAt(i);
+                if (chr < TABLE_SIZE) {
+                    table[chr]++;
+                } else {
+                    increment(chr);
+                }
+            }
+        }
+
+        CharCounts(CharCounts other) {
+            table = Arrays.copyOf(other.table, TABLE_SIZE);
+            keys = Arrays.copyOf(other.keys, other.keys.length);
+            values = Arrays.copyOf(other.values, other.values.length);
+            size = other.size;
+        }
+
+        /**
+         * Takes one occurrence of the given character, if any available.
+         *
+         * @param chr the character.
+         * @return {@code true} if the character was available, {@code false} otherwise.
+         */
+        boolean take(char chr) {
+            if (chr < TABLE_SIZE) {
+                if (table[chr] > 0) {
+                    table[chr]--;
+                    return true;
+                }
+                return false;
+            }
+
+            int slot = getSlot(chr);
+            if (keys[slot] == chr && values[slot] > 0) {
+                values[slot]--;
+                return true;
+            }
+            return false;
+        }
+
+        private void increment(char chr) {
+            int slot = getSlot(chr);
+            if (keys[slot] == chr) {
+                values[slot]++;
+                return;
+            }
+
+            keys[slot] = chr;
+            values[slot] = 1;
+            size++;
+            if (size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        private int getSlot(int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = getSlot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
 }
@@ -39,6 +39,8 @@ import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.addon.commonlib.CommonAlertTag;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel;
+import org.zaproxy.addon.commonlib.http.ResponseTimeModel.Baseline;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
 
@@ -884,8 +886,18 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                             // Math reference: http://www.answers.com/topic/standard-deviation
                             // -----------------------------------------------
                         } else if (test.getResponse().getTime() != null) {
-                            // First check if we have enough sample for the test
+                            // First check if we have enough sample for the test,
+                            // the response times might be known from the other
+                            // requests of the scan
+                            Baseline timeBaseline = null;
                             if (responseTimes.size() < MIN_TIME_RESPONSES) {
+                                timeBaseline =
+                                        ResponseTimeModel.getInstance(getParent())
+                                                .getBaseline(getBaseMsg(), MIN_TIME_RESPONSES);
+                            }
+
+                            if (timeBaseline == null
+                                    && responseTimes.size() < MIN_TIME_RESPONSES) {
                                 // We need some dummy requests to have a correct
                                 // deviation model for this page
                                 log.warn(
@@ -905,7 +917,15 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                             // OK now we can get the deviation of the
                             // request computation time for this page
                             double lowerLimit = timeSec * 1000;
-                            double deviation = getResponseTimeDeviation();
+                            double average;
+                            double deviation;
+                            if (timeBaseline != null) {
+                                average = timeBaseline.getMean();
+                                deviation = timeBaseline.getStandardDeviation();
+                            } else {
+                                average = getResponseTimeAverage();
+                                deviation = getResponseTimeDeviation();
+                            }
 
                             // Minimum response time that can be even considered as delayed
                             // MIN_VALID_DELAYED_RESPONSE = 0.5secs
@@ -918,8 +938,7 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                                 lowerLimit =
                                         Math.max(
                                                 lowerLimit,
-                                                getResponseTimeAverage()
-                                                        + TIME_STDEV_COEFF * deviation);
+                                                average + TIME_STDEV_COEFF * deviation);
                             }
 
                             // Perform the test's request
@@ -952,7 +971,7 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
                                                     reqPayload,
                                                     lastResponseTime,
                                                     payloadValue,
-                                                    getResponseTimeAverage());
+                                                    average);
 
                                     log.debug(
                                             "[TIME-BASED Injection Found] {} with payload [{}] on parameter '{}'",
@@ -1184,6 +1203,7 @@ public class SQLInjectionScanRule extends AbstractAppParamPlugin {
         // record the response time if needed
         if (recordResponseTime) {
             responseTimes.add(lastResponseTime);
+            ResponseTimeModel.getInstance(getParent()).record(tempMsg);
         }
 
         return tempMsg;
@@ -0,0 +1,272 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import java.util.Arrays;
+
+/**
+ * Ratcliff and Obershelp matching of sequences of elements (e.g. characters or hashes of lines),
+ * equivalent to the {@code SequenceMatcher} of Python's difflib without junk function.
+ *
+ * <p>The sequence {@code b} is indexed once and can be matched against several sequences {@code
+ * a}. All the state is kept in primitive arrays.
+ */
+final class SequenceMatcher {
+
+    // Minimum length of b for the popular elements to be ignored, as difflib's autojunk
+    private static final int AUTOJUNK_MIN_LENGTH = 200;
+
+    private final int[] b;
+
+    // The distinct elements of b, sorted, and the range of their positions in bPositions
+    private final int[] bElements;
+    private final int[] bElementsStart;
+    private final int[] bElementsEnd;
+    private final int[] bPositions;
+
+    SequenceMatcher(int[] b) {
+        this.b = b;
+
+        long[] sorted = new long[b.length];
+        for (int i = 0; i < b.length; i++) {
+            sorted[i] = ((long) b[i] << 32) | i;
+        }
+        Arrays.sort(sorted);
+
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || (sorted[i] >> 32) != (sorted[i - 1] >> 32)) {
+                distinct++;
+            }
+        }
+
+        bElements = new int[distinct];
+        bElementsStart = new int[distinct];
+        bElementsEnd = new int[distinct];
+        bPositions = new int[sorted.length];
+
+        int popularThreshold =
+                b.length >= AUTOJUNK_MIN_LENGTH ? b.length / 100 + 1 : Integer.MAX_VALUE;
+        int element = -1;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || (sorted[i] >> 32) != (sorted[i - 1] >> 32)) {
+                if (element >= 0) {
+                    bElementsEnd[element] = i;
+                }
+                element++;
+                bElements[element] = (int) (sorted[i] >> 32);
+                bElementsStart[element] = i;
+            }
+            bPositions[i] = (int) sorted[i];
+        }
+        if (element >= 0) {
+            bElementsEnd[element] = sorted.length;
+        }
+
+        for (int e = 0; e < distinct; e++) {
+            if (bElementsEnd[e] - bElementsStart[e] > popularThreshold) {
+                bElementsEnd[e] = bElementsStart[e];
+            }
+        }
+    }
+
+    /**
+     * Converts the given string into a sequence of characters.
+     *
+     * @param str the string.
+     * @return the sequence of characters.
+     */
+    static int[] toChars(String str) {
+        int[] seq = new int[str.length()];
+        for (int i = 0; i < seq.length; i++) {
+            seq[i] = str.charAt(i);
+        }
+        return seq;
+    }
+
+    /**
+     * Converts the given string into a sequence of the hashes of its lines.
+     *
+     * @param str the string.
+     * @return the sequence of hashes.
+     */
+    static int[] toLineHashes(String str) {
+        int lines = 1;
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+
+        int[] seq = new int[lines];
+        int line = 0;
+        int hash = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char chr = str.charAt(i);
+            if (chr == '\n') {
+                seq[line++] = hash;
+                hash = 0;
+            } else if (chr != '\r') {
+                hash = 31 * hash + chr;
+            }
+        }
+        seq[line] = hash;
+        return seq;
+    }
+
+    /**
+     * Gets the similarity of the given sequence with {@code b}, as difflib's {@code ratio()}.
+     *
+     * @param a the sequence to match.
+     * @return the ratio, between {@code 0.0} and {@code 1.0}.
+     */
+    double ratio(int[] a) {
+        int totalLength = a.length + b.length;
+        if (totalLength == 0) {
+            return 1.0;
+        }
+        return 2.0 * getMatches(a) / totalLength;
+    }
+
+    /**
+     * Gets the number of elements of the matching blocks of the given sequence and {@code b}.
+     *
+     * @param a the sequence to match.
+     * @return the number of matching elements.
+     */
+    int getMatches(int[] a) {
+        int[] j2len = new int[b.length + 1];
+        int[] newJ2len = new int[b.length + 1];
+        int[] match = new int[3];
+
+        int matches = 0;
+        int[] queue = new int[32];
+        int queued = 0;
+        queue[queued++] = 0;
+        queue[queued++] = a.length;
+        queue[queued++] = 0;
+        queue[queued++] = b.length;
+        while (queued > 0) {
+            int bhi = queue[--queued];
+            int blo = queue[--queued];
+            int ahi = queue[--queued];
+            int alo = queue[--queued];
+
+            findLongestMatch(a, alo, ahi, blo, bhi, j2len, newJ2len, match);
+            int i = match[0];
+            int j = match[1];
+            int k = match[2];
+            if (k == 0) {
+                continue;
+            }
+            matches += k;
+
+            if (queued + 8 > queue.length) {
+                queue = Arrays.copyOf(queue, queue.length * 2);
+            }
+            if (alo < i && blo < j) {
+                queue[queued++] = alo;
+                queue[queued++] = i;
+                queue[queued++] = blo;
+                queue[queued++] = j;
+            }
+            if (i + k < ahi && j + k < bhi) {
+                queue[queued++] = i + k;
+                queue[queued++] = ahi;
+                queue[queued++] = j + k;
+                queue[queued++] = bhi;
+            }
+        }
+        return matches;
+    }
+
+    private void findLongestMatch(
+            int[] a, int alo, int ahi, int blo, int bhi, int[] j2len, int[] newJ2len, int[] match) {
+        int besti = alo;
+        int bestj = blo;
+        int bestSize = 0;
+
+        // j2len[j + 1] is the length of the longest match ending with a[i - 1] and b[j]
+        int previousElement = -1;
+        for (int i = alo; i < ahi; i++) {
+            int element = Arrays.binarySearch(bElements, a[i]);
+            if (element >= 0) {
+                int end = bElementsEnd[element];
+                for (int p = getFirstPosition(element, blo); p < end; p++) {
+                    int j = bPositions[p];
+                    if (j >= bhi) {
+                        break;
+                    }
+                    int k = j2len[j] + 1;
+                    newJ2len[j + 1] = k;
+                    if (k > bestSize) {
+                        besti = i - k + 1;
+                        bestj = j - k + 1;
+                        bestSize = k;
+                    }
+                }
+            }
+
+            clear(j2len, previousElement, blo, bhi);
+            int[] tmp = j2len;
+            j2len = newJ2len;
+            newJ2len = tmp;
+            previousElement = element;
+        }
+        clear(j2len, previousElement, blo, bhi);
+
+        // Extend with the popular elements, which are not indexed
+        while (besti > alo && bestj > blo && a[besti - 1] == b[bestj - 1]) {
+            besti--;
+            bestj--;
+            bestSize++;
+        }
+        while (besti + bestSize < ahi
+                && bestj + bestSize < bhi
+                && a[besti + bestSize] == b[bestj + bestSize]) {
+            bestSize++;
+        }
+
+        match[0] = besti;
+        match[1] = bestj;
+        match[2] = bestSize;
+    }
+
+    private int getFirstPosition(int element, int blo) {
+        int pos =
+                Arrays.binarySearch(
+                        bPositions, bElementsStart[element], bElementsEnd[element], blo);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private void clear(int[] j2len, int element, int blo, int bhi) {
+        if (element < 0) {
+            return;
+        }
+        int end = bElementsEnd[element];
+        for (int p = getFirstPosition(element, blo); p < end; p++) {
+            int j = bPositions[p];
+            if (j >= bhi) {
+                break;
+            }
+            j2len[j + 1] = 0;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.sqliplugin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/** Unit test for {@link ResponseMatcher}. */
+class ResponseMatcherUnitTest {
+
+    private static final double DELTA = 0.0001;
+
+    private ResponseMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new ResponseMatcher();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'', '', 1.0",
+        "abcd, abcd, 1.0",
+        "abcd, bcde, 0.75",
+        "abab, baba, 1.0",
+        "aabb, bbaa, 1.0",
+        "aaab, abbb, 0.5",
+        "中文中, 中中x, 0.6667",
+        "中中中, 中x中中, 0.8571",
+        "abcd, efgh, 0.0"
+    })
+    void shouldComputeQuickRatio(String injected, String original, double expectedRatio) {
+        // Given
+        matcher.setOriginalResponse(original);
+        matcher.setInjectedResponse(injected);
+        // When
+        double ratio = matcher.getQuickRatio();
+        // Then
+        assertThat(ratio, is(closeTo(expectedRatio, DELTA)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'', '', 1.0",
+        "abcd, abcd, 1.0",
+        "abcd, bcde, 0.75",
+        "abab, baba, 0.75",
+        "中文中, 中中x, 0.6667",
+        "abcd, efgh, 0.0"
+    })
+    void shouldComputeRatio(String injected, String original, double expectedRatio) {
+        // Given
+        matcher.setOriginalResponse(original);
+        matcher.setInjectedResponse(injected);
+        // When
+        double ratio = matcher.getRatio();
+        // Then
+        assertThat(ratio, is(closeTo(expectedRatio, DELTA)));
+    }
+
+    @Test
+    void shouldComputeRatioByLinesForLargeContents() {
+        // Given
+        String original = createLines(2000, -1);
+        String injected = createLines(2000, 1000);
+        matcher.setOriginalResponse(original);
+        matcher.setInjectedResponse(injected);
+        // When
+        double ratio = matcher.getRatio();
+        // Then
+        assertThat(ratio, is(closeTo(2.0 * 1999 / 4000, DELTA)));
+    }
+
+    @Test
+    void shouldReuseOriginalResponseForSeveralInjectedResponses() {
+        // Given
+        matcher.setOriginalResponse("abcd");
+        matcher.setInjectedResponse("abcd");
+        matcher.getQuickRatio();
+        matcher.getRatio();
+        matcher.setInjectedResponse("bcde");
+        // When
+        double quickRatio = matcher.getQuickRatio();
+        double ratio = matcher.getRatio();
+        // Then
+        assertThat(quickRatio, is(closeTo(0.75, DELTA)));
+        assertThat(ratio, is(closeTo(0.75, DELTA)));
+    }
+
+    @Test
+    void shouldBeComparableIfSameAsOriginal() {
+        // Given
+        matcher.setOriginalResponse(createLines(100, -1));
+        matcher.setInjectedResponse(createLines(100, -1));
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(comparable, is(equalTo(true)));
+    }
+
+    @Test
+    void shouldBeComparableIfSimilarToOriginal() {
+        // Given
+        matcher.setOriginalResponse(createLines(100, -1));
+        matcher.setInjectedResponse(createLines(100, 50));
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(comparable, is(equalTo(true)));
+    }
+
+    @Test
+    void shouldBeComparableIfQuickRatioNearThresholdConfirmedByRatio() {
+        // Given
+        String original = createLines(100, -1);
+        matcher.setOriginalResponse(original);
+        matcher.setInjectedResponse(original + StringUtils.repeat('x', 70));
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(matcher.getQuickRatio(), is(closeTo(0.9861, DELTA)));
+        assertThat(comparable, is(equalTo(true)));
+    }
+
+    @Test
+    void shouldNotBeComparableIfQuickRatioNearThresholdNotConfirmedByRatio() {
+        // Given
+        List<String> lines = Arrays.asList(createLines(100, -1).split("\n"));
+        Collections.reverse(lines);
+        matcher.setOriginalResponse(createLines(100, -1));
+        matcher.setInjectedResponse(String.join("\n", lines) + StringUtils.repeat('x', 70));
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(matcher.getQuickRatio(), is(closeTo(0.9861, DELTA)));
+        assertThat(comparable, is(equalTo(false)));
+    }
+
+    @Test
+    void shouldNotBeComparableIfSameAsOriginalWithNegativeLogic() {
+        // Given
+        matcher.setOriginalResponse(createLines(100, -1));
+        matcher.setLogic(SQLiPayloadManager.WHERE_NEGATIVE);
+        matcher.setInjectedResponse(createLines(100, -1));
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(comparable, is(equalTo(false)));
+    }
+
+    @Test
+    void shouldNotBeComparableIfSimilarToOriginalWithNegativeLogic() {
+        // Given
+        matcher.setOriginalResponse(createLines(100, -1));
+        matcher.setLogic(SQLiPayloadManager.WHERE_NEGATIVE);
+        matcher.setInjectedResponse(createLines(100, 50));
+        // When
+        boolean comparable = matcher.isComparable();
+        // Then
+        assertThat(comparable, is(equalTo(false)));
+    }
+
+    private static String createLines(int count, int changedLine) {
+        StringBuilder strBuilder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                strBuilder.append('\n');
+            }
+            strBuilder.append("<tr><td>Row ").append(i).append("</td></tr>");
+            if (i == changedLine) {
+                strBuilder.append("X");
+            }
+        }
+        return strBuilder.toString();
+    }
+}
@@ -23,17 +23,24 @@ import com.google.re2j.Pattern;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.regex.Matcher;
+import org.zaproxy.addon.commonlib.RegexLiterals;
 
 public class AppPattern {
 
+    /** The minimum length of the literal used to screen the contents, shorter are not worth it. */
+    private static final int MIN_LITERAL_LENGTH = 3;
+
     private String type = null;
     private Pattern re2jPattern = null;
     private java.util.regex.Pattern javaPattern = null;
     private String version = null;
     private int confidence = 100;
+    private String literal;
 
     public void setPattern(String pattern) {
+        this.literal = extractLiteral(pattern);
         this.javaPattern = java.util.regex.Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
         try {
             // This takes precedence, if it compiles
@@ -53,6 +60,15 @@ public class AppPattern {
         return javaPattern;
     }
 
+    /**
+     * Gets a literal, in lower case, that must be present in the content for the pattern to match.
+     *
+     * @return the literal, or {@code null} if none.
+     */
+    String getLiteral() {
+        return literal;
+    }
+
     public Pattern getRe2jPattern() {
         return re2jPattern;
     }
@@ -119,4 +135,26 @@ public class AppPattern {
             results.add(trimmedGroup);
         }
     }
+
+    /**
+     * Extracts the longest literal that any match of the given (case insensitive) pattern must
+     * contain.
+     *
+     * @param pattern the pattern.
+     * @return the literal, in lower case, or {@code null} if none or too short.
+     * @see RegexLiterals#getRequiredLiteral(String)
+     */
+    static String extractLiteral(String pattern) {
+        String literal = RegexLiterals.getRequiredLiteral(pattern);
+        if (literal.length() < MIN_LITERAL_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (literal.charAt(i) > 127) {
+                // Case insensitive matching of the patterns is ASCII only.
+                return null;
+            }
+        }
+        return literal.toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.htmlparser.jericho.Element;
+import net.htmlparser.jericho.HTMLElementName;
+import net.htmlparser.jericho.Source;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.parosproxy.paros.network.HtmlParameter;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.addon.commonlib.MessageAnalysisContext;
+import org.zaproxy.addon.commonlib.ResourceIdentificationUtils;
+
+/**
+ * The contents of a response, extracted once (and on demand) to be matched against all the
+ * technologies.
+ */
+class ResponseContent {
+
+    private static final MessageAnalysisContext.Key<Document> JSOUP_DOCUMENT =
+            new MessageAnalysisContext.Key<>("wappalyzer.jsoup");
+
+    private final HttpMessage message;
+    private final MessageAnalysisContext context;
+    private final Source source;
+    private final TechnologyIndex index;
+
+    private String url;
+    private List<HtmlParameter> cookies;
+    private String body;
+    private Set<String> bodyLiterals;
+    private List<String> styles;
+    private List<String> scriptSources;
+    private Map<String, List<String>> metas;
+    private Document document;
+    private Map<String, Elements> selections;
+
+    ResponseContent(HttpMessage message, Source source, TechnologyIndex index) {
+        this.message = message;
+        this.context = MessageAnalysisContext.get(message, source);
+        this.source = source;
+        this.index = index;
+    }
+
+    HttpMessage getMessage() {
+        return message;
+    }
+
+    String getUrl() {
+        if (url == null) {
+            url = message.getRequestHeader().getURI().toString();
+        }
+        return url;
+    }
+
+    String getHeader(String name) {
+        return message.getResponseHeader().getHeader(name);
+    }
+
+    List<HtmlParameter> getCookies() {
+        if (cookies == null) {
+            cookies = new ArrayList<>(message.getCookieParams());
+        }
+        return cookies;
+    }
+
+    boolean isText() {
+        return message.getResponseHeader().isText();
+    }
+
+    boolean isHtml() {
+        return message.getResponseHeader().isHtml();
+    }
+
+    boolean isCss() {
+        return ResourceIdentificationUtils.isCss(message);
+    }
+
+    String getBody() {
+        if (body == null) {
+            body = context.getResponseBody();
+        }
+        return body;
+    }
+
+    /**
+     * Tells whether or not the given pattern might match the body (or parts of it), that is, if
+     * the literal the pattern requires is present in the body.
+     *
+     * @param pattern the pattern.
+     * @return {@code true} if the pattern might match, {@code false} otherwise.
+     */
+    boolean mayMatchBody(AppPattern pattern) {
+        String literal = pattern.getLiteral();
+        if (literal == null) {
+            return true;
+        }
+        if (bodyLiterals == null) {
+            bodyLiterals = index.findBodyLiterals(getBody());
+        }
+        return bodyLiterals.contains(literal);
+    }
+
+    List<String> getStyles() {
+        if (styles == null) {
+            styles = new ArrayList<>();
+            for (Element styleElement : source.getAllElements(HTMLElementName.STYLE)) {
+                styles.add(styleElement.getSource().toString());
+            }
+        }
+        return styles;
+    }
+
+    List<String> getScriptSources() {
+        if (scriptSources == null) {
+            scriptSources = new ArrayList<>();
+            for (Element scriptElement : source.getAllElements(HTMLElementName.SCRIPT)) {
+                String src = scriptElement.getAttributeValue("src");
+                if (src != null && !src.isEmpty()) {
+                    scriptSources.add(src);
+                }
+            }
+        }
+        return scriptSources;
+    }
+
+    List<String> getMetaContents(String name) {
+        if (metas == null) {
+            metas = new HashMap<>();
+            for (Element metaElement : source.getAllElements(HTMLElementName.META)) {
+                String metaName = metaElement.getAttributeValue("name");
+                String content = metaElement.getAttributeValue("content");
+                if (metaName != null && content != null) {
+                    metas.computeIfAbsent(metaName, k -> new ArrayList<>()).add(content);
+                }
+            }
+        }
+        return metas.getOrDefault(name, Collections.emptyList());
+    }
+
+    Elements select(String selector) {
+        if (document == null) {
+            document = context.get(JSOUP_DOCUMENT, ctx -> Jsoup.parse(ctx.getResponseBody()));
+            selections = new HashMap<>();
+        }
+        return selections.computeIfAbsent(selector, document::select);
+    }
+}
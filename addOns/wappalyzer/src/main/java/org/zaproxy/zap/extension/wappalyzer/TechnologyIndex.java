@@ -0,0 +1,80 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.zaproxy.addon.commonlib.LiteralMatcher;
+
+/**
+ * An index of the technologies, built once for the applications loaded.
+ *
+ * <p>Allows to screen the patterns matched against the response body (HTML and CSS), with the
+ * literals that they require, in a single pass over the body.
+ */
+class TechnologyIndex {
+
+    private final List<Application> applications;
+    private final int applicationCount;
+    private final LiteralMatcher bodyLiteralMatcher;
+
+    TechnologyIndex(List<Application> applications) {
+        this.applications = applications;
+        this.applicationCount = applications.size();
+
+        Set<String> bodyLiterals = new HashSet<>();
+        for (Application app : applications) {
+            addLiterals(app.getHtml(), bodyLiterals);
+            addLiterals(app.getCss(), bodyLiterals);
+        }
+        bodyLiteralMatcher = new LiteralMatcher(bodyLiterals);
+    }
+
+    private static void addLiterals(Collection<AppPattern> patterns, Set<String> literals) {
+        for (AppPattern pattern : patterns) {
+            String literal = pattern.getLiteral();
+            if (literal != null) {
+                literals.add(literal);
+            }
+        }
+    }
+
+    /**
+     * Tells whether or not this index was built for the given applications.
+     *
+     * @param applications the applications.
+     * @return {@code true} if built for the applications, {@code false} otherwise.
+     */
+    boolean isFor(List<Application> applications) {
+        return this.applications == applications && applicationCount == applications.size();
+    }
+
+    /**
+     * Finds the literals, required by the body patterns, present in the given body.
+     *
+     * @param body the response body.
+     * @return the literals found.
+     */
+    Set<String> findBodyLiterals(String body) {
+        return bodyLiteralMatcher.findAll(body);
+    }
+}
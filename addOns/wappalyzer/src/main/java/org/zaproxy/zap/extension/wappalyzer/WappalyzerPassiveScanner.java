@@ -24,20 +24,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.jsoup.select.Elements;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.model.HistoryReference;
 import org.parosproxy.paros.model.SiteNode;
 import org.parosproxy.paros.network.HtmlParameter;
 import org.parosproxy.paros.network.HttpMessage;
-import org.zaproxy.addon.commonlib.ResourceIdentificationUtils;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PassiveScanner;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
@@ -49,6 +44,7 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
     private Set<String> visitedSiteIdentifiers = new HashSet<>();
     private ApplicationMatch appMatch;
     private Application currentApp;
+    private TechnologyIndex index;
     private volatile boolean enabled = true;
 
     public WappalyzerPassiveScanner(WappalyzerApplicationHolder applicationHolder) {
@@ -70,11 +66,15 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
 
         long startTime = System.currentTimeMillis();
+        ResponseContent content = new ResponseContent(msg, source, getIndex());
+        String site = null;
         for (Application app : this.getApps()) {
             this.currentApp = app;
-            checkAppMatches(msg, source);
+            checkAppMatches(content);
             if (appMatch != null) {
-                String site = ExtensionWappalyzer.normalizeSite(msg.getRequestHeader().getURI());
+                if (site == null) {
+                    site = ExtensionWappalyzer.normalizeSite(msg.getRequestHeader().getURI());
+                }
                 LOGGER.debug("Adding {} to {}", app.getName(), site);
                 addApplicationsToSite(site, appMatch);
                 this.appMatch = null;
@@ -112,74 +112,70 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
     }
 
-    private void checkAppMatches(HttpMessage msg, Source source) {
-        checkUrlMatches(msg);
-        checkHeadersMatches(msg);
-        checkCookieMatches(msg);
-        if (!msg.getResponseHeader().isText()) {
+    private void checkAppMatches(ResponseContent content) {
+        checkUrlMatches(content);
+        checkHeadersMatches(content);
+        checkCookieMatches(content);
+        if (!content.isText()) {
             return; // Don't check body if not text'ish
         }
-        checkBodyMatches(msg);
-        checkMetaElementsMatches(source);
-        checkScriptElementsMatches(source);
-        checkCssElementsMatches(msg, source);
-        checkSimpleDomMatches(msg);
-        checkDomElementMatches(msg);
+        checkBodyMatches(content);
+        checkMetaElementsMatches(content);
+        checkScriptElementsMatches(content);
+        checkCssElementsMatches(content);
+        checkSimpleDomMatches(content);
+        checkDomElementMatches(content);
     }
 
-    private void checkCssElementsMatches(HttpMessage msg, Source source) {
+    private void checkCssElementsMatches(ResponseContent content) {
         for (AppPattern appPattern : currentApp.getCss()) {
-            if (ResourceIdentificationUtils.isCss(msg)) {
-                addIfMatches(appPattern, msg.getResponseBody().toString());
+            if (!content.mayMatchBody(appPattern)) {
+                continue;
+            }
+            if (content.isCss()) {
+                addIfMatches(appPattern, content.getBody());
             } else {
-                for (Element styleElement : source.getAllElements(HTMLElementName.STYLE)) {
-                    addIfMatches(appPattern, styleElement.getSource().toString());
+                for (String style : content.getStyles()) {
+                    addIfMatches(appPattern, style);
                 }
             }
         }
     }
 
-    private void checkScriptElementsMatches(Source source) {
-        for (Element scriptElement : source.getAllElements(HTMLElementName.SCRIPT)) {
+    private void checkScriptElementsMatches(ResponseContent content) {
+        for (String src : content.getScriptSources()) {
             for (AppPattern appPattern : currentApp.getScript()) {
-                String src = scriptElement.getAttributeValue("src");
-                if (src != null && !src.isEmpty()) {
-                    addIfMatches(appPattern, src);
-                }
+                addIfMatches(appPattern, src);
             }
         }
     }
 
-    private void checkMetaElementsMatches(Source source) {
-        List<Element> metaElements = source.getAllElements(HTMLElementName.META);
-        for (Element metaElement : metaElements) {
-            for (Map<String, AppPattern> sp : currentApp.getMetas()) {
-                for (Map.Entry<String, AppPattern> entry : sp.entrySet()) {
-                    String name = metaElement.getAttributeValue("name");
-                    String content = metaElement.getAttributeValue("content");
-                    if (name != null && content != null && name.equals(entry.getKey())) {
-                        AppPattern p = entry.getValue();
-                        addIfMatches(p, content);
-                    }
+    private void checkMetaElementsMatches(ResponseContent content) {
+        for (Map<String, AppPattern> sp : currentApp.getMetas()) {
+            for (Map.Entry<String, AppPattern> entry : sp.entrySet()) {
+                for (String metaContent : content.getMetaContents(entry.getKey())) {
+                    addIfMatches(entry.getValue(), metaContent);
                 }
             }
         }
     }
 
-    private void checkDomElementMatches(HttpMessage message) {
-        if (!message.getResponseHeader().isHtml()) {
+    private void checkDomElementMatches(ResponseContent content) {
+        if (currentApp.getDom().isEmpty() || !content.isHtml()) {
             return;
         }
-        Document doc = Jsoup.parse(message.getResponseBody().toString());
         for (Map<String, Map<String, Map<String, AppPattern>>> domSelectorMap :
                 currentApp.getDom()) {
             for (Map.Entry<String, Map<String, Map<String, AppPattern>>> selectorMap :
                     domSelectorMap.entrySet()) {
+                Elements selectedElements = content.select(selectorMap.getKey());
+                if (selectedElements.isEmpty()) {
+                    continue;
+                }
                 for (Map.Entry<String, Map<String, AppPattern>> nodeSelectorMap :
                         selectorMap.getValue().entrySet()) {
                     for (Map.Entry<String, AppPattern> value :
                             nodeSelectorMap.getValue().entrySet()) {
-                        Elements selectedElements = doc.select(selectorMap.getKey());
                         for (org.jsoup.nodes.Element selectedElement : selectedElements) {
                             if (Objects.equals(value.getKey(), "text")) {
                                 AppPattern ap = value.getValue();
@@ -198,24 +194,26 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
     }
 
-    private void checkSimpleDomMatches(HttpMessage msg) {
-        String body = msg.getResponseBody().toString();
+    private void checkSimpleDomMatches(ResponseContent content) {
         for (String selector : currentApp.getSimpleDom()) {
-            addIfDomMatches(selector, body);
+            if (!content.select(selector).isEmpty()) {
+                this.appMatch = getAppMatch();
+            }
         }
     }
 
-    private void checkBodyMatches(HttpMessage msg) {
-        String body = msg.getResponseBody().toString();
+    private void checkBodyMatches(ResponseContent content) {
         for (AppPattern p : currentApp.getHtml()) {
-            addIfMatches(p, body);
+            if (content.mayMatchBody(p)) {
+                addIfMatches(p, content.getBody());
+            }
         }
     }
 
-    private void checkHeadersMatches(HttpMessage msg) {
+    private void checkHeadersMatches(ResponseContent content) {
         for (Map<String, AppPattern> sp : currentApp.getHeaders()) {
             for (Map.Entry<String, AppPattern> entry : sp.entrySet()) {
-                String header = msg.getResponseHeader().getHeader(entry.getKey());
+                String header = content.getHeader(entry.getKey());
                 if (header != null) {
                     AppPattern p = entry.getValue();
                     addIfMatches(p, header);
@@ -224,10 +222,10 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
     }
 
-    private void checkCookieMatches(HttpMessage msg) {
+    private void checkCookieMatches(ResponseContent content) {
         for (Map<String, AppPattern> sp : currentApp.getCookies()) {
             for (Map.Entry<String, AppPattern> entry : sp.entrySet()) {
-                for (HtmlParameter cookie : msg.getCookieParams()) {
+                for (HtmlParameter cookie : content.getCookies()) {
                     if (entry.getKey().equals(cookie.getName())) {
                         AppPattern p = entry.getValue();
                         addIfMatches(p, cookie.getValue());
@@ -237,18 +235,9 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
     }
 
-    private void checkUrlMatches(HttpMessage msg) {
-        String url = msg.getRequestHeader().getURI().toString();
+    private void checkUrlMatches(ResponseContent content) {
         for (AppPattern p : currentApp.getUrl()) {
-            addIfMatches(p, url);
-        }
-    }
-
-    private void addIfDomMatches(String selector, String content) {
-        Document doc = Jsoup.parse(content);
-        Elements elements = doc.select(selector);
-        if (!elements.isEmpty()) {
-            this.appMatch = getAppMatch();
+            addIfMatches(p, content.getUrl());
         }
     }
 
@@ -268,6 +257,14 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         return applicationHolder.getApplications();
     }
 
+    private TechnologyIndex getIndex() {
+        List<Application> apps = getApps();
+        if (index == null || !index.isFor(apps)) {
+            index = new TechnologyIndex(apps);
+        }
+        return index;
+    }
+
     private ApplicationMatch getAppMatch() {
         if (appMatch == null) {
             appMatch = new ApplicationMatch(currentApp);
@@ -0,0 +1,99 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Collections;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.zaproxy.addon.commonlib.LiteralMatcher;
+
+/** Unit test for {@link AppPattern}. */
+class AppPatternUnitTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "jquery, jquery",
+        "WordPress, wordpress",
+        "wp-content/themes, wp-content/themes",
+        "jquery[.-]([\\d.]+)\\.js, jquery",
+        "<link[^>]+/wp-content/, /wp-content/",
+        "\\.drupal\\.org, .drupal.org",
+        "(?:shopify|cdn)\\.example\\.com, .example.com",
+        "^/magento/, /magento/",
+        "generators?abc, generator",
+        "abcdefg?, abcdef",
+        "abcdx*, abcd",
+        "abcd{2}, abc",
+        "xyz+abcd, abcd"
+    })
+    void shouldExtractLongestRequiredLiteral(String pattern, String literal) {
+        assertThat(AppPattern.extractLiteral(pattern), is(equalTo(literal)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "jquery|zepto",
+                "ab",
+                "(?:jquery)",
+                "[a-z]+\\d",
+                "\\bab\\b",
+                "ünïcode",
+                "(unclosed",
+                "[unclosed"
+            })
+    void shouldNotExtractLiteralIfNoneRequired(String pattern) {
+        assertThat(AppPattern.extractLiteral(pattern), is(nullValue()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "jQuery v1.2.3",
+                "<link href='/wp-content/x.css'>",
+                "https://cdn.example.com/app.js"
+            })
+    void shouldFindLiteralInContentMatchedByPattern(String content) {
+        // Given
+        String[] patterns = {
+            "jquery[ v]*([\\d.]+)", "<link[^>]+/wp-content/", "(?:shopify|cdn)\\.example\\.com"
+        };
+        for (String pattern : patterns) {
+            AppPattern appPattern = new AppPattern();
+            appPattern.setPattern(pattern);
+            if (appPattern.findInString(content) == null) {
+                continue;
+            }
+            // When
+            boolean found =
+                    new LiteralMatcher(Collections.singleton(appPattern.getLiteral()))
+                            .findAll(content)
+                            .contains(appPattern.getLiteral());
+            // Then
+            assertThat(found, is(equalTo(true)));
+        }
+    }
+}
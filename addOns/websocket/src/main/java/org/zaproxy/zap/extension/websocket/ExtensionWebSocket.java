@@ -91,6 +91,7 @@ import org.zaproxy.zap.extension.websocket.db.TableWebSocket;
 import org.zaproxy.zap.extension.websocket.db.WebSocketStorage;
 import org.zaproxy.zap.extension.websocket.manualsend.ManualWebSocketSendEditorDialog;
 import org.zaproxy.zap.extension.websocket.manualsend.WebSocketPanelSender;
+import org.zaproxy.zap.extension.websocket.pscan.WebSocketPassiveScanThread;
 import org.zaproxy.zap.extension.websocket.pscan.WebSocketPassiveScannerManager;
 import org.zaproxy.zap.extension.websocket.pscan.scripts.ScriptsWebSocketPassiveScanner;
 import org.zaproxy.zap.extension.websocket.treemap.WebSocketTreeMap;
@@ -170,6 +171,9 @@ public class ExtensionWebSocket extends ExtensionAdaptor
     /** Used to shorten the time, a listener is started on a WebSocket channel. */
     private ExecutorService listenerThreadPool;
 
+    /** The transport to read the frames from the local sockets, might be {@code null}. */
+    private volatile WebSocketTransport localTransport;
+
     /** List of observers where each element is informed on all channel's messages. */
     private List<WebSocketObserver> allChannelObservers;
 
@@ -272,10 +276,14 @@ public class ExtensionWebSocket extends ExtensionAdaptor
 
     @Override
     public void databaseOpen(Database db) throws DatabaseException, DatabaseUnsupportedException {
+        if (table != null) {
+            table.closeMessageWriter();
+        }
         table = new TableWebSocket();
         db.addDatabaseListener(table);
         try {
             table.databaseOpen(db.getDatabaseServer());
+            applyMessageWriterOptions();
 
             if (storage == null) {
                 storage = new WebSocketStorage(table);
@@ -283,9 +291,6 @@ public class ExtensionWebSocket extends ExtensionAdaptor
             } else {
                 storage.setTable(table);
             }
-            if (webSocketPassiveScannerManager != null) {
-                webSocketPassiveScannerManager.setTable(table);
-            }
             if (View.isInitialised()) {
                 getWebSocketPanel().setTable(table);
                 // Will have been paused when the session was about to change
@@ -327,6 +332,7 @@ public class ExtensionWebSocket extends ExtensionAdaptor
 
         // setup configuration
         extensionHook.addOptionsParamSet(config);
+        extensionHook.addOptionsChangedListener(o -> applyOptions());
 
         HttpSender.addListener(httpSenderListener);
 
@@ -473,10 +479,6 @@ public class ExtensionWebSocket extends ExtensionAdaptor
             // Always register the built (non template) in scripts, so that they get used from a new
             // install
             registerDefaultScripts(websocketPassiveScanScriptType);
-
-            if (!webSocketPassiveScannerManager.hasTable()) {
-                webSocketPassiveScannerManager.setTable(table);
-            }
         }
     }
 
@@ -518,6 +520,7 @@ public class ExtensionWebSocket extends ExtensionAdaptor
 
         if (table != null) {
             getModel().getDb().removeDatabaseListener(table);
+            table.closeMessageWriter();
         }
 
         if (getView() != null) {
@@ -837,6 +840,9 @@ public class ExtensionWebSocket extends ExtensionAdaptor
             }
 
             wsProxy.setForwardOnly(isChannelIgnored(wsProxy.getDTO()));
+            if (config.isEventLoopTransport()) {
+                wsProxy.setLocalTransport(localTransport, config.getMaxFrameLength());
+            }
             wsProxy.startListeners(getListenerThreadPool(), remoteReader);
 
             synchronized (wsProxies) {
@@ -877,6 +883,18 @@ public class ExtensionWebSocket extends ExtensionAdaptor
         }
     }
 
+    /**
+     * Sets the transport used to read the frames from the local sockets, if enabled in the options.
+     *
+     * <p>Applies only to WebSocket channels created afterwards.
+     *
+     * @param transport the transport, or {@code null} to use threads.
+     * @see OptionsParamWebSocket#isEventLoopTransport()
+     */
+    public void setLocalTransport(WebSocketTransport transport) {
+        localTransport = transport;
+    }
+
     /**
      * Creates and returns a cached thread pool that should speed up {@link WebSocketListener}.
      *
@@ -1148,6 +1166,29 @@ public class ExtensionWebSocket extends ExtensionAdaptor
         }
     }
 
+    @Override
+    public void optionsLoaded() {
+        applyOptions();
+    }
+
+    private void applyOptions() {
+        applyMessageWriterOptions();
+
+        if (webSocketPassiveScannerManager != null) {
+            WebSocketPassiveScanThread scanThread =
+                    webSocketPassiveScannerManager.getWebSocketPassiveScanThread();
+            scanThread.setThreadCount(config.getPscanThreads());
+            scanThread.setMaxQueueSize(config.getPscanQueueSize());
+        }
+    }
+
+    private void applyMessageWriterOptions() {
+        if (table != null) {
+            table.setMessageWriterOptions(
+                    config.getDbBatchSize(), config.getDbFlushInterval(), config.getDbQueueSize());
+        }
+    }
+
     @Override
     public void sessionAboutToChange(Session session) {
         if (View.isInitialised()) {
@@ -1163,6 +1204,10 @@ public class ExtensionWebSocket extends ExtensionAdaptor
             }
             wsProxies.clear();
         }
+
+        if (table != null) {
+            table.flushMessages();
+        }
     }
 
     @Override
@@ -184,6 +184,12 @@ public abstract class WebSocketProxy {
     /** Used to re-establish the current connection */
     private ServerConnectionEstablisher serverEstablisher = null;
 
+    /** The transport used to read from the local socket, if {@code null} uses a thread. */
+    private WebSocketTransport localTransport;
+
+    /** The maximum length of the frames read by the {@link #localTransport}. */
+    private int localMaxFrameLength;
+
     /**
      * After loading another session, the channelCount should be initialized.
      *
@@ -435,7 +441,11 @@ public abstract class WebSocketProxy {
                 // as it may already contain first WebSocket-frames
                 remoteListener = createListener(remoteSocket, remoteReader, "remote");
             }
-            localListener = createListener(localSocket, "local");
+            if (localTransport != null && localTransport.isSupported(localSocket)) {
+                localListener = createTransportListener(localSocket, listenerThreadPool);
+            } else {
+                localListener = createListener(localSocket, "local");
+            }
         } catch (WebSocketException e) {
             shutdown();
             throw e;
@@ -479,6 +489,24 @@ public abstract class WebSocketProxy {
         }
     }
 
+    private WebSocketListener createTransportListener(
+            Socket readEnd, ExecutorService listenerThreadPool) throws WebSocketException {
+        try {
+            OutputStream writer = null;
+            Socket writeSocket = getOppositeSocket(readEnd);
+            if (writeSocket != null) {
+                writer = writeSocket.getOutputStream();
+            }
+
+            String name = "ZAP-WS-Listener (local) '" + toString() + "'";
+
+            return localTransport.createListener(
+                    this, readEnd, writer, listenerThreadPool, localMaxFrameLength, name);
+        } catch (IOException e) {
+            throw new WebSocketException("Failed to start listener due to: " + e.getMessage());
+        }
+    }
+
     /**
      * Create a listener object that encapsulates the input stream from the given {@link Socket} and
      * the output stream of the opposite socket connection.
@@ -502,6 +530,27 @@ public abstract class WebSocketProxy {
         }
     }
 
+    /**
+     * Sets the transport used to read from the local socket, instead of a blocking thread.
+     *
+     * <p>Must be called before starting the listeners. The transport is used only if it supports
+     * the local socket.
+     *
+     * @param localTransport the transport, or {@code null} to always use a thread.
+     * @param maxFrameLength the maximum length, in bytes, of the frames read by the transport.
+     * @throws IllegalArgumentException if the transport is not {@code null} and the maximum frame
+     *     length is not positive.
+     * @see #startListeners(ExecutorService, InputStream)
+     */
+    public void setLocalTransport(WebSocketTransport localTransport, int maxFrameLength) {
+        if (localTransport != null && maxFrameLength <= 0) {
+            throw new IllegalArgumentException(
+                    "The maximum frame length must be greater than zero.");
+        }
+        this.localTransport = localTransport;
+        this.localMaxFrameLength = maxFrameLength;
+    }
+
     /** Stop listening & close all resources, i.e.: threads, streams & sockets */
     public void shutdown() {
         if (Mode.CLIENT.equals(mode)
@@ -0,0 +1,71 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A transport that reads the frames of one side of a WebSocket connection without blocking a
+ * thread while waiting for data, for example, in the event loops of the local servers.
+ *
+ * <p>The frames read are processed through {@link WebSocketProxy#processRead(java.io.InputStream,
+ * OutputStream, byte)}, so the {@link WebSocketObserver}s and {@link WebSocketSenderListener}s are
+ * notified as with the blocking listeners.
+ *
+ * @see ExtensionWebSocket#setLocalTransport(WebSocketTransport)
+ */
+public interface WebSocketTransport {
+
+    /**
+     * Tells whether or not the given socket can be read by this transport.
+     *
+     * @param socket the socket to read from.
+     * @return {@code true} if the socket is supported, {@code false} otherwise.
+     */
+    boolean isSupported(Socket socket);
+
+    /**
+     * Creates a listener that reads the frames from the given socket and forwards them to the
+     * given output stream.
+     *
+     * <p>The listener does not block the thread it is run on, the frames are processed with the
+     * given executor, in the order they were read.
+     *
+     * @param wsProxy the proxy that processes the frames.
+     * @param readEnd the socket to read from, must be supported.
+     * @param out the stream to forward the frames to, might be {@code null}.
+     * @param executor the executor used to process the frames.
+     * @param maxFrameLength the maximum length, in bytes, of the frames, longer frames close the
+     *     connection.
+     * @param name the name of the listener, used for logging.
+     * @return the listener.
+     * @throws WebSocketException if an error occurred while creating the listener.
+     */
+    WebSocketListener createListener(
+            WebSocketProxy wsProxy,
+            Socket readEnd,
+            OutputStream out,
+            ExecutorService executor,
+            int maxFrameLength,
+            String name)
+            throws WebSocketException;
+}
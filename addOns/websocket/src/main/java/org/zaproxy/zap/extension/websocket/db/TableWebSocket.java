@@ -29,6 +29,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -38,9 +39,8 @@ import java.util.Set;
 import org.apache.commons.collections.map.LRUMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.hsqldb.jdbc.JDBCBlob;
-import org.hsqldb.jdbc.JDBCClob;
 import org.parosproxy.paros.db.DatabaseException;
+import org.parosproxy.paros.db.DatabaseServer;
 import org.parosproxy.paros.db.DbUtils;
 import org.parosproxy.paros.db.paros.ParosAbstractTable;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
@@ -78,6 +78,75 @@ public class TableWebSocket extends ParosAbstractTable {
     private Queue<WebSocketMessageDTO> messagesBuffer = new LinkedList<>();
     private Queue<WebSocketChannelDTO> channelsBuffer = new LinkedList<>();
 
+    private volatile WebSocketMessageWriter messageWriter;
+
+    /**
+     * Sets the options of the writes of the messages.
+     *
+     * <p>If the batch size is greater than one the messages are written in batches in a
+     * background thread, otherwise they are written directly when inserted. Any messages pending
+     * are written before changing the options, nothing is done if the options did not change.
+     *
+     * @param batchSize the maximum number of messages written at once.
+     * @param flushInterval the interval, in milliseconds, between the writes of the pending
+     *     messages.
+     * @param queueSize the maximum number of messages waiting to be written.
+     * @throws IllegalArgumentException if the batch size is greater than one and the interval or
+     *     the queue size is not positive.
+     * @since 26.0.0
+     */
+    public synchronized void setMessageWriterOptions(
+            int batchSize, int flushInterval, int queueSize) {
+        if (messageWriter == null
+                ? batchSize <= 1
+                : messageWriter.hasOptions(batchSize, flushInterval, queueSize)) {
+            return;
+        }
+        closeMessageWriter();
+        if (batchSize > 1) {
+            messageWriter =
+                    new WebSocketMessageWriter(
+                            this, this::writeMessages, batchSize, flushInterval, queueSize);
+        }
+    }
+
+    /**
+     * Writes any pending messages and stops writing the messages in a background thread, the
+     * messages inserted afterwards are written directly.
+     *
+     * @since 26.0.0
+     * @see #setMessageWriterOptions(int, int, int)
+     */
+    public synchronized void closeMessageWriter() {
+        if (messageWriter != null) {
+            messageWriter.close();
+            messageWriter = null;
+        }
+    }
+
+    WebSocketMessageWriter getMessageWriter() {
+        return messageWriter;
+    }
+
+    /**
+     * Writes the messages waiting to be written, if any, so that they can be read.
+     *
+     * @since 26.0.0
+     */
+    public void flushMessages() {
+        WebSocketMessageWriter writer = messageWriter;
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void databaseOpen(DatabaseServer server) throws DatabaseException {
+        // Write the pending messages before switching the connection.
+        flushMessages();
+        super.databaseOpen(server);
+    }
+
     /** Create tables if not already available */
     @Override
     protected void reconnect(Connection conn) throws DatabaseException {
@@ -265,6 +334,7 @@ public class TableWebSocket extends ParosAbstractTable {
             WebSocketMessagesPayloadFilter payloadFilter,
             int payloadLength)
             throws DatabaseException {
+        flushMessages();
         if (payloadFilter != null) {
             return countMessageWithPayloadFilter(
                     criteria, opcodes, inScopeChannelIds, payloadFilter, payloadLength);
@@ -364,6 +434,7 @@ public class TableWebSocket extends ParosAbstractTable {
     public synchronized int getIndexOf(
             WebSocketMessageDTO criteria, List<Integer> opcodes, List<Integer> inScopeChannelIds)
             throws DatabaseException {
+        flushMessages();
         try {
             String query =
                     "SELECT COUNT(m.message_id) "
@@ -389,6 +460,7 @@ public class TableWebSocket extends ParosAbstractTable {
 
     public synchronized WebSocketMessageDTO getMessage(int messageId, int channelId)
             throws DatabaseException {
+        flushMessages();
         try {
             psSelectMessage.setInt(1, messageId);
             psSelectMessage.setInt(2, channelId);
@@ -438,6 +510,7 @@ public class TableWebSocket extends ParosAbstractTable {
             int limit,
             int payloadPreviewLength)
             throws DatabaseException {
+        flushMessages();
         try {
             String query =
                     "SELECT m.message_id, m.channel_id, m.timestamp, m.opcode, m.payload_length, m.is_outgoing, "
@@ -592,7 +665,7 @@ public class TableWebSocket extends ParosAbstractTable {
         if (!channelCache.containsKey(channelId)) {
             WebSocketChannelDTO criteria = new WebSocketChannelDTO();
             criteria.setId(channelId);
-            List<WebSocketChannelDTO> channels = getChannels(criteria);
+            List<WebSocketChannelDTO> channels = getChannelsImpl(criteria);
             if (channels.size() == 1) {
                 channelCache.put(channelId, channels.get(0));
             } else {
@@ -677,6 +750,7 @@ public class TableWebSocket extends ParosAbstractTable {
     }
 
     public List<WebSocketChannelDTO> getChannelItems() throws DatabaseException {
+        flushMessages();
         try {
             psSelectChannels.execute();
             ResultSet rs = psSelectChannels.getResultSet();
@@ -783,61 +857,105 @@ public class TableWebSocket extends ParosAbstractTable {
         }
     }
 
+    /**
+     * Inserts the given message.
+     *
+     * <p>The message might be written later, in a batch, if enabled.
+     *
+     * @param message the message to insert.
+     * @throws DatabaseException if an error occurred while writing the message.
+     * @see #setMessageWriterOptions(int, int, int)
+     */
     public void insertMessage(WebSocketMessageDTO message) throws DatabaseException {
+        WebSocketMessageWriter writer = messageWriter;
+        if (writer != null) {
+            writer.add(message);
+            return;
+        }
+        writeMessages(Collections.singletonList(message));
+    }
+
+    private void writeMessages(List<WebSocketMessageDTO> messages) throws DatabaseException {
         try {
             // synchronize on whole object to avoid race conditions with insertOrUpdateChannel()
             synchronized (this) {
                 if (getConnection().isClosed()) {
                     // temporarily buffer messages and write them the next time
-                    messagesBuffer.offer(message);
+                    messagesBuffer.addAll(messages);
                     return;
                 }
 
-                do {
-                    if (!channelIds.contains(message.getChannel().getId())) {
-                        // maybe channel is buffered
-                        if (channelsBuffer.size() > 0) {
-                            insertOrUpdateChannel(channelsBuffer.poll());
+                if (!channelsBuffer.isEmpty()) {
+                    insertOrUpdateChannel(channelsBuffer.poll());
+                }
+
+                if (!messagesBuffer.isEmpty()) {
+                    List<WebSocketMessageDTO> allMessages = new ArrayList<>(messagesBuffer);
+                    messagesBuffer.clear();
+                    allMessages.addAll(messages);
+                    messages = allMessages;
+                }
+
+                boolean fuzzMessages = false;
+                Set<Integer> channelsNotInserted = new HashSet<>();
+                int messagesNotInserted = 0;
+                try {
+                    for (WebSocketMessageDTO message : messages) {
+                        if (!channelIds.contains(message.getChannel().getId())) {
+                            channelsNotInserted.add(message.getChannel().getId());
+                            messagesNotInserted++;
+                            continue;
                         }
-                        throw new SQLException(
-                                "channel not inserted: " + message.getChannel().getId());
-                    }
 
-                    logger.debug("insert message: {}", message);
+                        logger.debug("insert message: {}", message);
 
-                    psInsertMessage.setInt(1, message.getId());
-                    psInsertMessage.setInt(2, message.getChannel().getId());
-                    psInsertMessage.setTimestamp(3, new Timestamp(message.getTimestamp()));
-                    psInsertMessage.setInt(4, message.getOpcode());
+                        psInsertMessage.setInt(1, message.getId());
+                        psInsertMessage.setInt(2, message.getChannel().getId());
+                        psInsertMessage.setTimestamp(3, new Timestamp(message.getTimestamp()));
+                        psInsertMessage.setInt(4, message.getOpcode());
 
-                    // write payload
-                    if (message.getPayload() instanceof String) {
-                        psInsertMessage.setClob(5, new JDBCClob((String) message.getPayload()));
-                        psInsertMessage.setNull(6, Types.BLOB);
-                    } else if (message.getPayload() instanceof byte[]) {
-                        psInsertMessage.setNull(5, Types.CLOB);
-                        psInsertMessage.setBlob(6, new JDBCBlob((byte[]) message.getPayload()));
-                    } else {
-                        throw new SQLException(
-                                "Attribute 'payload' of class WebSocketMessageDTO has got wrong type!");
+                        // write payload
+                        if (message.getPayload() instanceof String) {
+                            psInsertMessage.setString(5, (String) message.getPayload());
+                            psInsertMessage.setNull(6, Types.BLOB);
+                        } else if (message.getPayload() instanceof byte[]) {
+                            psInsertMessage.setNull(5, Types.CLOB);
+                            psInsertMessage.setBytes(6, (byte[]) message.getPayload());
+                        } else {
+                            throw new SQLException(
+                                    "Attribute 'payload' of class WebSocketMessageDTO has got wrong type!");
+                        }
+
+                        psInsertMessage.setInt(7, message.getPayloadLength());
+                        psInsertMessage.setBoolean(8, message.isOutgoing());
+                        psInsertMessage.addBatch();
+
+                        if (message instanceof WebSocketFuzzMessageDTO) {
+                            WebSocketFuzzMessageDTO fuzzMessage = (WebSocketFuzzMessageDTO) message;
+                            psInsertFuzz.setInt(1, fuzzMessage.fuzzId);
+                            psInsertFuzz.setInt(2, fuzzMessage.getId());
+                            psInsertFuzz.setInt(3, fuzzMessage.getChannel().getId());
+                            psInsertFuzz.setString(4, fuzzMessage.state.toString());
+                            psInsertFuzz.setString(5, fuzzMessage.fuzz);
+                            psInsertFuzz.addBatch();
+                            fuzzMessages = true;
+                        }
                     }
 
-                    psInsertMessage.setInt(7, message.getPayloadLength());
-                    psInsertMessage.setBoolean(8, message.isOutgoing());
-                    psInsertMessage.execute();
-
-                    if (message instanceof WebSocketFuzzMessageDTO) {
-                        WebSocketFuzzMessageDTO fuzzMessage = (WebSocketFuzzMessageDTO) message;
-                        psInsertFuzz.setInt(1, fuzzMessage.fuzzId);
-                        psInsertFuzz.setInt(2, fuzzMessage.getId());
-                        psInsertFuzz.setInt(3, fuzzMessage.getChannel().getId());
-                        psInsertFuzz.setString(4, fuzzMessage.state.toString());
-                        psInsertFuzz.setString(5, fuzzMessage.fuzz);
-                        psInsertFuzz.execute();
+                    // the fuzz rows reference the messages
+                    psInsertMessage.executeBatch();
+                    if (fuzzMessages) {
+                        psInsertFuzz.executeBatch();
                     }
+                } finally {
+                    psInsertMessage.clearBatch();
+                    psInsertFuzz.clearBatch();
+                }
 
-                    message = messagesBuffer.poll();
-                } while (message != null);
+                if (messagesNotInserted != 0) {
+                    throw new WebSocketMessageWriter.MessagesNotWrittenException(
+                            messagesNotInserted, "channel not inserted: " + channelsNotInserted);
+                }
             }
         } catch (SQLException e) {
             throw new DatabaseException(e);
@@ -846,6 +964,12 @@ public class TableWebSocket extends ParosAbstractTable {
 
     public List<WebSocketChannelDTO> getChannels(WebSocketChannelDTO criteria)
             throws DatabaseException {
+        flushMessages();
+        return getChannelsImpl(criteria);
+    }
+
+    private List<WebSocketChannelDTO> getChannelsImpl(WebSocketChannelDTO criteria)
+            throws DatabaseException {
         try {
             String query =
                     "SELECT c.* "
@@ -929,6 +1053,7 @@ public class TableWebSocket extends ParosAbstractTable {
      */
     public void purgeChannel(Integer channelId) throws SQLException {
         synchronized (this) {
+            flushMessages();
             if (channelIds.contains(channelId)) {
                 psDeleteMessagesByChannelId.setInt(1, channelId);
                 psDeleteMessagesByChannelId.execute();
@@ -947,6 +1072,7 @@ public class TableWebSocket extends ParosAbstractTable {
      */
     public int getMaxChannelId() throws SQLException {
         synchronized (this) {
+            flushMessages();
             return executeAndGetSingleIntValue(psSelectMaxChannelId);
         }
     }
@@ -0,0 +1,315 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.parosproxy.paros.db.DatabaseException;
+import org.zaproxy.zap.extension.websocket.WebSocketMessageDTO;
+import org.zaproxy.zap.utils.Stats;
+
+/**
+ * Writes the WebSocket messages to the database in batches, in a background thread.
+ *
+ * <p>The messages are kept in a bounded queue until written, which happens periodically, when
+ * enough messages are queued to fill a batch, or when {@link #flush() flushed} (for example,
+ * before reading the messages). When the queue is full the messages are written by the thread
+ * adding them, slowing it down until the database catches up.
+ *
+ * <p>The batches are written while holding the given lock, so that the readers, holding the same
+ * lock, can flush the queue and see all the messages added.
+ */
+class WebSocketMessageWriter {
+
+    private static final Logger LOGGER = LogManager.getLogger(WebSocketMessageWriter.class);
+
+    /** The statistic incremented when the queue is full and the messages written directly. */
+    static final String OVERFLOW_STATS = "stats.websockets.db.overflow";
+
+    /** The statistic incremented with the number of messages that failed to be written. */
+    static final String DROPPED_STATS = "stats.websockets.db.dropped";
+
+    private final Object lock;
+    private final Sink sink;
+    private final int batchSize;
+    private final int flushInterval;
+    private final int queueSize;
+    private final BlockingQueue<WebSocketMessageDTO> queue;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushScheduled;
+
+    private final LongAdder written;
+    private final LongAdder batches;
+    private final LongAdder overflows;
+    private final LongAdder dropped;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a {@code WebSocketMessageWriter} with the given lock, sink, and batch/queue
+     * options.
+     *
+     * @param lock the lock held while writing the batches.
+     * @param sink where the batches are written.
+     * @param batchSize the maximum number of messages written at once.
+     * @param flushInterval the interval, in milliseconds, between periodic writes.
+     * @param queueSize the maximum number of messages waiting to be written.
+     * @throws IllegalArgumentException if any of the sizes or the interval is not positive.
+     */
+    WebSocketMessageWriter(
+            Object lock, Sink sink, int batchSize, int flushInterval, int queueSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be greater than zero.");
+        }
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("The flush interval must be greater than zero.");
+        }
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("The queue size must be greater than zero.");
+        }
+
+        this.lock = lock;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.queueSize = queueSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.flushScheduled = new AtomicBoolean();
+
+        written = new LongAdder();
+        batches = new LongAdder();
+        overflows = new LongAdder();
+        dropped = new LongAdder();
+
+        executor =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "ZAP-WebSocket-Writer");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        executor.scheduleWithFixedDelay(
+                this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tells whether or not this writer was created with the given options.
+     *
+     * @param batchSize the maximum number of messages written at once.
+     * @param flushInterval the interval, in milliseconds, between periodic writes.
+     * @param queueSize the maximum number of messages waiting to be written.
+     * @return {@code true} if the options are the same, {@code false} otherwise.
+     */
+    boolean hasOptions(int batchSize, int flushInterval, int queueSize) {
+        return this.batchSize == batchSize
+                && this.flushInterval == flushInterval
+                && this.queueSize == queueSize;
+    }
+
+    /**
+     * Adds the given message to be written.
+     *
+     * <p>If the queue is full the queued messages are written by the calling thread.
+     *
+     * @param message the message to write.
+     */
+    void add(WebSocketMessageDTO message) {
+        if (closed) {
+            synchronized (lock) {
+                flush();
+                writeBatch(Collections.singletonList(message));
+            }
+            return;
+        }
+
+        if (!queue.offer(message)) {
+            overflows.increment();
+            Stats.incCounter(OVERFLOW_STATS);
+            do {
+                flush();
+            } while (!queue.offer(message));
+        }
+
+        if (queue.size() >= batchSize) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(
+                    () -> {
+                        flushScheduled.set(false);
+                        flush();
+                    });
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+            flush();
+        }
+    }
+
+    /** Writes all the queued messages, in batches. */
+    void flush() {
+        synchronized (lock) {
+            List<WebSocketMessageDTO> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<WebSocketMessageDTO> batch) {
+        int count = batch.size();
+        try {
+            sink.write(batch);
+            written.add(count);
+            batches.increment();
+        } catch (MessagesNotWrittenException e) {
+            int failed = e.getCount();
+            written.add(count - failed);
+            batches.increment();
+            dropped(failed, e);
+        } catch (DatabaseException | RuntimeException e) {
+            dropped(count, e);
+        }
+    }
+
+    private void dropped(int count, Exception e) {
+        dropped.add(count);
+        Stats.incCounter(DROPPED_STATS, count);
+        LOGGER.error("Failed to write {} WebSocket messages: {}", count, e.getMessage(), e);
+    }
+
+    /**
+     * Stops the background writes, writing all the queued messages.
+     *
+     * <p>The messages added afterwards are written directly.
+     */
+    void close() {
+        closed = true;
+        executor.shutdown();
+        flush();
+    }
+
+    /**
+     * Gets the number of messages waiting to be written.
+     *
+     * @return the number of queued messages.
+     */
+    int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of messages written.
+     *
+     * @return the number of written messages.
+     */
+    long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Gets the number of batches written.
+     *
+     * @return the number of batches.
+     */
+    long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Gets the number of times the queue was full.
+     *
+     * @return the number of overflows.
+     */
+    long getOverflows() {
+        return overflows.sum();
+    }
+
+    /**
+     * Gets the number of messages that failed to be written.
+     *
+     * @return the number of dropped messages.
+     */
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    /** The destination of the batches of messages. */
+    interface Sink {
+
+        /**
+         * Writes the given messages.
+         *
+         * @param messages the messages to write.
+         * @throws DatabaseException if an error occurred while writing the messages.
+         */
+        void write(List<WebSocketMessageDTO> messages) throws DatabaseException;
+    }
+
+    /**
+     * Exception thrown by the {@link Sink} when some of the messages were not written, the others
+     * were.
+     */
+    static class MessagesNotWrittenException extends DatabaseException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int count;
+
+        /**
+         * Constructs a {@code MessagesNotWrittenException} with the given number of messages not
+         * written and the message.
+         *
+         * @param count the number of messages not written.
+         * @param message the detail message.
+         */
+        MessagesNotWrittenException(int count, String message) {
+            super(message);
+            this.count = count;
+        }
+
+        /**
+         * Gets the number of messages not written.
+         *
+         * @return the number of messages.
+         */
+        int getCount() {
+            return count;
+        }
+    }
+}
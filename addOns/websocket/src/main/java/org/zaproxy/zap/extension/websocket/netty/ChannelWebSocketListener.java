@@ -0,0 +1,203 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.zaproxy.addon.network.server.ChannelSocket;
+import org.zaproxy.zap.extension.websocket.WebSocketListener;
+import org.zaproxy.zap.extension.websocket.WebSocketProxy;
+
+/**
+ * A {@link WebSocketListener} that reads the frames in the pipeline of the channel, instead of
+ * with a blocking thread.
+ *
+ * <p>The frames are processed with an executor, one at a time and in the order they were read, the
+ * reads are suspended while too many frames are waiting to be processed.
+ */
+class ChannelWebSocketListener extends WebSocketListener {
+
+    private static final Logger LOGGER = LogManager.getLogger(ChannelWebSocketListener.class);
+
+    /** The number of frames waiting to be processed that suspends the reads. */
+    static final int MAX_PENDING_FRAMES = 64;
+
+    private final WebSocketProxy wsProxy;
+    private final ChannelSocket socket;
+    private final Channel channel;
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int maxFrameLength;
+    private final String name;
+
+    private final FrameInputStream frameStream;
+    private final Queue<byte[]> pendingFrames;
+    private final AtomicInteger pendingFramesCount;
+    private final AtomicBoolean processing;
+    private final AtomicBoolean finished;
+    private volatile boolean inactive;
+
+    ChannelWebSocketListener(
+            WebSocketProxy wsProxy,
+            ChannelSocket socket,
+            OutputStream out,
+            ExecutorService executor,
+            int maxFrameLength,
+            String name) {
+        super(wsProxy, null, out, name);
+
+        this.wsProxy = wsProxy;
+        this.socket = socket;
+        this.channel = socket.getChannel();
+        this.out = out;
+        this.executor = executor;
+        this.maxFrameLength = maxFrameLength;
+        this.name = name;
+
+        frameStream = new FrameInputStream();
+        pendingFrames = new ConcurrentLinkedQueue<>();
+        pendingFramesCount = new AtomicInteger();
+        processing = new AtomicBoolean();
+        finished = new AtomicBoolean();
+    }
+
+    /** Starts reading the frames in the pipeline of the channel, returns immediately. */
+    @Override
+    public void run() {
+        socket.replaceInputHandler(
+                new WebSocketFrameDecoder(maxFrameLength), new FrameHandler());
+    }
+
+    private void frameRead(byte[] frame) {
+        pendingFrames.add(frame);
+        if (pendingFramesCount.incrementAndGet() >= MAX_PENDING_FRAMES) {
+            channel.config().setAutoRead(false);
+        }
+        scheduleProcessing();
+    }
+
+    private void scheduleProcessing() {
+        if (!processing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::processFrames);
+        } catch (RejectedExecutionException e) {
+            processing.set(false);
+            LOGGER.debug("Failed to process the frames of {}: {}", name, e.getMessage());
+            stop();
+        }
+    }
+
+    private void processFrames() {
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName();
+        thread.setName(name);
+        try {
+            byte[] frame;
+            while ((frame = pendingFrames.poll()) != null) {
+                pendingFramesCount.decrementAndGet();
+                if (finished.get()) {
+                    continue;
+                }
+
+                frameStream.setFrame(frame);
+                try {
+                    wsProxy.processRead(frameStream, out, frame[0]);
+                } catch (IOException e) {
+                    LOGGER.debug("Failed to process the frame of {}: {}", name, e.getMessage());
+                    stop();
+                }
+            }
+        } finally {
+            thread.setName(threadName);
+            processing.set(false);
+        }
+
+        if (!pendingFrames.isEmpty()) {
+            scheduleProcessing();
+            return;
+        }
+
+        if (inactive) {
+            closed();
+        } else if (!channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    private void closed() {
+        if (finished.compareAndSet(false, true)) {
+            // Close the other listener too.
+            wsProxy.shutdown();
+        }
+    }
+
+    @Override
+    public void stop() {
+        channel.close();
+
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    private class FrameHandler extends SimpleChannelInboundHandler<byte[]> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, byte[] frame) throws Exception {
+            frameRead(frame);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            inactive = true;
+            scheduleProcessing();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+                throws Exception {
+            LOGGER.debug("Error while reading the frames of {}: {}", name, cause.getMessage());
+            ctx.close();
+        }
+    }
+}
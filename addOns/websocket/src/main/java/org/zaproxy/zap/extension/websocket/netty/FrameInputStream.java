@@ -0,0 +1,75 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.netty;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@code InputStream} that provides the bytes of the current frame, after its first byte.
+ *
+ * <p>The same instance is used for all the frames of one side of the connection, as the {@code
+ * WebSocketProxy} uses the stream to identify the unfinished messages.
+ */
+class FrameInputStream extends InputStream {
+
+    private byte[] frame = new byte[0];
+    private int position;
+
+    /**
+     * Sets the current frame, the first byte is considered already read.
+     *
+     * @param frame the whole frame.
+     */
+    void setFrame(byte[] frame) {
+        this.frame = frame;
+        this.position = 1;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= frame.length) {
+            return -1;
+        }
+        return frame[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int available = frame.length - position;
+        if (available <= 0) {
+            // Frames are always whole, the message would be waiting for more data forever.
+            throw new EOFException("No more data in the frame.");
+        }
+        int read = Math.min(len, available);
+        System.arraycopy(frame, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return Math.max(0, frame.length - position);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.netty;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import org.zaproxy.addon.network.server.ChannelSocket;
+import org.zaproxy.zap.extension.websocket.WebSocketException;
+import org.zaproxy.zap.extension.websocket.WebSocketListener;
+import org.zaproxy.zap.extension.websocket.WebSocketProxy;
+import org.zaproxy.zap.extension.websocket.WebSocketTransport;
+
+/**
+ * A {@link WebSocketTransport} that reads the frames in the event loops of the local servers
+ * provided by the Network add-on.
+ */
+public class NettyWebSocketTransport implements WebSocketTransport {
+
+    @Override
+    public boolean isSupported(Socket socket) {
+        return socket instanceof ChannelSocket;
+    }
+
+    @Override
+    public WebSocketListener createListener(
+            WebSocketProxy wsProxy,
+            Socket readEnd,
+            OutputStream out,
+            ExecutorService executor,
+            int maxFrameLength,
+            String name)
+            throws WebSocketException {
+        if (!isSupported(readEnd)) {
+            throw new WebSocketException("Unsupported socket: " + readEnd);
+        }
+        return new ChannelWebSocketListener(
+                wsProxy, (ChannelSocket) readEnd, out, executor, maxFrameLength, name);
+    }
+}
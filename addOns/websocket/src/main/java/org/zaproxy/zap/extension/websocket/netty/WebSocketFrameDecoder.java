@@ -0,0 +1,105 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import java.util.List;
+
+/**
+ * Splits the data read into whole WebSocket frames (RFC 6455), as {@code byte[]}.
+ *
+ * <p>The frames are not unmasked nor validated, that is done when processing them.
+ */
+public class WebSocketFrameDecoder extends ByteToMessageDecoder {
+
+    private static final int PAYLOAD_LENGTH_16 = 126;
+    private static final int PAYLOAD_LENGTH_63 = 127;
+
+    private static final int MASK_LENGTH = 4;
+
+    private final int maxFrameLength;
+
+    /**
+     * Constructs a {@code WebSocketFrameDecoder} with the given maximum length of the frames.
+     *
+     * @param maxFrameLength the maximum length of a frame, including the header.
+     * @throws IllegalArgumentException if the maximum length is not greater than 0.
+     */
+    public WebSocketFrameDecoder(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("The maximum frame length must be greater than 0.");
+        }
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out)
+            throws Exception {
+        while (true) {
+            int frameLength = getFrameLength(in);
+            if (frameLength == -1 || in.readableBytes() < frameLength) {
+                return;
+            }
+
+            out.add(ByteBufUtil.getBytes(in, in.readerIndex(), frameLength));
+            in.skipBytes(frameLength);
+        }
+    }
+
+    private int getFrameLength(ByteBuf in) throws TooLongFrameException {
+        int readable = in.readableBytes();
+        if (readable < 2) {
+            return -1;
+        }
+
+        int index = in.readerIndex();
+        int payloadByte = in.getUnsignedByte(index + 1);
+        int headerLength = 2;
+        long payloadLength = payloadByte & 0x7F;
+        if (payloadLength == PAYLOAD_LENGTH_16) {
+            headerLength += 2;
+            if (readable < headerLength) {
+                return -1;
+            }
+            payloadLength = in.getUnsignedShort(index + 2);
+        } else if (payloadLength == PAYLOAD_LENGTH_63) {
+            headerLength += 8;
+            if (readable < headerLength) {
+                return -1;
+            }
+            payloadLength = in.getLong(index + 2);
+        }
+
+        if ((payloadByte & 0x80) != 0) {
+            headerLength += MASK_LENGTH;
+        }
+
+        if (payloadLength < 0 || payloadLength > maxFrameLength - headerLength) {
+            in.skipBytes(readable);
+            throw new TooLongFrameException(
+                    "Frame length exceeds the maximum " + maxFrameLength + ": " + payloadLength);
+        }
+        return headerLength + (int) payloadLength;
+    }
+}
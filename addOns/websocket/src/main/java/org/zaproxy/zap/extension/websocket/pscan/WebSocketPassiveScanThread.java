@@ -19,12 +19,16 @@
  */
 package org.zaproxy.zap.extension.websocket.pscan;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.parosproxy.paros.core.scanner.Alert;
-import org.parosproxy.paros.db.DatabaseException;
 import org.zaproxy.zap.extension.websocket.WebSocketMessage;
 import org.zaproxy.zap.extension.websocket.WebSocketMessageDTO;
 import org.zaproxy.zap.extension.websocket.WebSocketObserver;
@@ -35,27 +39,93 @@ import org.zaproxy.zap.extension.websocket.db.TableWebSocket;
 import org.zaproxy.zap.extension.websocket.db.WebSocketStorage;
 import org.zaproxy.zap.utils.Stats;
 
-/** Implements a background thread for passive scanning */
+/**
+ * Implements the background threads for passive scanning.
+ *
+ * <p>The messages are scanned as received, from memory, by this thread and as many additional
+ * threads as configured. The messages waiting to be scanned are bounded, when full the new messages
+ * are not scanned (dropped), so that the passive scan never slows down the forwarding of the
+ * messages.
+ */
 public class WebSocketPassiveScanThread extends Thread
         implements WebSocketObserver, WebSocketAlertThread {
 
     public static final String WEBSOCKET_PSCAN_STATS_PREFIX = "stats.websockets.pscan.";
 
+    /**
+     * The statistic with the maximum number of messages waiting to be scanned.
+     *
+     * @since 26.0.0
+     */
+    public static final String WEBSOCKET_PSCAN_QUEUE_STATS =
+            WEBSOCKET_PSCAN_STATS_PREFIX + "queue.max";
+
+    /**
+     * The statistic with the number of messages not scanned because the queue was full.
+     *
+     * @since 26.0.0
+     */
+    public static final String WEBSOCKET_PSCAN_DROPPED_STATS =
+            WEBSOCKET_PSCAN_STATS_PREFIX + "dropped";
+
+    /**
+     * The prefix of the statistics with the number of messages scanned by each scanner, followed
+     * by the name of the scanner.
+     *
+     * @since 26.0.0
+     */
+    public static final String WEBSOCKET_PSCAN_COUNT_STATS_PREFIX =
+            WEBSOCKET_PSCAN_STATS_PREFIX + "count.";
+
+    /**
+     * The prefix of the statistics with the maximum time, in milliseconds, that each scanner took
+     * to scan a message, followed by the name of the scanner.
+     *
+     * @since 26.0.0
+     */
+    public static final String WEBSOCKET_PSCAN_MAX_TIME_STATS_PREFIX =
+            WEBSOCKET_PSCAN_STATS_PREFIX + "maxtime.";
+
+    /**
+     * The default number of threads scanning the messages.
+     *
+     * @since 26.0.0
+     */
+    public static final int DEFAULT_THREAD_COUNT = 2;
+
+    /**
+     * The default maximum number of messages waiting to be scanned.
+     *
+     * @since 26.0.0
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 10_000;
+
     private static final Logger LOGGER = LogManager.getLogger(WebSocketPassiveScanThread.class);
 
     private static final int WEBSOCKET_OBSERVING_ORDER =
             WebSocketStorage.WEBSOCKET_OBSERVING_ORDER + 10;
 
-    /** Interval for message reading */
-    public static final int SLEEP_TIME = 5000;
+    /**
+     * Interval for message reading
+     *
+     * @deprecated (26.0.0) No longer used, the messages are scanned as soon as received.
+     */
+    @Deprecated public static final int SLEEP_TIME = 5000;
+
+    /** The messages waiting to be scanned. */
+    private final BlockingQueue<WebSocketMessageDTO> messagesBuffer;
+
+    /** The additional threads scanning the messages, guarded by {@code this}. */
+    private final List<ScanWorker> workers;
+
+    private final LongAdder droppedMessages;
 
-    /** Thread safe Linked Queue */
-    private LinkedBlockingQueue<MessageWrapper> messagesBuffer;
+    private volatile int threadCount;
+    private volatile int maxQueueSize;
 
     /** {@code True} to enable the passive scan Thread */
     private volatile boolean isActive;
 
-    /** Reference to Database. Used in order to pick messages for scanning */
     private TableWebSocket tableWebSocket;
 
     /**
@@ -77,13 +147,25 @@ public class WebSocketPassiveScanThread extends Thread
         this.passiveScannerManager = passiveScannerManager;
         this.isActive = false;
         messagesBuffer = new LinkedBlockingQueue<>();
+        workers = new ArrayList<>();
+        droppedMessages = new LongAdder();
+        threadCount = DEFAULT_THREAD_COUNT;
+        maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
     }
 
-    /** @return true if the table was initialized */
+    /**
+     * @return true if the table was initialized
+     * @deprecated (26.0.0) The table is no longer used, the messages are scanned from memory.
+     */
+    @Deprecated
     public boolean hasTable() {
         return tableWebSocket != null;
     }
 
+    /**
+     * @deprecated (26.0.0) The table is no longer used, the messages are scanned from memory.
+     */
+    @Deprecated
     public void setTable(TableWebSocket tableWebSocket) {
         this.tableWebSocket = tableWebSocket;
     }
@@ -92,6 +174,80 @@ public class WebSocketPassiveScanThread extends Thread
         return isActive;
     }
 
+    /**
+     * Sets the number of threads scanning the messages, including this one.
+     *
+     * <p>If already started the threads are started or stopped accordingly.
+     *
+     * @param threadCount the number of threads.
+     * @throws IllegalArgumentException if the number of threads is not positive.
+     * @since 26.0.0
+     */
+    public synchronized void setThreadCount(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        }
+        this.threadCount = threadCount;
+        if (isActive) {
+            adjustWorkers();
+        }
+    }
+
+    /**
+     * Gets the number of threads scanning the messages, including this one.
+     *
+     * @return the number of threads.
+     * @since 26.0.0
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Sets the maximum number of messages waiting to be scanned, the messages received when full
+     * are not scanned.
+     *
+     * @param maxQueueSize the maximum number of messages.
+     * @throws IllegalArgumentException if the size is not positive.
+     * @since 26.0.0
+     */
+    public void setMaxQueueSize(int maxQueueSize) {
+        if (maxQueueSize <= 0) {
+            throw new IllegalArgumentException("The queue size must be greater than zero.");
+        }
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Gets the maximum number of messages waiting to be scanned.
+     *
+     * @return the maximum number of messages.
+     * @since 26.0.0
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Gets the number of messages waiting to be scanned.
+     *
+     * @return the number of messages.
+     * @since 26.0.0
+     */
+    public int getQueuedMessages() {
+        return messagesBuffer.size();
+    }
+
+    /**
+     * Gets the number of messages not scanned because the queue was full.
+     *
+     * @return the number of messages.
+     * @since 26.0.0
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
     @Override
     public int getObservingOrder() {
         return WEBSOCKET_OBSERVING_ORDER;
@@ -100,7 +256,17 @@ public class WebSocketPassiveScanThread extends Thread
     @Override
     public boolean onMessageFrame(int channelId, WebSocketMessage message) {
         if (message.isFinished() && !shouldIgnoreServerModeMessages(message)) {
-            messagesBuffer.add(new MessageWrapper(message.getMessageId(), channelId));
+            if (messagesBuffer.size() >= maxQueueSize) {
+                droppedMessages.increment();
+                Stats.incCounter(WEBSOCKET_PSCAN_DROPPED_STATS);
+                return true;
+            }
+
+            // Copy, the DTO of the message is updated in place.
+            WebSocketMessageDTO dto = new WebSocketMessageDTO();
+            message.getDTO().copyInto(dto);
+            messagesBuffer.add(dto);
+            Stats.setHighwaterMark(WEBSOCKET_PSCAN_QUEUE_STATS, messagesBuffer.size());
         }
         return true;
     }
@@ -112,43 +278,47 @@ public class WebSocketPassiveScanThread extends Thread
 
     @Override
     public void run() {
-        MessageWrapper messageWrap;
-        WebSocketPassiveScannerDecorator currentPassiveScanner;
-        WebSocketMessageDTO currentMessage;
-        Iterator<WebSocketPassiveScannerDecorator> iterator;
+        scanMessages(() -> isActive);
+    }
+
+    private void scanMessages(BooleanSupplier running) {
         WebSocketScanHelperImpl helper = new WebSocketScanHelperImpl(this);
-        while (isActive) {
-            if (messagesBuffer.isEmpty() || tableWebSocket == null) {
-                try {
-                    Thread.sleep(SLEEP_TIME);
-                } catch (InterruptedException e) {
-                    LOGGER.info("Sleeping was interrupted", e);
-                }
-                if (!isActive) {
-                    break;
-                }
-            } else {
-                messageWrap = messagesBuffer.poll();
-                try {
-                    currentMessage =
-                            tableWebSocket.getMessage(messageWrap.messageId, messageWrap.channelId);
-                    iterator = passiveScannerManager.getIterator();
-                    while (iterator.hasNext()) {
-                        if ((currentPassiveScanner = iterator.next()).isEnabled()) {
-                            long startTime = System.currentTimeMillis();
-                            currentPassiveScanner.scanMessage(
-                                    helper.getWebSocketScanHelper(
-                                            currentPassiveScanner.getId(), currentMessage),
-                                    currentMessage);
-                            Stats.incCounter(
-                                    WEBSOCKET_PSCAN_STATS_PREFIX + currentPassiveScanner.getName(),
-                                    System.currentTimeMillis() - startTime);
-                        }
-                    }
-                } catch (DatabaseException e) {
-                    LOGGER.warn("Could not get messages from database", e);
-                }
+        while (running.getAsBoolean()) {
+            WebSocketMessageDTO message;
+            try {
+                message = messagesBuffer.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            scanMessage(helper, message);
+        }
+    }
+
+    private void scanMessage(WebSocketScanHelperImpl helper, WebSocketMessageDTO message) {
+        Iterator<WebSocketPassiveScannerDecorator> iterator = passiveScannerManager.getIterator();
+        while (iterator.hasNext()) {
+            WebSocketPassiveScannerDecorator scanner = iterator.next();
+            if (!scanner.isEnabled()) {
+                continue;
+            }
+
+            long startTime = System.currentTimeMillis();
+            try {
+                scanner.scanMessage(
+                        helper.getWebSocketScanHelper(scanner.getId(), message), message);
+            } catch (Exception e) {
+                LOGGER.error(
+                        "Scanner {} failed to scan the message: {}",
+                        scanner.getName(),
+                        e.getMessage(),
+                        e);
             }
+            long time = System.currentTimeMillis() - startTime;
+
+            String name = scanner.getName();
+            Stats.incCounter(WEBSOCKET_PSCAN_STATS_PREFIX + name, time);
+            Stats.incCounter(WEBSOCKET_PSCAN_COUNT_STATS_PREFIX + name);
+            Stats.setHighwaterMark(WEBSOCKET_PSCAN_MAX_TIME_STATS_PREFIX + name, time);
         }
     }
 
@@ -170,24 +340,55 @@ public class WebSocketPassiveScanThread extends Thread
                 && passiveScannerManager.isServerModeIgnored();
     }
 
-    /** Shutdown the passive scan thread */
+    /** Shutdown the passive scan threads */
     public void shutdown() {
         isActive = false;
+        interrupt();
+        synchronized (this) {
+            workers.forEach(ScanWorker::stopScanning);
+            workers.clear();
+        }
+        messagesBuffer.clear();
     }
 
     @Override
     public synchronized void start() {
         isActive = true;
         super.start();
+        adjustWorkers();
+    }
+
+    private void adjustWorkers() {
+        int additionalThreads = threadCount - 1;
+        while (workers.size() < additionalThreads) {
+            ScanWorker worker = new ScanWorker(getName() + "-" + (workers.size() + 2));
+            workers.add(worker);
+            worker.start();
+        }
+        while (workers.size() > additionalThreads) {
+            workers.remove(workers.size() - 1).stopScanning();
+        }
     }
 
-    private class MessageWrapper {
-        public int messageId;
-        public int channelId;
+    /** An additional thread scanning the messages. */
+    private class ScanWorker extends Thread {
+
+        private volatile boolean scanning;
+
+        ScanWorker(String name) {
+            super(name);
+            setDaemon(true);
+            scanning = true;
+        }
+
+        @Override
+        public void run() {
+            scanMessages(() -> scanning && isActive);
+        }
 
-        MessageWrapper(int messageId, int channelId) {
-            this.messageId = messageId;
-            this.channelId = channelId;
+        void stopScanning() {
+            scanning = false;
+            interrupt();
         }
     }
 }
@@ -100,11 +100,15 @@ public class WebSocketPassiveScannerManager {
      * Sets/Updates the {@link TableWebSocket} for passive scanner.
      *
      * @param tableWebSocket the table is going to be set
+     * @deprecated (26.0.0) The table is no longer used, the messages are scanned from memory.
      */
+    @Deprecated
     public void setTable(TableWebSocket tableWebSocket) {
         passiveScanThread.setTable(tableWebSocket);
     }
 
+    /** @deprecated (26.0.0) The table is no longer used, the messages are scanned from memory. */
+    @Deprecated
     public boolean hasTable() {
         return passiveScanThread.hasTable();
     }
@@ -21,6 +21,7 @@ package org.zaproxy.zap.extension.websocket.ui;
 
 import org.apache.commons.configuration.FileConfiguration;
 import org.parosproxy.paros.common.AbstractParam;
+import org.zaproxy.zap.extension.websocket.pscan.WebSocketPassiveScanThread;
 
 public class OptionsParamWebSocket extends AbstractParam {
     //    private static Logger logger = LogManager.getLogger(OptionsParamWebSocket.class);
@@ -31,6 +32,41 @@ public class OptionsParamWebSocket extends AbstractParam {
     private static final String CONFIRM_REMOVE_PROXY_EXCLUDE_REGEX_KEY =
             "websocket.confirmRemoveProxyExcludeRegex";
     private static final String REMOVE_EXTENSIONS_HEADER_KEY = "websocket.removeExtensionsHeader";
+    private static final String EVENT_LOOP_TRANSPORT_KEY = "websocket.eventLoopTransport";
+    private static final String MAX_FRAME_LENGTH_KEY = "websocket.maxFrameLength";
+    private static final String DB_BATCH_SIZE_KEY = "websocket.db.batchSize";
+    private static final String DB_FLUSH_INTERVAL_KEY = "websocket.db.flushInterval";
+    private static final String DB_QUEUE_SIZE_KEY = "websocket.db.queueSize";
+    private static final String PSCAN_THREADS_KEY = "websocket.pscan.threads";
+    private static final String PSCAN_QUEUE_SIZE_KEY = "websocket.pscan.queueSize";
+
+    /**
+     * The default maximum length, in bytes, of the frames read in the event loops, 64 MiB.
+     *
+     * @since 26.0.0
+     */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * The default maximum number of messages written to the database at once.
+     *
+     * @since 26.0.0
+     */
+    public static final int DEFAULT_DB_BATCH_SIZE = 100;
+
+    /**
+     * The default interval, in milliseconds, between the writes of the pending messages.
+     *
+     * @since 26.0.0
+     */
+    public static final int DEFAULT_DB_FLUSH_INTERVAL = 250;
+
+    /**
+     * The default maximum number of messages waiting to be written to the database.
+     *
+     * @since 26.0.0
+     */
+    public static final int DEFAULT_DB_QUEUE_SIZE = 10_000;
 
     private boolean isForwardAll;
     private boolean isBreakOnPingPong;
@@ -48,6 +84,26 @@ public class OptionsParamWebSocket extends AbstractParam {
      */
     private boolean removeExtensionsHeader = true;
 
+    /**
+     * Flag that controls whether or not the frames from the local sockets should be read in the
+     * event loops of the local servers, instead of a thread per socket.
+     *
+     * <p>Default is {@code false}.
+     *
+     * @see #EVENT_LOOP_TRANSPORT_KEY
+     * @see #setEventLoopTransport(boolean)
+     */
+    private boolean eventLoopTransport;
+
+    private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+
+    private int dbBatchSize = DEFAULT_DB_BATCH_SIZE;
+    private int dbFlushInterval = DEFAULT_DB_FLUSH_INTERVAL;
+    private int dbQueueSize = DEFAULT_DB_QUEUE_SIZE;
+
+    private int pscanThreads = WebSocketPassiveScanThread.DEFAULT_THREAD_COUNT;
+    private int pscanQueueSize = WebSocketPassiveScanThread.DEFAULT_MAX_QUEUE_SIZE;
+
     @Override
     protected void parse() {
         FileConfiguration cfg = getConfig();
@@ -57,6 +113,29 @@ public class OptionsParamWebSocket extends AbstractParam {
         confirmRemoveProxyExcludeRegex =
                 cfg.getBoolean(CONFIRM_REMOVE_PROXY_EXCLUDE_REGEX_KEY, false);
         removeExtensionsHeader = cfg.getBoolean(REMOVE_EXTENSIONS_HEADER_KEY, true);
+        eventLoopTransport = cfg.getBoolean(EVENT_LOOP_TRANSPORT_KEY, false);
+        maxFrameLength = getInt(MAX_FRAME_LENGTH_KEY, DEFAULT_MAX_FRAME_LENGTH);
+        if (maxFrameLength <= 0) {
+            maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+        }
+        dbBatchSize = Math.max(0, getInt(DB_BATCH_SIZE_KEY, DEFAULT_DB_BATCH_SIZE));
+        dbFlushInterval = getInt(DB_FLUSH_INTERVAL_KEY, DEFAULT_DB_FLUSH_INTERVAL);
+        if (dbFlushInterval <= 0) {
+            dbFlushInterval = DEFAULT_DB_FLUSH_INTERVAL;
+        }
+        dbQueueSize = getInt(DB_QUEUE_SIZE_KEY, DEFAULT_DB_QUEUE_SIZE);
+        if (dbQueueSize <= 0) {
+            dbQueueSize = DEFAULT_DB_QUEUE_SIZE;
+        }
+        pscanThreads = getInt(PSCAN_THREADS_KEY, WebSocketPassiveScanThread.DEFAULT_THREAD_COUNT);
+        if (pscanThreads <= 0) {
+            pscanThreads = WebSocketPassiveScanThread.DEFAULT_THREAD_COUNT;
+        }
+        pscanQueueSize =
+                getInt(PSCAN_QUEUE_SIZE_KEY, WebSocketPassiveScanThread.DEFAULT_MAX_QUEUE_SIZE);
+        if (pscanQueueSize <= 0) {
+            pscanQueueSize = WebSocketPassiveScanThread.DEFAULT_MAX_QUEUE_SIZE;
+        }
     }
 
     /**
@@ -160,4 +239,205 @@ public class OptionsParamWebSocket extends AbstractParam {
     public boolean isRemoveExtensionsHeader() {
         return removeExtensionsHeader;
     }
+
+    /**
+     * Sets whether or not the frames from the local sockets should be read in the event loops of
+     * the local servers, instead of a thread per socket.
+     *
+     * @param eventLoopTransport {@code true} if the event loops should be used, {@code false}
+     *     otherwise
+     * @see #isEventLoopTransport()
+     */
+    public void setEventLoopTransport(boolean eventLoopTransport) {
+        if (this.eventLoopTransport != eventLoopTransport) {
+            this.eventLoopTransport = eventLoopTransport;
+            getConfig()
+                    .setProperty(EVENT_LOOP_TRANSPORT_KEY, Boolean.valueOf(eventLoopTransport));
+        }
+    }
+
+    /**
+     * Tells whether or not the frames from the local sockets should be read in the event loops of
+     * the local servers, instead of a thread per socket.
+     *
+     * <p>Requires the Network add-on to be handling the local servers, otherwise the threads are
+     * still used.
+     *
+     * @return {@code true} if the event loops should be used, {@code false} otherwise
+     * @see #setEventLoopTransport(boolean)
+     */
+    public boolean isEventLoopTransport() {
+        return eventLoopTransport;
+    }
+
+    /**
+     * Gets the maximum length, in bytes, of the frames read in the event loops.
+     *
+     * <p>The connections sending longer frames are closed.
+     *
+     * @return the maximum frame length.
+     * @since 26.0.0
+     * @see #isEventLoopTransport()
+     */
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    /**
+     * Sets the maximum length, in bytes, of the frames read in the event loops.
+     *
+     * <p>Applies only to WebSocket channels created afterwards.
+     *
+     * @param maxFrameLength the maximum frame length.
+     * @throws IllegalArgumentException if the length is not positive.
+     * @since 26.0.0
+     */
+    public void setMaxFrameLength(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("The maximum frame length must be greater than zero.");
+        }
+        if (this.maxFrameLength != maxFrameLength) {
+            this.maxFrameLength = maxFrameLength;
+            getConfig().setProperty(MAX_FRAME_LENGTH_KEY, maxFrameLength);
+        }
+    }
+
+    /**
+     * Gets the maximum number of messages written to the database at once.
+     *
+     * <p>A value of {@code 1} or lower means that the messages are written directly, one at a
+     * time, by the threads forwarding them.
+     *
+     * @return the batch size.
+     * @since 26.0.0
+     */
+    public int getDbBatchSize() {
+        return dbBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of messages written to the database at once.
+     *
+     * @param batchSize the batch size, {@code 1} or lower to write the messages directly.
+     * @since 26.0.0
+     * @see #getDbBatchSize()
+     */
+    public void setDbBatchSize(int batchSize) {
+        if (dbBatchSize != batchSize) {
+            dbBatchSize = Math.max(0, batchSize);
+            getConfig().setProperty(DB_BATCH_SIZE_KEY, dbBatchSize);
+        }
+    }
+
+    /**
+     * Gets the interval, in milliseconds, between the writes of the messages pending.
+     *
+     * @return the flush interval.
+     * @since 26.0.0
+     */
+    public int getDbFlushInterval() {
+        return dbFlushInterval;
+    }
+
+    /**
+     * Sets the interval, in milliseconds, between the writes of the messages pending.
+     *
+     * @param flushInterval the flush interval.
+     * @throws IllegalArgumentException if the interval is not positive.
+     * @since 26.0.0
+     */
+    public void setDbFlushInterval(int flushInterval) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("The flush interval must be greater than zero.");
+        }
+        if (dbFlushInterval != flushInterval) {
+            dbFlushInterval = flushInterval;
+            getConfig().setProperty(DB_FLUSH_INTERVAL_KEY, dbFlushInterval);
+        }
+    }
+
+    /**
+     * Gets the maximum number of messages waiting to be written to the database.
+     *
+     * <p>When full the messages are written by the threads forwarding them.
+     *
+     * @return the queue size.
+     * @since 26.0.0
+     */
+    public int getDbQueueSize() {
+        return dbQueueSize;
+    }
+
+    /**
+     * Sets the maximum number of messages waiting to be written to the database.
+     *
+     * @param queueSize the queue size.
+     * @throws IllegalArgumentException if the size is not positive.
+     * @since 26.0.0
+     */
+    public void setDbQueueSize(int queueSize) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("The queue size must be greater than zero.");
+        }
+        if (dbQueueSize != queueSize) {
+            dbQueueSize = queueSize;
+            getConfig().setProperty(DB_QUEUE_SIZE_KEY, dbQueueSize);
+        }
+    }
+
+    /**
+     * Gets the number of threads passive scanning the messages.
+     *
+     * @return the number of threads.
+     * @since 26.0.0
+     */
+    public int getPscanThreads() {
+        return pscanThreads;
+    }
+
+    /**
+     * Sets the number of threads passive scanning the messages.
+     *
+     * @param threads the number of threads.
+     * @throws IllegalArgumentException if the number of threads is not positive.
+     * @since 26.0.0
+     */
+    public void setPscanThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        }
+        if (pscanThreads != threads) {
+            pscanThreads = threads;
+            getConfig().setProperty(PSCAN_THREADS_KEY, pscanThreads);
+        }
+    }
+
+    /**
+     * Gets the maximum number of messages waiting to be passive scanned.
+     *
+     * <p>When full the messages are not passive scanned.
+     *
+     * @return the queue size.
+     * @since 26.0.0
+     */
+    public int getPscanQueueSize() {
+        return pscanQueueSize;
+    }
+
+    /**
+     * Sets the maximum number of messages waiting to be passive scanned.
+     *
+     * @param queueSize the queue size.
+     * @throws IllegalArgumentException if the size is not positive.
+     * @since 26.0.0
+     */
+    public void setPscanQueueSize(int queueSize) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("The queue size must be greater than zero.");
+        }
+        if (pscanQueueSize != queueSize) {
+            pscanQueueSize = queueSize;
+            getConfig().setProperty(PSCAN_QUEUE_SIZE_KEY, pscanQueueSize);
+        }
+    }
 }
@@ -44,6 +44,8 @@ import org.zaproxy.zap.utils.FontUtils;
  *   <li>Remove header {@code Sec-WebSocket-Extensions} - when enabled it allows to properly process
  *       the WebSocket messages, as no further (and unsupported) transformation is done to them (for
  *       example, compression).
+ *   <li>Event Loop Transport - read the frames from the browser in the event loops of the local
+ *       servers, instead of a thread per WebSocket connection.
  * </ul>
  */
 public class OptionsWebSocketPanel extends AbstractParamPanel {
@@ -63,6 +65,10 @@ public class OptionsWebSocketPanel extends AbstractParamPanel {
             Constant.messages.getString("websocket.options.remove_extensions");
     private static final String TOOLTIP_REMOVE_EXTENSIONS_HEADER =
             Constant.messages.getString("websocket.options.remove_extensions.tooltip");
+    private static final String LABEL_EVENT_LOOP_TRANSPORT =
+            Constant.messages.getString("websocket.options.event_loop_transport");
+    private static final String TOOLTIP_EVENT_LOOP_TRANSPORT =
+            Constant.messages.getString("websocket.options.event_loop_transport.tooltip");
 
     /** Represents the model containing current values. Is able to save back to config file. */
     private OptionsParamWebSocket wsParams;
@@ -71,6 +77,7 @@ public class OptionsWebSocketPanel extends AbstractParamPanel {
     private JCheckBox checkBoxBreakOnPingPong;
     private JCheckBox checkBoxBreakOnAll;
     private JCheckBox checkBoxRemoveExtensionsHeader;
+    private JCheckBox checkBoxEventLoopTransport;
 
     public OptionsWebSocketPanel(OptionsParamWebSocket wsParams) {
         super();
@@ -112,6 +119,12 @@ public class OptionsWebSocketPanel extends AbstractParamPanel {
         gbc.insets = new Insets(2, 2, 2, 2);
         panel.add(getCheckcheckBoxRemoveExtensionsHeader(), gbc);
 
+        gbc = new GridBagConstraints();
+        gbc.gridy = 4;
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.insets = new Insets(2, 2, 2, 2);
+        panel.add(getCheckBoxEventLoopTransport(), gbc);
+
         return panel;
     }
 
@@ -144,12 +157,21 @@ public class OptionsWebSocketPanel extends AbstractParamPanel {
         return checkBoxRemoveExtensionsHeader;
     }
 
+    private JCheckBox getCheckBoxEventLoopTransport() {
+        if (checkBoxEventLoopTransport == null) {
+            checkBoxEventLoopTransport = new JCheckBox(LABEL_EVENT_LOOP_TRANSPORT);
+            checkBoxEventLoopTransport.setToolTipText(TOOLTIP_EVENT_LOOP_TRANSPORT);
+        }
+        return checkBoxEventLoopTransport;
+    }
+
     @Override
     public void initParam(Object obj) {
         checkBoxForwardAll.setSelected(wsParams.isForwardAll());
         checkBoxBreakOnAll.setSelected(wsParams.isBreakOnAll());
         checkBoxBreakOnPingPong.setSelected(wsParams.isBreakOnPingPong());
         checkBoxRemoveExtensionsHeader.setSelected(wsParams.isRemoveExtensionsHeader());
+        checkBoxEventLoopTransport.setSelected(wsParams.isEventLoopTransport());
     }
 
     @Override
@@ -163,6 +185,7 @@ public class OptionsWebSocketPanel extends AbstractParamPanel {
         wsParams.setBreakOnAll(checkBoxBreakOnAll.isSelected());
         wsParams.setBreakOnPingPong(checkBoxBreakOnPingPong.isSelected());
         wsParams.setRemoveExtensionsHeader(checkBoxRemoveExtensionsHeader.isSelected());
+        wsParams.setEventLoopTransport(checkBoxEventLoopTransport.isSelected());
     }
 
     @Override
@@ -0,0 +1,214 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.db;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.parosproxy.paros.db.DatabaseException;
+import org.zaproxy.zap.extension.websocket.WebSocketMessageDTO;
+
+/** Unit test for {@link WebSocketMessageWriter}. */
+class WebSocketMessageWriterUnitTest {
+
+    private static final int LONG_INTERVAL = 60_000;
+
+    private final List<List<WebSocketMessageDTO>> batches = new ArrayList<>();
+    private final WebSocketMessageWriter.Sink sink =
+            messages -> batches.add(new ArrayList<>(messages));
+
+    private WebSocketMessageWriter writer;
+
+    @AfterEach
+    void cleanUp() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void shouldThrowIfBatchSizeNotPositive() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new WebSocketMessageWriter(this, sink, 0, LONG_INTERVAL, 10));
+    }
+
+    @Test
+    void shouldThrowIfFlushIntervalNotPositive() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new WebSocketMessageWriter(this, sink, 10, 0, 10));
+    }
+
+    @Test
+    void shouldThrowIfQueueSizeNotPositive() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new WebSocketMessageWriter(this, sink, 10, LONG_INTERVAL, 0));
+    }
+
+    @Test
+    void shouldQueueMessagesUntilFlushed() {
+        // Given
+        writer = new WebSocketMessageWriter(this, sink, 10, LONG_INTERVAL, 100);
+        WebSocketMessageDTO message1 = new WebSocketMessageDTO();
+        WebSocketMessageDTO message2 = new WebSocketMessageDTO();
+        // When
+        synchronized (this) {
+            writer.add(message1);
+            writer.add(message2);
+        }
+        List<List<WebSocketMessageDTO>> batchesBeforeFlush = new ArrayList<>(batches);
+        writer.flush();
+        // Then
+        assertThat(batchesBeforeFlush, is(empty()));
+        assertThat(batches, contains(contains(message1, message2)));
+        assertThat(writer.getQueued(), is(equalTo(0)));
+        assertThat(writer.getWritten(), is(equalTo(2L)));
+        assertThat(writer.getBatches(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldFlushInBatchesOfBatchSize() {
+        // Given
+        writer = new WebSocketMessageWriter(this, sink, 2, LONG_INTERVAL, 100);
+        synchronized (this) {
+            for (int i = 0; i < 5; i++) {
+                writer.add(new WebSocketMessageDTO());
+            }
+            // When
+            writer.flush();
+        }
+        // Then
+        assertThat(writer.getWritten(), is(equalTo(5L)));
+        assertThat(writer.getBatches(), is(equalTo(3L)));
+        assertThat(batches.get(0).size(), is(equalTo(2)));
+        assertThat(batches.get(2).size(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldWriteInCallingThreadWhenQueueFull() {
+        // Given
+        writer = new WebSocketMessageWriter(this, sink, 10, LONG_INTERVAL, 2);
+        WebSocketMessageDTO message1 = new WebSocketMessageDTO();
+        WebSocketMessageDTO message2 = new WebSocketMessageDTO();
+        WebSocketMessageDTO message3 = new WebSocketMessageDTO();
+        // When
+        synchronized (this) {
+            writer.add(message1);
+            writer.add(message2);
+            writer.add(message3);
+        }
+        // Then
+        assertThat(writer.getOverflows(), is(equalTo(1L)));
+        assertThat(batches, contains(contains(message1, message2)));
+        assertThat(writer.getQueued(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldCountDroppedMessagesWhenWriteFails() {
+        // Given
+        writer =
+                new WebSocketMessageWriter(
+                        this,
+                        messages -> {
+                            throw new DatabaseException("Failed");
+                        },
+                        10,
+                        LONG_INTERVAL,
+                        100);
+        writer.add(new WebSocketMessageDTO());
+        writer.add(new WebSocketMessageDTO());
+        // When
+        writer.flush();
+        // Then
+        assertThat(writer.getDropped(), is(equalTo(2L)));
+        assertThat(writer.getWritten(), is(equalTo(0L)));
+        assertThat(writer.getQueued(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldCountDroppedOnlyMessagesNotWritten() {
+        // Given
+        writer =
+                new WebSocketMessageWriter(
+                        this,
+                        messages -> {
+                            throw new WebSocketMessageWriter.MessagesNotWrittenException(
+                                    1, "channel not inserted: [1]");
+                        },
+                        10,
+                        LONG_INTERVAL,
+                        100);
+        writer.add(new WebSocketMessageDTO());
+        writer.add(new WebSocketMessageDTO());
+        writer.add(new WebSocketMessageDTO());
+        // When
+        writer.flush();
+        // Then
+        assertThat(writer.getDropped(), is(equalTo(1L)));
+        assertThat(writer.getWritten(), is(equalTo(2L)));
+        assertThat(writer.getBatches(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldTellWhetherOrNotHasOptions() {
+        // Given
+        writer = new WebSocketMessageWriter(this, sink, 10, LONG_INTERVAL, 100);
+        // When / Then
+        assertThat(writer.hasOptions(10, LONG_INTERVAL, 100), is(equalTo(true)));
+        assertThat(writer.hasOptions(20, LONG_INTERVAL, 100), is(equalTo(false)));
+        assertThat(writer.hasOptions(10, 1_000, 100), is(equalTo(false)));
+        assertThat(writer.hasOptions(10, LONG_INTERVAL, 200), is(equalTo(false)));
+    }
+
+    @Test
+    void shouldWriteQueuedMessagesOnClose() {
+        // Given
+        writer = new WebSocketMessageWriter(this, sink, 10, LONG_INTERVAL, 100);
+        WebSocketMessageDTO message = new WebSocketMessageDTO();
+        writer.add(message);
+        // When
+        writer.close();
+        // Then
+        assertThat(batches, contains(contains(message)));
+    }
+
+    @Test
+    void shouldWriteDirectlyAfterClose() {
+        // Given
+        writer = new WebSocketMessageWriter(this, sink, 10, LONG_INTERVAL, 100);
+        writer.close();
+        WebSocketMessageDTO message = new WebSocketMessageDTO();
+        // When
+        writer.add(message);
+        // Then
+        assertThat(batches, contains(contains(message)));
+        assertThat(writer.getQueued(), is(equalTo(0)));
+    }
+}
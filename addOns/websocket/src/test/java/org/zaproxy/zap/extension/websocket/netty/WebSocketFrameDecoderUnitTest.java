@@ -0,0 +1,152 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.netty;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link WebSocketFrameDecoder}. */
+class WebSocketFrameDecoderUnitTest {
+
+    private static final int MAX_FRAME_LENGTH = 1024;
+
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel(new WebSocketFrameDecoder(MAX_FRAME_LENGTH));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void shouldThrowIfMaxFrameLengthNotPositive() {
+        // Given
+        int maxFrameLength = 0;
+        // When / Then
+        assertThrows(
+                IllegalArgumentException.class, () -> new WebSocketFrameDecoder(maxFrameLength));
+    }
+
+    @Test
+    void shouldDecodeSmallFrame() {
+        // Given
+        byte[] frame = frame(false, 5);
+        // When
+        channel.writeInbound(Unpooled.wrappedBuffer(frame));
+        // Then
+        assertThat(channel.readInbound(), is(equalTo(frame)));
+        assertThat(channel.readInbound(), is(nullValue()));
+    }
+
+    @Test
+    void shouldDecodeFrameSplitAcrossReads() {
+        // Given
+        byte[] frame = frame(false, 10);
+        // When
+        channel.writeInbound(Unpooled.wrappedBuffer(frame, 0, 1));
+        channel.writeInbound(Unpooled.wrappedBuffer(frame, 1, 4));
+        Object partial = channel.readInbound();
+        channel.writeInbound(Unpooled.wrappedBuffer(frame, 5, frame.length - 5));
+        // Then
+        assertThat(partial, is(nullValue()));
+        assertThat(channel.readInbound(), is(equalTo(frame)));
+    }
+
+    @Test
+    void shouldDecodeFrameWith16BitPayloadLength() {
+        // Given
+        byte[] frame = frame(false, 300);
+        // When
+        channel.writeInbound(Unpooled.wrappedBuffer(frame));
+        // Then
+        assertThat(channel.readInbound(), is(equalTo(frame)));
+    }
+
+    @Test
+    void shouldDecodeMaskedFrame() {
+        // Given
+        byte[] frame = frame(true, 7);
+        // When
+        channel.writeInbound(Unpooled.wrappedBuffer(frame));
+        // Then
+        assertThat(channel.readInbound(), is(equalTo(frame)));
+    }
+
+    @Test
+    void shouldDecodeMultipleFramesInSameRead() {
+        // Given
+        byte[] frame1 = frame(false, 3);
+        byte[] frame2 = frame(true, 200);
+        byte[] data = Arrays.copyOf(frame1, frame1.length + frame2.length);
+        System.arraycopy(frame2, 0, data, frame1.length, frame2.length);
+        // When
+        channel.writeInbound(Unpooled.wrappedBuffer(data));
+        // Then
+        assertThat(channel.readInbound(), is(equalTo(frame1)));
+        assertThat(channel.readInbound(), is(equalTo(frame2)));
+        assertThat(channel.readInbound(), is(nullValue()));
+    }
+
+    @Test
+    void shouldThrowIfFrameLongerThanMax() {
+        // Given
+        byte[] frame = frame(false, MAX_FRAME_LENGTH);
+        // When / Then
+        assertThrows(
+                TooLongFrameException.class,
+                () -> channel.writeInbound(Unpooled.wrappedBuffer(frame)));
+    }
+
+    private static byte[] frame(boolean masked, int payloadLength) {
+        int headerLength = payloadLength < 126 ? 2 : 4;
+        if (masked) {
+            headerLength += 4;
+        }
+        byte[] frame = new byte[headerLength + payloadLength];
+        frame[0] = (byte) 0x81;
+        int mask = masked ? 0x80 : 0;
+        if (payloadLength < 126) {
+            frame[1] = (byte) (mask | payloadLength);
+        } else {
+            frame[1] = (byte) (mask | 126);
+            frame[2] = (byte) (payloadLength >> 8);
+            frame[3] = (byte) payloadLength;
+        }
+        for (int i = headerLength - (masked ? 4 : 0); i < frame.length; i++) {
+            frame[i] = (byte) i;
+        }
+        return frame;
+    }
+}
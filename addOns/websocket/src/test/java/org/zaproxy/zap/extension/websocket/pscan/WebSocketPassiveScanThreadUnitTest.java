@@ -0,0 +1,142 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2022 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.websocket.pscan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.zaproxy.zap.extension.websocket.WebSocketMessage;
+import org.zaproxy.zap.extension.websocket.WebSocketMessageDTO;
+import org.zaproxy.zap.extension.websocket.WebSocketProxy;
+import org.zaproxy.zap.extension.websocket.alerts.AlertManager;
+
+/** Unit test for {@link WebSocketPassiveScanThread}. */
+class WebSocketPassiveScanThreadUnitTest {
+
+    private WebSocketPassiveScannerManager manager;
+    private WebSocketPassiveScanThread scanThread;
+
+    @BeforeEach
+    void setUp() {
+        manager = new WebSocketPassiveScannerManager(mock(AlertManager.class));
+        scanThread = manager.getWebSocketPassiveScanThread();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        scanThread.shutdown();
+    }
+
+    @Test
+    void shouldThrowIfThreadCountNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> scanThread.setThreadCount(0));
+    }
+
+    @Test
+    void shouldThrowIfMaxQueueSizeNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> scanThread.setMaxQueueSize(0));
+    }
+
+    @Test
+    void shouldDropMessagesWhenQueueFull() {
+        // Given
+        scanThread.setMaxQueueSize(1);
+        // When
+        scanThread.onMessageFrame(1, createMessage(1, WebSocketProxy.Mode.CLIENT));
+        scanThread.onMessageFrame(1, createMessage(2, WebSocketProxy.Mode.CLIENT));
+        // Then
+        assertThat(scanThread.getQueuedMessages(), is(equalTo(1)));
+        assertThat(scanThread.getDroppedMessages(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldIgnoreServerModeMessages() {
+        // Given
+        manager.setServerModeIgnored(true);
+        // When
+        scanThread.onMessageFrame(1, createMessage(1, WebSocketProxy.Mode.SERVER));
+        // Then
+        assertThat(scanThread.getQueuedMessages(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldScanMessagesFromMemoryWithEnabledScanners() {
+        // Given
+        WebSocketPassiveScanner scanner = mock(WebSocketPassiveScanner.class);
+        given(scanner.getName()).willReturn("Scanner");
+        given(scanner.getId()).willReturn(1);
+        manager.add(scanner);
+        manager.setAllEnable(true);
+        scanThread.setThreadCount(3);
+        manager.startThread();
+        // When
+        for (int i = 1; i <= 10; i++) {
+            scanThread.onMessageFrame(1, createMessage(i, WebSocketProxy.Mode.CLIENT));
+        }
+        // Then
+        for (int i = 1; i <= 10; i++) {
+            int id = i;
+            verify(scanner, timeout(5000))
+                    .scanMessage(any(), argThat(message -> message.getId() == id));
+        }
+    }
+
+    @Test
+    void shouldKeepScanningAfterScannerFailure() {
+        // Given
+        WebSocketPassiveScanner scanner = mock(WebSocketPassiveScanner.class);
+        given(scanner.getName()).willReturn("Scanner");
+        given(scanner.getId()).willReturn(1);
+        willThrow(RuntimeException.class)
+                .given(scanner)
+                .scanMessage(any(), argThat(message -> message.getId() == 1));
+        manager.add(scanner);
+        manager.setAllEnable(true);
+        scanThread.setThreadCount(1);
+        manager.startThread();
+        // When
+        scanThread.onMessageFrame(1, createMessage(1, WebSocketProxy.Mode.CLIENT));
+        scanThread.onMessageFrame(1, createMessage(2, WebSocketProxy.Mode.CLIENT));
+        // Then
+        verify(scanner, timeout(5000)).scanMessage(any(), argThat(message -> message.getId() == 2));
+    }
+
+    private static WebSocketMessage createMessage(int id, WebSocketProxy.Mode mode) {
+        WebSocketMessage message = mock(WebSocketMessage.class);
+        given(message.isFinished()).willReturn(true);
+        given(message.getProxyMode()).willReturn(mode);
+        WebSocketMessageDTO dto = new WebSocketMessageDTO();
+        dto.setId(id);
+        given(message.getDTO()).willReturn(dto);
+        return message;
+    }
+}
@@ -11,7 +11,12 @@ zapAddOn {
         author.set("ZAP Dev Team")
         url.set("https://www.zaproxy.org/docs/desktop/addons/websockets/")
         classnames {
-            restricted.set(listOf("org.zaproxy.zap.extension.websocket.fuzz"))
+            restricted.set(
+                listOf(
+                    "org.zaproxy.zap.extension.websocket.fuzz",
+                    "org.zaproxy.zap.extension.websocket.netty"
+                )
+            )
         }
         extensions {
             register("org.zaproxy.zap.extension.websocket.fuzz.ExtensionWebSocketFuzzer") {
@@ -26,6 +31,18 @@ zapAddOn {
                     }
                 }
             }
+            register("org.zaproxy.zap.extension.websocket.netty.ExtensionWebSocketNetty") {
+                classnames {
+                    allowed.set(listOf("org.zaproxy.zap.extension.websocket.netty"))
+                }
+                dependencies {
+                    addOns {
+                        register("network") {
+                            version.set(">= 0.2.0")
+                        }
+                    }
+                }
+            }
         }
     }
 
@@ -37,6 +54,11 @@ zapAddOn {
 
 dependencies {
     compileOnly(parent!!.childProjects.get("fuzz")!!)
+    compileOnly(parent!!.childProjects.get("network")!!)
+    val nettyVersion = "4.1.73.Final"
+    compileOnly("io.netty:netty-codec:$nettyVersion")
 
+    testImplementation(parent!!.childProjects.get("network")!!)
+    testImplementation("io.netty:netty-codec:$nettyVersion")
     testImplementation(project(":testutils"))
 }